@@ -0,0 +1,95 @@
+package com.educatech.config;
+
+import com.educatech.enums.Role;
+import com.educatech.exception.InvalidTokenException;
+import com.educatech.util.AccessTokenCodec;
+import com.educatech.util.AccessTokenCodec.AccessToken;
+import com.educatech.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autentica las peticiones con {@code Authorization: Bearer <token>}: el usuario y el rol salen del
+ * token (ver {@link AccessTokenCodec}), sin sesión ni consulta a la base de datos, y las verificaciones
+ * se reutilizan desde {@link VerifiedTokenCache}. Sin la cabecera la petición sigue como anónima y las
+ * reglas de {@link SecurityConfig} deciden; con un token inválido se responde 401 directamente.
+ * <p>
+ * No es un bean: si lo fuera, Spring Boot también lo registraría como filtro del servlet, fuera de la cadena de seguridad.
+ */
+public class AccessTokenFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final AccessTokenCodec accessTokenCodec;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AuthenticationEntryPoint authenticationEntryPoint;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+    private final Map<Role, List<GrantedAuthority>> authorities = new EnumMap<>(Role.class);
+    private final Counter rejections;
+
+    public AccessTokenFilter(AccessTokenCodec accessTokenCodec, VerifiedTokenCache verifiedTokenCache,
+                             AuthenticationEntryPoint authenticationEntryPoint, MeterRegistry meterRegistry) {
+        this.accessTokenCodec = accessTokenCodec;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.authenticationEntryPoint = authenticationEntryPoint;
+        for (Role role : Role.values()) {
+            authorities.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+        this.rejections = Counter.builder("educatech.auth.tokens").tag("result", "rejected").register(meterRegistry);
+        FunctionCounter.builder("educatech.auth.tokens", verifiedTokenCache, VerifiedTokenCache::hits)
+                .tag("result", "cached").register(meterRegistry);
+        FunctionCounter.builder("educatech.auth.tokens", verifiedTokenCache, VerifiedTokenCache::misses)
+                .tag("result", "verified").register(meterRegistry);
+        Gauge.builder("educatech.auth.token-cache.size", verifiedTokenCache, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AccessToken token;
+        try {
+            Instant now = Instant.now();
+            token = verifiedTokenCache.verify(header.substring(BEARER_PREFIX.length()).trim(), now,
+                    candidate -> accessTokenCodec.verify(candidate, now));
+        } catch (InvalidTokenException ex) {
+            rejections.increment();
+            securityContextHolderStrategy.clearContext();
+            authenticationEntryPoint.commence(request, response, new InsufficientAuthenticationException(ex.getMessage(), ex));
+            return;
+        }
+
+        // el nombre del principal es el ID del usuario (lo usan el rate limiting y las claves de idempotencia)
+        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                String.valueOf(token.userId()), null, authorities.get(token.role())));
+        securityContextHolderStrategy.setContext(context);
+        chain.doFilter(request, response);
+    }
+}
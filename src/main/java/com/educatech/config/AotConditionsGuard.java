@@ -0,0 +1,95 @@
+package com.educatech.config;
+
+import org.springframework.aot.generate.GeneratedMethod;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.javapoet.CodeBlock;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Comprobación de arranque para el empaquetado {@code fast-startup} (Spring AOT, ver pom.xml).
+ * <p>
+ * Spring AOT evalúa las condiciones ({@code @ConditionalOnProperty}, {@code @Profile}) al compilar y
+ * el contexto generado ya no las vuelve a mirar: arrancar con {@code -Dspring.aot.enabled=true} y otras
+ * propiedades o perfiles deja la aplicación con los beans de la compilación sin avisar (p. ej. sin
+ * sharding aunque se active {@code educatech.enrollment-sharding.enabled}). Este procesador guarda en el
+ * código generado el resultado de las condiciones de la aplicación y el arranque falla si no coincide.
+ * <p>
+ * Solo cubre las condiciones de esta aplicación; las de la autoconfiguración de Spring Boot también
+ * quedan fijadas, así que el contexto AOT debe generarse con la misma configuración con la que se
+ * arranca. Se registra en {@code META-INF/spring/aot.factories}.
+ */
+public class AotConditionsGuard implements BeanFactoryInitializationAotProcessor {
+    // propiedades de los @ConditionalOnProperty de la aplicación y el valor con el que se cumplen si no están
+    private static final Map<String, Boolean> CONDITION_PROPERTIES = new LinkedHashMap<>();
+    // perfiles de los @Profile de la aplicación
+    private static final List<String> CONDITION_PROFILES = List.of("loadtest");
+
+    static {
+        CONDITION_PROPERTIES.put("educatech.concurrency-limit.enabled", true);
+        CONDITION_PROPERTIES.put("educatech.enrollment-ingestion.enabled", false);
+        CONDITION_PROPERTIES.put("educatech.enrollment-sharding.enabled", false);
+        CONDITION_PROPERTIES.put("educatech.slow-query.enabled", true);
+    }
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Map<String, String> built = snapshot(beanFactory.getBean(Environment.class));
+        return (generationContext, beanFactoryInitializationCode) -> {
+            CodeBlock.Builder entries = CodeBlock.builder();
+            built.forEach((name, value) -> {
+                if (!entries.isEmpty()) {
+                    entries.add(", ");
+                }
+                entries.add("$T.entry($S, $S)", Map.class, name, value);
+            });
+            GeneratedMethod method = beanFactoryInitializationCode.getMethods().add("checkAotBuildConditions", builder -> builder
+                    .addJavadoc("Comprueba que el arranque usa las condiciones con las que se generó el contexto.")
+                    .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                    .addParameter(ConfigurableEnvironment.class, "environment")
+                    .addStatement("$T.check(environment, $T.ofEntries($L))", AotConditionsGuard.class, Map.class, entries.build()));
+            beanFactoryInitializationCode.addInitializer(method.toMethodReference());
+        };
+    }
+
+    /**
+     * Lo llama el código generado antes de refrescar el contexto.
+     *
+     * @throws IllegalStateException Si alguna condición da otro resultado que al generar el contexto AOT.
+     */
+    public static void check(Environment environment, Map<String, String> built) {
+        Map<String, String> current = snapshot(environment);
+        List<String> mismatches = new ArrayList<>();
+        built.forEach((name, value) -> {
+            if (!Objects.equals(value, current.get(name))) {
+                mismatches.add(name + "=" + current.get(name) + " (built with " + value + ")");
+            }
+        });
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("The AOT-processed context was generated with other conditions: " + String.join(", ", mismatches)
+                    + ". Rebuild it with 'mvn -Pfast-startup package' and the same properties and profiles"
+                    + " (see -Dspring-boot.aot.jvmArguments) or start without -Dspring.aot.enabled=true");
+        }
+    }
+
+    // Metodo auxiliar que resuelve cada condición a true/false con los valores por defecto de las anotaciones
+    private static Map<String, String> snapshot(Environment environment) {
+        Map<String, String> conditions = new LinkedHashMap<>();
+        CONDITION_PROPERTIES.forEach((name, matchIfMissing) -> conditions.put(name,
+                String.valueOf(environment.getProperty(name, Boolean.class, matchIfMissing))));
+        for (String profile : CONDITION_PROFILES) {
+            conditions.put("profile " + profile, String.valueOf(environment.acceptsProfiles(Profiles.of(profile))));
+        }
+        return conditions;
+    }
+}
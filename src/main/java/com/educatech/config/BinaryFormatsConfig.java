@@ -0,0 +1,70 @@
+package com.educatech.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Respuestas en CBOR ({@code application/cbor}) y Smile ({@code application/x-jackson-smile}) además de JSON,
+ * elegidas con la cabecera Accept o con {@code ?format=cbor|smile}. JSON sigue siendo el formato por defecto.
+ * Los mappers binarios se construyen con el mismo {@link Jackson2ObjectMapperBuilder} que el de JSON, así que
+ * serializan igual (fechas, nulos, módulos); solo cambian las opciones del formato: enteros y decimales con
+ * el tamaño mínimo en CBOR, nombres de propiedad y cadenas repetidas compartidos en Smile.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // sustituye los conversores que Spring MVC registra por defecto, manteniendo su posición detrás de JSON
+        MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapperBuilder.getObject()));
+        MappingJackson2SmileHttpMessageConverter smile = new MappingJackson2SmileHttpMessageConverter(smileMapper(objectMapperBuilder.getObject()));
+        boolean cborRegistered = false;
+        boolean smileRegistered = false;
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                converters.set(i, cbor);
+                cborRegistered = true;
+            } else if (converters.get(i) instanceof MappingJackson2SmileHttpMessageConverter) {
+                converters.set(i, smile);
+                smileRegistered = true;
+            }
+        }
+        if (!smileRegistered) {
+            converters.add(smile);
+        }
+        if (!cborRegistered) {
+            converters.add(cbor);
+        }
+    }
+
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.WRITE_MINIMAL_INTS)
+                .enable(CBORGenerator.Feature.WRITE_MINIMAL_DOUBLES)
+                .build();
+        return builder.factory(factory).build();
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return builder.factory(factory).build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.educatech.config;
+
+import com.educatech.service.ICourseService;
+import com.educatech.service.IEnrollmentService;
+import com.educatech.service.ILessonService;
+import com.educatech.service.IUserService;
+import com.educatech.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Límite de concurrencia adaptativo delante de los servicios de inscripciones, cursos, lecciones y
+ * usuarios (ver {@link AdaptiveConcurrencyLimiter}). Cada grupo tiene su propio límite, así que una
+ * degradación en uno no vacía los huecos de los demás. Se aplica por fuera de la transacción: una
+ * petición rechazada no llega a pedir conexión al pool.
+ * <p>
+ * Los valores de {@code educatech.concurrency-limit.*} se pueden sobrescribir por grupo con
+ * {@code educatech.concurrency-limit.<grupo>.*}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "educatech.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+    private static final Map<Class<?>, String> GROUPS = new LinkedHashMap<>();
+
+    static {
+        GROUPS.put(IEnrollmentService.class, "enrollment");
+        GROUPS.put(ICourseService.class, "course");
+        GROUPS.put(ILessonService.class, "lesson");
+        GROUPS.put(IUserService.class, "user");
+    }
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                for (Map.Entry<Class<?>, String> group : GROUPS.entrySet()) {
+                    if (group.getKey().isInstance(bean)) {
+                        ProxyFactory proxyFactory = new ProxyFactory(bean);
+                        proxyFactory.setInterfaces(group.getKey());
+                        proxyFactory.addAdvice(new ConcurrencyLimitInterceptor(
+                                group.getValue(), limiter(environment, group.getValue()), meterRegistry.getObject()));
+                        return proxyFactory.getProxy();
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Metodo auxiliar que crea el limitador de un grupo con sus propiedades o las comunes
+    private static AdaptiveConcurrencyLimiter limiter(Environment environment, String group) {
+        return new AdaptiveConcurrencyLimiter(
+                property(environment, group, "initial-limit", Integer.class, 20),
+                property(environment, group, "min-limit", Integer.class, 4),
+                property(environment, group, "max-limit", Integer.class, 200),
+                property(environment, group, "tolerance", Double.class, 1.5),
+                property(environment, group, "smoothing", Double.class, 0.2),
+                property(environment, group, "write-share", Double.class, 0.7),
+                property(environment, group, "list-read-share", Double.class, 0.9));
+    }
+
+    private static <T> T property(Environment environment, String group, String name, Class<T> type, T defaultValue) {
+        T shared = environment.getProperty("educatech.concurrency-limit." + name, type, defaultValue);
+        return environment.getProperty("educatech.concurrency-limit." + group + "." + name, type, shared);
+    }
+}
@@ -0,0 +1,77 @@
+package com.educatech.config;
+
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.enums.RequestPriority;
+import com.educatech.exception.ServiceUnavailableException;
+import com.educatech.util.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Envuelve las llamadas a un servicio con su {@link AdaptiveConcurrencyLimiter}. La prioridad sale
+ * de la firma del método: {@code get*}/{@code search*} que devuelven un solo elemento son lecturas
+ * puntuales, los que devuelven colecciones, páginas o lotes son listados y el resto son escrituras.
+ * <p>
+ * Todas ocupan hueco, pero solo la latencia de las lecturas puntuales ajusta el límite: la de un listado
+ * o una importación en bloque depende del tamaño de la petición y no de la carga, y mezclada con las
+ * demás haría bajar el límite sin que la base de datos esté saturada.
+ */
+public class ConcurrencyLimitInterceptor implements MethodInterceptor {
+    private final String group;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Map<RequestPriority, Counter> rejections = new EnumMap<>(RequestPriority.class);
+
+    public ConcurrencyLimitInterceptor(String group, AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        this.group = group;
+        this.limiter = limiter;
+        for (RequestPriority priority : RequestPriority.values()) {
+            rejections.put(priority, Counter.builder("educatech.concurrency.rejections")
+                    .tag("group", group).tag("priority", priority.name().toLowerCase()).register(meterRegistry));
+        }
+        Gauge.builder("educatech.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).tag("group", group).register(meterRegistry);
+        Gauge.builder("educatech.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).tag("group", group).register(meterRegistry);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        RequestPriority priority = priorityOf(method);
+        long start = System.nanoTime();
+        int inFlight = limiter.tryAcquire(priority);
+        if (inFlight < 0) {
+            rejections.get(priority).increment();
+            throw new ServiceUnavailableException("Too many concurrent " + group + " requests, try again later", 1);
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            if (priority == RequestPriority.POINT_READ) {
+                limiter.release(System.nanoTime() - start, inFlight);
+            } else {
+                limiter.release();
+            }
+        }
+    }
+
+    static RequestPriority priorityOf(Method method) {
+        String name = method.getName();
+        if (!name.startsWith("get") && !name.startsWith("search")) {
+            return RequestPriority.WRITE;
+        }
+        Class<?> returnType = method.getReturnType();
+        if (Iterable.class.isAssignableFrom(returnType) || BatchLookupDTO.class.isAssignableFrom(returnType)) {
+            return RequestPriority.LIST_READ;
+        }
+        return RequestPriority.POINT_READ;
+    }
+}
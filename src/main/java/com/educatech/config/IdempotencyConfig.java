@@ -0,0 +1,38 @@
+package com.educatech.config;
+
+import com.educatech.dto.response.EnrollmentResponseDTO;
+import com.educatech.dto.response.UserResponseDTO;
+import com.educatech.util.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Almacenes de respuestas para la cabecera Idempotency-Key en la creación de inscripciones y usuarios.
+ */
+@Configuration
+public class IdempotencyConfig {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Value("${educatech.idempotency.ttl:PT10M}")
+    private Duration ttl;
+
+    @Value("${educatech.idempotency.in-flight-wait:PT5S}")
+    private Duration inFlightWait;
+
+    @Value("${educatech.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Bean
+    public IdempotencyStore<EnrollmentResponseDTO> enrollmentIdempotencyStore() {
+        return new IdempotencyStore<>(ttl, inFlightWait, maxEntries);
+    }
+
+    @Bean
+    public IdempotencyStore<UserResponseDTO> userIdempotencyStore() {
+        return new IdempotencyStore<>(ttl, inFlightWait, maxEntries);
+    }
+}
@@ -0,0 +1,75 @@
+package com.educatech.config;
+
+import com.educatech.service.ICourseService;
+import com.educatech.service.IEnrollmentService;
+import com.educatech.service.ILessonService;
+import com.educatech.service.IUserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.NameMatchMethodPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reintentos ante conflictos de bloqueo optimista (ver {@link OptimisticLockRetryInterceptor}) en las
+ * actualizaciones completas de cursos, lecciones, usuarios e inscripciones: son idempotentes, así que
+ * repetirlas sobre la versión actual da el mismo resultado. Las altas y los borrados no se reintentan.
+ * Si la petición trae la versión que leyó el cliente y ya no es la actual, se responde 409 sin reintentar:
+ * el cliente tiene que volver a leer.
+ * <p>
+ * Como el límite de concurrencia, envuelve el proxy transaccional: cada intento abre y confirma su propia
+ * transacción. Los valores de {@code educatech.optimistic-lock.*} se pueden sobrescribir por entidad con
+ * {@code educatech.optimistic-lock.<entidad>.*}.
+ */
+@Configuration
+public class OptimisticLockRetryConfig {
+    private static final Map<Class<?>, RetriedUpdate> UPDATES = new LinkedHashMap<>();
+
+    static {
+        UPDATES.put(IEnrollmentService.class, new RetriedUpdate("enrollment", "updateEnrollment"));
+        UPDATES.put(ICourseService.class, new RetriedUpdate("course", "updateCourse"));
+        UPDATES.put(ILessonService.class, new RetriedUpdate("lesson", "updateLesson"));
+        UPDATES.put(IUserService.class, new RetriedUpdate("user", "updateUser"));
+    }
+
+    @Bean
+    public static BeanPostProcessor optimisticLockRetryPostProcessor(ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                for (Map.Entry<Class<?>, RetriedUpdate> update : UPDATES.entrySet()) {
+                    if (update.getKey().isInstance(bean)) {
+                        String entity = update.getValue().entity();
+                        NameMatchMethodPointcutAdvisor advisor = new NameMatchMethodPointcutAdvisor(new OptimisticLockRetryInterceptor(
+                                entity,
+                                property(environment, entity, "max-attempts", Integer.class, 3),
+                                property(environment, entity, "initial-backoff", Duration.class, Duration.ofMillis(20)),
+                                property(environment, entity, "max-backoff", Duration.class, Duration.ofMillis(200)),
+                                meterRegistry.getObject()));
+                        advisor.setMappedName(update.getValue().method());
+                        ProxyFactory proxyFactory = new ProxyFactory(bean);
+                        proxyFactory.setInterfaces(update.getKey());
+                        proxyFactory.addAdvisor(advisor);
+                        return proxyFactory.getProxy();
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static <T> T property(Environment environment, String entity, String name, Class<T> type, T defaultValue) {
+        T shared = environment.getProperty("educatech.optimistic-lock." + name, type, defaultValue);
+        return environment.getProperty("educatech.optimistic-lock." + entity + "." + name, type, shared);
+    }
+
+    private record RetriedUpdate(String entity, String method) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.educatech.config;
+
+import com.educatech.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reintenta una actualización que falla por bloqueo optimista (otra petición cambió la fila entre la
+ * lectura y el commit). Usuarios, cursos, lecciones e inscripciones tienen un campo {@code @Version}
+ * (columna {@code version}, ver V9__entity_versions): cada UPDATE comprueba la versión leída y la sube,
+ * y si otra escritura ya la cambió no modifica ninguna fila y Hibernate lanza el conflicto. Solo vale para actualizaciones idempotentes: cada intento es una transacción
+ * nueva que vuelve a leer la fila, repite las validaciones y aplica los mismos valores sobre la versión
+ * actual. Entre intentos espera un tiempo aleatorio entre 0 y un máximo que se dobla en cada intento
+ * (full jitter), para que las peticiones que chocaron no vuelvan a chocar a la vez.
+ * <p>
+ * Agotados los intentos lanza {@link ConcurrentUpdateException} (409).
+ */
+public class OptimisticLockRetryInterceptor implements MethodInterceptor {
+    private final String entityLabel;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Counter updates;
+    private final Counter retried;
+    private final Counter exhausted;
+
+    /**
+     * @param entity         Nombre de la entidad en las métricas (course, lesson...).
+     * @param maxAttempts    Intentos en total, incluido el primero.
+     * @param initialBackoff Espera máxima antes del primer reintento.
+     * @param maxBackoff     Tope de la espera máxima entre reintentos.
+     */
+    public OptimisticLockRetryInterceptor(String entity, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+                                          MeterRegistry meterRegistry) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Optimistic lock retry needs at least one attempt");
+        }
+        this.entityLabel = Character.toUpperCase(entity.charAt(0)) + entity.substring(1);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = Math.max(maxBackoff.toNanos(), initialBackoffNanos);
+        // tasa de conflictos = conflicts / updates
+        this.updates = Counter.builder("educatech.optimistic-lock.updates").tag("entity", entity).register(meterRegistry);
+        this.retried = Counter.builder("educatech.optimistic-lock.conflicts")
+                .tag("entity", entity).tag("outcome", "retried").register(meterRegistry);
+        this.exhausted = Counter.builder("educatech.optimistic-lock.conflicts")
+                .tag("entity", entity).tag("outcome", "exhausted").register(meterRegistry);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        // dentro de una transacción ajena no se puede reintentar: el fallo ya la ha marcado para rollback
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        updates.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return ((ProxyMethodInvocation) invocation).invocableClone().proceed();
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    Object id = invocation.getArguments().length > 0 ? invocation.getArguments()[0] : null;
+                    throw new ConcurrentUpdateException(entityLabel + " with id: " + id
+                            + " was modified by another request at the same time, try again", ex);
+                }
+                retried.increment();
+                this.backoff(attempt);
+            }
+        }
+    }
+
+    // Metodo auxiliar que espera un tiempo aleatorio en [0, min(max, inicial * 2^(intento - 1)))
+    private void backoff(int attempt) throws InterruptedException {
+        long ceiling = initialBackoffNanos << Math.min(attempt - 1, 20);
+        if (ceiling <= 0 || ceiling > maxBackoffNanos) {
+            ceiling = maxBackoffNanos;
+        }
+        if (ceiling > 0) {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.educatech.config;
+
+import com.educatech.exception.TooManyRequestsException;
+import com.educatech.util.TokenBucketRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión para los endpoints de escritura: un token bucket por usuario autenticado
+ * y otro por IP. Se ejecuta antes del controlador, así que una petición rechazada no llega a
+ * tocar la base de datos. Solo cuentan los POST de las rutas registradas en {@link WebConfig}, y los
+ * GET de la comprobación de emails, que es pública.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String EMAIL_AVAILABILITY_PATH = "/api/users/email-availability";
+
+    private final boolean enabled;
+    private final TokenBucketRegistry userBuckets;
+    private final TokenBucketRegistry ipBuckets;
+    private final Counter userRejections;
+    private final Counter ipRejections;
+
+    public RateLimitInterceptor(MeterRegistry meterRegistry,
+                                @Value("${educatech.rate-limit.enabled:true}") boolean enabled,
+                                @Value("${educatech.rate-limit.user.capacity:10}") int userCapacity,
+                                @Value("${educatech.rate-limit.user.refill-per-second:5}") double userRefill,
+                                @Value("${educatech.rate-limit.ip.capacity:30}") int ipCapacity,
+                                @Value("${educatech.rate-limit.ip.refill-per-second:15}") double ipRefill,
+                                @Value("${educatech.rate-limit.max-keys:100000}") int maxKeys) {
+        this.enabled = enabled;
+        this.userBuckets = new TokenBucketRegistry(userCapacity, userRefill, maxKeys);
+        this.ipBuckets = new TokenBucketRegistry(ipCapacity, ipRefill, maxKeys);
+        this.userRejections = Counter.builder("educatech.ratelimit.rejections").tag("scope", "user").register(meterRegistry);
+        this.ipRejections = Counter.builder("educatech.ratelimit.rejections").tag("scope", "ip").register(meterRegistry);
+        Gauge.builder("educatech.ratelimit.keys", userBuckets, TokenBucketRegistry::size).tag("scope", "user").register(meterRegistry);
+        Gauge.builder("educatech.ratelimit.keys", ipBuckets, TokenBucketRegistry::size).tag("scope", "ip").register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled || !isLimited(request)) {
+            return true;
+        }
+        long now = System.nanoTime();
+
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            long waitNanos = userBuckets.tryAcquire(principal.getName(), now);
+            if (waitNanos > 0) {
+                userRejections.increment();
+                throw new TooManyRequestsException("Too many requests for user: " + principal.getName(), toRetryAfterSeconds(waitNanos));
+            }
+        }
+
+        long waitNanos = ipBuckets.tryAcquire(request.getRemoteAddr(), now);
+        if (waitNanos > 0) {
+            ipRejections.increment();
+            throw new TooManyRequestsException("Too many requests from address: " + request.getRemoteAddr(), toRetryAfterSeconds(waitNanos));
+        }
+        return true;
+    }
+
+    private static boolean isLimited(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = path.equals(EMAIL_AVAILABILITY_PATH) ? "GET" : "POST";
+        return method.equals(request.getMethod());
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+}
@@ -0,0 +1,164 @@
+package com.educatech.config;
+
+import com.educatech.util.AccessTokenCodec;
+import com.educatech.util.PasswordHasher;
+import com.educatech.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seguridad sin estado: cada petición se autentica con un token firmado ({@code POST /api/auth/token}),
+ * no hay sesión HTTP que guardar ni replicar entre nodos y tampoco CSRF, porque el token no viaja en una cookie.
+ * Los nodos que atienden el mismo tráfico deben compartir {@code educatech.auth.secrets}.
+ */
+@Configuration
+public class SecurityConfig {
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    // id:secreto en Base64; el primero firma y los demás solo verifican (ver AccessTokenCodec)
+    @Value("${educatech.auth.secrets:}")
+    private List<String> secrets;
+
+    // secreto único de las configuraciones anteriores, con id "default"; solo si no hay secrets
+    @Value("${educatech.auth.secret:}")
+    private String secret;
+
+    // periodo de cada clave derivada; key-rotation es el nombre anterior de la propiedad
+    @Value("${educatech.auth.key-scope:${educatech.auth.key-rotation:P1D}}")
+    private Duration keyScope;
+
+    @Value("${educatech.auth.token-ttl:PT15M}")
+    private Duration tokenTtl;
+
+    @Value("${educatech.auth.clock-skew:PT30S}")
+    private Duration clockSkew;
+
+    @Value("${educatech.auth.token-cache.max-entries:100000}")
+    private int tokenCacheMaxEntries;
+
+    @Value("${educatech.auth.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${educatech.user-import.hashing-threads:0}")
+    private int hashingThreads;
+
+    @Bean
+    public AccessTokenCodec accessTokenCodec() {
+        List<AccessTokenCodec.Secret> keys = new ArrayList<>();
+        for (String entry : secrets) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalStateException("educatech.auth.secrets entries must be id:base64-secret");
+            }
+            keys.add(new AccessTokenCodec.Secret(entry.substring(0, separator).trim(),
+                    Base64.getDecoder().decode(entry.substring(separator + 1).trim())));
+        }
+        if (keys.isEmpty() && secret != null && !secret.isBlank()) {
+            keys.add(new AccessTokenCodec.Secret("default", Base64.getDecoder().decode(secret.trim())));
+        }
+        if (keys.isEmpty()) {
+            // sin secreto configurado los tokens solo valen en este nodo y hasta que se reinicie
+            log.warn("educatech.auth.secrets is not set: using a random secret, tokens will not survive a restart or work across nodes");
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            keys.add(new AccessTokenCodec.Secret("random", key));
+        }
+        return new AccessTokenCodec(keys, keyScope, tokenTtl, clockSkew);
+    }
+
+    /**
+     * Contraseñas con BCrypt, guardadas con el prefijo del algoritmo ({@code {bcrypt}$2a$...}) para poder
+     * cambiarlo más adelante. Las filas antiguas sin prefijo (en claro) se siguen aceptando y
+     * {@link PasswordEncoder#upgradeEncoding} las marca para cifrarlas en el siguiente inicio de sesión.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new LegacyPlainTextPasswordEncoder());
+        return encoder;
+    }
+
+    // Pool de cifrado de las altas en bloque (UserImportService y BulkImportService)
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHasher passwordHasher(PasswordEncoder passwordEncoder) {
+        return new PasswordHasher(passwordEncoder, hashingThreads);
+    }
+
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache() {
+        return new VerifiedTokenCache(tokenCacheMaxEntries);
+    }
+
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AccessTokenCodec accessTokenCodec,
+                                                   VerifiedTokenCache verifiedTokenCache, MeterRegistry meterRegistry) throws Exception {
+        AuthenticationEntryPoint entryPoint = (request, response, ex) -> {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
+        };
+        return http
+                .csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(authorize -> authorize
+                        .requestMatchers(HttpMethod.POST, "/api/auth/token", "/api/users").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/users/email-availability").permitAll()
+                        .requestMatchers("/actuator/health/**", "/error").permitAll()
+                        .requestMatchers("/api/bulk-imports/**", "/api/users/import", "/api/enrollments/partitions/**", "/actuator/**").hasRole("ADMIN")
+                        // recorren tablas enteras o leen y mueven datos de todos los usuarios
+                        .requestMatchers("/api/changes", "/api/enrollments/archive").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/enrollments/timeseries/backfill", "/api/courses/recommendations/rebuild").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/lessons/course/*/import").hasAnyRole("TEACHER", "ADMIN")
+                        .anyRequest().authenticated())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(entryPoint))
+                .addFilterBefore(new AccessTokenFilter(accessTokenCodec, verifiedTokenCache, entryPoint, meterRegistry),
+                        AnonymousAuthenticationFilter.class)
+                .build();
+    }
+
+    // Contraseñas sin prefijo de algoritmo: se guardaban en claro; solo sirve para comprobarlas (en tiempo constante)
+    private static class LegacyPlainTextPasswordEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Plain text passwords are only accepted for existing rows");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword != null && MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.educatech.config;
+
+import com.educatech.dto.response.CourseResponseDTO;
+import com.educatech.dto.response.LessonResponseDTO;
+import com.educatech.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Agrupación de lecturas concurrentes del mismo curso o de las lecciones del mismo curso. Las cargas
+ * comparten una única plantilla de transacción de solo lectura.
+ */
+@Configuration
+public class SingleFlightConfig {
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${educatech.single-flight.timeout:PT5S}")
+    private Duration timeout;
+
+    public SingleFlightConfig(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Bean
+    public SingleFlight<Long, CourseResponseDTO> courseByIdSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("course-by-id", timeout, readOnlyTransaction, meterRegistry);
+    }
+
+    @Bean
+    public SingleFlight<Long, List<LessonResponseDTO>> lessonsByCourseSingleFlight(MeterRegistry meterRegistry) {
+        return new SingleFlight<>("lessons-by-course", timeout, readOnlyTransaction, meterRegistry);
+    }
+}
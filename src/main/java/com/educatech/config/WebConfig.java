@@ -0,0 +1,21 @@
+package com.educatech.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // solo los endpoints de creación de inscripciones y usuarios, el login y la comprobación de emails (públicos);
+        // las rutas también tienen GET (listados) que no cuentan: el interceptor filtra por método
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/api/enrollments", "/api/enrollments/ingest", "/api/users", "/api/auth/token",
+                        "/api/users/email-availability");
+    }
+}
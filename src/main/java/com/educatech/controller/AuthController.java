@@ -0,0 +1,23 @@
+package com.educatech.controller;
+
+import com.educatech.dto.request.TokenRequestDTO;
+import com.educatech.dto.response.TokenResponseDTO;
+import com.educatech.service.IAuthService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+public class AuthController {
+    private final IAuthService authService;
+
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponseDTO> issueToken(@RequestBody TokenRequestDTO tokenRequest) {
+        return ResponseEntity.ok(authService.issueToken(tokenRequest));
+    }
+}
@@ -0,0 +1,47 @@
+package com.educatech.controller;
+
+import com.educatech.dto.response.BulkImportReportDTO;
+import com.educatech.enums.BulkImportEntity;
+import com.educatech.service.IBulkImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/bulk-imports")
+@RequiredArgsConstructor
+public class BulkImportController {
+    private final IBulkImportService bulkImportService;
+
+    // el cuerpo es el CSV tal cual (text/csv) y se lee en streaming, sin cargarlo en memoria
+    @PostMapping("/{entity}")
+    public ResponseEntity<BulkImportReportDTO> importCsv(@PathVariable String entity,
+                                                         @RequestParam String source,
+                                                         InputStream csv) {
+        BulkImportEntity target;
+        try {
+            target = BulkImportEntity.valueOf(entity.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown bulk import entity: " + entity);
+        }
+        return ResponseEntity.ok(bulkImportService.importCsv(target, source, csv));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<BulkImportReportDTO>> getImports() {
+        return ResponseEntity.ok(bulkImportService.getImports());
+    }
+
+    @GetMapping("/{idImport}")
+    public ResponseEntity<BulkImportReportDTO> getImport(@PathVariable String idImport) {
+        return ResponseEntity.ok(bulkImportService.getImport(idImport));
+    }
+}
@@ -0,0 +1,30 @@
+package com.educatech.controller;
+
+import com.educatech.dto.response.ChangeFeedPageDTO;
+import com.educatech.service.IOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+    private static final long MAX_WAIT_MILLIS = 30_000;
+
+    private final IOutboxService outboxService;
+
+    @GetMapping
+    public ResponseEntity<ChangeFeedPageDTO> getChanges(@RequestParam String consumer,
+                                                        @RequestParam(defaultValue = "0") Long after,
+                                                        @RequestParam(defaultValue = "500") int limit,
+                                                        @RequestParam(defaultValue = "0") long waitMs,
+                                                        Principal principal) {
+        return ResponseEntity.ok(outboxService.getChanges(principal.getName(), consumer, after, limit, Math.min(waitMs, MAX_WAIT_MILLIS)));
+    }
+}
@@ -1,4 +1,75 @@
 package com.educatech.controller;
 
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.CourseRecommendationDTO;
+import com.educatech.dto.response.CourseResponseDTO;
+import com.educatech.dto.response.CourseSuggestionDTO;
+import com.educatech.dto.response.RecommendationGraphStatsDTO;
+import com.educatech.service.ICourseAutocompleteService;
+import com.educatech.service.ICourseRecommendationService;
+import com.educatech.service.ICourseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/courses")
+@RequiredArgsConstructor
 public class CourseController {
+    private final ICourseService courseService;
+    private final ICourseRecommendationService courseRecommendationService;
+    private final ICourseAutocompleteService courseAutocompleteService;
+
+    @GetMapping
+    public ResponseEntity<?> getAllCourses(Pageable pageable, @RequestParam(required = false) Set<String> fields) {
+        // con fields= solo se consultan y devuelven esas columnas
+        return fields == null
+                ? ResponseEntity.ok(courseService.getAllCourses(pageable))
+                : ResponseEntity.ok(courseService.getAllCourses(pageable, fields));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<BatchLookupDTO<CourseResponseDTO>> getCoursesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(courseService.getCoursesByIds(ids));
+    }
+
+    // el buscador la llama en cada tecla: se responde desde memoria
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CourseSuggestionDTO>> autocomplete(@RequestParam String prefix,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(courseAutocompleteService.suggest(prefix, limit));
+    }
+
+    @GetMapping("/{idCourse}")
+    public ResponseEntity<?> getCourseById(@PathVariable Long idCourse, @RequestParam(required = false) Set<String> fields) {
+        return fields == null
+                ? ResponseEntity.ok(courseService.getCourseById(idCourse))
+                : ResponseEntity.ok(courseService.getCourseById(idCourse, fields));
+    }
+
+    @GetMapping("/{idCourse}/recommendations")
+    public ResponseEntity<List<CourseRecommendationDTO>> getRecommendations(@PathVariable Long idCourse,
+                                                                            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(courseRecommendationService.getSimilarCourses(idCourse, limit));
+    }
+
+    @GetMapping("/recommendations/stats")
+    public ResponseEntity<RecommendationGraphStatsDTO> getRecommendationStats() {
+        RecommendationGraphStatsDTO stats = courseRecommendationService.getStats();
+        return stats == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(stats);
+    }
+
+    @PostMapping("/recommendations/rebuild")
+    public ResponseEntity<RecommendationGraphStatsDTO> rebuildRecommendations() {
+        return ResponseEntity.ok(courseRecommendationService.rebuild());
+    }
 }
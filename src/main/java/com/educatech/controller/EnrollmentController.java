@@ -1,4 +1,92 @@
 package com.educatech.controller;
 
+import com.educatech.dto.request.EnrollmentRequestDTO;
+import com.educatech.dto.response.EnrollmentResponseDTO;
+import com.educatech.dto.response.EnrollmentTimeSeriesDTO;
+import com.educatech.dto.response.PartitionMaintenanceDTO;
+import com.educatech.enums.Granularity;
+import com.educatech.service.IEnrollmentPartitionService;
+import com.educatech.service.IEnrollmentRollupService;
+import com.educatech.service.IEnrollmentService;
+import com.educatech.util.IdempotencyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static com.educatech.config.IdempotencyConfig.IDEMPOTENCY_KEY_HEADER;
+import static com.educatech.config.IdempotencyConfig.IDEMPOTENT_REPLAYED_HEADER;
+
+@RestController
+@RequestMapping("/api/enrollments")
+@RequiredArgsConstructor
 public class EnrollmentController {
+    private final IEnrollmentService enrollmentService;
+    private final IdempotencyStore<EnrollmentResponseDTO> enrollmentIdempotencyStore;
+    private final IEnrollmentRollupService enrollmentRollupService;
+    private final IEnrollmentPartitionService enrollmentPartitionService;
+
+    @PostMapping
+    public ResponseEntity<EnrollmentResponseDTO> saveEnrollment(@RequestBody EnrollmentRequestDTO enrollment,
+                                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                                Principal principal) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(enrollmentService.saveEnrollment(enrollment));
+        }
+
+        // un reintento con la misma clave devuelve la respuesta original sin volver a la base de datos
+        String key = "enrollments:" + (principal == null ? "" : principal.getName()) + ":" + idempotencyKey;
+        String fingerprint = IdempotencyStore.fingerprint(enrollment.getUserId(), enrollment.getCourseId());
+        IdempotencyStore.Result<EnrollmentResponseDTO> result =
+                enrollmentIdempotencyStore.execute(key, fingerprint, () -> enrollmentService.saveEnrollment(enrollment));
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.value());
+    }
+
+    @GetMapping("/course/{idCourse}")
+    public ResponseEntity<List<EnrollmentResponseDTO>> getEnrollmentsByCourse(@PathVariable Long idCourse) {
+        return ResponseEntity.ok(enrollmentService.getEnrollmentsByCourse(idCourse));
+    }
+
+    @GetMapping("/course/{idCourse}/timeseries")
+    public ResponseEntity<EnrollmentTimeSeriesDTO> getEnrollmentTimeSeries(@PathVariable Long idCourse,
+                                                                           @RequestParam(defaultValue = "DAY") Granularity granularity,
+                                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                           @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(enrollmentRollupService.getSeries(idCourse, granularity, from, to));
+    }
+
+    @PostMapping("/timeseries/backfill")
+    public ResponseEntity<Map<String, Long>> backfillEnrollmentTimeSeries() {
+        return ResponseEntity.ok(Map.of("scanned", enrollmentRollupService.backfill()));
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<List<EnrollmentResponseDTO>> getArchivedEnrollments(@RequestParam(required = false) Long studentId,
+                                                                              @RequestParam(required = false) Long courseId,
+                                                                              @RequestParam(required = false) YearMonth from,
+                                                                              @RequestParam(required = false) YearMonth to) {
+        return ResponseEntity.ok(enrollmentPartitionService.getArchivedEnrollments(studentId, courseId, from, to));
+    }
+
+    @PostMapping("/partitions/maintenance")
+    public ResponseEntity<PartitionMaintenanceDTO> maintainPartitions() {
+        return ResponseEntity.ok(enrollmentPartitionService.maintain());
+    }
 }
@@ -0,0 +1,35 @@
+package com.educatech.controller;
+
+import com.educatech.dto.request.EnrollmentRequestDTO;
+import com.educatech.dto.response.EnrollmentIngestionStatusDTO;
+import com.educatech.service.IEnrollmentIngestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/enrollments/ingest")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "educatech.enrollment-ingestion.enabled", havingValue = "true")
+public class EnrollmentIngestionController {
+    private final IEnrollmentIngestionService enrollmentIngestionService;
+
+    @PostMapping
+    public ResponseEntity<EnrollmentIngestionStatusDTO> acceptEnrollment(@RequestBody EnrollmentRequestDTO enrollment) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(enrollmentIngestionService.acceptEnrollment(enrollment));
+    }
+
+    @GetMapping("/{requestId}")
+    public ResponseEntity<EnrollmentIngestionStatusDTO> getStatus(@PathVariable UUID requestId) {
+        return ResponseEntity.ok(enrollmentIngestionService.getStatus(requestId));
+    }
+}
@@ -1,4 +1,60 @@
 package com.educatech.controller;
 
+import com.educatech.dto.request.LessonRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.LessonImportResultDTO;
+import com.educatech.dto.response.LessonResponseDTO;
+import com.educatech.service.ILessonService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/lessons")
+@RequiredArgsConstructor
 public class LessonControler {
+    private final ILessonService lessonService;
+
+    @GetMapping
+    public ResponseEntity<?> getAllLessons(Pageable pageable, @RequestParam(required = false) Set<String> fields) {
+        // con fields= solo se consultan y devuelven esas columnas
+        return fields == null
+                ? ResponseEntity.ok(lessonService.getAllLessons(pageable))
+                : ResponseEntity.ok(lessonService.getAllLessons(pageable, fields));
+    }
+
+    @GetMapping("/{idLesson}")
+    public ResponseEntity<?> getLessonById(@PathVariable Long idLesson, @RequestParam(required = false) Set<String> fields) {
+        return fields == null
+                ? ResponseEntity.ok(lessonService.getLessonById(idLesson))
+                : ResponseEntity.ok(lessonService.getLessonById(idLesson, fields));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<BatchLookupDTO<LessonResponseDTO>> getLessonsByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(lessonService.getLessonsByIds(ids));
+    }
+
+    @GetMapping("/course/{idCourse}")
+    public ResponseEntity<?> getLessonsByCourse(@PathVariable Long idCourse, @RequestParam(required = false) Set<String> fields) {
+        return fields == null
+                ? ResponseEntity.ok(lessonService.getLessonsByCourse(idCourse))
+                : ResponseEntity.ok(lessonService.getLessonsByCourse(idCourse, fields));
+    }
+
+    @PostMapping("/course/{idCourse}/import")
+    public ResponseEntity<List<LessonImportResultDTO>> importLessons(@PathVariable Long idCourse,
+                                                                     @RequestBody List<LessonRequestDTO> lessons) {
+        return ResponseEntity.ok(lessonService.importLessons(idCourse, lessons));
+    }
 }
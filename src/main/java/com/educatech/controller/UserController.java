@@ -1,4 +1,119 @@
 package com.educatech.controller;
 
+import com.educatech.dto.request.UserRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.EmailAvailabilityDTO;
+import com.educatech.dto.response.UserImportResultDTO;
+import com.educatech.dto.response.UserResponseDTO;
+import com.educatech.enums.UserImportFormat;
+import com.educatech.service.IUserImportService;
+import com.educatech.service.IUserService;
+import com.educatech.util.IdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.Principal;
+import java.util.List;
+import java.util.Set;
+
+import static com.educatech.config.IdempotencyConfig.IDEMPOTENCY_KEY_HEADER;
+import static com.educatech.config.IdempotencyConfig.IDEMPOTENT_REPLAYED_HEADER;
+
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
 public class UserController {
+    private final IUserService userService;
+    private final IUserImportService userImportService;
+    private final IdempotencyStore<UserResponseDTO> userIdempotencyStore;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    public ResponseEntity<?> getAllUsers(Pageable pageable, @RequestParam(required = false) Set<String> fields) {
+        // con fields= solo se consultan y devuelven esas columnas
+        return fields == null
+                ? ResponseEntity.ok(userService.getAllUsers(pageable))
+                : ResponseEntity.ok(userService.getAllUsers(pageable, fields));
+    }
+
+    @GetMapping("/{idUser}")
+    public ResponseEntity<?> getUserById(@PathVariable Long idUser, @RequestParam(required = false) Set<String> fields) {
+        return fields == null
+                ? ResponseEntity.ok(userService.getUserById(idUser))
+                : ResponseEntity.ok(userService.getUserById(idUser, fields));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<BatchLookupDTO<UserResponseDTO>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
+    // para el formulario de registro (público); casi siempre se responde sin consultar la base de datos
+    @GetMapping("/email-availability")
+    public ResponseEntity<EmailAvailabilityDTO> getEmailAvailability(@RequestParam String email) {
+        return ResponseEntity.ok(userService.getEmailAvailability(email));
+    }
+
+    @PostMapping
+    public ResponseEntity<UserResponseDTO> saveUser(@RequestBody UserRequestDTO user,
+                                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                    Principal principal) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(userService.saveUser(user));
+        }
+
+        // un reintento con la misma clave devuelve la respuesta original sin volver a la base de datos
+        String key = "users:" + (principal == null ? "" : principal.getName()) + ":" + idempotencyKey;
+        String fingerprint = IdempotencyStore.fingerprint(user.getEmail(), user.getFirstname(), user.getLastName(), user.getPassword());
+        IdempotencyStore.Result<UserResponseDTO> result =
+                userIdempotencyStore.execute(key, fingerprint, () -> userService.saveUser(user));
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.value());
+    }
+
+    // el fichero (text/csv con cabecera o application/x-ndjson) se lee en streaming y se responde una línea
+    // NDJSON por fila a medida que se confirma cada bloque
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public void importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                            InputStream body,
+                            HttpServletResponse response) throws IOException {
+        UserImportFormat format = MediaType.APPLICATION_NDJSON.includes(MediaType.parseMediaType(contentType))
+                ? UserImportFormat.NDJSON
+                : UserImportFormat.CSV;
+        userImportService.importUsers(body, format, results -> {
+            try {
+                // se fija al primer bloque: un error antes de empezar se responde como los demás, en JSON
+                response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                OutputStream out = response.getOutputStream();
+                for (UserImportResultDTO result : results) {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException ex) {
+                // el cliente se ha desconectado: se detiene la carga, los bloques confirmados se quedan
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
 }
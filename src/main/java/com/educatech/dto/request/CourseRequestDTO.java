@@ -21,4 +21,7 @@ public class CourseRequestDTO {
     @NotNull(message = "Teacher ID cannot be null")
     @Positive
     private final Long teacherId;
+
+    // versión leída por el cliente (opcional); si no es la actual, la actualización se rechaza con 409
+    private final Long version;
 }
@@ -15,4 +15,7 @@ public class EnrollmentRequestDTO {
     @NotNull(message = "Course ID cannot be null")
     @Positive
     private final Long courseId;
+
+    // versión leída por el cliente (opcional); si no es la actual, la actualización se rechaza con 409
+    private final Long version;
 }
@@ -19,4 +19,7 @@ public class LessonRequestDTO {
 
     @NotNull(message = "Course ID cannot be null")
     private final Long courseId;
+
+    // versión leída por el cliente (opcional); si no es la actual, la actualización se rechaza con 409
+    private final Long version;
 }
@@ -0,0 +1,11 @@
+package com.educatech.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class TokenRequestDTO {
+    private final String email;
+    private final String password;
+}
@@ -25,4 +25,7 @@ public class UserRequestDTO {
     @NotBlank(message = "password cannot be blank")
     @Size(min = 8, max = 60, message = "Password must be between 8 and 60 characters long")
     private final String password;
+
+    // versión leída por el cliente (opcional); si no es la actual, la actualización se rechaza con 409
+    private final Long version;
 }
@@ -0,0 +1,14 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class BatchLookupDTO<T> {
+    // un elemento por ID pedido (sin repetidos), en el mismo orden; null si no existe
+    private final List<T> items;
+    private final List<Long> missingIds;
+}
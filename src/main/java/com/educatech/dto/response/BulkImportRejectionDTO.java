@@ -0,0 +1,12 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class BulkImportRejectionDTO {
+    private final long row;
+    private final String sourceId;
+    private final String reason;
+}
@@ -0,0 +1,28 @@
+package com.educatech.dto.response;
+
+import com.educatech.enums.BulkImportEntity;
+import com.educatech.enums.BulkImportPhase;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+@Getter
+public class BulkImportReportDTO {
+    private final String id;
+    private final BulkImportEntity entity;
+    private final String source;
+    private final BulkImportPhase phase;
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final Map<String, Long> rejectionsByReason;
+    // las primeras filas rechazadas, para localizar el problema en el fichero
+    private final List<BulkImportRejectionDTO> sampleRejections;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final String error;
+}
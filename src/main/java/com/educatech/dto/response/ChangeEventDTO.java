@@ -0,0 +1,19 @@
+package com.educatech.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class ChangeEventDTO {
+    private final Long sequence;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final String eventType;
+    @JsonRawValue
+    private final String payload;
+    private final LocalDateTime createdAt;
+}
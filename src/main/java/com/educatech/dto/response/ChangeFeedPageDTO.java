@@ -0,0 +1,13 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+public class ChangeFeedPageDTO {
+    private final List<ChangeEventDTO> events;
+    private final Long nextOffset;
+}
@@ -0,0 +1,13 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CourseRecommendationDTO {
+    private final Long courseId;
+    // similitud coseno entre los conjuntos de estudiantes de ambos cursos
+    private final double score;
+    private final int sharedStudents;
+}
@@ -10,4 +10,5 @@ public class CourseResponseDTO {
     private final String title;
     private final String description;
     private final Long teacherId;
+    private final Long version;
 }
@@ -0,0 +1,13 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class CourseSuggestionDTO {
+    private final Long courseId;
+    private final String title;
+    // inscripciones en la última reconstrucción del índice (orden de las sugerencias)
+    private final long enrollments;
+}
@@ -0,0 +1,11 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class EmailAvailabilityDTO {
+    private final String email;
+    private final boolean available;
+}
@@ -0,0 +1,18 @@
+package com.educatech.dto.response;
+
+import com.educatech.enums.IngestionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@AllArgsConstructor
+@Getter
+public class EnrollmentIngestionStatusDTO {
+    private final UUID requestId;
+    private final IngestionStatus status;
+    private final Long userId;
+    private final Long courseId;
+    private final Long enrollmentId;
+    private final String message;
+}
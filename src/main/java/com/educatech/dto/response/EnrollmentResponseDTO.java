@@ -12,4 +12,5 @@ public class EnrollmentResponseDTO {
     private final Long userId;
     private final Long courseId;
     private final LocalDateTime enrollmentDate;
+    private final Long version;
 }
@@ -0,0 +1,17 @@
+package com.educatech.dto.response;
+
+import com.educatech.enums.Granularity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class EnrollmentTimeSeriesDTO {
+    private final Long courseId;
+    private final Granularity granularity;
+    private final LocalDateTime from;
+    // un valor por bucket consecutivo a partir de 'from'
+    private final int[] counts;
+}
@@ -0,0 +1,15 @@
+package com.educatech.dto.response;
+
+import com.educatech.enums.LessonImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class LessonImportResultDTO {
+    private final int position;
+    private final String title;
+    private final LessonImportStatus status;
+    private final String message;
+    private final LessonResponseDTO lesson;
+}
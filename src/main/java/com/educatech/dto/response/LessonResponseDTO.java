@@ -6,7 +6,9 @@ import lombok.Getter;
 @AllArgsConstructor
 @Getter
 public class LessonResponseDTO {
+    private final Long id;
     private final String title;
     private final String content;
     private final Long courseId;
+    private final Long version;
 }
@@ -0,0 +1,13 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class PartitionMaintenanceDTO {
+    // particiones mensuales creadas (las próximas y las de fechas que estaban en la partición por defecto)
+    private final int createdPartitions;
+    private final int archivedPartitions;
+    private final long archivedEnrollments;
+}
@@ -0,0 +1,17 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Getter
+public class RecommendationGraphStatsDTO {
+    private final int courses;
+    private final int students;
+    private final int enrollments;
+    private final long loadMillis;
+    private final long computeMillis;
+    private final LocalDateTime builtAt;
+}
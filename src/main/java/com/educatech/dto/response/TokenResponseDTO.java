@@ -0,0 +1,14 @@
+package com.educatech.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class TokenResponseDTO {
+    private final String accessToken;
+    private final String tokenType;
+    private final long expiresIn;
+    private final Long userId;
+    private final String role;
+}
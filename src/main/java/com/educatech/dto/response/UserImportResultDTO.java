@@ -0,0 +1,15 @@
+package com.educatech.dto.response;
+
+import com.educatech.enums.UserImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+public class UserImportResultDTO {
+    private final long row;
+    private final String email;
+    private final UserImportStatus status;
+    private final String message;
+    private final UserResponseDTO user;
+}
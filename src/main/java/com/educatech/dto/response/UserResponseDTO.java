@@ -11,4 +11,5 @@ public class UserResponseDTO {
     private final String lastName;
     private final String email;
     private final String role;
+    private final Long version;
 }
@@ -1,5 +1,6 @@
 package com.educatech.entity;
 
+import com.educatech.entity.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,11 +21,17 @@ public class Course {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String title;
 
-    @Lob
-    @Column(nullable = false, length = 10000)
+    // comprimida y cargada solo al leerla (requiere el enhancement de Hibernate en el build)
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false)
     private String description;
 
     @ManyToOne(fetch = FetchType.LAZY)
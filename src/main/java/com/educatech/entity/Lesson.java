@@ -1,5 +1,6 @@
 package com.educatech.entity;
 
+import com.educatech.entity.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,12 +15,17 @@ public class Lesson {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String title;
 
-    @Lob
-    @Column(nullable = false, length = 2000)
-    private String content; // video o texto markdown
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false)
+    private String content; // video o texto markdown, comprimido y cargado solo al leerlo
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false)
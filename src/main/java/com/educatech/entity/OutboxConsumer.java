@@ -0,0 +1,28 @@
+package com.educatech.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "outbox_consumers")
+public class OutboxConsumer {
+    @Id
+    @Column(name = "consumer_id", length = 100)
+    private String consumerId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "owner_id", length = 100)
+    private String ownerId;
+}
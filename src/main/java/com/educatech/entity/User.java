@@ -19,17 +19,26 @@ public class User {
     @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "first_name", nullable = false, length = 100)
     private String firstName;
 
     @Column(name = "last_name", nullable = false, length = 100)
     private String lastName;
 
-    @Column(name = "email", nullable = false, unique = true)
+    @Column(name = "email", nullable = false)
     private String email;
 
-    @Column(name = "password", nullable = false, length = 60)
-    private String password; // se debe guardar encriptada
+    // lower(trim(email)), calculado por la base de datos; el índice único de emails va sobre esta columna
+    // (en una entidad recién insertada vale null hasta que se vuelve a leer)
+    @Column(name = "email_normalized", insertable = false, updatable = false)
+    private String emailNormalized;
+
+    @Column(name = "password", nullable = false, length = 100)
+    private String password; // hash con prefijo del algoritmo ({bcrypt}...); las filas antiguas en claro se cifran al iniciar sesión
 
     @Enumerated(EnumType.STRING)
     @Column(name = "role", nullable = false)
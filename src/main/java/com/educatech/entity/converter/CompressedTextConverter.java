@@ -0,0 +1,114 @@
+package com.educatech.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Guarda textos largos comprimidos en una columna binaria.
+ * El primer byte indica el códec, para poder añadir otros sin reescribir los datos existentes:
+ * <ul>
+ *     <li>{@code 0}: UTF-8 sin comprimir (textos cortos o que no se reducen al comprimir).</li>
+ *     <li>{@code 1}: deflate (zlib) precedido de la longitud original en UTF-8 (4 bytes).</li>
+ * </ul>
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+    public static final byte CODEC_RAW = 0;
+    public static final byte CODEC_DEFLATE = 1;
+    // por debajo de este tamaño la cabecera de zlib se come la ganancia
+    private static final int MIN_COMPRESSIBLE_BYTES = 128;
+    private static final int DEFLATE_HEADER_BYTES = 1 + Integer.BYTES;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return text == null ? null : encode(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        return data == null ? null : decode(data);
+    }
+
+    public static byte[] encode(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_COMPRESSIBLE_BYTES) {
+            byte[] compressed = deflate(utf8);
+            if (compressed.length + DEFLATE_HEADER_BYTES < utf8.length + 1) {
+                return ByteBuffer.allocate(DEFLATE_HEADER_BYTES + compressed.length)
+                        .put(CODEC_DEFLATE)
+                        .putInt(utf8.length)
+                        .put(compressed)
+                        .array();
+            }
+        }
+        byte[] raw = new byte[utf8.length + 1];
+        raw[0] = CODEC_RAW;
+        System.arraycopy(utf8, 0, raw, 1, utf8.length);
+        return raw;
+    }
+
+    public static String decode(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalStateException("Compressed text column is empty");
+        }
+        return switch (data[0]) {
+            case CODEC_RAW -> new String(data, 1, data.length - 1, StandardCharsets.UTF_8);
+            case CODEC_DEFLATE -> new String(inflate(data), StandardCharsets.UTF_8);
+            default -> throw new IllegalStateException("Unknown text codec: " + data[0]);
+        };
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2 + 16);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) {
+        if (data.length < DEFLATE_HEADER_BYTES) {
+            throw new IllegalStateException("Corrupted compressed text: truncated header");
+        }
+        int length = ByteBuffer.wrap(data, 1, Integer.BYTES).getInt();
+        if (length < 0) {
+            throw new IllegalStateException("Corrupted compressed text: negative length " + length);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, DEFLATE_HEADER_BYTES, data.length - DEFLATE_HEADER_BYTES);
+            byte[] output = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(output, read, length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IllegalStateException("Corrupted compressed text: expected " + length + " bytes, got " + read);
+            }
+            return output;
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupted compressed text", ex);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.educatech.enums;
+
+public enum BulkImportEntity {
+    USERS,
+    COURSES,
+    LESSONS,
+    ENROLLMENTS
+}
@@ -0,0 +1,9 @@
+package com.educatech.enums;
+
+public enum BulkImportPhase {
+    LOADING,
+    VALIDATING,
+    MERGING,
+    COMPLETED,
+    FAILED
+}
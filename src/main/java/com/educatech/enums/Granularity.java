@@ -0,0 +1,6 @@
+package com.educatech.enums;
+
+public enum Granularity {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,7 @@
+package com.educatech.enums;
+
+public enum IngestionStatus {
+    ACCEPTED,
+    PERSISTED,
+    REJECTED
+}
@@ -0,0 +1,7 @@
+package com.educatech.enums;
+
+public enum LessonImportStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID
+}
@@ -0,0 +1,7 @@
+package com.educatech.enums;
+
+public enum RequestPriority {
+    WRITE,
+    LIST_READ,
+    POINT_READ
+}
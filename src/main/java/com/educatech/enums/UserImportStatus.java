@@ -0,0 +1,8 @@
+package com.educatech.enums;
+
+public enum UserImportStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    ABORTED
+}
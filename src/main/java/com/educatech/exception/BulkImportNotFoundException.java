@@ -0,0 +1,7 @@
+package com.educatech.exception;
+
+public class BulkImportNotFoundException extends RuntimeException {
+    public BulkImportNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.educatech.exception;
+
+public class ChangeConsumerAccessDeniedException extends RuntimeException {
+    public ChangeConsumerAccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,8 @@ package com.educatech.exception.handler;
 import com.educatech.dto.response.ErrorResponseDTO;
 import com.educatech.exception.*;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -27,6 +29,7 @@ public class GlobalExceptionHandler {
             UserNotFoundException.class,
             LessonNotFoundException.class,
             EnrollmentNotFoundException.class,
+            BulkImportNotFoundException.class,
     })
     public ResponseEntity<ErrorResponseDTO> handleResourceNotFoundException(RuntimeException ex, HttpServletRequest request) {
         ErrorResponseDTO errorResponse = new ErrorResponseDTO(
@@ -39,6 +42,165 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Maneja los parámetros {@code fields} con campos que no existen o vacíos.
+     * Devuelve una respuesta HTTP 400 Bad Request.
+     *
+     * @param ex      La excepción con los campos admitidos.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity que contiene el DTO de error y el código de estado 400.
+     */
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidFieldsException(InvalidFieldsException ex, HttpServletRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja las credenciales o tokens de acceso no válidos.
+     * Devuelve una respuesta HTTP 401 Unauthorized con la cabecera WWW-Authenticate.
+     *
+     * @param ex      La excepción de autenticación lanzada.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity con el DTO de error, la cabecera WWW-Authenticate y el código de estado 401.
+     */
+    @ExceptionHandler({
+            InvalidCredentialsException.class,
+            InvalidTokenException.class,
+    })
+    public ResponseEntity<ErrorResponseDTO> handleUnauthorizedException(RuntimeException ex, HttpServletRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.UNAUTHORIZED.value(),
+                "Unauthorized",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja los accesos a recursos de otro usuario (p. ej. el offset de un consumidor del change feed).
+     * Devuelve una respuesta HTTP 403 Forbidden.
+     *
+     * @param ex      La excepción de acceso denegado lanzada.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity que contiene el DTO de error y el código de estado 403.
+     */
+    @ExceptionHandler(ChangeConsumerAccessDeniedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleChangeConsumerAccessDeniedException(ChangeConsumerAccessDeniedException ex, HttpServletRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.FORBIDDEN.value(),
+                "Forbidden",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * Maneja los conflictos de la cabecera Idempotency-Key: la clave se reutilizó con otro payload
+     * o la petición original todavía está en curso.
+     * Devuelve una respuesta HTTP 409 Conflict.
+     *
+     * @param ex      La excepción de conflicto de idempotencia lanzada.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity que contiene el DTO de error y el código de estado 409.
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponseDTO> handleIdempotencyConflictException(IdempotencyConflictException ex, HttpServletRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja las escrituras que chocan con otra escritura concurrente sobre la misma fila (bloqueo optimista):
+     * las actualizaciones que ya agotaron sus reintentos y los borrados o altas que no se reintentan.
+     * Devuelve una respuesta HTTP 409 Conflict.
+     *
+     * @param ex      La excepción de conflicto lanzada.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity que contiene el DTO de error y el código de estado 409.
+     */
+    @ExceptionHandler({
+            ConcurrentUpdateException.class,
+            OptimisticLockingFailureException.class,
+    })
+    public ResponseEntity<ErrorResponseDTO> handleConcurrentUpdateException(RuntimeException ex, HttpServletRequest request) {
+        // el mensaje de Hibernate nombra clases internas: solo se devuelve el propio
+        String message = ex instanceof ConcurrentUpdateException
+                ? ex.getMessage()
+                : "The resource was modified by another request at the same time, try again";
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                message,
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja los rechazos del control de admisión (rate limiting).
+     * Devuelve una respuesta HTTP 429 Too Many Requests con la cabecera Retry-After.
+     *
+     * @param ex      La excepción con los segundos de espera sugeridos.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity con el DTO de error, la cabecera Retry-After y el código de estado 429.
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponseDTO> handleTooManyRequestsException(TooManyRequestsException ex, HttpServletRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    /**
+     * Maneja los casos en los que el servicio no puede atender la petición a tiempo
+     * (p. ej. una lectura compartida que no termina dentro del timeout).
+     * Devuelve una respuesta HTTP 503 Service Unavailable con la cabecera Retry-After.
+     *
+     * @param ex      La excepción con los segundos de espera sugeridos.
+     * @param request La petición HTTP que originó el error.
+     * @return Un ResponseEntity con el DTO de error, la cabecera Retry-After y el código de estado 503.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleServiceUnavailableException(ServiceUnavailableException ex, HttpServletRequest request) {
+        ErrorResponseDTO errorResponse = new ErrorResponseDTO(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     /**
      * Manejador de excepciones global para cualquier otro error no controlado.
      * Esto asegura que la API nunca filtre stack traces al cliente.
@@ -0,0 +1,216 @@
+package com.educatech.loadtest;
+
+import com.educatech.entity.converter.CompressedTextConverter;
+import com.educatech.enums.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Genera un dataset sintético para las pruebas de carga (perfil {@code loadtest}) con inserciones
+ * JDBC por lotes, antes de que la aplicación se marque como lista. Los IDs son consecutivos y
+ * deterministas para que el arnés sepa qué pedir sin consultar la base de datos:
+ * <ul>
+ *     <li>usuarios: administradores, después profesores y después estudiantes, desde el ID 1;</li>
+ *     <li>cursos: del 1 a {@code courses}, cada uno con {@code lessons-per-course} lecciones;</li>
+ *     <li>inscripciones: {@code enrollments-per-student} cursos distintos por estudiante, con más
+ *     peso en los IDs de curso bajos según {@code enrollment-skew}.</li>
+ * </ul>
+ * Si ya hay usuarios no hace nada. Al terminar adelanta las secuencias para que las altas por la API
+ * no choquen con los IDs generados.
+ */
+@Component
+@Profile("loadtest")
+public class SyntheticDatasetGenerator implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDatasetGenerator.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final String PASSWORD = "loadtest-password";
+    private static final String[] WORDS = {"java", "spring", "data", "course", "module", "lesson", "student", "practice",
+            "exercise", "project", "database", "query", "index", "design", "testing", "cloud", "security", "api"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final int admins;
+    private final int teachers;
+    private final int students;
+    private final int courses;
+    private final int lessonsPerCourse;
+    private final int enrollmentsPerStudent;
+    private final double enrollmentSkew;
+    private final long seed;
+
+    public SyntheticDatasetGenerator(JdbcTemplate jdbcTemplate,
+                                     PasswordEncoder passwordEncoder,
+                                     @Value("${educatech.load-test.admins:5}") int admins,
+                                     @Value("${educatech.load-test.teachers:200}") int teachers,
+                                     @Value("${educatech.load-test.students:20000}") int students,
+                                     @Value("${educatech.load-test.courses:2000}") int courses,
+                                     @Value("${educatech.load-test.lessons-per-course:10}") int lessonsPerCourse,
+                                     @Value("${educatech.load-test.enrollments-per-student:5}") int enrollmentsPerStudent,
+                                     @Value("${educatech.load-test.enrollment-skew:2.0}") double enrollmentSkew,
+                                     @Value("${educatech.load-test.seed:42}") long seed,
+                                     @Value("${educatech.enrollment-sharding.enabled:false}") boolean enrollmentSharding) {
+        if (enrollmentSharding) {
+            // las inscripciones se generan con SQL sobre la base principal, no en los shards
+            throw new IllegalStateException("The load test dataset cannot be generated with enrollment sharding enabled");
+        }
+        if (teachers < 1 || courses < 1 || enrollmentsPerStudent > courses) {
+            throw new IllegalArgumentException("Load test dataset needs at least one teacher and course, "
+                    + "and no more enrollments per student than courses");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.admins = admins;
+        this.teachers = teachers;
+        this.students = students;
+        this.courses = courses;
+        this.lessonsPerCourse = lessonsPerCourse;
+        this.enrollmentsPerStudent = enrollmentsPerStudent;
+        this.enrollmentSkew = enrollmentSkew;
+        this.seed = seed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existingUsers = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        if (existingUsers != null && existingUsers > 0) {
+            log.info("Skipping load test dataset: the database already has {} users", existingUsers);
+            return;
+        }
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        long users = this.insertUsers();
+        this.insertCourses(random);
+        long lessons = this.insertLessons(random);
+        long enrollments = this.insertEnrollments(random);
+
+        this.restartSequence("users_seq", users);
+        this.restartSequence("courses_seq", courses);
+        this.restartSequence("lesson_seq", lessons);
+        this.restartSequence("enrollments_seq", enrollments);
+        log.info("Generated load test dataset: {} users ({} students), {} courses, {} lessons, {} enrollments in {} ms",
+                users, students, courses, lessons, enrollments, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long insertUsers() {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        // todos comparten contraseña: se cifra una vez
+        String password = passwordEncoder.encode(PASSWORD);
+        long id = 0;
+        id = this.addUsers(batch, id, admins, Role.ADMIN, password);
+        id = this.addUsers(batch, id, teachers, Role.TEACHER, password);
+        id = this.addUsers(batch, id, students, Role.STUDENT, password);
+        this.flush("insert into users (id, first_name, last_name, email, password, role) values (?, ?, ?, ?, ?, ?)", batch);
+        return id;
+    }
+
+    private long addUsers(List<Object[]> batch, long lastId, int count, Role role, String password) {
+        String prefix = role.name().toLowerCase();
+        for (int n = 1; n <= count; n++) {
+            long id = lastId + n;
+            this.add("insert into users (id, first_name, last_name, email, password, role) values (?, ?, ?, ?, ?, ?)", batch,
+                    new Object[]{id, "Load", prefix + " " + n, prefix + n + "@loadtest.educatech", password, role.name()});
+        }
+        return lastId + count;
+    }
+
+    private void insertCourses(SplittableRandom random) {
+        String sql = "insert into courses (id, title, description, teacher_id) values (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= courses; id++) {
+            long teacherId = admins + 1 + random.nextInt(teachers);
+            this.add(sql, batch, new Object[]{id, "Course " + id + " " + words(random, 3),
+                    CompressedTextConverter.encode(words(random, 80 + random.nextInt(120))), teacherId});
+        }
+        this.flush(sql, batch);
+    }
+
+    private long insertLessons(SplittableRandom random) {
+        String sql = "insert into lesson (id, title, content, course_id) values (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long id = 0;
+        for (long courseId = 1; courseId <= courses; courseId++) {
+            for (int n = 1; n <= lessonsPerCourse; n++) {
+                this.add(sql, batch, new Object[]{++id, "Lesson " + n + " " + words(random, 2),
+                        CompressedTextConverter.encode(words(random, 100 + random.nextInt(200))), courseId});
+            }
+        }
+        this.flush(sql, batch);
+        return id;
+    }
+
+    private long insertEnrollments(SplittableRandom random) {
+        String sql = "insert into enrollments (id, student_id, course_id, enrollment_date) values (?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        LocalDateTime now = LocalDateTime.now();
+        long firstStudentId = (long) admins + teachers + 1;
+        long[] chosen = new long[enrollmentsPerStudent];
+        long id = 0;
+        for (long studentId = firstStudentId; studentId < firstStudentId + students; studentId++) {
+            for (int n = 0; n < enrollmentsPerStudent; n++) {
+                chosen[n] = this.pickCourse(random, chosen, n);
+                Timestamp date = Timestamp.valueOf(now.minusSeconds(random.nextLong(365L * 24 * 3600)));
+                this.add(sql, batch, new Object[]{++id, studentId, chosen[n], date});
+            }
+        }
+        this.flush(sql, batch);
+        return id;
+    }
+
+    // Metodo auxiliar que elige un curso sesgado hacia los IDs bajos, distinto de los ya elegidos por el estudiante
+    private long pickCourse(SplittableRandom random, long[] chosen, int count) {
+        while (true) {
+            long courseId = 1 + (long) (courses * Math.pow(random.nextDouble(), enrollmentSkew));
+            boolean repeated = false;
+            for (int i = 0; i < count && !repeated; i++) {
+                repeated = chosen[i] == courseId;
+            }
+            if (!repeated) {
+                return courseId;
+            }
+        }
+    }
+
+    private void add(String sql, List<Object[]> batch, Object[] row) {
+        batch.add(row);
+        if (batch.size() == BATCH_SIZE) {
+            this.flush(sql, batch);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+
+    // Las secuencias reservan bloques de 50 IDs (allocationSize): se deja un bloque entero de margen
+    private void restartSequence(String sequence, long lastId) {
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (lastId + 100));
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
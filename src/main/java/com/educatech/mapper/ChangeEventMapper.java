@@ -0,0 +1,20 @@
+package com.educatech.mapper;
+
+import com.educatech.dto.response.ChangeEventDTO;
+import com.educatech.entity.OutboxEvent;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ChangeEventMapper {
+
+    /**
+     * Maps an OutboxEvent entity to a ChangeEventDTO.
+     * The feed sequence assigned after commit is exposed as the offset.
+     *
+     * @param event The OutboxEvent entity.
+     * @return The mapped ChangeEventDTO.
+     */
+    @Mapping(source = "feedSequence", target = "sequence")
+    ChangeEventDTO toResponseDTO(OutboxEvent event);
+}
@@ -30,5 +30,6 @@ public interface CourseMapper {
      */
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "teacher", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Course toEntity(CourseRequestDTO dto);
 }
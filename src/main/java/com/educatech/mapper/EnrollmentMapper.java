@@ -34,5 +34,6 @@ public interface EnrollmentMapper {
     @Mapping(target = "student", ignore = true)
     @Mapping(target = "course", ignore = true)
     @Mapping(target = "enrollmentDate", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Enrollment toEntity(EnrollmentRequestDTO dto);
 }
@@ -30,5 +30,6 @@ public interface LessonMapper {
      */
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "course", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Lesson toEntity(LessonRequestDTO dto);
 }
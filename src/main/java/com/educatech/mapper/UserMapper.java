@@ -23,11 +23,15 @@ public interface UserMapper {
      * Maps a UserRequestDTO to a User entity.
      * 'id' is ignored as it's auto-generated.
      * 'role' is ignored because it will be set in the service layer.
+     * 'firstname' in the request maps to 'firstName' in the entity.
      *
      * @param dto The UserRequestDTO.
      * @return The mapped User entity.
      */
     @Mapping(target = "id", ignore = true)
+    @Mapping(source = "firstname", target = "firstName")
     @Mapping(target = "role", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "emailNormalized", ignore = true)
     User toEntity(UserRequestDTO dto);
 }
@@ -0,0 +1,67 @@
+package com.educatech.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cada sentencia JDBC, la acumula en {@link SqlLatencyRegistry} y registra una muestra
+ * de las que superan el umbral en el logger {@code educatech.slow-query}, que en
+ * logback-spring.xml escribe a través de un appender asíncrono que nunca bloquea.
+ */
+@Component
+public class SlowQueryListener implements QueryExecutionListener {
+    public static final String LOGGER_NAME = "educatech.slow-query";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+    private static final String START_NANOS = SlowQueryListener.class.getName() + ".start";
+
+    private final SqlLatencyRegistry registry;
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    public SlowQueryListener(SqlLatencyRegistry registry,
+                             @Value("${educatech.slow-query.threshold-ms:200}") long thresholdMillis,
+                             @Value("${educatech.slow-query.sample-rate:1.0}") double sampleRate) {
+        this.registry = registry;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        if (start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        // en un batch el tiempo es del lote completo; se imputa a la primera sentencia
+        String sql = queryInfoList.get(0).getQuery();
+        registry.record(sql, elapsed);
+
+        if (elapsed >= thresholdNanos && this.sampled() && log.isWarnEnabled()) {
+            log.warn("Slow query: {} ms, batch={}, success={}, sql={}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 0,
+                    execInfo.isSuccess(),
+                    SqlLatencyRegistry.shapeOf(sql));
+        }
+    }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,24 @@
+package com.educatech.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoint de actuator ({@code /actuator/sqllatency}) con el histograma de latencias por forma de SQL,
+ * ordenado por tiempo total acumulado.
+ */
+@Component
+@Endpoint(id = "sqllatency")
+@RequiredArgsConstructor
+public class SqlLatencyEndpoint {
+    private final SqlLatencyRegistry registry;
+
+    @ReadOperation
+    public List<SqlLatencyRegistry.ShapeStats> shapes() {
+        return registry.snapshot();
+    }
+}
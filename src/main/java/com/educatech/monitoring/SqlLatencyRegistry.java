@@ -0,0 +1,84 @@
+package com.educatech.monitoring;
+
+import com.educatech.util.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Histogramas de latencia agrupados por "forma" de SQL (texto normalizado sin literales
+ * ni listas IN de longitud variable). El número de formas está acotado; las que no entran
+ * se acumulan en {@link #OTHER_SHAPE}.
+ */
+@Component
+public class SqlLatencyRegistry {
+    public static final String OTHER_SHAPE = "<other>";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final int maxShapes;
+    // el SQL tal cual llega se usa como clave para no normalizar en cada ejecución
+    private final Map<String, LatencyHistogram> byRawSql = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> byShape = new ConcurrentHashMap<>();
+    private final LatencyHistogram other = new LatencyHistogram();
+
+    public SqlLatencyRegistry(@Value("${educatech.slow-query.max-shapes:500}") int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    public void record(String sql, long nanos) {
+        LatencyHistogram histogram = byRawSql.get(sql);
+        if (histogram == null) {
+            histogram = this.resolve(sql);
+        }
+        histogram.record(nanos);
+    }
+
+    public List<ShapeStats> snapshot() {
+        List<ShapeStats> stats = new ArrayList<>();
+        byShape.forEach((shape, histogram) -> stats.add(new ShapeStats(shape, histogram.snapshot())));
+        LatencyHistogram.Snapshot otherSnapshot = other.snapshot();
+        if (otherSnapshot.count() > 0) {
+            stats.add(new ShapeStats(OTHER_SHAPE, otherSnapshot));
+        }
+        stats.sort(Comparator.comparingLong((ShapeStats s) -> s.latency().totalMicros()).reversed());
+        return stats;
+    }
+
+    public static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private LatencyHistogram resolve(String sql) {
+        if (byRawSql.size() >= maxShapes * 4) {
+            // demasiadas variantes de texto (p. ej. listas IN sin padding): no se cachean
+            LatencyHistogram histogram = byShape.get(shapeOf(sql));
+            return histogram == null ? other : histogram;
+        }
+        String shape = shapeOf(sql);
+        LatencyHistogram histogram = byShape.get(shape);
+        if (histogram == null) {
+            if (byShape.size() >= maxShapes) {
+                return other;
+            }
+            histogram = byShape.computeIfAbsent(shape, key -> new LatencyHistogram());
+        }
+        byRawSql.putIfAbsent(sql, histogram);
+        return histogram;
+    }
+
+    public record ShapeStats(String sql, LatencyHistogram.Snapshot latency) {
+    }
+}
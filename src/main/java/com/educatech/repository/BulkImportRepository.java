@@ -0,0 +1,454 @@
+package com.educatech.repository;
+
+import com.educatech.dto.response.BulkImportRejectionDTO;
+import com.educatech.entity.converter.CompressedTextConverter;
+import com.educatech.enums.BulkImportEntity;
+import com.educatech.util.CsvReader;
+import com.educatech.util.PasswordHasher;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * SQL de las cargas masivas. Cada carga usa una tabla temporal de staging con todas las columnas
+ * como texto, de modo que un valor mal formado se rechaza en la validación en lugar de abortar la
+ * carga. En PostgreSQL el CSV se envía tal cual con {@code COPY ... FROM STDIN}; en otras bases de
+ * datos (H2 del perfil embedded) se parsea aquí y se inserta por lotes.
+ * <p>
+ * La validación y la fusión son sentencias sobre el conjunto completo: cada comprobación marca con
+ * su motivo las filas que todavía no tienen uno, y al final se insertan en las tablas reales las filas
+ * sin motivo. Las referencias entre ficheros (profesor de un curso, curso de una lección, estudiante
+ * y curso de una inscripción) se resuelven con {@code bulk_import_keys}.
+ * Todos los métodos deben llamarse dentro de la misma transacción: la tabla temporal es de la conexión.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkImportRepository {
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+    private static final int COPY_BUFFER_BYTES = 1 << 16;
+    private static final String DATE_PATTERN = "^[0-9]{4}-[0-9]{2}-[0-9]{2}([ T][0-9]{2}:[0-9]{2}(:[0-9]{2}(\\.[0-9]{1,6})?)?)?$";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /**
+     * @return Columnas que debe tener la cabecera del CSV de cada entidad, en orden.
+     */
+    public static List<String> csvColumns(BulkImportEntity entity) {
+        return switch (entity) {
+            case USERS -> List.of("source_id", "first_name", "last_name", "email", "password", "role");
+            case COURSES -> List.of("source_id", "title", "description", "teacher_source_id");
+            case LESSONS -> List.of("source_id", "title", "content", "course_source_id");
+            case ENROLLMENTS -> List.of("source_id", "student_source_id", "course_source_id", "enrollment_date");
+        };
+    }
+
+    public void createStaging(BulkImportEntity entity) {
+        StringBuilder columns = new StringBuilder("row_no bigint generated by default as identity primary key");
+        for (String column : csvColumns(entity)) {
+            columns.append(", ").append(column).append(" varchar");
+        }
+        // IDs resueltos de las referencias y el ID asignado en la fusión
+        switch (entity) {
+            case COURSES -> columns.append(", teacher_id bigint");
+            case LESSONS -> columns.append(", course_id bigint");
+            case ENROLLMENTS -> columns.append(", student_id bigint, course_id bigint");
+            default -> {
+            }
+        }
+        columns.append(", reject_reason varchar(200), id bigint");
+        jdbcTemplate.execute("drop table if exists " + staging(entity));
+        jdbcTemplate.execute("create local temporary table " + staging(entity) + " (" + columns + ")");
+    }
+
+    public void dropStaging(BulkImportEntity entity) {
+        jdbcTemplate.execute("drop table if exists " + staging(entity));
+    }
+
+    /**
+     * Carga las filas del CSV (sin la cabecera, que ya se ha comprobado) en la tabla de staging.
+     *
+     * @param progress Recibe el número aproximado de filas leídas según avanza la carga.
+     * @return Filas cargadas.
+     */
+    public long load(BulkImportEntity entity, InputStream rows, LongConsumer progress) throws IOException, SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        String columns = String.join(", ", csvColumns(entity));
+        long loaded;
+        if (connection.isWrapperFor(PGConnection.class)) {
+            String copy = "copy " + staging(entity) + " (" + columns + ") from stdin with (format csv)";
+            loaded = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(copy, new LineCountingInputStream(rows, progress), COPY_BUFFER_BYTES);
+            // las tablas temporales no las analiza autovacuum: sin estadísticas los planes de la validación serían malos
+            jdbcTemplate.execute("analyze " + staging(entity));
+        } else {
+            loaded = this.insertBatches(entity, columns, rows, progress);
+        }
+        return loaded;
+    }
+
+    public void validate(BulkImportEntity entity, String source) {
+        boolean postgres = this.isPostgres();
+        for (Statement statement : this.validations(entity, source, postgres)) {
+            jdbcTemplate.update(statement.sql(), statement.params());
+        }
+    }
+
+    /**
+     * Cifra las contraseñas de las filas válidas de la carga de usuarios, recorriéndolas con un cursor por
+     * lotes; las que ya vienen cifradas se quedan como están. Se llama tras la validación y antes de
+     * {@link #merge(BulkImportEntity, String)}, así que en {@code users} no llega a guardarse ninguna en claro.
+     *
+     * @param encoder Recibe un lote de contraseñas y devuelve las cifradas en el mismo orden.
+     */
+    public void encodePasswords(UnaryOperator<List<String>> encoder) {
+        String table = staging(BulkImportEntity.USERS);
+        String select = "select row_no, password from " + table + " where reject_reason is null";
+        String update = "update " + table + " set password = ? where row_no = ?";
+        List<Long> rows = new ArrayList<>(BATCH_SIZE);
+        List<String> passwords = new ArrayList<>(BATCH_SIZE);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(select);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            rows.add(rs.getLong(1));
+            passwords.add(rs.getString(2));
+            if (rows.size() == BATCH_SIZE) {
+                this.updatePasswords(update, rows, encoder.apply(passwords));
+                rows.clear();
+                passwords.clear();
+            }
+        });
+        if (!rows.isEmpty()) {
+            this.updatePasswords(update, rows, encoder.apply(passwords));
+        }
+    }
+
+    /**
+     * Asigna IDs de la secuencia de la entidad a las filas válidas, las inserta en la tabla real y
+     * guarda su ID de origen.
+     *
+     * @return Filas insertadas.
+     */
+    public long merge(BulkImportEntity entity, String source) {
+        String table = staging(entity);
+        // un nextval por fila: cada valor es el límite superior de un bloque de 50 que Hibernate ya no usará
+        jdbcTemplate.update("update " + table + " set id = nextval('" + sequence(entity) + "') where reject_reason is null");
+        boolean postgres = this.isPostgres();
+        String insert = switch (entity) {
+            case USERS -> "insert into users (id, first_name, last_name, email, password, role) "
+                    + "select id, first_name, last_name, email, password, upper(role) from " + table;
+            case COURSES -> "insert into courses (id, title, description, teacher_id) "
+                    + "select id, title, " + rawText("description", postgres) + ", teacher_id from " + table;
+            case LESSONS -> "insert into lesson (id, title, content, course_id) "
+                    + "select id, title, " + rawText("content", postgres) + ", course_id from " + table;
+            case ENROLLMENTS -> "insert into enrollments (id, student_id, course_id, enrollment_date) "
+                    + "select id, student_id, course_id, cast(replace(enrollment_date, 'T', ' ') as timestamp) from " + table;
+        };
+        int inserted = jdbcTemplate.update(insert + " where reject_reason is null");
+        jdbcTemplate.update("insert into bulk_import_keys (source, entity, source_id, id) select ?, ?, source_id, id from "
+                + table + " where reject_reason is null", source, entity.name());
+        return inserted;
+    }
+
+    /**
+     * Comprime los textos insertados sin comprimir por {@link #merge(BulkImportEntity, String)}
+     * (descripciones de curso y contenidos de lección), recorriéndolos con un cursor.
+     */
+    public void compressText(BulkImportEntity entity) {
+        String table;
+        String column;
+        switch (entity) {
+            case COURSES -> {
+                table = "courses";
+                column = "description";
+            }
+            case LESSONS -> {
+                table = "lesson";
+                column = "content";
+            }
+            default -> {
+                return;
+            }
+        }
+        String select = "select t.id, t." + column + " from " + table + " t join " + staging(entity)
+                + " s on s.id = t.id where s.reject_reason is null";
+        String update = "update " + table + " set " + column + " = ? where id = ?";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(select);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            byte[] encoded = CompressedTextConverter.encode(CompressedTextConverter.decode(rs.getBytes(2)));
+            if (encoded[0] != CompressedTextConverter.CODEC_RAW) {
+                batch.add(new Object[]{encoded, rs.getLong(1)});
+                if (batch.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(update, batch);
+                    batch.clear();
+                }
+            }
+        });
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(update, batch);
+        }
+    }
+
+    /**
+     * @return Filas rechazadas por motivo, de más a menos frecuente.
+     */
+    public Map<String, Long> countRejections(BulkImportEntity entity) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query("select reject_reason, count(*) from " + staging(entity)
+                        + " where reject_reason is not null group by reject_reason order by count(*) desc",
+                rs -> {
+                    counts.put(rs.getString(1), rs.getLong(2));
+                });
+        return counts;
+    }
+
+    public List<BulkImportRejectionDTO> findRejections(BulkImportEntity entity, int limit) {
+        return jdbcTemplate.query("select row_no, source_id, reject_reason from " + staging(entity)
+                        + " where reject_reason is not null order by row_no fetch first " + limit + " rows only",
+                (rs, rowNum) -> new BulkImportRejectionDTO(rs.getLong(1), rs.getString(2), rs.getString(3)));
+    }
+
+    // Metodo auxiliar con las comprobaciones de cada entidad, en orden; la primera que falla da el motivo
+    private List<Statement> validations(BulkImportEntity entity, String source, boolean postgres) {
+        String table = staging(entity);
+        List<Statement> statements = new ArrayList<>();
+        statements.add(reject(table, "Missing source_id", "source_id is null or trim(source_id) = ''"));
+        statements.add(reject(table, "source_id longer than 100 characters", "length(source_id) > 100"));
+        statements.add(rejectRepeated(table, "Duplicate source_id in file", "source_id", postgres));
+        // antes que las comprobaciones contra los datos existentes, para que repetir una carga informe de lo ya importado
+        statements.add(new Statement("update " + table + " set reject_reason = ? where reject_reason is null and exists "
+                + "(select 1 from bulk_import_keys k where k.source = ? and k.entity = ? and k.source_id = " + table + ".source_id)",
+                "Already imported from this source", source, entity.name()));
+        switch (entity) {
+            case USERS -> {
+                statements.add(reject(table, "Missing required field",
+                        "first_name is null or last_name is null or email is null or password is null or role is null"));
+                statements.add(reject(table, "Name or email too long",
+                        "length(first_name) > 100 or length(last_name) > 100 or length(email) > 255"));
+                // en claro (se cifra antes de la fusión, ver encodePasswords) o ya cifrada con el formato de la aplicación
+                statements.add(rejectMatching(table, "Password must be between 8 and 60 characters or a {bcrypt} hash",
+                        "password", PasswordHasher.encodedPattern(), postgres, "length(password) < 8 or length(password) > 60"));
+                statements.add(reject(table, "Invalid email", "email not like '_%@_%'"));
+                statements.add(reject(table, "Invalid role", "upper(role) not in ('STUDENT', 'TEACHER', 'ADMIN')"));
+                // igual que el índice único de users.email_normalized
+                statements.add(rejectRepeated(table, "Duplicate email in file", "lower(trim(email))", postgres));
+                statements.add(reject(table, "Email already in use",
+                        "exists (select 1 from users u where u.email_normalized = lower(trim(" + table + ".email)))"));
+            }
+            case COURSES -> {
+                statements.add(reject(table, "Missing required field",
+                        "title is null or description is null or teacher_source_id is null"));
+                statements.add(reject(table, "Title or description too long",
+                        "length(title) > 255 or length(description) > 10000"));
+                statements.add(resolve(table, "teacher_id", "teacher_source_id", source, BulkImportEntity.USERS));
+                statements.add(reject(table, "Unknown teacher_source_id", "teacher_id is null"));
+                statements.add(reject(table, "Referenced user is not a teacher",
+                        "not exists (select 1 from users u where u.id = " + table + ".teacher_id and u.role = 'TEACHER')"));
+            }
+            case LESSONS -> {
+                statements.add(reject(table, "Missing required field",
+                        "title is null or content is null or course_source_id is null"));
+                statements.add(reject(table, "Title or content too long", "length(title) > 255 or length(content) > 2000"));
+                statements.add(resolve(table, "course_id", "course_source_id", source, BulkImportEntity.COURSES));
+                statements.add(reject(table, "Unknown course_source_id", "course_id is null"));
+                statements.add(rejectRepeated(table, "Duplicate lesson title in file", "course_id, title", postgres));
+                statements.add(reject(table, "A lesson with the same title already exists in this course",
+                        "exists (select 1 from lesson l where l.course_id = " + table + ".course_id and l.title = " + table + ".title)"));
+            }
+            case ENROLLMENTS -> {
+                statements.add(reject(table, "Missing required field",
+                        "student_source_id is null or course_source_id is null or enrollment_date is null"));
+                statements.add(rejectMatching(table, "Invalid enrollment_date", "enrollment_date", DATE_PATTERN, postgres));
+                statements.add(resolve(table, "student_id", "student_source_id", source, BulkImportEntity.USERS));
+                statements.add(resolve(table, "course_id", "course_source_id", source, BulkImportEntity.COURSES));
+                statements.add(reject(table, "Unknown student_source_id", "student_id is null"));
+                statements.add(reject(table, "Unknown course_source_id", "course_id is null"));
+                statements.add(reject(table, "Referenced user is not a student",
+                        "not exists (select 1 from users u where u.id = " + table + ".student_id and u.role = 'STUDENT')"));
+                statements.add(rejectRepeated(table, "Duplicate enrollment in file", "student_id, course_id", postgres));
+                statements.add(reject(table, "Student is already enrolled in this course",
+                        "exists (select 1 from enrollments e where e.student_id = " + table + ".student_id and e.course_id = " + table + ".course_id) "
+                                + "or exists (select 1 from enrollment_archive_keys k where k.student_id = " + table + ".student_id and k.course_id = "
+                                + table + ".course_id)"));
+            }
+        }
+        return statements;
+    }
+
+    private static Statement reject(String table, String reason, String condition) {
+        return new Statement("update " + table + " set reject_reason = ? where reject_reason is null and (" + condition + ")", reason);
+    }
+
+    // Solo la primera aparición (por número de fila) de cada clave entre las filas todavía válidas
+    private static Statement rejectRepeated(String table, String reason, String key, boolean postgres) {
+        String repeated = "select row_no from (select row_no, row_number() over (partition by " + key + " order by row_no) as occurrence from "
+                + table + " where reject_reason is null) numbered where numbered.occurrence > 1";
+        if (postgres) {
+            return new Statement("update " + table + " set reject_reason = ? where reject_reason is null and row_no in (" + repeated + ")", reason);
+        }
+        // H2 vuelve a ejecutar la subconsulta por cada fila si modifica la misma tabla; MERGE la ejecuta una vez
+        return new Statement("merge into " + table + " t using (" + repeated + ") r on t.row_no = r.row_no "
+                + "when matched then update set reject_reason = ?", reason);
+    }
+
+    private static Statement rejectMatching(String table, String reason, String column, String pattern, boolean postgres) {
+        return rejectMatching(table, reason, column, pattern, postgres, "true");
+    }
+
+    // Rechaza las filas que no cumplen el patrón y además cumplen la condición
+    private static Statement rejectMatching(String table, String reason, String column, String pattern, boolean postgres,
+                                            String condition) {
+        String matches = postgres ? column + " ~ ?" : "regexp_like(" + column + ", ?)";
+        return new Statement("update " + table + " set reject_reason = ? where reject_reason is null and not (" + matches + ") and ("
+                + condition + ")", reason, pattern);
+    }
+
+    private static Statement resolve(String table, String idColumn, String sourceColumn, String source, BulkImportEntity referenced) {
+        return new Statement("update " + table + " set " + idColumn + " = (select k.id from bulk_import_keys k where k.source = ? "
+                + "and k.entity = ? and k.source_id = " + table + "." + sourceColumn + ") where reject_reason is null",
+                source, referenced.name());
+    }
+
+    // Texto en el formato de CompressedTextConverter con el códec 0 (UTF-8 sin comprimir)
+    private static String rawText(String column, boolean postgres) {
+        return postgres ? "'\\x00'::bytea || convert_to(" + column + ", 'UTF8')" : "X'00' || cast(" + column + " as varbinary)";
+    }
+
+    private void updatePasswords(String update, List<Long> rows, List<String> encoded) {
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            batch.add(new Object[]{encoded.get(i), rows.get(i)});
+        }
+        jdbcTemplate.batchUpdate(update, batch);
+    }
+
+    private long insertBatches(BulkImportEntity entity, String columns, InputStream rows, LongConsumer progress) throws IOException {
+        int columnCount = csvColumns(entity).size();
+        String placeholders = String.join(", ", Collections.nCopies(columnCount, "?"));
+        String insert = "insert into " + staging(entity) + " (row_no, " + columns + ") values (?, " + placeholders + ")";
+        CsvReader reader = new CsvReader(new InputStreamReader(rows, StandardCharsets.UTF_8));
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long row = 0;
+        List<String> fields;
+        while ((fields = reader.readRecord()) != null) {
+            if (fields.size() == 1 && fields.get(0) == null) {
+                // línea en blanco
+                continue;
+            }
+            if (fields.size() != columnCount) {
+                throw new IllegalArgumentException("Row " + (row + 1) + " has " + fields.size() + " fields, expected " + columnCount);
+            }
+            Object[] values = new Object[columnCount + 1];
+            values[0] = ++row;
+            for (int i = 0; i < columnCount; i++) {
+                values[i + 1] = fields.get(i);
+            }
+            batch.add(values);
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(insert, batch);
+                batch.clear();
+                progress.accept(row);
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+        progress.accept(row);
+        return row;
+    }
+
+    private boolean isPostgres() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    private static String staging(BulkImportEntity entity) {
+        return "bulk_stage_" + entity.name().toLowerCase();
+    }
+
+    private static String sequence(BulkImportEntity entity) {
+        return switch (entity) {
+            case USERS -> "users_seq";
+            case COURSES -> "courses_seq";
+            case LESSONS -> "lesson_seq";
+            case ENROLLMENTS -> "enrollments_seq";
+        };
+    }
+
+    private record Statement(String sql, Object... params) {
+    }
+
+    /**
+     * Cuenta los saltos de línea que pasan hacia {@code COPY} para informar del avance
+     * (aproximado: un salto de línea dentro de un campo entre comillas cuenta como fila).
+     */
+    private static final class LineCountingInputStream extends FilterInputStream {
+        private static final long REPORT_EVERY_BYTES = 1 << 20;
+        private final LongConsumer progress;
+        private long lines;
+        private long bytesSinceReport;
+
+        private LineCountingInputStream(InputStream in, LongConsumer progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == '\n') {
+                lines++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                for (int i = offset; i < offset + read; i++) {
+                    if (buffer[i] == '\n') {
+                        lines++;
+                    }
+                }
+                bytesSinceReport += read;
+                if (bytesSinceReport >= REPORT_EVERY_BYTES) {
+                    bytesSinceReport = 0;
+                    progress.accept(lines);
+                }
+            } else if (read < 0) {
+                progress.accept(lines);
+            }
+            return read;
+        }
+    }
+}
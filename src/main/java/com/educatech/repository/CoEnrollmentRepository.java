@@ -0,0 +1,22 @@
+package com.educatech.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Lecturas JDBC para construir el grafo de co-inscripciones sin materializar entidades; los pares
+ * estudiante-curso salen de {@link IEnrollmentStore#scanStudentCourses}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CoEnrollmentRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public long[] findCourseIds() {
+        List<Long> ids = jdbcTemplate.queryForList("select id from courses", Long.class);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
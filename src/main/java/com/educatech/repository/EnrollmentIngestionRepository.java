@@ -0,0 +1,62 @@
+package com.educatech.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Peticiones de la ingesta diferida de inscripciones ya persistidas ({@code enrollment_ingestion_requests}),
+ * para reconocerlas si se vuelven a procesar desde el log. Cada réplica tiene su propio log, así que las
+ * filas llevan el identificador del log ({@code log_id}) además de la posición.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnrollmentIngestionRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return ID de la inscripción creada por cada una de las peticiones que ya se persistieron.
+     */
+    public Map<UUID, Long> findEnrollmentIds(Collection<UUID> requestIds) {
+        Map<UUID, Long> enrollmentIds = new HashMap<>();
+        if (requestIds.isEmpty()) {
+            return enrollmentIds;
+        }
+        jdbcTemplate.query("select request_id, enrollment_id from enrollment_ingestion_requests where request_id in ("
+                + placeholders(requestIds.size()) + ")", rs -> {
+            enrollmentIds.put(rs.getObject(1, UUID.class), rs.getLong(2));
+        }, requestIds.toArray());
+        return enrollmentIds;
+    }
+
+    /**
+     * @param logId    Log del que salen las peticiones.
+     * @param requests Posición en el log e ID de la inscripción creada por cada petición.
+     */
+    public void saveAll(UUID logId, Map<UUID, long[]> requests) {
+        List<Object[]> rows = new ArrayList<>(requests.size());
+        requests.forEach((requestId, positionAndEnrollment) ->
+                rows.add(new Object[]{requestId, logId, positionAndEnrollment[0], positionAndEnrollment[1]}));
+        jdbcTemplate.batchUpdate("insert into enrollment_ingestion_requests (request_id, log_id, log_position, enrollment_id) values (?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Borra las peticiones de un log que ya cubre su checkpoint (no se van a volver a procesar); las de
+     * los logs de otras réplicas no se tocan.
+     */
+    public void deleteUpTo(UUID logId, long checkpoint) {
+        jdbcTemplate.update("delete from enrollment_ingestion_requests where log_id = ? and log_position <= ?", logId, checkpoint);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
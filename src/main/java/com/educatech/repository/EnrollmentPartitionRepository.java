@@ -0,0 +1,251 @@
+package com.educatech.repository;
+
+import com.educatech.util.EnrollmentArchiveCodec;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Acceso JDBC a las particiones mensuales de {@code enrollments} (ver V12__partitioned_enrollments), a
+ * {@code enrollment_archives} y a {@code enrollment_archive_keys} (V13), que guarda el mes de cada par
+ * (estudiante, curso) archivado. Las particiones se llaman {@code enrollments_pAAAAMM}; todos los métodos de
+ * particiones son solo para PostgreSQL y deben llamarse dentro de una transacción.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnrollmentPartitionRepository {
+    private static final String PARTITION_PREFIX = "enrollments_p";
+    private static final String DEFAULT_PARTITION = "enrollments_default";
+    private static final String COLUMNS = "id, version, student_id, course_id, enrollment_date";
+    // clave del advisory lock que serializa el mantenimiento entre réplicas
+    private static final long MAINTENANCE_LOCK = 0x656E726F6C6CL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /**
+     * @return true si {@code enrollments} es una tabla particionada (PostgreSQL tras V12).
+     */
+    public boolean isPartitioned() {
+        if (!this.isPostgres()) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = to_regclass('enrollments')", Integer.class);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Intenta tomar el lock de mantenimiento hasta el final de la transacción.
+     *
+     * @return false si otra réplica lo tiene.
+     */
+    public boolean tryLockMaintenance() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK));
+    }
+
+    /**
+     * Meses con partición propia, en orden.
+     */
+    public List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                        "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                                "where i.inhparent = 'enrollments'::regclass and c.relname like 'enrollments\\_p%' order by c.relname",
+                        String.class)
+                .stream()
+                .map(name -> YearMonth.of(Integer.parseInt(name.substring(13, 17)), Integer.parseInt(name.substring(17, 19))))
+                .toList();
+    }
+
+    /**
+     * Meses con filas en la partición por defecto (fechas para las que aún no había partición).
+     */
+    public List<YearMonth> findMonthsInDefaultPartition() {
+        return jdbcTemplate.queryForList(
+                        "select distinct date_trunc('month', enrollment_date)::date from " + DEFAULT_PARTITION + " order by 1", Date.class)
+                .stream()
+                .map(month -> YearMonth.from(month.toLocalDate()))
+                .toList();
+    }
+
+    /**
+     * Crea la partición de un mes moviendo a ella las filas de ese mes que estuvieran en la partición por
+     * defecto (PostgreSQL no deja crearla directamente si las hay).
+     */
+    public void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        Timestamp from = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("create table " + partition + " (like enrollments including defaults)");
+        jdbcTemplate.update("with moved as (delete from " + DEFAULT_PARTITION + " where enrollment_date >= ? and enrollment_date < ? " +
+                "returning " + COLUMNS + ") insert into " + partition + " (" + COLUMNS + ") select " + COLUMNS + " from moved", from, to);
+        // la restricción evita que ATTACH tenga que recorrer la partición para validar el rango
+        jdbcTemplate.execute("alter table " + partition + " add constraint " + partition + "_range check (enrollment_date >= '"
+                + from + "' and enrollment_date < '" + to + "')");
+        jdbcTemplate.execute("alter table enrollments attach partition " + partition + " for values from ('" + from + "') to ('" + to + "')");
+        jdbcTemplate.execute("alter table " + partition + " drop constraint " + partition + "_range");
+    }
+
+    /**
+     * Copia la partición de un mes a {@code enrollment_archives} y la quita de la tabla. La partición se
+     * bloquea para escritura mientras se copia; la tabla padre solo al final, al desengancharla.
+     *
+     * @return Filas archivadas.
+     */
+    public long archivePartition(YearMonth month) {
+        String partition = partitionName(month);
+        jdbcTemplate.execute("lock table " + partition + " in share mode");
+        EnrollmentArchiveCodec.Writer writer = EnrollmentArchiveCodec.writer();
+        jdbcTemplate.query("select " + COLUMNS + " from " + partition + " order by id", rs -> {
+            writer.write(new EnrollmentArchiveCodec.Row(rs.getLong("id"), rs.getLong("version"), rs.getLong("student_id"),
+                    rs.getLong("course_id"), rs.getTimestamp("enrollment_date").toLocalDateTime()));
+        });
+        jdbcTemplate.update("insert into enrollment_archives (month_start, row_count, archived_at, data) values (?, ?, ?, ?)",
+                Date.valueOf(month.atDay(1)), writer.rowCount(), Timestamp.valueOf(LocalDateTime.now()), writer.finish());
+        jdbcTemplate.update("insert into enrollment_archive_keys (student_id, course_id, month_start) select student_id, course_id, ? from "
+                + partition + " on conflict do nothing", Date.valueOf(month.atDay(1)));
+        jdbcTemplate.execute("alter table enrollments detach partition " + partition);
+        jdbcTemplate.execute("drop table " + partition);
+        return writer.rowCount();
+    }
+
+    /**
+     * Recorre los archivos de los meses entre {@code from} y {@code to} (ambos incluidos), de uno en uno
+     * para no tener más de uno en memoria. Con estudiante o curso solo los meses en los que aparecen.
+     */
+    public void forEachArchive(Long studentId, Long courseId, YearMonth from, YearMonth to, Consumer<byte[]> consumer) {
+        StringBuilder sql = new StringBuilder("select month_start from enrollment_archives a where month_start >= ? and month_start <= ?");
+        List<Object> args = new ArrayList<>(List.of(Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1))));
+        if (studentId != null || courseId != null) {
+            sql.append(" and exists (select 1 from enrollment_archive_keys k where k.month_start = a.month_start");
+            if (studentId != null) {
+                sql.append(" and k.student_id = ?");
+                args.add(studentId);
+            }
+            if (courseId != null) {
+                sql.append(" and k.course_id = ?");
+                args.add(courseId);
+            }
+            sql.append(")");
+        }
+        this.forEachArchive(jdbcTemplate.queryForList(sql.append(" order by month_start").toString(), Date.class, args.toArray()), consumer);
+    }
+
+    /**
+     * Recorre los archivos de todos los meses, de uno en uno.
+     */
+    public void forEachArchive(Consumer<byte[]> consumer) {
+        this.forEachArchive(jdbcTemplate.queryForList("select month_start from enrollment_archives order by month_start", Date.class), consumer);
+    }
+
+    private void forEachArchive(List<Date> months, Consumer<byte[]> consumer) {
+        for (Date month : months) {
+            byte[] data = jdbcTemplate.queryForObject("select data from enrollment_archives where month_start = ?", byte[].class, month);
+            if (data != null) {
+                consumer.accept(data);
+            }
+        }
+    }
+
+    /**
+     * @return true si el estudiante tiene archivada una inscripción en el curso.
+     */
+    public boolean isArchived(long studentId, long courseId) {
+        return !jdbcTemplate.queryForList("select 1 from enrollment_archive_keys where student_id = ? and course_id = ?",
+                Integer.class, studentId, courseId).isEmpty();
+    }
+
+    /**
+     * Pares (id estudiante, id curso) archivados; como {@link IEnrollmentRepository#findStudentAndCourseIds}.
+     */
+    public List<Object[]> findArchivedStudentAndCourseIds(Collection<Long> studentIds, Collection<Long> courseIds) {
+        if (studentIds.isEmpty() || courseIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = "select student_id, course_id from enrollment_archive_keys where student_id in (" + placeholders(studentIds.size())
+                + ") and course_id in (" + placeholders(courseIds.size()) + ")";
+        List<Object> args = new ArrayList<>(studentIds);
+        args.addAll(courseIds);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)}, args.toArray());
+    }
+
+    /**
+     * Quita del archivo las inscripciones de un curso: reescribe los meses en los que aparece (o los borra si
+     * se quedan vacíos).
+     *
+     * @return Inscripciones archivadas borradas.
+     */
+    public long removeArchivedByCourse(long courseId) {
+        return this.removeArchived("course_id", courseId, row -> row.courseId() == courseId);
+    }
+
+    /**
+     * Quita del archivo las inscripciones de un estudiante, como {@link #removeArchivedByCourse(long)}.
+     */
+    public long removeArchivedByStudent(long studentId) {
+        return this.removeArchived("student_id", studentId, row -> row.studentId() == studentId);
+    }
+
+    private long removeArchived(String column, long id, Predicate<EnrollmentArchiveCodec.Row> removed) {
+        List<Date> months = jdbcTemplate.queryForList("select distinct month_start from enrollment_archive_keys where " + column + " = ?",
+                Date.class, id);
+        long removedRows = 0;
+        for (Date month : months) {
+            // bloquea el mes frente a otro borrado que lo reescriba a la vez
+            byte[] data = jdbcTemplate.queryForObject("select data from enrollment_archives where month_start = ? for update", byte[].class, month);
+            EnrollmentArchiveCodec.Writer writer = EnrollmentArchiveCodec.writer();
+            long[] dropped = {0};
+            EnrollmentArchiveCodec.decode(data, row -> {
+                if (removed.test(row)) {
+                    dropped[0]++;
+                } else {
+                    writer.write(row);
+                }
+            });
+            if (writer.rowCount() == 0) {
+                jdbcTemplate.update("delete from enrollment_archives where month_start = ?", month);
+            } else if (dropped[0] > 0) {
+                jdbcTemplate.update("update enrollment_archives set row_count = ?, data = ? where month_start = ?",
+                        writer.rowCount(), writer.finish(), month);
+            }
+            removedRows += dropped[0];
+        }
+        jdbcTemplate.update("delete from enrollment_archive_keys where " + column + " = ?", id);
+        return removedRows;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s%04d%02d", PARTITION_PREFIX, month.getYear(), month.getMonthValue());
+    }
+
+    private boolean isPostgres() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException ex) {
+            return false;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
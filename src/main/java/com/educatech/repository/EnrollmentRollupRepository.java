@@ -0,0 +1,104 @@
+package com.educatech.repository;
+
+import com.educatech.enums.Granularity;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Acceso JDBC a la tabla {@code enrollment_rollups}. No es un repositorio JPA porque solo se
+ * escriben incrementos por lotes y se leen filas planas al arrancar y en cada recarga.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EnrollmentRollupRepository {
+    private static final String INSERT_SQL =
+            "insert into enrollment_rollups (course_id, granularity, bucket, enrollments) values (?, ?, ?, ?)";
+    // un solo statement por fila: tras un error de clave duplicada PostgreSQL aborta la transacción entera
+    private static final String UPSERT_SQL = "insert into enrollment_rollups (course_id, granularity, bucket, enrollments) "
+            + "values (?, ?, ?, greatest(?, 0)) on conflict (course_id, granularity, bucket) "
+            + "do update set enrollments = greatest(enrollment_rollups.enrollments + ?, 0)";
+    private static final String MERGE_SQL = "merge into enrollment_rollups t using (values (?, ?, ?, ?)) d (course_id, granularity, bucket, delta) "
+            + "on t.course_id = d.course_id and t.granularity = d.granularity and t.bucket = d.bucket "
+            + "when matched then update set enrollments = greatest(t.enrollments + d.delta, 0) "
+            + "when not matched then insert (course_id, granularity, bucket, enrollments) values (d.course_id, d.granularity, d.bucket, greatest(d.delta, 0))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    /**
+     * Suma los incrementos a sus buckets, creando las filas que falten. Es atómico frente a otras réplicas
+     * que creen la misma fila a la vez ({@code on conflict} en PostgreSQL, {@code merge} en H2).
+     */
+    public void applyDeltas(List<Row> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (this.isPostgres()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, row) -> {
+                ps.setLong(1, row.courseId());
+                ps.setString(2, row.granularity().name());
+                ps.setLong(3, row.bucket());
+                ps.setLong(4, row.count());
+                ps.setLong(5, row.count());
+            });
+        } else {
+            jdbcTemplate.batchUpdate(MERGE_SQL, deltas, deltas.size(), (ps, row) -> {
+                ps.setLong(1, row.courseId());
+                ps.setString(2, row.granularity().name());
+                ps.setLong(3, row.bucket());
+                ps.setLong(4, row.count());
+            });
+        }
+    }
+
+    /**
+     * Sustituye todo el contenido de la tabla (usado por el backfill).
+     */
+    public void replaceAll(List<Row> rows, int batchSize) {
+        jdbcTemplate.update("delete from enrollment_rollups");
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, row.courseId());
+            ps.setString(2, row.granularity().name());
+            ps.setLong(3, row.bucket());
+            ps.setLong(4, row.count());
+        });
+    }
+
+    public void forEachRow(Consumer<Row> consumer) {
+        jdbcTemplate.query("select course_id, granularity, bucket, enrollments from enrollment_rollups where enrollments > 0",
+                rs -> {
+                    consumer.accept(new Row(rs.getLong(1), Granularity.valueOf(rs.getString(2)), rs.getLong(3), rs.getLong(4)));
+                });
+    }
+
+    public int deleteByCourse(Long courseId) {
+        return jdbcTemplate.update("delete from enrollment_rollups where course_id = ?", courseId);
+    }
+
+    public int deleteOlderThan(Granularity granularity, long bucket) {
+        return jdbcTemplate.update("delete from enrollment_rollups where granularity = ? and bucket < ?", granularity.name(), bucket);
+    }
+
+    private boolean isPostgres() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.isWrapperFor(PGConnection.class);
+        } catch (SQLException ex) {
+            return false;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    public record Row(long courseId, Granularity granularity, long bucket, long count) {
+    }
+}
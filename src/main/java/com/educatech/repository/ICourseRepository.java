@@ -2,14 +2,46 @@ package com.educatech.repository;
 
 import com.educatech.entity.Course;
 import com.educatech.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ICourseRepository extends JpaRepository<Course, Long> {
+    // Los listados devuelven la descripción completa: se trae en la misma consulta en vez de una por curso
+    @Override
+    @EntityGraph(attributePaths = "description")
+    Page<Course> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "description")
     List<Course> findAllByTeacher(User teacher);
 
+    @EntityGraph(attributePaths = "description")
     List<Course> findAllByTitleLike(String title);
+
+    // Solo comprueba existencia, sin cargar la descripción
+    @Query("select c.id from Course c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // título de todos los cursos, por lotes (índice de autocompletado); necesita una transacción abierta
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select c.id as id, c.title as title from Course c order by c.id")
+    Stream<CourseTitle> streamTitles();
+
+    interface CourseTitle {
+        Long getId();
+
+        String getTitle();
+    }
 }
@@ -4,8 +4,11 @@ import com.educatech.entity.Course;
 import com.educatech.entity.Enrollment;
 import com.educatech.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +20,11 @@ public interface IEnrollmentRepository extends JpaRepository<Enrollment, Long> {
 
     List<Enrollment> getEnrollmentsByStudent(User student);
 
+    boolean existsByStudentIdAndCourseId(Long studentId, Long courseId);
+
     User student(User student);
-}
\ No newline at end of file
+
+    // Pares (id estudiante, id curso) ya inscritos; puede devolver combinaciones de más que se filtran en memoria
+    @Query("select e.student.id, e.course.id from Enrollment e where e.student.id in :studentIds and e.course.id in :courseIds")
+    List<Object[]> findStudentAndCourseIds(@Param("studentIds") Collection<Long> studentIds, @Param("courseIds") Collection<Long> courseIds);
+}
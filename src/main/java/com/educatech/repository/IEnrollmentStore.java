@@ -0,0 +1,97 @@
+package com.educatech.repository;
+
+import com.educatech.entity.Course;
+import com.educatech.entity.Enrollment;
+import com.educatech.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Acceso a las inscripciones, tanto para los servicios como para los procesos que recorren la tabla entera
+ * (backfill de los agregados por curso, grafo de recomendaciones, contadores del autocompletado).
+ * <p>
+ * Hay dos implementaciones y solo una está activa: {@link JpaEnrollmentStore}, sobre la tabla
+ * {@code enrollments} de la base principal, y {@link ShardedEnrollmentRepository}, con las inscripciones
+ * repartidas por curso entre varias bases ({@code educatech.enrollment-sharding.enabled}).
+ */
+public interface IEnrollmentStore {
+    Enrollment save(Enrollment enrollment);
+
+    List<Enrollment> saveAll(Collection<Enrollment> enrollments);
+
+    Optional<Enrollment> findById(Long id);
+
+    Page<Enrollment> findAll(Pageable pageable);
+
+    void delete(Enrollment enrollment);
+
+    List<Enrollment> getEnrollmentsByCourse(Course course);
+
+    Optional<Enrollment> getEnrollmentByStudentAndCourse(User student, Course course);
+
+    List<Enrollment> getEnrollmentsByStudent(User student);
+
+    /**
+     * @return true si el estudiante ya está inscrito en el curso, también si la inscripción está archivada.
+     */
+    boolean existsByStudentAndCourse(Long studentId, Long courseId);
+
+    /**
+     * Pares (id estudiante, id curso) ya inscritos, también los archivados; puede devolver combinaciones de
+     * más que se filtran en memoria.
+     */
+    List<Object[]> findStudentAndCourseIds(Collection<Long> studentIds, Collection<Long> courseIds);
+
+    /**
+     * Borra las inscripciones de un curso que se va a borrar (también las archivadas).
+     */
+    void removeCourseEnrollments(Long courseId);
+
+    /**
+     * Borra las inscripciones de un estudiante que se va a borrar (también las archivadas).
+     */
+    void removeStudentEnrollments(Long studentId);
+
+    /**
+     * @return Número de inscripciones de cada curso que tiene alguna.
+     */
+    Map<Long, Long> countEnrollmentsByCourse();
+
+    /**
+     * @return El mayor ID de inscripción, o 0 si no hay ninguna.
+     */
+    long findMaxId();
+
+    /**
+     * Recorre las inscripciones con id en {@code [fromId, toId)}; lo usa el backfill por tramos.
+     */
+    void scanCourseDates(long fromId, long toId, CourseDateConsumer consumer);
+
+    /**
+     * Recorre las inscripciones archivadas, que no están en la tabla; lo usa el backfill para no perder
+     * los meses archivados.
+     */
+    void scanArchivedCourseDates(CourseDateConsumer consumer);
+
+    /**
+     * Recorre los pares (estudiante, curso) de todas las inscripciones ordenados por estudiante y curso.
+     * Debe llamarse dentro de una transacción para que PostgreSQL use un cursor.
+     */
+    void scanStudentCourses(StudentCourseConsumer consumer);
+
+    @FunctionalInterface
+    interface CourseDateConsumer {
+        void accept(long courseId, LocalDateTime enrollmentDate);
+    }
+
+    @FunctionalInterface
+    interface StudentCourseConsumer {
+        void accept(long studentId, long courseId);
+    }
+}
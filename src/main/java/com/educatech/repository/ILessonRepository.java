@@ -2,15 +2,31 @@ package com.educatech.repository;
 
 import com.educatech.entity.Course;
 import com.educatech.entity.Lesson;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ILessonRepository extends JpaRepository<Lesson, Long> {
+    // Los listados devuelven el contenido completo: se trae en la misma consulta en vez de una por lección
+    @Override
+    @EntityGraph(attributePaths = "content")
+    Page<Lesson> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "content")
     List<Lesson> getLessonsByCourse(Course course);
 
     Optional<Lesson> getLessonByTitleAndCourse(String title, Course course);
+
+    // Solo trae los títulos para no hidratar el contenido de cada lección
+    @Query("select l.title from Lesson l where l.course = :course and l.title in :titles")
+    List<String> findTitlesByCourseAndTitleIn(@Param("course") Course course, @Param("titles") Collection<String> titles);
 }
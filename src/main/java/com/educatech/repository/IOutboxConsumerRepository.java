@@ -0,0 +1,23 @@
+package com.educatech.repository;
+
+import com.educatech.entity.OutboxConsumer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IOutboxConsumerRepository extends JpaRepository<OutboxConsumer, String> {
+    @Query("select min(c.lastSequence) from OutboxConsumer c")
+    Long findMinLastSequence();
+
+    // solo hacia delante: un offset menor que el guardado no cambia nada
+    @Modifying
+    @Query("update OutboxConsumer c set c.lastSequence = :sequence, c.updatedAt = :updatedAt " +
+            "where c.consumerId = :consumerId and c.lastSequence < :sequence")
+    int advanceLastSequence(@Param("consumerId") String consumerId, @Param("sequence") Long sequence,
+                            @Param("updatedAt") LocalDateTime updatedAt);
+}
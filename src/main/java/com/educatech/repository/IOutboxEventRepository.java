@@ -0,0 +1,24 @@
+package com.educatech.repository;
+
+import com.educatech.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IOutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByFeedSequenceGreaterThanOrderByFeedSequenceAsc(Long feedSequence, Pageable pageable);
+
+    @Query("select max(e.feedSequence) from OutboxEvent e")
+    Long findMaxFeedSequence();
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.feedSequence <= :sequence or e.createdAt < :createdBefore")
+    int deleteConsumedOrExpired(@Param("sequence") Long sequence, @Param("createdBefore") LocalDateTime createdBefore);
+}
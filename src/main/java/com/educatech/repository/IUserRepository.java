@@ -2,15 +2,36 @@ package com.educatech.repository;
 
 import com.educatech.entity.User;
 import com.educatech.enums.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IUserRepository extends JpaRepository<User, Long> {
-    Optional<User> getUserByEmail(String email);
+    Optional<User> getUserByEmailNormalized(String emailNormalized);
+
+    boolean existsByEmailNormalized(String emailNormalized);
 
     List<User> getUsersByRole(Role role);
+
+    // solo la columna normalizada, por lotes (filtro de disponibilidad de emails); necesita una transacción abierta
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select u.emailNormalized from User u")
+    Stream<String> streamAllEmailsNormalized();
+
+    // emails ya registrados de un bloque de la importación de usuarios (índice único de email_normalized)
+    @Query("select u.emailNormalized from User u where u.emailNormalized in :emails")
+    List<String> findEmailsNormalizedIn(@Param("emails") Collection<String> emails);
+
+    @Query("select u.id from User u where u.id in :ids and u.role = :role")
+    List<Long> findIdsByIdInAndRole(@Param("ids") Collection<Long> ids, @Param("role") Role role);
 }
@@ -0,0 +1,142 @@
+package com.educatech.repository;
+
+import com.educatech.entity.Course;
+import com.educatech.entity.Enrollment;
+import com.educatech.entity.User;
+import com.educatech.util.EnrollmentArchiveCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Inscripciones en la tabla {@code enrollments} de la base principal: JPA para los servicios y JDBC para
+ * los recorridos de la tabla entera. Es la implementación activa salvo con sharding. Las comprobaciones de
+ * duplicados y los borrados incluyen las inscripciones archivadas ({@link EnrollmentPartitionRepository}).
+ */
+@Repository
+@ConditionalOnProperty(name = "educatech.enrollment-sharding.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaEnrollmentStore implements IEnrollmentStore {
+    private static final int FETCH_SIZE = 10_000;
+
+    private final IEnrollmentRepository enrollmentRepository;
+    private final EnrollmentPartitionRepository partitionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Enrollment save(Enrollment enrollment) {
+        // flush para que la versión devuelta sea la ya incrementada, como en ShardedEnrollmentRepository
+        return enrollmentRepository.saveAndFlush(enrollment);
+    }
+
+    @Override
+    public List<Enrollment> saveAll(Collection<Enrollment> enrollments) {
+        return enrollmentRepository.saveAll(enrollments);
+    }
+
+    @Override
+    public Optional<Enrollment> findById(Long id) {
+        return enrollmentRepository.findById(id);
+    }
+
+    @Override
+    public Page<Enrollment> findAll(Pageable pageable) {
+        return enrollmentRepository.findAll(pageable);
+    }
+
+    @Override
+    public void delete(Enrollment enrollment) {
+        enrollmentRepository.delete(enrollment);
+    }
+
+    @Override
+    public List<Enrollment> getEnrollmentsByCourse(Course course) {
+        return enrollmentRepository.getEnrollmentsByCourse(course);
+    }
+
+    @Override
+    public Optional<Enrollment> getEnrollmentByStudentAndCourse(User student, Course course) {
+        return enrollmentRepository.getEnrollmentByStudentAndCourse(student, course);
+    }
+
+    @Override
+    public List<Enrollment> getEnrollmentsByStudent(User student) {
+        return enrollmentRepository.getEnrollmentsByStudent(student);
+    }
+
+    @Override
+    public boolean existsByStudentAndCourse(Long studentId, Long courseId) {
+        return enrollmentRepository.existsByStudentIdAndCourseId(studentId, courseId)
+                || partitionRepository.isArchived(studentId, courseId);
+    }
+
+    @Override
+    public List<Object[]> findStudentAndCourseIds(Collection<Long> studentIds, Collection<Long> courseIds) {
+        List<Object[]> pairs = new ArrayList<>(enrollmentRepository.findStudentAndCourseIds(studentIds, courseIds));
+        pairs.addAll(partitionRepository.findArchivedStudentAndCourseIds(studentIds, courseIds));
+        return pairs;
+    }
+
+    // Las de la tabla se borran en cascada con el curso o el estudiante; aquí solo las archivadas
+    @Override
+    public void removeCourseEnrollments(Long courseId) {
+        partitionRepository.removeArchivedByCourse(courseId);
+    }
+
+    @Override
+    public void removeStudentEnrollments(Long studentId) {
+        partitionRepository.removeArchivedByStudent(studentId);
+    }
+
+    @Override
+    public Map<Long, Long> countEnrollmentsByCourse() {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("select course_id, count(*) from enrollments group by course_id", rs -> {
+            counts.put(rs.getLong(1), rs.getLong(2));
+        });
+        return counts;
+    }
+
+    @Override
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from enrollments", Long.class);
+        return maxId == null ? 0L : maxId;
+    }
+
+    @Override
+    public void scanCourseDates(long fromId, long toId, CourseDateConsumer consumer) {
+        jdbcTemplate.query("select course_id, enrollment_date from enrollments where id >= ? and id < ?",
+                rs -> {
+                    consumer.accept(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+                }, fromId, toId);
+    }
+
+    @Override
+    public void scanArchivedCourseDates(CourseDateConsumer consumer) {
+        partitionRepository.forEachArchive(data -> EnrollmentArchiveCodec.decode(data, row -> {
+            consumer.accept(row.courseId(), row.enrollmentDate());
+        }));
+    }
+
+    // Índice idx_enrollments_student_course
+    @Override
+    public void scanStudentCourses(StudentCourseConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("select student_id, course_id from enrollments order by student_id, course_id");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2));
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.educatech.repository;
+
+import com.educatech.dto.response.BatchLookupDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Búsqueda de varias entidades por ID en una sola operación, con la carga múltiple de Hibernate:
+ * primero resuelve las que ya están en el contexto de persistencia (y en la caché de segundo nivel si
+ * está activada) y el resto las trae con consultas IN por tramos, devolviéndolas en el orden pedido.
+ */
+@Repository
+public class MultiGetRepository {
+    public static final int MAX_IDS = 500;
+    private static final int IN_CHUNK_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param type   Entidad a cargar.
+     * @param ids    IDs pedidos (como mucho {@link #MAX_IDS}); los repetidos se ignoran.
+     * @param mapper Conversión de cada entidad a su DTO.
+     * @param fetchAttributes Atributos perezosos que usa el mapper y se cargan en la misma consulta.
+     * @return Un elemento por ID distinto, en el orden pedido, y la lista de IDs inexistentes.
+     */
+    public <T, R> BatchLookupDTO<R> findAllById(Class<T> type, List<Long> ids, Function<T, R> mapper, String... fetchAttributes) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one ID must be provided");
+        }
+        LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Cannot look up more than " + MAX_IDS + " IDs at once");
+        }
+        if (uniqueIds.stream().anyMatch(id -> id == null || id <= 0)) {
+            throw new IllegalArgumentException("IDs must be greater than zero");
+        }
+
+        List<Long> orderedIds = new ArrayList<>(uniqueIds);
+        Session session = entityManager.unwrap(Session.class);
+        RootGraph<T> graph = session.createEntityGraph(type);
+        graph.addAttributeNodes(fetchAttributes);
+        List<T> entities = session
+                .byMultipleIds(type)
+                .with(graph, GraphSemantic.LOAD)
+                .withBatchSize(IN_CHUNK_SIZE)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(orderedIds);
+
+        List<R> items = new ArrayList<>(orderedIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < orderedIds.size(); i++) {
+            T entity = entities.get(i);
+            if (entity == null) {
+                missingIds.add(orderedIds.get(i));
+                items.add(null);
+            } else {
+                items.add(mapper.apply(entity));
+            }
+        }
+        return new BatchLookupDTO<>(items, missingIds);
+    }
+}
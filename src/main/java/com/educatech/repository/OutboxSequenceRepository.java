@@ -0,0 +1,25 @@
+package com.educatech.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Asigna el offset del change feed ({@code outbox_events.feed_sequence}, V15) a los eventos ya confirmados.
+ * Una transacción solo ve los eventos confirmados, y la fila de {@code outbox_sequencer} serializa las
+ * asignaciones entre réplicas hasta el commit: un offset visible nunca queda por detrás de otro que se
+ * asigne más tarde. Debe llamarse dentro de una transacción.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxSequenceRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return Número de eventos a los que se ha asignado offset.
+     */
+    public int assignPendingSequences() {
+        jdbcTemplate.queryForList("select id from outbox_sequencer where id = 1 for update", Integer.class);
+        return jdbcTemplate.update("update outbox_events set feed_sequence = nextval('outbox_feed_seq') where feed_sequence is null");
+    }
+}
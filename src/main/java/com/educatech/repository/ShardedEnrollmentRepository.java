@@ -0,0 +1,526 @@
+package com.educatech.repository;
+
+import com.educatech.entity.Course;
+import com.educatech.entity.Enrollment;
+import com.educatech.entity.User;
+import com.educatech.util.EnrollmentShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Inscripciones repartidas por {@code course_id} entre varias bases de datos
+ * ({@code educatech.enrollment-sharding.enabled}); sustituye a {@link JpaEnrollmentStore}.
+ * <p>
+ * Las consultas por curso van a un solo shard; las demás (por estudiante, por ID, el listado paginado) se
+ * lanzan en paralelo a todos y se combinan ordenadas por ID. Los IDs salen de {@code enrollments_seq} de
+ * la base principal, así que son únicos entre shards.
+ * <p>
+ * Las escrituras se aplican al confirmar la transacción de la base principal (justo antes del commit), así
+ * que un rollback no deja inscripciones sueltas en los shards; lo que no es atómico es el commit de los dos
+ * lados, ni el cambio de curso que mueve una inscripción de shard. Las entidades devueltas tienen el
+ * estudiante y el curso sin cargar: solo su ID.
+ * <p>
+ * Los recorridos de la tabla entera (agregados por curso, recomendaciones, autocompletado) también leen de
+ * los shards. La carga masiva de inscripciones por COPY y el generador de datos de carga escriben en la base
+ * principal, así que no se pueden usar con el sharding activo.
+ */
+@Repository
+@ConditionalOnProperty(name = "educatech.enrollment-sharding.enabled", havingValue = "true")
+public class ShardedEnrollmentRepository implements IEnrollmentStore {
+    // igual que el incremento de enrollments_seq: cada nextval reserva los ids v - 49 .. v
+    private static final int ID_BLOCK = 50;
+    private static final int SCAN_FETCH_SIZE = 10_000;
+    private static final String COLUMNS = "id, version, student_id, course_id, enrollment_date";
+    private static final String INSERT_SQL =
+            "insert into enrollments (" + COLUMNS + ") values (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "update enrollments set version = version + 1, student_id = ?, course_id = ? where id = ? and version = ?";
+    private static final String DELETE_SQL = "delete from enrollments where id = ? and version = ?";
+    private static final RowMapper<Enrollment> ENROLLMENT_MAPPER = (rs, rowNum) -> {
+        User student = new User();
+        student.setId(rs.getLong("student_id"));
+        Course course = new Course();
+        course.setId(rs.getLong("course_id"));
+        Enrollment enrollment = new Enrollment();
+        enrollment.setId(rs.getLong("id"));
+        enrollment.setVersion(rs.getLong("version"));
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        enrollment.setEnrollmentDate(rs.getTimestamp("enrollment_date").toLocalDateTime());
+        return enrollment;
+    };
+
+    private final JdbcTemplate primary;
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final EnrollmentShardRouter router;
+    private final ExecutorService scatterExecutor;
+    private final Timer singleShardTimer;
+    private final Timer allShardsTimer;
+    private long nextId;
+    private long lastId = -1;
+
+    public ShardedEnrollmentRepository(JdbcTemplate jdbcTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${educatech.enrollment-sharding.urls}") List<String> urls,
+                                       @Value("${educatech.enrollment-sharding.username:}") String username,
+                                       @Value("${educatech.enrollment-sharding.password:}") String password,
+                                       @Value("${educatech.enrollment-sharding.pool-size:10}") int poolSize) {
+        this.primary = jdbcTemplate;
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("enrollment-shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSources.add(dataSource);
+            Flyway.configure().dataSource(dataSource).locations("classpath:db/shard").load().migrate();
+            shards.add(new JdbcTemplate(dataSource));
+        }
+        this.router = new EnrollmentShardRouter(shards.size());
+        AtomicInteger threads = new AtomicInteger();
+        this.scatterExecutor = Executors.newFixedThreadPool(Math.max(2, shards.size() * 2), runnable -> {
+            Thread thread = new Thread(runnable, "enrollment-shard-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.singleShardTimer = Timer.builder("educatech.enrollment-sharding.query").tag("shards", "single").register(meterRegistry);
+        this.allShardsTimer = Timer.builder("educatech.enrollment-sharding.query").tag("shards", "all").register(meterRegistry);
+    }
+
+    @Override
+    public Enrollment save(Enrollment enrollment) {
+        if (enrollment.getId() == null) {
+            Row row = this.prepareInsert(enrollment);
+            this.beforeCommit(() -> this.shard(row.courseId()).update(INSERT_SQL, row.insertArgs()));
+        } else {
+            Row row = Row.of(enrollment);
+            enrollment.setVersion(row.version() + 1);
+            this.beforeCommit(() -> this.update(row));
+        }
+        return enrollment;
+    }
+
+    @Override
+    public List<Enrollment> saveAll(Collection<Enrollment> enrollments) {
+        Map<Integer, List<Object[]>> insertsByShard = new TreeMap<>();
+        List<Enrollment> saved = new ArrayList<>();
+        for (Enrollment enrollment : enrollments) {
+            if (enrollment.getId() == null) {
+                Row row = this.prepareInsert(enrollment);
+                insertsByShard.computeIfAbsent(router.shardFor(row.courseId()), shard -> new ArrayList<>()).add(row.insertArgs());
+                saved.add(enrollment);
+            } else {
+                saved.add(this.save(enrollment));
+            }
+        }
+        if (!insertsByShard.isEmpty()) {
+            this.beforeCommit(() -> insertsByShard.forEach((shard, rows) -> shards.get(shard).batchUpdate(INSERT_SQL, rows)));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Enrollment> findById(Long id) {
+        return this.onAllShards(shard -> shard.query("select " + COLUMNS + " from enrollments where id = ?", ENROLLMENT_MAPPER, id))
+                .stream().flatMap(List::stream).findFirst();
+    }
+
+    /**
+     * Página de inscripciones: cada shard devuelve sus primeras {@code offset + size} y se combinan. Solo se
+     * puede ordenar por ID; las páginas profundas cuestan como en una sola base (o más).
+     */
+    @Override
+    public Page<Enrollment> findAll(Pageable pageable) {
+        boolean ascending = true;
+        for (Sort.Order order : pageable.getSort()) {
+            if (!order.getProperty().equals("id")) {
+                throw new IllegalArgumentException("Sharded enrollments can only be sorted by id");
+            }
+            ascending = order.isAscending();
+        }
+        String direction = ascending ? "asc" : "desc";
+        Comparator<Enrollment> byId = Comparator.comparing(Enrollment::getId);
+        Comparator<Enrollment> comparator = ascending ? byId : byId.reversed();
+        if (pageable.isUnpaged()) {
+            List<Enrollment> all = this.merge(this.onAllShards(shard ->
+                    shard.query("select " + COLUMNS + " from enrollments order by id " + direction, ENROLLMENT_MAPPER)), comparator);
+            return new PageImpl<>(all, pageable, all.size());
+        }
+
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        String sql = "select " + COLUMNS + " from enrollments order by id " + direction + " limit ?";
+        List<Enrollment> firstRows = this.merge(this.onAllShards(shard -> shard.query(sql, ENROLLMENT_MAPPER, limit)), comparator);
+        long total = this.onAllShards(shard -> shard.queryForObject("select count(*) from enrollments", Long.class))
+                .stream().mapToLong(Long::longValue).sum();
+        int from = (int) Math.min(pageable.getOffset(), firstRows.size());
+        return new PageImpl<>(firstRows.subList(from, (int) Math.min(limit, firstRows.size())), pageable, total);
+    }
+
+    @Override
+    public void delete(Enrollment enrollment) {
+        Row row = Row.of(enrollment);
+        this.beforeCommit(() -> {
+            if (this.shard(row.courseId()).update(DELETE_SQL, row.id(), row.version()) == 0) {
+                throw new ObjectOptimisticLockingFailureException(Enrollment.class, row.id());
+            }
+        });
+    }
+
+    @Override
+    public List<Enrollment> getEnrollmentsByCourse(Course course) {
+        return this.onShard(course.getId(), shard ->
+                shard.query("select " + COLUMNS + " from enrollments where course_id = ? order by id", ENROLLMENT_MAPPER, course.getId()));
+    }
+
+    @Override
+    public Optional<Enrollment> getEnrollmentByStudentAndCourse(User student, Course course) {
+        return this.onShard(course.getId(), shard ->
+                shard.query("select " + COLUMNS + " from enrollments where student_id = ? and course_id = ?",
+                        ENROLLMENT_MAPPER, student.getId(), course.getId())).stream().findFirst();
+    }
+
+    // Sin archivo: el particionado y el archivado son de la tabla de la base principal
+    @Override
+    public boolean existsByStudentAndCourse(Long studentId, Long courseId) {
+        return !this.onShard(courseId, shard -> shard.queryForList("select 1 from enrollments where student_id = ? and course_id = ?",
+                Integer.class, studentId, courseId)).isEmpty();
+    }
+
+    /**
+     * Inscripciones de un estudiante: pueden estar en cualquier shard, así que se consultan todos en paralelo.
+     */
+    @Override
+    public List<Enrollment> getEnrollmentsByStudent(User student) {
+        return this.merge(this.onAllShards(shard ->
+                        shard.query("select " + COLUMNS + " from enrollments where student_id = ? order by id", ENROLLMENT_MAPPER, student.getId())),
+                Comparator.comparing(Enrollment::getId));
+    }
+
+    /**
+     * Pares (id estudiante, id curso) ya inscritos; cada shard recibe solo los cursos que le corresponden.
+     */
+    @Override
+    public List<Object[]> findStudentAndCourseIds(Collection<Long> studentIds, Collection<Long> courseIds) {
+        if (studentIds.isEmpty() || courseIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, List<Long>> coursesByShard = new TreeMap<>();
+        for (Long courseId : courseIds) {
+            coursesByShard.computeIfAbsent(router.shardFor(courseId), shard -> new ArrayList<>()).add(courseId);
+        }
+        List<CompletableFuture<List<Object[]>>> queries = new ArrayList<>();
+        for (Map.Entry<Integer, List<Long>> entry : coursesByShard.entrySet()) {
+            String sql = "select student_id, course_id from enrollments where student_id in (" + placeholders(studentIds.size())
+                    + ") and course_id in (" + placeholders(entry.getValue().size()) + ")";
+            Object[] args = new Object[studentIds.size() + entry.getValue().size()];
+            int i = 0;
+            for (Long studentId : studentIds) {
+                args[i++] = studentId;
+            }
+            for (Long courseId : entry.getValue()) {
+                args[i++] = courseId;
+            }
+            JdbcTemplate shard = shards.get(entry.getKey());
+            queries.add(CompletableFuture.supplyAsync(() -> shard.query(sql,
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getLong(2)}, args), scatterExecutor));
+        }
+        List<Object[]> pairs = new ArrayList<>();
+        for (List<Object[]> result : this.join(queries)) {
+            pairs.addAll(result);
+        }
+        return pairs;
+    }
+
+    /**
+     * Borra las inscripciones de un curso (en la base principal lo hace la cascada de JPA).
+     */
+    @Override
+    public void removeCourseEnrollments(Long courseId) {
+        this.beforeCommit(() -> this.shard(courseId).update("delete from enrollments where course_id = ?", courseId));
+    }
+
+    /**
+     * Borra las inscripciones de un estudiante en todos los shards.
+     */
+    @Override
+    public void removeStudentEnrollments(Long studentId) {
+        this.beforeCommit(() -> this.onAllShards(shard -> shard.update("delete from enrollments where student_id = ?", studentId)));
+    }
+
+    /**
+     * Cada curso está en un solo shard: basta con juntar los recuentos de todos.
+     */
+    @Override
+    public Map<Long, Long> countEnrollmentsByCourse() {
+        Map<Long, Long> counts = new HashMap<>();
+        this.onAllShards(shard -> shard.query("select course_id, count(*) from enrollments group by course_id",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)})).forEach(rows -> rows.forEach(row -> counts.put(row[0], row[1])));
+        return counts;
+    }
+
+    @Override
+    public long findMaxId() {
+        return this.onAllShards(shard -> shard.queryForObject("select coalesce(max(id), 0) from enrollments", Long.class))
+                .stream().mapToLong(Long::longValue).max().orElse(0L);
+    }
+
+    @Override
+    public void scanCourseDates(long fromId, long toId, CourseDateConsumer consumer) {
+        for (JdbcTemplate shard : shards) {
+            shard.query("select course_id, enrollment_date from enrollments where id >= ? and id < ?",
+                    rs -> {
+                        consumer.accept(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+                    }, fromId, toId);
+        }
+    }
+
+    // Los shards no se particionan ni se archivan
+    @Override
+    public void scanArchivedCourseDates(CourseDateConsumer consumer) {
+    }
+
+    /**
+     * Los estudiantes están repartidos entre todos los shards: se abre un cursor ordenado en cada uno y se
+     * mezclan, sin tener más de un lote de filas por shard en memoria.
+     */
+    @Override
+    public void scanStudentCourses(StudentCourseConsumer consumer) {
+        List<Connection> connections = new ArrayList<>(dataSources.size());
+        PriorityQueue<StudentCourseCursor> cursors = new PriorityQueue<>(
+                Comparator.comparingLong(StudentCourseCursor::studentId).thenComparingLong(StudentCourseCursor::courseId));
+        try {
+            for (HikariDataSource dataSource : dataSources) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                // sin autocommit para que PostgreSQL respete el fetchSize
+                connection.setAutoCommit(false);
+                PreparedStatement statement = connection.prepareStatement(
+                        "select student_id, course_id from enrollments order by student_id, course_id");
+                statement.setFetchSize(SCAN_FETCH_SIZE);
+                StudentCourseCursor cursor = new StudentCourseCursor(statement.executeQuery());
+                if (cursor.next()) {
+                    cursors.add(cursor);
+                }
+            }
+            while (!cursors.isEmpty()) {
+                StudentCourseCursor cursor = cursors.poll();
+                consumer.accept(cursor.studentId(), cursor.courseId());
+                if (cursor.next()) {
+                    cursors.add(cursor);
+                }
+            }
+        } catch (SQLException ex) {
+            throw new DataRetrievalFailureException("Could not scan the enrollment shards", ex);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                    connection.close();
+                } catch (SQLException ex) {
+                    // la conexión se descarta igualmente
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        scatterExecutor.shutdownNow();
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    // Metodo auxiliar que asigna ID, versión y fecha a una inscripción nueva
+    private Row prepareInsert(Enrollment enrollment) {
+        enrollment.setId(this.nextId());
+        enrollment.setVersion(0L);
+        if (enrollment.getEnrollmentDate() == null) {
+            enrollment.setEnrollmentDate(LocalDateTime.now());
+        }
+        return Row.of(enrollment);
+    }
+
+    // Actualización con comprobación de versión; si cambia el curso, la fila pasa al shard del curso nuevo
+    private void update(Row row) {
+        JdbcTemplate target = this.shard(row.courseId());
+        if (target.update(UPDATE_SQL, row.studentId(), row.courseId(), row.id(), row.version()) == 1) {
+            return;
+        }
+        for (JdbcTemplate source : shards) {
+            if (source == target) {
+                continue;
+            }
+            List<LocalDateTime> dates = source.query("select enrollment_date from enrollments where id = ? and version = ?",
+                    (rs, rowNum) -> rs.getTimestamp(1).toLocalDateTime(), row.id(), row.version());
+            if (dates.isEmpty()) {
+                continue;
+            }
+            // primero en el destino: si choca con la unicidad estudiante-curso, el origen queda intacto
+            target.update(INSERT_SQL, row.id(), row.version() + 1, row.studentId(), row.courseId(), Timestamp.valueOf(dates.get(0)));
+            if (source.update(DELETE_SQL, row.id(), row.version()) == 1) {
+                return;
+            }
+            target.update("delete from enrollments where id = ?", row.id());
+            break;
+        }
+        throw new ObjectOptimisticLockingFailureException(Enrollment.class, row.id());
+    }
+
+    // Metodo auxiliar que ejecuta la escritura antes de confirmar la transacción en curso (o ya, si no hay)
+    private void beforeCommit(Runnable write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write.run();
+                }
+            });
+        } else {
+            write.run();
+        }
+    }
+
+    // IDs de enrollments_seq en bloques de 50, como el optimizador de Hibernate
+    private synchronized long nextId() {
+        while (nextId > lastId) {
+            Long upper = primary.queryForObject("select nextval('enrollments_seq')", Long.class);
+            // el primer valor de la secuencia no cierra un bloque completo: se descarta
+            if (upper != null && upper >= ID_BLOCK) {
+                nextId = upper - ID_BLOCK + 1;
+                lastId = upper;
+            }
+        }
+        return nextId++;
+    }
+
+    private JdbcTemplate shard(long courseId) {
+        return shards.get(router.shardFor(courseId));
+    }
+
+    private <T> T onShard(long courseId, Function<JdbcTemplate, T> query) {
+        return singleShardTimer.record(() -> query.apply(this.shard(courseId)));
+    }
+
+    // Lanza la consulta en todos los shards a la vez y espera a todos
+    private <T> List<T> onAllShards(Function<JdbcTemplate, T> query) {
+        long start = System.nanoTime();
+        List<CompletableFuture<T>> queries = new ArrayList<>(shards.size());
+        for (JdbcTemplate shard : shards) {
+            queries.add(CompletableFuture.supplyAsync(() -> query.apply(shard), scatterExecutor));
+        }
+        List<T> results = this.join(queries);
+        allShardsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    private <T> List<T> join(List<CompletableFuture<T>> queries) {
+        List<T> results = new ArrayList<>(queries.size());
+        try {
+            for (CompletableFuture<T> query : queries) {
+                results.add(query.join());
+            }
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return results;
+    }
+
+    // Une los resultados de los shards en un solo orden
+    private List<Enrollment> merge(List<List<Enrollment>> perShard, Comparator<Enrollment> comparator) {
+        List<Enrollment> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(comparator);
+        return merged;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // Cursor de un shard con la fila actual, para la mezcla ordenada de scanStudentCourses
+    private static final class StudentCourseCursor {
+        private final ResultSet resultSet;
+        private long studentId;
+        private long courseId;
+
+        StudentCourseCursor(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        boolean next() throws SQLException {
+            if (!resultSet.next()) {
+                return false;
+            }
+            studentId = resultSet.getLong(1);
+            courseId = resultSet.getLong(2);
+            return true;
+        }
+
+        long studentId() {
+            return studentId;
+        }
+
+        long courseId() {
+            return courseId;
+        }
+    }
+
+    private record Row(long id, long version, long studentId, long courseId, LocalDateTime enrollmentDate) {
+        static Row of(Enrollment enrollment) {
+            return new Row(enrollment.getId(), enrollment.getVersion(), enrollment.getStudent().getId(),
+                    enrollment.getCourse().getId(), enrollment.getEnrollmentDate());
+        }
+
+        Object[] insertArgs() {
+            return new Object[]{id, version, studentId, courseId, Timestamp.valueOf(enrollmentDate)};
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.educatech.repository;
+
+import com.educatech.exception.InvalidFieldsException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Lecturas con selección de campos ({@code fields=}): construye una consulta de tuplas con solo las
+ * columnas pedidas, así que los LOBs y demás columnas no pedidas ni se leen de la base de datos
+ * ni se serializan. Cada servicio declara qué nombres de campo de su DTO admite y a qué atributo
+ * de la entidad corresponde cada uno (p. ej. {@code teacherId -> teacher.id}, que no hace join).
+ */
+@Repository
+public class SparseFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param type          Entidad consultada.
+     * @param allowedFields Campos admitidos: nombre en la respuesta -> ruta del atributo.
+     * @param fields        Campos pedidos, en el orden en que se devuelven.
+     * @param specification Filtro opcional (null para todos).
+     * @param pageable      Paginación y orden.
+     * @return Página con un mapa campo -> valor por fila.
+     */
+    public <T> Page<Map<String, Object>> findAll(Class<T> type, Map<String, String> allowedFields, Set<String> fields,
+                                                 Specification<T> specification, Pageable pageable) {
+        List<String> selected = this.validate(allowedFields, fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(this.selections(root, allowedFields, selected));
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> rows = this.toRows(typedQuery.getResultList(), selected);
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(rows);
+        }
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<T> countRoot = countQuery.from(type);
+        countQuery.select(cb.count(countRoot));
+        Predicate countPredicate = specification == null ? null : specification.toPredicate(countRoot, countQuery, cb);
+        if (countPredicate != null) {
+            countQuery.where(countPredicate);
+        }
+        return new PageImpl<>(rows, pageable, entityManager.createQuery(countQuery).getSingleResult());
+    }
+
+    /**
+     * Igual que {@link #findAll(Class, Map, Set, Specification, Pageable)} pero sin paginar.
+     */
+    public <T> List<Map<String, Object>> findAll(Class<T> type, Map<String, String> allowedFields, Set<String> fields,
+                                                 Specification<T> specification) {
+        return this.findAll(type, allowedFields, fields, specification, Pageable.unpaged()).getContent();
+    }
+
+    // Metodo auxiliar que comprueba los campos pedidos contra los admitidos
+    private List<String> validate(Map<String, String> allowedFields, Set<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new InvalidFieldsException("At least one field must be requested");
+        }
+        List<String> selected = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            String name = field.trim();
+            if (!allowedFields.containsKey(name)) {
+                throw new InvalidFieldsException("Unknown field: " + name + ". Allowed fields: " + new TreeSet<>(allowedFields.keySet()));
+            }
+            if (!selected.contains(name)) {
+                selected.add(name);
+            }
+        }
+        return selected;
+    }
+
+    private List<Selection<?>> selections(Root<?> root, Map<String, String> allowedFields, List<String> selected) {
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (String field : selected) {
+            Path<?> path = root;
+            for (String attribute : allowedFields.get(field).split("\\.")) {
+                path = path.get(attribute);
+            }
+            selections.add(path.alias(field));
+        }
+        return selections;
+    }
+
+    private List<Map<String, Object>> toRows(List<Tuple> tuples, List<String> selected) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selected) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,63 @@
+package com.educatech.repository;
+
+import com.educatech.enums.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Altas de usuarios por lotes JDBC para la importación en streaming: sin entidades en el contexto de
+ * persistencia, así que la memoria no crece con el tamaño del fichero.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserImportRepository {
+    // igual que el incremento de users_seq: cada nextval reserva para esta carga los ids v - 49 .. v
+    private static final int ID_BLOCK = 50;
+    private static final String INSERT_SQL =
+            "insert into users (id, version, first_name, last_name, email, password, role) values (?, 0, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva ids de {@code users_seq} con un nextval por cada bloque de 50, como el optimizador de Hibernate,
+     * de modo que no chocan con los que asigna JPA.
+     *
+     * @param count Ids necesarios.
+     * @return Ids reservados, en orden ascendente.
+     */
+    public long[] allocateIds(int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Long upper = jdbcTemplate.queryForObject("select nextval('users_seq')", Long.class);
+            // el primer valor de la secuencia no cierra un bloque completo: se descarta
+            if (upper == null || upper < ID_BLOCK) {
+                continue;
+            }
+            for (long id = upper - ID_BLOCK + 1; id <= upper && filled < count; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+
+    public void insert(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.id());
+            ps.setString(2, row.firstName());
+            ps.setString(3, row.lastName());
+            ps.setString(4, row.email());
+            ps.setString(5, row.password());
+            ps.setString(6, row.role().name());
+        });
+    }
+
+    public record Row(long id, String firstName, String lastName, String email, String password, Role role) {
+    }
+}
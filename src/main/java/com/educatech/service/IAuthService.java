@@ -0,0 +1,8 @@
+package com.educatech.service;
+
+import com.educatech.dto.request.TokenRequestDTO;
+import com.educatech.dto.response.TokenResponseDTO;
+
+public interface IAuthService {
+    TokenResponseDTO issueToken(TokenRequestDTO tokenRequestDTO);
+}
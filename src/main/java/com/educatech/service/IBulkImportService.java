@@ -0,0 +1,15 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.BulkImportReportDTO;
+import com.educatech.enums.BulkImportEntity;
+
+import java.io.InputStream;
+import java.util.List;
+
+public interface IBulkImportService {
+    BulkImportReportDTO importCsv(BulkImportEntity entity, String source, InputStream csv);
+
+    List<BulkImportReportDTO> getImports();
+
+    BulkImportReportDTO getImport(String id);
+}
@@ -0,0 +1,15 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.CourseSuggestionDTO;
+
+import java.util.List;
+
+public interface ICourseAutocompleteService {
+    List<CourseSuggestionDTO> suggest(String prefix, int limit);
+
+    void recordCourse(Long idCourse, String title);
+
+    void removeCourse(Long idCourse);
+
+    int rebuild();
+}
@@ -0,0 +1,16 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.CourseRecommendationDTO;
+import com.educatech.dto.response.RecommendationGraphStatsDTO;
+
+import java.util.List;
+
+public interface ICourseRecommendationService {
+    List<CourseRecommendationDTO> getSimilarCourses(Long idCourse, int limit);
+
+    void markStale();
+
+    RecommendationGraphStatsDTO rebuild();
+
+    RecommendationGraphStatsDTO getStats();
+}
@@ -1,20 +1,29 @@
 package com.educatech.service;
 
 import com.educatech.dto.request.CourseRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
 import com.educatech.dto.response.CourseResponseDTO;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface ICourseService {
     CourseResponseDTO saveCourse(CourseRequestDTO course);
 
     Page<CourseResponseDTO> getAllCourses(Pageable pageable);
 
+    Page<Map<String, Object>> getAllCourses(Pageable pageable, Set<String> fields);
+
     CourseResponseDTO getCourseById(Long idCourse);
 
+    Map<String, Object> getCourseById(Long idCourse, Set<String> fields);
+
+    BatchLookupDTO<CourseResponseDTO> getCoursesByIds(List<Long> idCourses);
+
     CourseResponseDTO updateCourse(Long idCourse, CourseRequestDTO courseWithUpdates);
 
     void deleteCourse(Long idCourse);
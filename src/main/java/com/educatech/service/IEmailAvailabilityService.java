@@ -0,0 +1,9 @@
+package com.educatech.service;
+
+public interface IEmailAvailabilityService {
+    boolean isAvailable(String email);
+
+    void recordEmail(String email);
+
+    long rebuild();
+}
@@ -0,0 +1,12 @@
+package com.educatech.service;
+
+import com.educatech.dto.request.EnrollmentRequestDTO;
+import com.educatech.dto.response.EnrollmentIngestionStatusDTO;
+
+import java.util.UUID;
+
+public interface IEnrollmentIngestionService {
+    EnrollmentIngestionStatusDTO acceptEnrollment(EnrollmentRequestDTO enrollment);
+
+    EnrollmentIngestionStatusDTO getStatus(UUID requestId);
+}
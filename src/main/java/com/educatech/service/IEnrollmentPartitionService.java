@@ -0,0 +1,13 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.EnrollmentResponseDTO;
+import com.educatech.dto.response.PartitionMaintenanceDTO;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface IEnrollmentPartitionService {
+    PartitionMaintenanceDTO maintain();
+
+    List<EnrollmentResponseDTO> getArchivedEnrollments(Long studentId, Long courseId, YearMonth from, YearMonth to);
+}
@@ -0,0 +1,18 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.EnrollmentTimeSeriesDTO;
+import com.educatech.enums.Granularity;
+
+import java.time.LocalDateTime;
+
+public interface IEnrollmentRollupService {
+    void record(Long enrollmentId, Long courseId, LocalDateTime enrollmentDate, int delta);
+
+    void removeCourse(Long courseId);
+
+    EnrollmentTimeSeriesDTO getSeries(Long courseId, Granularity granularity, LocalDateTime from, LocalDateTime to);
+
+    int flush();
+
+    long backfill();
+}
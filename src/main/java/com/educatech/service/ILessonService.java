@@ -1,22 +1,36 @@
 package com.educatech.service;
 
 import com.educatech.dto.request.LessonRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.LessonImportResultDTO;
 import com.educatech.dto.response.LessonResponseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface ILessonService {
     LessonResponseDTO saveLesson(LessonRequestDTO lesson);
 
     Page<LessonResponseDTO> getAllLessons(Pageable pageable);
 
+    Page<Map<String, Object>> getAllLessons(Pageable pageable, Set<String> fields);
+
     LessonResponseDTO getLessonById(Long idLesson);
 
+    Map<String, Object> getLessonById(Long idLesson, Set<String> fields);
+
+    BatchLookupDTO<LessonResponseDTO> getLessonsByIds(List<Long> idLessons);
+
     LessonResponseDTO updateLesson(Long idLesson, LessonRequestDTO lessonWithUpdates);
 
     void deleteLesson(Long idLesson);
 
     List<LessonResponseDTO> getLessonsByCourse(Long idCourse);
+
+    List<Map<String, Object>> getLessonsByCourse(Long idCourse, Set<String> fields);
+
+    List<LessonImportResultDTO> importLessons(Long idCourse, List<LessonRequestDTO> lessons);
 }
@@ -0,0 +1,15 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.ChangeFeedPageDTO;
+import com.educatech.enums.ChangeAggregate;
+import com.educatech.enums.ChangeType;
+
+import java.util.Map;
+
+public interface IOutboxService {
+    void record(ChangeAggregate aggregateType, Long aggregateId, ChangeType eventType, Map<String, Object> payload);
+
+    ChangeFeedPageDTO getChanges(String ownerId, String consumerId, Long afterSequence, int limit, long waitMillis);
+
+    int compact();
+}
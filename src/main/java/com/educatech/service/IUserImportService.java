@@ -0,0 +1,12 @@
+package com.educatech.service;
+
+import com.educatech.dto.response.UserImportResultDTO;
+import com.educatech.enums.UserImportFormat;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface IUserImportService {
+    void importUsers(InputStream input, UserImportFormat format, Consumer<List<UserImportResultDTO>> results);
+}
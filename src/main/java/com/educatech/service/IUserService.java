@@ -1,20 +1,30 @@
 package com.educatech.service;
 
 import com.educatech.dto.request.UserRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.EmailAvailabilityDTO;
 import com.educatech.dto.response.UserResponseDTO;
 import com.educatech.enums.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface IUserService {
     UserResponseDTO saveUser(UserRequestDTO userRequestDTO);
 
     Page<UserResponseDTO> getAllUsers(Pageable pageable);
 
+    Page<Map<String, Object>> getAllUsers(Pageable pageable, Set<String> fields);
+
     UserResponseDTO getUserById(Long id);
 
+    Map<String, Object> getUserById(Long id, Set<String> fields);
+
+    BatchLookupDTO<UserResponseDTO> getUsersByIds(List<Long> ids);
+
     UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO);
 
     void deleteUser(Long id);
@@ -22,4 +32,6 @@ public interface IUserService {
     List<UserResponseDTO> getUsersByRole(Role role);
 
     UserResponseDTO getUserByEmail(String email);
+
+    EmailAvailabilityDTO getEmailAvailability(String email);
 }
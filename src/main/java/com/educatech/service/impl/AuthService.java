@@ -0,0 +1,61 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.request.TokenRequestDTO;
+import com.educatech.dto.response.TokenResponseDTO;
+import com.educatech.entity.User;
+import com.educatech.exception.InvalidCredentialsException;
+import com.educatech.repository.IUserRepository;
+import com.educatech.service.IAuthService;
+import com.educatech.util.AccessTokenCodec;
+import com.educatech.util.EmailAddresses;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class AuthService implements IAuthService {
+    private final IUserRepository userRepository;
+    private final AccessTokenCodec accessTokenCodec;
+    private final PasswordEncoder passwordEncoder;
+    // hash que se comprueba cuando el email no existe, para que el tiempo de respuesta no revele qué emails están registrados
+    private final String unknownUserPassword;
+
+    public AuthService(IUserRepository userRepository, AccessTokenCodec accessTokenCodec, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.accessTokenCodec = accessTokenCodec;
+        this.passwordEncoder = passwordEncoder;
+        this.unknownUserPassword = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
+
+    /**
+     * Comprueba las credenciales y emite un token de acceso con el ID y el rol del usuario.
+     * Es la única consulta de usuarios de la autenticación: las peticiones siguientes solo verifican el token.
+     * Si la contraseña guardada está en claro (filas antiguas o cargas masivas) se cifra al comprobarla.
+     *
+     * @param tokenRequestDTO Email y contraseña.
+     * @return Token de acceso y segundos hasta que caduca.
+     */
+    @Override
+    @Transactional
+    public TokenResponseDTO issueToken(TokenRequestDTO tokenRequestDTO) {
+        if (tokenRequestDTO.getEmail() == null || tokenRequestDTO.getPassword() == null) {
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
+        Optional<User> candidate = userRepository.getUserByEmailNormalized(EmailAddresses.normalize(tokenRequestDTO.getEmail()));
+        String storedPassword = candidate.map(User::getPassword).orElse(unknownUserPassword);
+        if (!passwordEncoder.matches(tokenRequestDTO.getPassword(), storedPassword) || candidate.isEmpty()) {
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
+
+        User user = candidate.get();
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(tokenRequestDTO.getPassword()));
+        }
+        String token = accessTokenCodec.issue(user.getId(), user.getRole(), Instant.now());
+        return new TokenResponseDTO(token, "Bearer", accessTokenCodec.getTtl().toSeconds(), user.getId(), user.getRole().name());
+    }
+}
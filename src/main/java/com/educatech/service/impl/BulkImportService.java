@@ -0,0 +1,281 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.BulkImportRejectionDTO;
+import com.educatech.dto.response.BulkImportReportDTO;
+import com.educatech.enums.BulkImportEntity;
+import com.educatech.enums.BulkImportPhase;
+import com.educatech.exception.BulkImportNotFoundException;
+import com.educatech.repository.BulkImportRepository;
+import com.educatech.service.IBulkImportService;
+import com.educatech.service.ICourseAutocompleteService;
+import com.educatech.service.ICourseRecommendationService;
+import com.educatech.service.IEmailAvailabilityService;
+import com.educatech.service.IEnrollmentRollupService;
+import com.educatech.util.PasswordHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cargas masivas desde CSV (migraciones de otras instituciones): staging, validación con SQL sobre
+ * el conjunto y fusión en las tablas reales, todo en una transacción (ver {@link BulkImportRepository}).
+ * Las filas inválidas no abortan la carga: se informan con su motivo y el resto se importa.
+ * El avance de las cargas en curso y el resultado de las últimas se pueden consultar mientras tanto.
+ * <p>
+ * Las filas importadas no pasan por el outbox, así que no aparecen en el change feed; tras importar
+ * inscripciones se recalculan las series temporales y las recomendaciones, tras importar cursos el índice
+ * de autocompletado y tras importar usuarios el filtro de disponibilidad de emails. Las contraseñas de los
+ * usuarios se cifran con {@link PasswordHasher} entre la validación y la fusión (las que ya vienen cifradas
+ * con {@code {bcrypt}} se guardan tal cual). Con sharding de inscripciones no se pueden importar inscripciones.
+ */
+@Service
+public class BulkImportService implements IBulkImportService {
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+    private static final int MAX_TRACKED_IMPORTS = 50;
+    private static final int SAMPLE_REJECTIONS = 20;
+    private static final int MAX_HEADER_BYTES = 4096;
+    private static final long LOG_EVERY_ROWS = 100_000;
+
+    private final BulkImportRepository bulkImportRepository;
+    private final IEnrollmentRollupService enrollmentRollupService;
+    private final ICourseRecommendationService courseRecommendationService;
+    private final IEmailAvailabilityService emailAvailabilityService;
+    private final ICourseAutocompleteService courseAutocompleteService;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    // con sharding las inscripciones no están en la base principal, que es donde escribe la carga
+    private final boolean enrollmentSharding;
+    // cargas en curso y terminadas, de la más antigua a la más reciente
+    private final Map<String, Progress> imports = new LinkedHashMap<>();
+
+    public BulkImportService(BulkImportRepository bulkImportRepository,
+                             IEnrollmentRollupService enrollmentRollupService,
+                             ICourseRecommendationService courseRecommendationService,
+                             IEmailAvailabilityService emailAvailabilityService,
+                             ICourseAutocompleteService courseAutocompleteService,
+                             PasswordHasher passwordHasher,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${educatech.enrollment-sharding.enabled:false}") boolean enrollmentSharding) {
+        this.bulkImportRepository = bulkImportRepository;
+        this.enrollmentRollupService = enrollmentRollupService;
+        this.courseRecommendationService = courseRecommendationService;
+        this.emailAvailabilityService = emailAvailabilityService;
+        this.courseAutocompleteService = courseAutocompleteService;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enrollmentSharding = enrollmentSharding;
+    }
+
+    /**
+     * Importa un CSV con cabecera. Las columnas de cada entidad están en {@link BulkImportRepository#csvColumns(BulkImportEntity)};
+     * las referencias a otras filas usan los {@code source_id} de cargas anteriores del mismo {@code source}.
+     *
+     * @param entity Tabla de destino.
+     * @param source Sistema de origen; separa los {@code source_id} de distintas migraciones.
+     * @param csv    Contenido del fichero, que se lee en streaming.
+     * @return Filas leídas, importadas y rechazadas (con los motivos).
+     */
+    @Override
+    public BulkImportReportDTO importCsv(BulkImportEntity entity, String source, InputStream csv) {
+        if (source == null || source.isBlank() || source.length() > 100) {
+            throw new IllegalArgumentException("Source must be provided and at most 100 characters long");
+        }
+        if (entity == BulkImportEntity.ENROLLMENTS && enrollmentSharding) {
+            throw new IllegalArgumentException("Enrollment bulk imports are not available with enrollment sharding");
+        }
+        Progress progress = this.track(new Progress(UUID.randomUUID().toString(), entity, source));
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            InputStream rows = new BufferedInputStream(csv, 1 << 16);
+            this.checkHeader(rows, entity);
+            transactionTemplate.executeWithoutResult(status -> this.run(progress, rows));
+            progress.finish(BulkImportPhase.COMPLETED, null);
+        } catch (RuntimeException ex) {
+            progress.finish(BulkImportPhase.FAILED, ex.getMessage());
+            log.warn("Bulk import {} of {} from {} failed after {} rows: {}", progress.id, entity, source, progress.rowsRead, ex.getMessage());
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder("educatech.bulk-import").tag("entity", entity.name().toLowerCase())
+                    .tag("phase", progress.phase.name().toLowerCase()).register(meterRegistry));
+        }
+
+        Counter.builder("educatech.bulk-import.rows").tag("entity", entity.name().toLowerCase()).tag("outcome", "imported")
+                .register(meterRegistry).increment(progress.rowsImported);
+        Counter.builder("educatech.bulk-import.rows").tag("entity", entity.name().toLowerCase()).tag("outcome", "rejected")
+                .register(meterRegistry).increment(progress.rowsRejected);
+        log.info("Bulk import {} of {} from {}: {} rows read, {} imported, {} rejected",
+                progress.id, entity, source, progress.rowsRead, progress.rowsImported, progress.rowsRejected);
+
+        if (entity == BulkImportEntity.USERS && progress.rowsImported > 0) {
+            emailAvailabilityService.rebuild();
+        }
+        if (entity == BulkImportEntity.COURSES && progress.rowsImported > 0) {
+            courseAutocompleteService.rebuild();
+        }
+        if (entity == BulkImportEntity.ENROLLMENTS && progress.rowsImported > 0) {
+            enrollmentRollupService.backfill();
+            courseRecommendationService.markStale();
+        }
+        return progress.toDTO();
+    }
+
+    @Override
+    public List<BulkImportReportDTO> getImports() {
+        List<BulkImportReportDTO> reports = new ArrayList<>();
+        synchronized (imports) {
+            for (Progress progress : imports.values()) {
+                reports.add(progress.toDTO());
+            }
+        }
+        Collections.reverse(reports);
+        return reports;
+    }
+
+    @Override
+    public BulkImportReportDTO getImport(String id) {
+        Progress progress;
+        synchronized (imports) {
+            progress = imports.get(id);
+        }
+        if (progress == null) {
+            throw new BulkImportNotFoundException("Bulk import not found with id: " + id);
+        }
+        return progress.toDTO();
+    }
+
+    // Metodo auxiliar con las fases que se ejecutan dentro de la transacción
+    private void run(Progress progress, InputStream rows) {
+        BulkImportEntity entity = progress.entity;
+        bulkImportRepository.createStaging(entity);
+        try {
+            progress.rowsRead = bulkImportRepository.load(entity, rows, read -> this.reportLoaded(progress, read));
+        } catch (SQLException ex) {
+            // COPY rechaza el fichero entero si una fila no tiene el número de columnas esperado
+            throw new IllegalArgumentException("Invalid CSV: " + ex.getMessage(), ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        progress.phase = BulkImportPhase.VALIDATING;
+        bulkImportRepository.validate(entity, progress.source);
+
+        progress.phase = BulkImportPhase.MERGING;
+        if (entity == BulkImportEntity.USERS) {
+            bulkImportRepository.encodePasswords(passwordHasher::encodeAll);
+        }
+        progress.rowsImported = bulkImportRepository.merge(entity, progress.source);
+        bulkImportRepository.compressText(entity);
+        progress.rejections = bulkImportRepository.countRejections(entity);
+        progress.rowsRejected = progress.rejections.values().stream().mapToLong(Long::longValue).sum();
+        progress.sampleRejections = bulkImportRepository.findRejections(entity, SAMPLE_REJECTIONS);
+        bulkImportRepository.dropStaging(entity);
+    }
+
+    private void reportLoaded(Progress progress, long rows) {
+        long previous = progress.rowsRead;
+        progress.rowsRead = rows;
+        if (rows / LOG_EVERY_ROWS > previous / LOG_EVERY_ROWS) {
+            log.info("Bulk import {} of {}: {} rows loaded", progress.id, progress.entity, rows);
+        }
+    }
+
+    // Metodo auxiliar que lee la primera línea y comprueba que las columnas son las de la entidad
+    private void checkHeader(InputStream rows, BulkImportEntity entity) {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try {
+            int b;
+            while ((b = rows.read()) != -1 && b != '\n') {
+                if (header.size() == MAX_HEADER_BYTES) {
+                    throw new IllegalArgumentException("CSV header is longer than " + MAX_HEADER_BYTES + " bytes");
+                }
+                header.write(b);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        String line = header.toString(StandardCharsets.UTF_8).replace("\uFEFF", "").strip();
+        List<String> columns = Arrays.stream(line.split(",", -1)).map(column -> column.strip().toLowerCase()).toList();
+        List<String> expected = BulkImportRepository.csvColumns(entity);
+        if (!columns.equals(expected)) {
+            throw new IllegalArgumentException("CSV header must be: " + String.join(",", expected));
+        }
+    }
+
+    private Progress track(Progress progress) {
+        synchronized (imports) {
+            imports.put(progress.id, progress);
+            Iterator<Progress> oldest = imports.values().iterator();
+            while (imports.size() > MAX_TRACKED_IMPORTS && oldest.hasNext()) {
+                if (oldest.next().finishedAt != null) {
+                    oldest.remove();
+                }
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Estado mutable de una carga; se publica como {@link BulkImportReportDTO}.
+     */
+    private static final class Progress {
+        private final String id;
+        private final BulkImportEntity entity;
+        private final String source;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile BulkImportPhase phase = BulkImportPhase.LOADING;
+        private volatile long rowsRead;
+        private volatile long rowsImported;
+        private volatile long rowsRejected;
+        private volatile Map<String, Long> rejections = Map.of();
+        private volatile List<BulkImportRejectionDTO> sampleRejections = List.of();
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Progress(String id, BulkImportEntity entity, String source) {
+            this.id = id;
+            this.entity = entity;
+            this.source = source;
+        }
+
+        private void finish(BulkImportPhase phase, String error) {
+            this.phase = phase;
+            this.error = error;
+            if (phase == BulkImportPhase.FAILED) {
+                // la transacción se deshizo: no se importó nada
+                this.rowsImported = 0;
+            }
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        private BulkImportReportDTO toDTO() {
+            return new BulkImportReportDTO(id, entity, source, phase, rowsRead, rowsImported, rowsRejected,
+                    rejections, sampleRejections, startedAt, finishedAt, error);
+        }
+    }
+}
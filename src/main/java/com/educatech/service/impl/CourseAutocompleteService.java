@@ -0,0 +1,224 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.CourseSuggestionDTO;
+import com.educatech.repository.ICourseRepository;
+import com.educatech.repository.IEnrollmentStore;
+import com.educatech.service.ICourseAutocompleteService;
+import com.educatech.util.CourseTitleIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Autocompletado de títulos de curso para el buscador, sin consultar la base de datos en cada tecla:
+ * un {@link CourseTitleIndex} en memoria con todos los cursos, ordenados por inscripciones.
+ * <p>
+ * Las altas, cambios y borrados de cursos se aplican al confirmarse sobre una capa de cambios pendientes
+ * que se consulta junto al índice; la reconstrucción periódica los incorpora y refresca las inscripciones
+ * (que solo se actualizan ahí). Se reconstruye antes si se acumulan {@code max-pending} cambios.
+ * Hasta la primera construcción no hay sugerencias.
+ */
+@Service
+public class CourseAutocompleteService implements ICourseAutocompleteService {
+    private static final Logger log = LoggerFactory.getLogger(CourseAutocompleteService.class);
+    private static final int MAX_LIMIT = 50;
+
+    private final ICourseRepository courseRepository;
+    private final IEnrollmentStore enrollmentStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Timer rebuildTimer;
+    private final int maxPending;
+    private final Duration maxAge;
+    private final AtomicLong sequence = new AtomicLong();
+    // cambios confirmados después de la carga del índice actual, por ID de curso
+    private final Map<Long, PendingCourse> pending = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+
+    public CourseAutocompleteService(ICourseRepository courseRepository,
+                                     IEnrollmentStore enrollmentStore,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${educatech.course-autocomplete.max-pending:1000}") int maxPending,
+                                     @Value("${educatech.course-autocomplete.max-age:PT10M}") Duration maxAge) {
+        this.courseRepository = courseRepository;
+        this.enrollmentStore = enrollmentStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildTimer = Timer.builder("educatech.course-autocomplete.rebuild").register(meterRegistry);
+        Gauge.builder("educatech.course-autocomplete.pending", pending, Map::size).register(meterRegistry);
+        this.maxPending = maxPending;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Sugiere cursos cuyo título, o alguna de sus palabras, empieza por el texto escrito, sin distinguir
+     * mayúsculas, acentos ni signos de puntuación.
+     *
+     * @param prefix Texto escrito en el buscador.
+     * @param limit  Máximo de sugerencias (entre 1 y 50).
+     * @return Sugerencias de más a menos inscripciones; vacía si el texto no tiene letras ni dígitos.
+     */
+    @Override
+    public List<CourseSuggestionDTO> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String normalized = prefix == null ? "" : CourseTitleIndex.normalize(prefix);
+        Snapshot current = snapshot;
+        if (normalized.isEmpty() || current == null) {
+            return List.of();
+        }
+
+        List<CourseSuggestionDTO> suggestions = new ArrayList<>(limit);
+        // los cursos con cambios pendientes salen de la capa de cambios, no del índice
+        for (CourseTitleIndex.Match match : current.index().complete(normalized, limit, pending::containsKey)) {
+            suggestions.add(new CourseSuggestionDTO(match.courseId(), match.title(), match.enrollments()));
+        }
+        if (pending.isEmpty()) {
+            return suggestions;
+        }
+        for (Map.Entry<Long, PendingCourse> change : pending.entrySet()) {
+            PendingCourse course = change.getValue();
+            if (course.title() != null && matches(course.normalized(), normalized)) {
+                suggestions.add(new CourseSuggestionDTO(change.getKey(), course.title(), course.enrollments()));
+            }
+        }
+        suggestions.sort(Comparator.comparingLong(CourseSuggestionDTO::getEnrollments).reversed()
+                .thenComparing(CourseSuggestionDTO::getTitle));
+        return suggestions.size() > limit ? suggestions.subList(0, limit) : suggestions;
+    }
+
+    /**
+     * Añade o actualiza el título de un curso. Dentro de una transacción, se aplica solo si esta se confirma.
+     *
+     * @param idCourse ID del curso.
+     * @param title    Título guardado.
+     */
+    @Override
+    public void recordCourse(Long idCourse, String title) {
+        this.afterCommit(() -> {
+            Snapshot current = snapshot;
+            PendingCourse previous = pending.get(idCourse);
+            long enrollments = previous != null ? previous.enrollments()
+                    : current != null ? Math.max(0, current.index().enrollments(idCourse)) : 0;
+            pending.put(idCourse, new PendingCourse(sequence.incrementAndGet(), title, CourseTitleIndex.normalize(title), enrollments));
+        });
+    }
+
+    /**
+     * Quita un curso de las sugerencias. Dentro de una transacción, se aplica solo si esta se confirma.
+     *
+     * @param idCourse ID del curso borrado.
+     */
+    @Override
+    public void removeCourse(Long idCourse) {
+        this.afterCommit(() -> pending.put(idCourse, new PendingCourse(sequence.incrementAndGet(), null, null, 0)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        this.rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${educatech.course-autocomplete.check-interval:PT1M}",
+            fixedDelayString = "${educatech.course-autocomplete.check-interval:PT1M}")
+    void rebuildIfNeeded() {
+        Snapshot current = snapshot;
+        if (current == null || pending.size() >= maxPending || current.builtAt() + maxAge.toNanos() - System.nanoTime() < 0) {
+            this.rebuild();
+        }
+    }
+
+    /**
+     * Construye un índice nuevo con los títulos e inscripciones de la base de datos y sustituye al actual.
+     *
+     * @return Cursos indexados.
+     */
+    @Override
+    public synchronized int rebuild() {
+        // los cambios confirmados hasta aquí los ve la consulta; los posteriores se quedan en la capa de cambios
+        long loadedUpTo = sequence.get();
+        long start = System.nanoTime();
+        CourseTitleIndex index = readOnlyTransaction.execute(status -> {
+            int capacity = 1024;
+            long[] ids = new long[capacity];
+            String[] titles = new String[capacity];
+            long[] enrollments = new long[capacity];
+            int count = 0;
+            // las inscripciones pueden estar en otra base (sharding): se cuentan aparte y se cruzan por ID
+            Map<Long, Long> enrollmentCounts = enrollmentStore.countEnrollmentsByCourse();
+            try (Stream<ICourseRepository.CourseTitle> rows = courseRepository.streamTitles()) {
+                for (ICourseRepository.CourseTitle row : (Iterable<ICourseRepository.CourseTitle>) rows::iterator) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        titles = Arrays.copyOf(titles, count * 2);
+                        enrollments = Arrays.copyOf(enrollments, count * 2);
+                    }
+                    ids[count] = row.getId();
+                    titles[count] = row.getTitle();
+                    enrollments[count] = enrollmentCounts.getOrDefault(row.getId(), 0L);
+                    count++;
+                }
+            }
+            return new CourseTitleIndex(Arrays.copyOf(ids, count), Arrays.copyOf(titles, count), Arrays.copyOf(enrollments, count));
+        });
+        long elapsed = System.nanoTime() - start;
+        snapshot = new Snapshot(index, System.nanoTime());
+        pending.values().removeIf(course -> course.sequence() <= loadedUpTo);
+        rebuildTimer.record(Duration.ofNanos(elapsed));
+        log.info("Course autocomplete index rebuilt with {} courses and {} title entries in {} ms",
+                index.courseCount(), index.entryCount(), Duration.ofNanos(elapsed).toMillis());
+        return index.courseCount();
+    }
+
+    // Metodo auxiliar que ejecuta el cambio al confirmarse la transacción en curso (o ya, si no hay)
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    // Mismo criterio que el índice: el título o una de sus palabras empieza por el prefijo
+    private static boolean matches(String title, String prefix) {
+        for (int offset = title.indexOf(prefix); offset >= 0; offset = title.indexOf(prefix, offset + 1)) {
+            if (offset == 0 || title.charAt(offset - 1) == ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Snapshot(CourseTitleIndex index, long builtAt) {
+    }
+
+    private record PendingCourse(long sequence, String title, String normalized, long enrollments) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.CourseRecommendationDTO;
+import com.educatech.dto.response.RecommendationGraphStatsDTO;
+import com.educatech.repository.CoEnrollmentRepository;
+import com.educatech.repository.IEnrollmentStore;
+import com.educatech.service.ICourseRecommendationService;
+import com.educatech.util.CoEnrollmentGraph;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recomendaciones "los estudiantes de este curso también hicieron...".
+ * Se reconstruye un {@link CoEnrollmentGraph} con todas las inscripciones, se calculan los vecinos
+ * más similares de cada curso en un pool fork/join y se publican de golpe; las consultas solo leen
+ * ese resultado en memoria. La reconstrucción se programa cuando hay inscripciones nuevas o el
+ * resultado supera la antigüedad máxima (por los cambios hechos desde otras réplicas).
+ */
+@Service
+public class CourseRecommendationService implements ICourseRecommendationService {
+    private static final Logger log = LoggerFactory.getLogger(CourseRecommendationService.class);
+
+    private final CoEnrollmentRepository coEnrollmentRepository;
+    private final IEnrollmentStore enrollmentStore;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+    private final Timer loadTimer;
+    private final Timer computeTimer;
+    private final int neighbours;
+    private final int maxCoursesPerStudent;
+    private final Duration maxAge;
+
+    private volatile Snapshot snapshot;
+    private volatile boolean stale = true;
+
+    public CourseRecommendationService(CoEnrollmentRepository coEnrollmentRepository,
+                                       IEnrollmentStore enrollmentStore,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${educatech.recommendation.neighbours:20}") int neighbours,
+                                       @Value("${educatech.recommendation.max-courses-per-student:500}") int maxCoursesPerStudent,
+                                       @Value("${educatech.recommendation.parallelism:0}") int parallelism,
+                                       @Value("${educatech.recommendation.max-age:PT6H}") Duration maxAge) {
+        this.coEnrollmentRepository = coEnrollmentRepository;
+        this.enrollmentStore = enrollmentStore;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.loadTimer = Timer.builder("educatech.recommendation.rebuild").tag("phase", "load").register(meterRegistry);
+        this.computeTimer = Timer.builder("educatech.recommendation.rebuild").tag("phase", "compute").register(meterRegistry);
+        this.neighbours = neighbours;
+        this.maxCoursesPerStudent = maxCoursesPerStudent;
+        this.maxAge = maxAge;
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Obtiene los cursos más similares a uno dado según sus estudiantes en común.
+     *
+     * @param idCourse ID del curso.
+     * @param limit    Máximo de recomendaciones (como mucho el número de vecinos precalculados).
+     * @return Lista ordenada de mayor a menor similitud; vacía si el curso no tiene co-inscripciones
+     * o el grafo todavía no se ha construido.
+     */
+    @Override
+    public List<CourseRecommendationDTO> getSimilarCourses(Long idCourse, int limit) {
+        if (idCourse == null || idCourse <= 0) {
+            throw new IllegalArgumentException("Invalid course ID: " + idCourse);
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            return List.of();
+        }
+        CoEnrollmentGraph.TopK topK = current.topK();
+        int courseIndex = topK.courseIndex(idCourse);
+        if (courseIndex < 0) {
+            return List.of();
+        }
+        int count = Math.max(0, Math.min(limit, topK.k()));
+        List<CourseRecommendationDTO> recommendations = new ArrayList<>(count);
+        for (int rank = 0; rank < count; rank++) {
+            int neighbour = topK.neighbour(courseIndex, rank);
+            if (neighbour < 0) {
+                break;
+            }
+            recommendations.add(new CourseRecommendationDTO(
+                    topK.courseId(neighbour), topK.score(courseIndex, rank), topK.shared(courseIndex, rank)));
+        }
+        return recommendations;
+    }
+
+    /**
+     * Marca las recomendaciones como desactualizadas para que la próxima comprobación programada las reconstruya.
+     */
+    @Override
+    public void markStale() {
+        stale = true;
+    }
+
+    @Scheduled(initialDelayString = "${educatech.recommendation.initial-delay:PT5S}",
+            fixedDelayString = "${educatech.recommendation.check-interval:PT5M}")
+    void rebuildIfNeeded() {
+        Snapshot current = snapshot;
+        if (stale || current == null || current.stats().getBuiltAt().plus(maxAge).isBefore(LocalDateTime.now())) {
+            this.rebuild();
+        }
+    }
+
+    /**
+     * Reconstruye el grafo desde la tabla de inscripciones y recalcula los vecinos de todos los cursos.
+     *
+     * @return Tamaño del grafo y tiempos de carga y cálculo.
+     */
+    @Override
+    public synchronized RecommendationGraphStatsDTO rebuild() {
+        // los cambios que lleguen durante la carga vuelven a marcarlo
+        stale = false;
+        try {
+            long loadStart = System.nanoTime();
+            CoEnrollmentGraph graph = readOnlyTransaction.execute(status -> {
+                CoEnrollmentGraph.Builder builder = new CoEnrollmentGraph.Builder(coEnrollmentRepository.findCourseIds());
+                enrollmentStore.scanStudentCourses(builder::add);
+                return builder.build();
+            });
+            long loadNanos = System.nanoTime() - loadStart;
+
+            long computeStart = System.nanoTime();
+            CoEnrollmentGraph.TopK topK = graph.computeTopK(neighbours, maxCoursesPerStudent, pool);
+            long computeNanos = System.nanoTime() - computeStart;
+
+            loadTimer.record(loadNanos, TimeUnit.NANOSECONDS);
+            computeTimer.record(computeNanos, TimeUnit.NANOSECONDS);
+            RecommendationGraphStatsDTO stats = new RecommendationGraphStatsDTO(
+                    graph.courseCount(), graph.studentCount(), graph.edgeCount(),
+                    TimeUnit.NANOSECONDS.toMillis(loadNanos), TimeUnit.NANOSECONDS.toMillis(computeNanos), LocalDateTime.now());
+            snapshot = new Snapshot(topK, stats);
+            log.info("Rebuilt course recommendations: {} courses, {} students, {} enrollments (load {} ms, compute {} ms)",
+                    stats.getCourses(), stats.getStudents(), stats.getEnrollments(), stats.getLoadMillis(), stats.getComputeMillis());
+            return stats;
+        } catch (RuntimeException ex) {
+            stale = true;
+            throw ex;
+        }
+    }
+
+    @Override
+    public RecommendationGraphStatsDTO getStats() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.stats();
+    }
+
+    private record Snapshot(CoEnrollmentGraph.TopK topK, RecommendationGraphStatsDTO stats) {
+    }
+}
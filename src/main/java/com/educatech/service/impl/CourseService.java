@@ -1,16 +1,27 @@
 package com.educatech.service.impl;
 
 import com.educatech.dto.request.CourseRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
 import com.educatech.dto.response.CourseResponseDTO;
 import com.educatech.entity.Course;
 import com.educatech.entity.User;
+import com.educatech.enums.ChangeAggregate;
+import com.educatech.enums.ChangeType;
 import com.educatech.enums.Role;
 import com.educatech.exception.CourseNotFoundException;
 import com.educatech.exception.UserNotFoundException;
 import com.educatech.mapper.CourseMapper;
 import com.educatech.repository.ICourseRepository;
+import com.educatech.repository.IEnrollmentStore;
 import com.educatech.repository.IUserRepository;
+import com.educatech.repository.MultiGetRepository;
+import com.educatech.repository.SparseFieldsRepository;
+import com.educatech.service.ICourseAutocompleteService;
 import com.educatech.service.ICourseService;
+import com.educatech.service.IEnrollmentRollupService;
+import com.educatech.service.IOutboxService;
+import com.educatech.util.EntityVersions;
+import com.educatech.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,13 +29,30 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class CourseService implements ICourseService {
+    // campos de CourseResponseDTO que se pueden pedir con fields= y el atributo de la entidad de cada uno
+    private static final Map<String, String> SPARSE_FIELDS = Map.of(
+            "id", "id",
+            "title", "title",
+            "description", "description",
+            "teacherId", "teacher.id"
+    );
+
     private final ICourseRepository courseRepository;
     private final IUserRepository userRepository;
+    private final IEnrollmentStore enrollmentStore;
+    private final MultiGetRepository multiGetRepository;
+    private final SparseFieldsRepository sparseFieldsRepository;
     private final CourseMapper courseMapper;
+    private final IOutboxService outboxService;
+    private final IEnrollmentRollupService enrollmentRollupService;
+    private final ICourseAutocompleteService courseAutocompleteService;
+    private final SingleFlight<Long, CourseResponseDTO> courseByIdSingleFlight;
 
      /**
      * Guarda un nuevo curso.
@@ -49,6 +77,8 @@ public class CourseService implements ICourseService {
         Course courseToSave = courseMapper.toEntity(course);
         courseToSave.setTeacher(teacher);
         Course savedCourse = courseRepository.save(courseToSave);
+        outboxService.record(ChangeAggregate.COURSE, savedCourse.getId(), ChangeType.CREATED, this.toChangePayload(savedCourse));
+        courseAutocompleteService.recordCourse(savedCourse.getId(), savedCourse.getTitle());
         return courseMapper.toResponseDTO(savedCourse);
     }
 
@@ -64,16 +94,64 @@ public class CourseService implements ICourseService {
         return courseRepository.findAll(pageable).map(courseMapper::toResponseDTO);
     }
 
+    /**
+     * Obtiene todos los cursos con paginación, leyendo solo los campos pedidos.
+     *
+     * @param pageable Parámetros de paginación.
+     * @param fields   Campos de la respuesta (id, title, description, teacherId).
+     * @return Página con un mapa campo -> valor por curso.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllCourses(Pageable pageable, Set<String> fields) {
+        return sparseFieldsRepository.findAll(Course.class, SPARSE_FIELDS, fields, null, pageable);
+    }
+
     /**
      * Obtiene un curso por su ID.
+     * Las peticiones concurrentes del mismo curso comparten una única consulta; la transacción se abre
+     * solo en la llamada que consulta, para que las que esperan no ocupen conexiones del pool.
      *
      * @param idCourse ID del curso.
      * @return DTO de respuesta del curso.
      */
     @Override
-    @Transactional(readOnly = true)
     public CourseResponseDTO getCourseById(Long idCourse) {
-        return courseMapper.toResponseDTO(this.getCourseEntityById(idCourse));
+        if (idCourse == null || idCourse <= 0) {
+            throw new IllegalArgumentException("Course ID cannot be null or less than 1");
+        }
+        return courseByIdSingleFlight.execute(idCourse, () -> courseMapper.toResponseDTO(this.getCourseEntityById(idCourse)));
+    }
+
+    /**
+     * Obtiene un curso por su ID, leyendo solo los campos pedidos.
+     *
+     * @param idCourse ID del curso.
+     * @param fields   Campos de la respuesta (id, title, description, teacherId).
+     * @return Mapa campo -> valor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCourseById(Long idCourse, Set<String> fields) {
+        if (idCourse == null || idCourse <= 0) {
+            throw new IllegalArgumentException("Course ID cannot be null or less than 1");
+        }
+        return sparseFieldsRepository.findAll(Course.class, SPARSE_FIELDS, fields,
+                        (root, query, cb) -> cb.equal(root.get("id"), idCourse))
+                .stream().findFirst()
+                .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + idCourse));
+    }
+
+    /**
+     * Obtiene varios cursos por sus IDs en una sola operación.
+     *
+     * @param idCourses IDs de los cursos (como mucho {@link MultiGetRepository#MAX_IDS}).
+     * @return Cursos en el orden pedido (null si no existe) y la lista de IDs inexistentes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BatchLookupDTO<CourseResponseDTO> getCoursesByIds(List<Long> idCourses) {
+        return multiGetRepository.findAllById(Course.class, idCourses, courseMapper::toResponseDTO, "description");
     }
 
     /**
@@ -102,6 +180,7 @@ public class CourseService implements ICourseService {
         }
         // comprueba que el curso exista antes de actualizarlo
         Course existingCourse = this.getCourseEntityById(idCourse);
+        EntityVersions.requireCurrent("Course", idCourse, courseWithUpdates.getVersion(), existingCourse.getVersion());
 
         if (existingCourse.getTeacher().getId().equals(teacher.getId())) {
             throw new IllegalArgumentException("The teacher is already assigned to this course");
@@ -110,7 +189,11 @@ public class CourseService implements ICourseService {
         existingCourse.setTitle(courseWithUpdates.getTitle());
         existingCourse.setDescription(courseWithUpdates.getDescription());
         existingCourse.setTeacher(teacher);
-        return courseMapper.toResponseDTO(courseRepository.save(existingCourse));
+        // flush para que la respuesta lleve la versión nueva
+        Course updatedCourse = courseRepository.saveAndFlush(existingCourse);
+        outboxService.record(ChangeAggregate.COURSE, updatedCourse.getId(), ChangeType.UPDATED, this.toChangePayload(updatedCourse));
+        courseAutocompleteService.recordCourse(updatedCourse.getId(), updatedCourse.getTitle());
+        return courseMapper.toResponseDTO(updatedCourse);
     }
 
     /**
@@ -127,7 +210,11 @@ public class CourseService implements ICourseService {
 
         // comprueba que el curso exista antes de eliminarlo
         Course courseToDelete = this.getCourseEntityById(idCourse);
+        outboxService.record(ChangeAggregate.COURSE, idCourse, ChangeType.DELETED, this.toChangePayload(courseToDelete));
         courseRepository.delete(courseToDelete);
+        enrollmentStore.removeCourseEnrollments(idCourse);
+        enrollmentRollupService.removeCourse(idCourse);
+        courseAutocompleteService.removeCourse(idCourse);
     }
 
     /**
@@ -159,6 +246,7 @@ public class CourseService implements ICourseService {
 
     /**
      * Busca cursos por una palabra clave en el título.
+     * Para sugerencias mientras se escribe está {@link ICourseAutocompleteService}, que no consulta la base de datos.
      *
      * @param titleKeyword Palabra clave para buscar en el título del curso.
      * @return Lista de DTOs de respuesta de los cursos encontrados.
@@ -172,6 +260,14 @@ public class CourseService implements ICourseService {
                 .toList();
     }
 
+    // Metodo auxiliar con los campos que se publican en el change feed (sin la descripción)
+    private Map<String, Object> toChangePayload(Course course) {
+        return Map.of(
+                "title", course.getTitle(),
+                "teacherId", course.getTeacher().getId()
+        );
+    }
+
     // Metodo auxiliar para manejar la excepcion de curso no encontrado
     private Course getCourseEntityById(Long idCourse) {
         String message = "Course not found with id: " + idCourse;
@@ -0,0 +1,176 @@
+package com.educatech.service.impl;
+
+import com.educatech.repository.IUserRepository;
+import com.educatech.service.IEmailAvailabilityService;
+import com.educatech.util.BloomFilter;
+import com.educatech.util.EmailAddresses;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Disponibilidad de emails para el formulario de registro. Un filtro de Bloom en memoria con los emails
+ * normalizados responde "libre" sin consultar la base de datos cuando el email seguro que no existe; si
+ * el filtro dice que puede existir se confirma con el índice único de {@code users.email_normalized}.
+ * <p>
+ * El filtro se construye al arrancar y se reconstruye periódicamente (así olvida los emails borrados o
+ * cambiados y recoge los dados de alta en otros nodos); las altas de este nodo se añaden al confirmarse.
+ * La respuesta es orientativa: la que decide al registrar es el índice único.
+ */
+@Service
+public class EmailAvailabilityService implements IEmailAvailabilityService {
+    private static final Logger log = LoggerFactory.getLogger(EmailAvailabilityService.class);
+
+    private final IUserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Counter answeredByFilter;
+    private final Counter answeredByDatabase;
+    private final Counter falsePositives;
+    private final Timer rebuildTimer;
+    // null hasta la primera construcción: mientras tanto todas las comprobaciones van a la base de datos
+    private volatile BloomFilter filter;
+    // filtro en construcción; las altas que llegan mientras se recorre la tabla se añaden a los dos
+    private BloomFilter building;
+    private final Object lock = new Object();
+    // una sola reconstrucción a la vez (la periódica y la de una carga masiva de usuarios)
+    private final Object rebuildLock = new Object();
+
+    public EmailAvailabilityService(IUserRepository userRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${educatech.email-availability.expected-insertions:1000000}") long expectedInsertions,
+                                    @Value("${educatech.email-availability.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.answeredByFilter = Counter.builder("educatech.email-availability.checks").tag("source", "filter").register(meterRegistry);
+        this.answeredByDatabase = Counter.builder("educatech.email-availability.checks").tag("source", "database").register(meterRegistry);
+        this.falsePositives = Counter.builder("educatech.email-availability.false-positives").register(meterRegistry);
+        this.rebuildTimer = Timer.builder("educatech.email-availability.rebuild").register(meterRegistry);
+    }
+
+    /**
+     * Indica si un email está libre, sin distinguir mayúsculas ni espacios al principio o al final.
+     *
+     * @param email Email a comprobar.
+     * @return true si ningún usuario lo usa.
+     */
+    @Override
+    public boolean isAvailable(String email) {
+        String normalized = EmailAddresses.normalize(email);
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(normalized)) {
+            answeredByFilter.increment();
+            return true;
+        }
+        answeredByDatabase.increment();
+        boolean inUse = userRepository.existsByEmailNormalized(normalized);
+        if (!inUse && current != null) {
+            falsePositives.increment();
+        }
+        return !inUse;
+    }
+
+    /**
+     * Añade el email de un usuario nuevo (o que lo ha cambiado) al filtro.
+     * Dentro de una transacción, se añade solo si esta se confirma.
+     *
+     * @param email Email tal como se guardó.
+     */
+    @Override
+    public void recordEmail(String email) {
+        String normalized = EmailAddresses.normalize(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(normalized);
+                }
+            });
+        } else {
+            this.add(normalized);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        this.rebuild();
+    }
+
+    /**
+     * Construye un filtro nuevo con los emails de la tabla de usuarios y sustituye al actual.
+     *
+     * @return Emails añadidos.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${educatech.email-availability.rebuild-interval:PT30M}",
+            fixedDelayString = "${educatech.email-availability.rebuild-interval:PT30M}")
+    public long rebuild() {
+        synchronized (rebuildLock) {
+            return rebuildTimer.record(this::rebuildFilter);
+        }
+    }
+
+    private long rebuildFilter() {
+        // espacio para que la tabla duplique su tamaño antes de la siguiente reconstrucción
+        BloomFilter next = new BloomFilter(Math.max(expectedInsertions, userRepository.count() * 2), falsePositiveRate);
+        synchronized (lock) {
+            building = next;
+        }
+        // las altas confirmadas antes de este punto las ve la consulta; las posteriores llegan por add()
+        long added;
+        try {
+            added = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<String> emails = userRepository.streamAllEmailsNormalized()) {
+                    for (String email : (Iterable<String>) emails::iterator) {
+                        next.put(email);
+                        count++;
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException ex) {
+            synchronized (lock) {
+                building = null;
+            }
+            throw ex;
+        }
+        synchronized (lock) {
+            filter = next;
+            building = null;
+        }
+        log.info("Email availability filter rebuilt with {} emails ({} bits, {} hash functions)",
+                added, next.getBitSize(), next.getHashFunctions());
+        return added;
+    }
+
+    private void add(String normalized) {
+        synchronized (lock) {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(normalized);
+            }
+            if (building != null) {
+                building.put(normalized);
+            }
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.request.EnrollmentRequestDTO;
+import com.educatech.dto.response.EnrollmentIngestionStatusDTO;
+import com.educatech.entity.Enrollment;
+import com.educatech.enums.ChangeAggregate;
+import com.educatech.enums.ChangeType;
+import com.educatech.enums.IngestionStatus;
+import com.educatech.enums.Role;
+import com.educatech.exception.EnrollmentNotFoundException;
+import com.educatech.exception.TooManyRequestsException;
+import com.educatech.repository.EnrollmentIngestionRepository;
+import com.educatech.repository.ICourseRepository;
+import com.educatech.repository.IEnrollmentStore;
+import com.educatech.repository.IUserRepository;
+import com.educatech.service.ICourseRecommendationService;
+import com.educatech.service.IEnrollmentIngestionService;
+import com.educatech.service.IEnrollmentRollupService;
+import com.educatech.service.IOutboxService;
+import com.educatech.util.MappedAppendLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo de ingesta diferida de inscripciones para picos de registro.
+ * Cada inscripción se valida sin ir a la base de datos, se escribe en un log local
+ * ({@link MappedAppendLog}) y se responde como aceptada. Un hilo aparte vacía la cola en
+ * transacciones por lotes y avanza el checkpoint del log; tras una caída, lo que quedó después
+ * del checkpoint se vuelve a procesar al arrancar. Las peticiones persistidas se anotan en
+ * {@link EnrollmentIngestionRepository} en la misma transacción, para que al reprocesarlas se
+ * den como persistidas y no como duplicadas.
+ */
+@Service
+@ConditionalOnProperty(name = "educatech.enrollment-ingestion.enabled", havingValue = "true")
+public class EnrollmentIngestionService implements IEnrollmentIngestionService {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentIngestionService.class);
+    // requestId (2 longs) + userId + courseId
+    private static final int RECORD_SIZE = 4 * Long.BYTES;
+
+    private final IEnrollmentStore enrollmentStore;
+    private final EnrollmentIngestionRepository ingestionRepository;
+    private final IUserRepository userRepository;
+    private final ICourseRepository courseRepository;
+    private final IOutboxService outboxService;
+    private final IEnrollmentRollupService enrollmentRollupService;
+    private final ICourseRecommendationService courseRecommendationService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Path logDirectory;
+    private final int recordsPerSegment;
+    private final boolean forceOnAppend;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final int maxTrackedStatuses;
+
+    private final BlockingQueue<PendingEnrollment> queue = new LinkedBlockingQueue<>();
+    private final Map<UUID, EnrollmentIngestionStatusDTO> statuses = new ConcurrentHashMap<>();
+    private final Object appendLock = new Object();
+    private MappedAppendLog appendLog;
+    private Thread flusher;
+    private volatile boolean running;
+    // último checkpoint del log y el último cuyas peticiones ya se borraron de la base; solo los usa el flusher
+    private long checkpoint;
+    private long purgedCheckpoint = -1;
+
+    public EnrollmentIngestionService(IEnrollmentStore enrollmentStore,
+                                      EnrollmentIngestionRepository ingestionRepository,
+                                      IUserRepository userRepository,
+                                      ICourseRepository courseRepository,
+                                      IOutboxService outboxService,
+                                      IEnrollmentRollupService enrollmentRollupService,
+                                      ICourseRecommendationService courseRecommendationService,
+                                      TransactionTemplate transactionTemplate,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${educatech.enrollment-ingestion.directory:data/enrollment-ingestion}") Path logDirectory,
+                                      @Value("${educatech.enrollment-ingestion.records-per-segment:65536}") int recordsPerSegment,
+                                      @Value("${educatech.enrollment-ingestion.force-on-append:true}") boolean forceOnAppend,
+                                      @Value("${educatech.enrollment-ingestion.queue-capacity:50000}") int queueCapacity,
+                                      @Value("${educatech.enrollment-ingestion.batch-size:500}") int batchSize,
+                                      @Value("${educatech.enrollment-ingestion.max-tracked-statuses:200000}") int maxTrackedStatuses) {
+        this.enrollmentStore = enrollmentStore;
+        this.ingestionRepository = ingestionRepository;
+        this.userRepository = userRepository;
+        this.courseRepository = courseRepository;
+        this.outboxService = outboxService;
+        this.enrollmentRollupService = enrollmentRollupService;
+        this.courseRecommendationService = courseRecommendationService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.logDirectory = logDirectory;
+        this.recordsPerSegment = recordsPerSegment;
+        this.forceOnAppend = forceOnAppend;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxTrackedStatuses = maxTrackedStatuses;
+    }
+
+    @PostConstruct
+    void start() {
+        appendLog = new MappedAppendLog(logDirectory, RECORD_SIZE, recordsPerSegment, forceOnAppend);
+
+        // lo que quedó sin confirmar antes de la última parada se vuelve a encolar
+        checkpoint = appendLog.readCheckpoint();
+        appendLog.replay(checkpoint, (position, payload) -> {
+            PendingEnrollment pending = new PendingEnrollment(
+                    new UUID(payload.getLong(0), payload.getLong(8)), payload.getLong(16), payload.getLong(24), position);
+            queue.add(pending);
+            this.updateStatus(pending, IngestionStatus.ACCEPTED, null, null);
+        });
+        if (!queue.isEmpty()) {
+            log.info("Replaying {} enrollments from ingestion log after checkpoint {}", queue.size(), checkpoint);
+        }
+
+        Gauge.builder("educatech.enrollment.ingestion.pending", queue, BlockingQueue::size).register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::drainLoop, "enrollment-ingestion-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        appendLog.close();
+    }
+
+    /**
+     * Acepta una inscripción para persistirla en diferido.
+     *
+     * @param enrollment DTO de solicitud de inscripción
+     * @return Estado inicial (ACCEPTED) con el ID de la petición para consultar su estado
+     */
+    @Override
+    public EnrollmentIngestionStatusDTO acceptEnrollment(EnrollmentRequestDTO enrollment) {
+        Long idStudent = enrollment.getUserId();
+        Long idCourse = enrollment.getCourseId();
+
+        // Solo validaciones que no necesitan la base de datos; el resto las hace el flusher
+        if (idStudent == null || idStudent <= 0) {
+            throw new IllegalArgumentException("Invalid student ID: " + idStudent);
+        }
+        if (idCourse == null || idCourse <= 0) {
+            throw new IllegalArgumentException("Invalid course ID: " + idCourse);
+        }
+
+        UUID requestId = UUID.randomUUID();
+        ByteBuffer payload = ByteBuffer.allocate(RECORD_SIZE)
+                .putLong(requestId.getMostSignificantBits())
+                .putLong(requestId.getLeastSignificantBits())
+                .putLong(idStudent)
+                .putLong(idCourse)
+                .flip();
+
+        PendingEnrollment pending;
+        // el orden de la cola tiene que ser el del log para que el checkpoint sea correcto
+        synchronized (appendLock) {
+            if (queue.size() >= queueCapacity) {
+                throw new TooManyRequestsException("Enrollment ingestion queue is full", 1);
+            }
+            long position = appendLog.append(payload);
+            pending = new PendingEnrollment(requestId, idStudent, idCourse, position);
+            queue.add(pending);
+        }
+        return this.updateStatus(pending, IngestionStatus.ACCEPTED, null, null);
+    }
+
+    /**
+     * Obtiene el estado de una inscripción aceptada en modo diferido.
+     *
+     * @param requestId ID devuelto al aceptar la inscripción
+     * @return DTO con el estado actual
+     */
+    @Override
+    public EnrollmentIngestionStatusDTO getStatus(UUID requestId) {
+        EnrollmentIngestionStatusDTO status = statuses.get(requestId);
+        if (status == null) {
+            throw new EnrollmentNotFoundException("Ingestion request not found with id: " + requestId);
+        }
+        return status;
+    }
+
+    private void drainLoop() {
+        List<PendingEnrollment> batch = new ArrayList<>(batchSize);
+        long backoffMillis = 100;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                // tras un fallo se reintenta el mismo lote antes de sacar más de la cola
+                if (batch.isEmpty()) {
+                    PendingEnrollment first = queue.poll(500, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                this.flush(batch);
+                checkpoint = batch.get(batch.size() - 1).position();
+                appendLog.checkpoint(checkpoint);
+                batch.clear();
+                backoffMillis = 100;
+            } catch (InterruptedException ex) {
+                if (!running) {
+                    // lo que quede en la cola sigue en el log y se reprocesa al arrancar
+                    return;
+                }
+            } catch (RuntimeException ex) {
+                // un fallo inesperado no puede parar el flusher: el lote sigue en el log y se reintenta
+                log.error("Enrollment ingestion flusher failed, retrying batch of {} in {} ms", batch.size(), backoffMillis, ex);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            }
+        }
+    }
+
+    private void flush(List<PendingEnrollment> batch) throws InterruptedException {
+        long backoffMillis = 100;
+        while (true) {
+            try {
+                List<Outcome> outcomes = transactionTemplate.execute(status -> this.persistBatch(batch));
+                purgedCheckpoint = checkpoint;
+                this.applyOutcomes(outcomes);
+                return;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException | CannotCreateTransactionException ex) {
+                // base de datos no disponible: se reintenta el mismo lote sin perder nada
+                log.warn("Enrollment ingestion flush failed, retrying in {} ms: {}", backoffMillis, ex.getMessage());
+                TimeUnit.MILLISECONDS.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            } catch (DataIntegrityViolationException ex) {
+                // un registro que viola una restricción no debe bloquear el resto del lote; cualquier otro
+                // fallo (conexión, commit, bloqueos) se propaga para no avanzar el checkpoint y reintentar
+                log.warn("Enrollment ingestion batch failed, persisting one by one: {}", ex.getMessage());
+                for (PendingEnrollment pending : batch) {
+                    try {
+                        this.applyOutcomes(transactionTemplate.execute(status -> this.persistBatch(List.of(pending))));
+                    } catch (DataIntegrityViolationException single) {
+                        this.updateStatus(pending, IngestionStatus.REJECTED, null, single.getMostSpecificCause().getMessage());
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private List<Outcome> persistBatch(List<PendingEnrollment> batch) {
+        // las peticiones que ya cubre el checkpoint no se van a reprocesar
+        if (checkpoint > purgedCheckpoint) {
+            ingestionRepository.deleteUpTo(appendLog.getLogId(), checkpoint);
+        }
+        Map<UUID, Long> persisted = ingestionRepository.findEnrollmentIds(
+                batch.stream().map(PendingEnrollment::requestId).toList());
+
+        Set<Long> studentIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
+        for (PendingEnrollment pending : batch) {
+            studentIds.add(pending.userId());
+            courseIds.add(pending.courseId());
+        }
+
+        Set<Long> students = new HashSet<>(userRepository.findIdsByIdInAndRole(studentIds, Role.STUDENT));
+        Set<Long> courses = new HashSet<>(courseRepository.findExistingIds(courseIds));
+        Set<List<Long>> enrolled = new HashSet<>();
+        for (Object[] pair : enrollmentStore.findStudentAndCourseIds(studentIds, courseIds)) {
+            enrolled.add(List.of((Long) pair[0], (Long) pair[1]));
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        List<PendingEnrollment> pendingToSave = new ArrayList<>();
+        List<Enrollment> enrollmentsToSave = new ArrayList<>();
+        for (PendingEnrollment pending : batch) {
+            if (persisted.containsKey(pending.requestId())) {
+                // reprocesada tras una caída antes del checkpoint: ya se guardó en un intento anterior
+                outcomes.add(new Outcome(pending, persisted.get(pending.requestId()), null));
+            } else if (!students.contains(pending.userId())) {
+                outcomes.add(new Outcome(pending, null, "User with id: " + pending.userId() + " is not a student or does not exist"));
+            } else if (!courses.contains(pending.courseId())) {
+                outcomes.add(new Outcome(pending, null, "Course not found with id: " + pending.courseId()));
+            } else if (!enrolled.add(List.of(pending.userId(), pending.courseId()))) {
+                outcomes.add(new Outcome(pending, null, "Student with id: " + pending.userId() + " has already enrolled in course with id: " + pending.courseId()));
+            } else {
+                Enrollment enrollment = new Enrollment();
+                enrollment.setStudent(userRepository.getReferenceById(pending.userId()));
+                enrollment.setCourse(courseRepository.getReferenceById(pending.courseId()));
+                pendingToSave.add(pending);
+                enrollmentsToSave.add(enrollment);
+            }
+        }
+        enrollmentStore.saveAll(enrollmentsToSave);
+        if (!enrollmentsToSave.isEmpty()) {
+            courseRecommendationService.markStale();
+        }
+        Map<UUID, long[]> saved = new HashMap<>();
+        for (int i = 0; i < enrollmentsToSave.size(); i++) {
+            Enrollment enrollment = enrollmentsToSave.get(i);
+            saved.put(pendingToSave.get(i).requestId(), new long[]{pendingToSave.get(i).position(), enrollment.getId()});
+            outcomes.add(new Outcome(pendingToSave.get(i), enrollment.getId(), null));
+            outboxService.record(ChangeAggregate.ENROLLMENT, enrollment.getId(), ChangeType.CREATED, Map.of(
+                    "userId", enrollment.getStudent().getId(),
+                    "courseId", enrollment.getCourse().getId(),
+                    "enrollmentDate", String.valueOf(enrollment.getEnrollmentDate())
+            ));
+            enrollmentRollupService.record(enrollment.getId(), enrollment.getCourse().getId(), enrollment.getEnrollmentDate(), 1);
+        }
+        ingestionRepository.saveAll(appendLog.getLogId(), saved);
+        return outcomes;
+    }
+
+    private void applyOutcomes(List<Outcome> outcomes) {
+        for (Outcome outcome : outcomes) {
+            if (outcome.enrollmentId() != null) {
+                this.updateStatus(outcome.pending(), IngestionStatus.PERSISTED, outcome.enrollmentId(), null);
+            } else {
+                this.updateStatus(outcome.pending(), IngestionStatus.REJECTED, null, outcome.message());
+            }
+        }
+    }
+
+    private EnrollmentIngestionStatusDTO updateStatus(PendingEnrollment pending, IngestionStatus status, Long enrollmentId, String message) {
+        EnrollmentIngestionStatusDTO dto = new EnrollmentIngestionStatusDTO(
+                pending.requestId(), status, pending.userId(), pending.courseId(), enrollmentId, message);
+        statuses.put(pending.requestId(), dto);
+        if (statuses.size() > maxTrackedStatuses) {
+            // se olvidan primero los estados finales; los aceptados siguen consultables
+            statuses.values().removeIf(s -> s.getStatus() != IngestionStatus.ACCEPTED && statuses.size() > maxTrackedStatuses);
+        }
+        return dto;
+    }
+
+    private record PendingEnrollment(UUID requestId, long userId, long courseId, long position) {
+    }
+
+    private record Outcome(PendingEnrollment pending, Long enrollmentId, String message) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.EnrollmentResponseDTO;
+import com.educatech.dto.response.PartitionMaintenanceDTO;
+import com.educatech.repository.EnrollmentPartitionRepository;
+import com.educatech.service.IEnrollmentPartitionService;
+import com.educatech.util.EnrollmentArchiveCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Mantenimiento de las particiones mensuales de {@code enrollments} (PostgreSQL, ver
+ * V12__partitioned_enrollments) y consulta de las archivadas.
+ * <p>
+ * Periódicamente crea las particiones de los próximos {@code months-ahead} meses (y las de los meses que
+ * hayan caído en la partición por defecto) y archiva las anteriores a {@code archive-after-months}: sus
+ * filas pasan comprimidas a {@code enrollment_archives} y la partición se borra, así que dejan de verse por
+ * JPA. Las archivadas se consultan aquí, descomprimiendo los meses pedidos. Con H2 no hay particiones y
+ * el mantenimiento no hace nada.
+ * <p>
+ * Las inscripciones archivadas siguen contando al comprobar si un estudiante ya está inscrito en un curso
+ * (con {@code enrollment_archive_keys}) y se borran del archivo con su curso o su estudiante; no cuentan
+ * para las recomendaciones ni para el backfill de los agregados por curso.
+ */
+@Service
+public class EnrollmentPartitionService implements IEnrollmentPartitionService {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentPartitionService.class);
+    private static final YearMonth FIRST_MONTH = YearMonth.of(1970, 1);
+
+    private final EnrollmentPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+    private final Counter archivedRows;
+    private final Timer archiveQueryTimer;
+    private volatile Boolean partitioned;
+
+    public EnrollmentPartitionService(EnrollmentPartitionRepository partitionRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${educatech.enrollment-partitioning.months-ahead:3}") int monthsAhead,
+                                      @Value("${educatech.enrollment-partitioning.archive-after-months:60}") int archiveAfterMonths) {
+        if (monthsAhead < 1 || archiveAfterMonths < 0) {
+            throw new IllegalArgumentException("months-ahead must be positive and archive-after-months cannot be negative");
+        }
+        this.partitionRepository = partitionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archivedRows = Counter.builder("educatech.enrollment-partitioning.archived").register(meterRegistry);
+        this.archiveQueryTimer = Timer.builder("educatech.enrollment-partitioning.archive-query").register(meterRegistry);
+    }
+
+    /**
+     * Crea las particiones que faltan y archiva las antiguas. Entre réplicas, solo una lo hace a la vez.
+     *
+     * @return Particiones creadas y archivadas.
+     */
+    @Override
+    @Scheduled(initialDelayString = "${educatech.enrollment-partitioning.initial-delay:PT1M}",
+            fixedDelayString = "${educatech.enrollment-partitioning.maintenance-interval:PT6H}")
+    public PartitionMaintenanceDTO maintain() {
+        if (!this.isPartitioned()) {
+            return new PartitionMaintenanceDTO(0, 0, 0);
+        }
+        YearMonth current = YearMonth.now();
+        Integer created = transactionTemplate.execute(status -> {
+            if (!partitionRepository.tryLockMaintenance()) {
+                return 0;
+            }
+            Set<YearMonth> existing = new HashSet<>(partitionRepository.findPartitionMonths());
+            TreeSet<YearMonth> missing = new TreeSet<>(partitionRepository.findMonthsInDefaultPartition());
+            for (int i = 0; i <= monthsAhead; i++) {
+                missing.add(current.plusMonths(i));
+            }
+            missing.removeAll(existing);
+            for (YearMonth month : missing) {
+                partitionRepository.createPartition(month);
+                log.info("Created enrollments partition for {}", month);
+            }
+            return missing.size();
+        });
+
+        int archived = 0;
+        long rows = 0;
+        if (archiveAfterMonths > 0) {
+            YearMonth cutoff = current.minusMonths(archiveAfterMonths);
+            for (YearMonth month : partitionRepository.findPartitionMonths()) {
+                if (!month.isBefore(cutoff)) {
+                    break;
+                }
+                // una transacción por partición: el bloqueo de la tabla dura lo que tarda en copiarse un mes
+                Long archivedMonth = transactionTemplate.execute(status ->
+                        partitionRepository.tryLockMaintenance() ? partitionRepository.archivePartition(month) : null);
+                if (archivedMonth == null) {
+                    break;
+                }
+                archived++;
+                rows += archivedMonth;
+                archivedRows.increment(archivedMonth);
+                log.info("Archived enrollments partition for {} ({} enrollments)", month, archivedMonth);
+            }
+        }
+        return new PartitionMaintenanceDTO(created == null ? 0 : created, archived, rows);
+    }
+
+    /**
+     * Inscripciones archivadas de un estudiante y/o de un curso. Descomprime cada mes del rango, así que es
+     * mucho más lenta que las consultas sobre la tabla: conviene acotar los meses.
+     *
+     * @param studentId ID del estudiante (opcional si se indica el curso).
+     * @param courseId  ID del curso (opcional si se indica el estudiante).
+     * @param from      Primer mes (por defecto, el primero archivado).
+     * @param to        Último mes (por defecto, el actual).
+     * @return Inscripciones archivadas, por mes y por ID.
+     */
+    @Override
+    public List<EnrollmentResponseDTO> getArchivedEnrollments(Long studentId, Long courseId, YearMonth from, YearMonth to) {
+        if (studentId == null && courseId == null) {
+            throw new IllegalArgumentException("A student ID or a course ID is required");
+        }
+        YearMonth first = from == null ? FIRST_MONTH : from;
+        YearMonth last = to == null ? YearMonth.now() : to;
+        if (first.isAfter(last)) {
+            throw new IllegalArgumentException("from cannot be after to");
+        }
+
+        List<EnrollmentResponseDTO> enrollments = new ArrayList<>();
+        archiveQueryTimer.record(() -> partitionRepository.forEachArchive(studentId, courseId, first, last, data ->
+                EnrollmentArchiveCodec.decode(data, row -> {
+                    if ((studentId == null || row.studentId() == studentId) && (courseId == null || row.courseId() == courseId)) {
+                        enrollments.add(new EnrollmentResponseDTO(row.id(), row.studentId(), row.courseId(), row.enrollmentDate(), row.version()));
+                    }
+                })));
+        return enrollments;
+    }
+
+    // La comprobación no cambia mientras la aplicación está arrancada: se hace una vez
+    private boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            result = partitionRepository.isPartitioned();
+            partitioned = result;
+            if (!result) {
+                log.info("enrollments is not a partitioned table, partition maintenance is disabled");
+            }
+        }
+        return result;
+    }
+}
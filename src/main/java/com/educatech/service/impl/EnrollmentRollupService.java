@@ -0,0 +1,426 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.EnrollmentTimeSeriesDTO;
+import com.educatech.enums.Granularity;
+import com.educatech.repository.EnrollmentRollupRepository;
+import com.educatech.repository.IEnrollmentStore;
+import com.educatech.service.IEnrollmentRollupService;
+import com.educatech.util.BucketSeries;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Series de inscripciones por curso agregadas por hora y por día.
+ * Cada alta o baja de inscripción suma o resta en memoria al confirmarse la transacción y deja
+ * un incremento pendiente que se persiste periódicamente en {@code enrollment_rollups}.
+ * Las consultas solo leen los arrays en memoria; la tabla de inscripciones solo se recorre en el backfill.
+ * Las series se recargan periódicamente desde {@code enrollment_rollups} para incluir lo que persisten
+ * las demás réplicas.
+ */
+@Service
+public class EnrollmentRollupService implements IEnrollmentRollupService {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentRollupService.class);
+    private static final int MAX_QUERY_BUCKETS = 10_000;
+
+    private final EnrollmentRollupRepository rollupRepository;
+    private final IEnrollmentStore enrollmentStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer backfillTimer;
+    private final int hourlyRetentionBuckets;
+    private final int dailyRetentionBuckets;
+    private final int backfillChunkSize;
+    private final int backfillParallelism;
+    private final boolean backfillOnEmpty;
+
+    private volatile Map<Long, BucketSeries> hourly = new ConcurrentHashMap<>();
+    private volatile Map<Long, BucketSeries> daily = new ConcurrentHashMap<>();
+    private final Map<RollupKey, Integer> pendingDeltas = new ConcurrentHashMap<>();
+
+    // record() toma el lock de lectura; el backfill toma el de escritura para cambiar las series de golpe
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // flush y backfill nunca se ejecutan a la vez
+    private final Object maintenanceLock = new Object();
+    // cambios que llegan mientras se recorre la tabla de inscripciones durante un backfill
+    private List<Change> backfillBuffer;
+
+    public EnrollmentRollupService(EnrollmentRollupRepository rollupRepository,
+                                   IEnrollmentStore enrollmentStore,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${educatech.enrollment-rollup.hourly-retention-days:90}") int hourlyRetentionDays,
+                                   @Value("${educatech.enrollment-rollup.daily-retention-days:3660}") int dailyRetentionDays,
+                                   @Value("${educatech.enrollment-rollup.backfill-chunk-size:100000}") int backfillChunkSize,
+                                   @Value("${educatech.enrollment-rollup.backfill-parallelism:4}") int backfillParallelism,
+                                   @Value("${educatech.enrollment-rollup.backfill-on-empty:true}") boolean backfillOnEmpty) {
+        this.rollupRepository = rollupRepository;
+        this.enrollmentStore = enrollmentStore;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillTimer = Timer.builder("educatech.enrollment.rollup.backfill").register(meterRegistry);
+        this.hourlyRetentionBuckets = hourlyRetentionDays * 24;
+        this.dailyRetentionBuckets = dailyRetentionDays;
+        this.backfillChunkSize = backfillChunkSize;
+        this.backfillParallelism = backfillParallelism;
+        this.backfillOnEmpty = backfillOnEmpty;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        long rows = this.reload();
+        if (rows == 0 && backfillOnEmpty && enrollmentStore.findMaxId() > 0) {
+            log.info("Enrollment rollups are empty, running backfill");
+            this.backfill();
+        } else {
+            log.info("Loaded {} enrollment rollup buckets", rows);
+        }
+    }
+
+    /**
+     * Sustituye las series en memoria por el contenido de la tabla de agregados, que incluye lo que
+     * persisten las demás réplicas. Antes persiste los incrementos locales, y los que llegan mientras
+     * se lee la tabla se vuelven a aplicar sobre las series nuevas.
+     *
+     * @return Número de buckets leídos.
+     */
+    @Scheduled(fixedDelayString = "${educatech.enrollment-rollup.reload-interval:PT1M}",
+            initialDelayString = "${educatech.enrollment-rollup.reload-interval:PT1M}")
+    long reload() {
+        synchronized (maintenanceLock) {
+            this.flush();
+            Map<Long, BucketSeries> loadedHourly = new ConcurrentHashMap<>();
+            Map<Long, BucketSeries> loadedDaily = new ConcurrentHashMap<>();
+            long[] rows = {0};
+            rollupRepository.forEachRow(row -> {
+                Map<Long, BucketSeries> target = row.granularity() == Granularity.HOUR ? loadedHourly : loadedDaily;
+                this.seriesOf(target, row.courseId(), row.granularity()).add(row.bucket(), (int) row.count());
+                rows[0]++;
+            });
+            swapLock.writeLock().lock();
+            try {
+                // pendientes de persistir: no están en la tabla (o el flush anterior falló)
+                pendingDeltas.forEach((key, delta) -> this.seriesOf(key.granularity() == Granularity.HOUR ? loadedHourly : loadedDaily,
+                        key.courseId(), key.granularity()).add(key.bucket(), delta));
+                this.swap(loadedHourly, loadedDaily, List.of(), Long.MAX_VALUE);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            return rows[0];
+        }
+    }
+
+    /**
+     * Registra el alta ({@code delta = 1}) o baja ({@code delta = -1}) de una inscripción.
+     * Dentro de una transacción, el cambio se aplica solo si esta se confirma.
+     *
+     * @param enrollmentId   ID de la inscripción.
+     * @param courseId       ID del curso.
+     * @param enrollmentDate Fecha de la inscripción (determina el bucket).
+     * @param delta          Variación del contador.
+     */
+    @Override
+    public void record(Long enrollmentId, Long courseId, LocalDateTime enrollmentDate, int delta) {
+        Change change = new Change(enrollmentId, courseId, enrollmentDate, delta);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            this.apply(change);
+        }
+    }
+
+    /**
+     * Elimina las series de un curso borrado, en memoria y en la tabla de agregados.
+     *
+     * @param courseId ID del curso.
+     */
+    @Override
+    public void removeCourse(Long courseId) {
+        rollupRepository.deleteByCourse(courseId);
+        Runnable removeFromMemory = () -> {
+            hourly.remove(courseId);
+            daily.remove(courseId);
+            pendingDeltas.keySet().removeIf(key -> key.courseId() == courseId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeFromMemory.run();
+                }
+            });
+        } else {
+            removeFromMemory.run();
+        }
+    }
+
+    /**
+     * Obtiene la serie de inscripciones de un curso en {@code [from, to)}, con un valor por bucket.
+     * Las fechas se redondean hacia abajo a la hora o al día.
+     *
+     * @param courseId    ID del curso.
+     * @param granularity Hora o día.
+     * @param from        Inicio del rango (incluido).
+     * @param to          Fin del rango (excluido).
+     * @return DTO con el inicio del primer bucket y los contadores.
+     */
+    @Override
+    public EnrollmentTimeSeriesDTO getSeries(Long courseId, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (courseId == null || courseId <= 0) {
+            throw new IllegalArgumentException("Invalid course ID: " + courseId);
+        }
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start must be before range end");
+        }
+        long fromBucket = toBucket(from, granularity);
+        long toBucket = toBucket(to.minusNanos(1), granularity) + 1;
+        if (toBucket - fromBucket > MAX_QUERY_BUCKETS) {
+            throw new IllegalArgumentException("Range cannot exceed " + MAX_QUERY_BUCKETS + " buckets");
+        }
+
+        BucketSeries series = (granularity == Granularity.HOUR ? hourly : daily).get(courseId);
+        int[] counts = series == null ? new int[(int) (toBucket - fromBucket)] : series.range(fromBucket, toBucket);
+        return new EnrollmentTimeSeriesDTO(courseId, granularity, fromBucketStart(fromBucket, granularity), counts);
+    }
+
+    /**
+     * Persiste los incrementos pendientes y borra los buckets horarios fuera de la retención.
+     *
+     * @return Número de buckets actualizados.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${educatech.enrollment-rollup.flush-interval:PT10S}")
+    public int flush() {
+        synchronized (maintenanceLock) {
+            List<EnrollmentRollupRepository.Row> rows = new ArrayList<>();
+            for (RollupKey key : pendingDeltas.keySet()) {
+                Integer delta = pendingDeltas.remove(key);
+                if (delta != null && delta != 0) {
+                    rows.add(new EnrollmentRollupRepository.Row(key.courseId(), key.granularity(), key.bucket(), delta));
+                }
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            long oldestHour = toBucket(LocalDateTime.now(), Granularity.HOUR) - hourlyRetentionBuckets;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    rollupRepository.applyDeltas(rows);
+                    rollupRepository.deleteOlderThan(Granularity.HOUR, oldestHour);
+                });
+            } catch (RuntimeException ex) {
+                // se reintentan en el siguiente flush
+                for (EnrollmentRollupRepository.Row row : rows) {
+                    pendingDeltas.merge(new RollupKey(row.courseId(), row.granularity(), row.bucket()), (int) row.count(), Integer::sum);
+                }
+                log.warn("Cannot flush {} enrollment rollup buckets, will retry", rows.size(), ex);
+                return 0;
+            }
+            return rows.size();
+        }
+    }
+
+    /**
+     * Recalcula todos los agregados desde la tabla de inscripciones, recorriéndola por tramos de id
+     * en paralelo, y desde las inscripciones archivadas, que ya no están en la tabla. Las altas que se
+     * confirman durante el recorrido se guardan aparte y se aplican al final sobre las series nuevas;
+     * una baja de una inscripción antigua durante el recorrido puede quedar contada hasta el siguiente
+     * backfill, igual que un mes que se archiva a la vez puede quedar contado dos veces o ninguna.
+     *
+     * @return Número de inscripciones recorridas.
+     */
+    @Override
+    public long backfill() {
+        synchronized (maintenanceLock) {
+            long start = System.nanoTime();
+            swapLock.writeLock().lock();
+            try {
+                backfillBuffer = new ArrayList<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            long maxId = enrollmentStore.findMaxId();
+            Map<RollupKey, int[]> totals = new HashMap<>();
+            long scanned = 0;
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, backfillParallelism));
+            try {
+                List<Future<ChunkResult>> chunks = new ArrayList<>();
+                for (long fromId = 0; fromId <= maxId; fromId += backfillChunkSize) {
+                    long chunkStart = fromId;
+                    long chunkEnd = Math.min(maxId + 1, fromId + backfillChunkSize);
+                    chunks.add(executor.submit(() -> this.scanChunk(chunkStart, chunkEnd)));
+                }
+                chunks.add(executor.submit(this::scanArchive));
+                for (Future<ChunkResult> chunk : chunks) {
+                    ChunkResult result = chunk.get();
+                    scanned += result.scanned();
+                    result.counts().forEach((key, count) -> totals.computeIfAbsent(key, k -> new int[1])[0] += count[0]);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                this.discardBackfillBuffer();
+                throw new IllegalStateException("Enrollment rollup backfill interrupted", ex);
+            } catch (ExecutionException | RuntimeException ex) {
+                this.discardBackfillBuffer();
+                throw new IllegalStateException("Enrollment rollup backfill failed", ex);
+            } finally {
+                executor.shutdownNow();
+            }
+
+            Map<Long, BucketSeries> newHourly = new ConcurrentHashMap<>();
+            Map<Long, BucketSeries> newDaily = new ConcurrentHashMap<>();
+            totals.forEach((key, count) -> this.seriesOf(key.granularity() == Granularity.HOUR ? newHourly : newDaily,
+                    key.courseId(), key.granularity()).add(key.bucket(), count[0]));
+
+            List<EnrollmentRollupRepository.Row> rows = new ArrayList<>();
+            this.collectRows(newHourly, Granularity.HOUR, rows);
+            this.collectRows(newDaily, Granularity.DAY, rows);
+            try {
+                transactionTemplate.executeWithoutResult(status -> rollupRepository.replaceAll(rows, 1000));
+            } catch (RuntimeException ex) {
+                this.discardBackfillBuffer();
+                throw ex;
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                List<Change> buffered = backfillBuffer;
+                backfillBuffer = null;
+                // lo pendiente ya está incluido en el recorrido o se vuelve a aplicar desde el buffer
+                pendingDeltas.clear();
+                this.swap(newHourly, newDaily, buffered, maxId);
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            backfillTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Enrollment rollup backfill scanned {} enrollments into {} buckets in {} ms",
+                    scanned, rows.size(), elapsed / 1_000_000);
+            return scanned;
+        }
+    }
+
+    // Metodo auxiliar que aplica un cambio confirmado en memoria y lo deja pendiente de persistir
+    private void apply(Change change) {
+        swapLock.readLock().lock();
+        try {
+            if (backfillBuffer != null) {
+                synchronized (backfillBuffer) {
+                    backfillBuffer.add(change);
+                }
+            }
+            this.applyTo(hourly, daily, change, true);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void applyTo(Map<Long, BucketSeries> hourlyTarget, Map<Long, BucketSeries> dailyTarget, Change change, boolean pending) {
+        for (Granularity granularity : Granularity.values()) {
+            long bucket = toBucket(change.enrollmentDate(), granularity);
+            Map<Long, BucketSeries> target = granularity == Granularity.HOUR ? hourlyTarget : dailyTarget;
+            this.seriesOf(target, change.courseId(), granularity).add(bucket, change.delta());
+            if (pending) {
+                pendingDeltas.merge(new RollupKey(change.courseId(), granularity, bucket), change.delta(), Integer::sum);
+            }
+        }
+    }
+
+    // Metodo auxiliar que publica series nuevas; se llama con el lock de escritura
+    private void swap(Map<Long, BucketSeries> newHourly, Map<Long, BucketSeries> newDaily, List<Change> buffered, long maxScannedId) {
+        for (Change change : buffered) {
+            if (change.enrollmentId() > maxScannedId) {
+                this.applyTo(newHourly, newDaily, change, true);
+            }
+        }
+        hourly = newHourly;
+        daily = newDaily;
+    }
+
+    private void discardBackfillBuffer() {
+        swapLock.writeLock().lock();
+        try {
+            backfillBuffer = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private ChunkResult scanChunk(long fromId, long toId) {
+        return this.count(consumer -> enrollmentStore.scanCourseDates(fromId, toId, consumer));
+    }
+
+    private ChunkResult scanArchive() {
+        return this.count(enrollmentStore::scanArchivedCourseDates);
+    }
+
+    // Metodo auxiliar que cuenta por bucket las inscripciones de un recorrido
+    private ChunkResult count(Consumer<IEnrollmentStore.CourseDateConsumer> scan) {
+        Map<RollupKey, int[]> counts = new HashMap<>();
+        long[] scanned = {0};
+        scan.accept((courseId, enrollmentDate) -> {
+            counts.computeIfAbsent(new RollupKey(courseId, Granularity.HOUR, toBucket(enrollmentDate, Granularity.HOUR)), k -> new int[1])[0]++;
+            counts.computeIfAbsent(new RollupKey(courseId, Granularity.DAY, toBucket(enrollmentDate, Granularity.DAY)), k -> new int[1])[0]++;
+            scanned[0]++;
+        });
+        return new ChunkResult(counts, scanned[0]);
+    }
+
+    private void collectRows(Map<Long, BucketSeries> series, Granularity granularity, List<EnrollmentRollupRepository.Row> rows) {
+        series.forEach((courseId, buckets) -> buckets.forEachNonZero((bucket, count) ->
+                rows.add(new EnrollmentRollupRepository.Row(courseId, granularity, bucket, count))));
+    }
+
+    private BucketSeries seriesOf(Map<Long, BucketSeries> target, long courseId, Granularity granularity) {
+        return target.computeIfAbsent(courseId, id ->
+                new BucketSeries(granularity == Granularity.HOUR ? hourlyRetentionBuckets : dailyRetentionBuckets));
+    }
+
+    // los buckets son horas o días desde epoch; las fechas de inscripción se tratan como UTC
+    private static long toBucket(LocalDateTime dateTime, Granularity granularity) {
+        long epochSecond = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return Math.floorDiv(epochSecond, granularity == Granularity.HOUR ? 3600 : 86400);
+    }
+
+    private static LocalDateTime fromBucketStart(long bucket, Granularity granularity) {
+        return LocalDateTime.ofEpochSecond(bucket * (granularity == Granularity.HOUR ? 3600 : 86400), 0, ZoneOffset.UTC);
+    }
+
+    private record RollupKey(long courseId, Granularity granularity, long bucket) {
+    }
+
+    private record Change(Long enrollmentId, Long courseId, LocalDateTime enrollmentDate, int delta) {
+    }
+
+    private record ChunkResult(Map<RollupKey, int[]> counts, long scanned) {
+    }
+}
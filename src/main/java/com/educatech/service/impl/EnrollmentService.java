@@ -5,6 +5,8 @@ import com.educatech.dto.response.EnrollmentResponseDTO;
 import com.educatech.entity.Course;
 import com.educatech.entity.Enrollment;
 import com.educatech.entity.User;
+import com.educatech.enums.ChangeAggregate;
+import com.educatech.enums.ChangeType;
 import com.educatech.enums.Role;
 import com.educatech.exception.CourseNotFoundException;
 import com.educatech.exception.EnrollmentNotFoundException;
@@ -12,9 +14,13 @@ import com.educatech.exception.StudentHasEnrolledException;
 import com.educatech.exception.UserNotFoundException;
 import com.educatech.mapper.EnrollmentMapper;
 import com.educatech.repository.ICourseRepository;
-import com.educatech.repository.IEnrollmentRepository;
+import com.educatech.repository.IEnrollmentStore;
 import com.educatech.repository.IUserRepository;
+import com.educatech.service.ICourseRecommendationService;
+import com.educatech.service.IEnrollmentRollupService;
 import com.educatech.service.IEnrollmentService;
+import com.educatech.service.IOutboxService;
+import com.educatech.util.EntityVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -22,15 +28,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class EnrollmentService implements IEnrollmentService {
     /** Repositorios y mapeadores necesarios para las operaciones de inscripción */
-    private final IEnrollmentRepository enrollmentRepository;
+    private final IEnrollmentStore enrollmentStore;
     private final EnrollmentMapper enrollmentMapper;
     private final IUserRepository userRepository;
     private final ICourseRepository courseRepository;
+    private final IOutboxService outboxService;
+    private final IEnrollmentRollupService enrollmentRollupService;
+    private final ICourseRecommendationService courseRecommendationService;
 
     /**
      * Guarda una nueva inscripción.
@@ -63,17 +73,20 @@ public class EnrollmentService implements IEnrollmentService {
         Course course = courseRepository.findById(idCourse)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + idCourse));
 
-        enrollmentRepository.getEnrollmentByStudentAndCourse(student, course)
-                .ifPresent(enrollment1 -> {
-                    throw new StudentHasEnrolledException("Student with id: " + idStudent + " has already enrolled in course with id: " + idCourse);
-                });
+        // también las archivadas: un estudiante no puede volver a inscribirse en un curso antiguo
+        if (enrollmentStore.existsByStudentAndCourse(idStudent, idCourse)) {
+            throw new StudentHasEnrolledException("Student with id: " + idStudent + " has already enrolled in course with id: " + idCourse);
+        }
 
         Enrollment enrollmentToSave = enrollmentMapper.toEntity(enrollment);
 
         enrollmentToSave.setStudent(student);
         enrollmentToSave.setCourse(course);
 
-        Enrollment savedEnrollment = enrollmentRepository.save(enrollmentToSave);
+        Enrollment savedEnrollment = enrollmentStore.save(enrollmentToSave);
+        outboxService.record(ChangeAggregate.ENROLLMENT, savedEnrollment.getId(), ChangeType.CREATED, this.toChangePayload(savedEnrollment));
+        enrollmentRollupService.record(savedEnrollment.getId(), idCourse, savedEnrollment.getEnrollmentDate(), 1);
+        courseRecommendationService.markStale();
         // solo devuelve los ids del estudiante y del curso
         return enrollmentMapper.toResponseDTO(savedEnrollment);
     }
@@ -87,7 +100,7 @@ public class EnrollmentService implements IEnrollmentService {
     @Override
     @Transactional(readOnly = true)
     public Page<EnrollmentResponseDTO> getAllEnrollments(Pageable pageable) {
-        return enrollmentRepository.findAll(pageable).map(enrollmentMapper::toResponseDTO);
+        return enrollmentStore.findAll(pageable).map(enrollmentMapper::toResponseDTO);
     }
 
     /**
@@ -124,6 +137,7 @@ public class EnrollmentService implements IEnrollmentService {
         }
 
         Enrollment existingEnrollment = this.getEnrollmentEntityById(idEnrollment);
+        EntityVersions.requireCurrent("Enrollment", idEnrollment, enrollmentWithUpdates.getVersion(), existingEnrollment.getVersion());
 
         // Hay que asegurarse que el estudiante y el curso existen antes de actualizar
         User student = userRepository.findById(enrollmentWithUpdates.getUserId())
@@ -136,15 +150,23 @@ public class EnrollmentService implements IEnrollmentService {
         Course course = courseRepository.findById(enrollmentWithUpdates.getCourseId())
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + enrollmentWithUpdates.getCourseId()));
 
-        enrollmentRepository.getEnrollmentByStudentAndCourse(student, course)
-                .ifPresent(enrollment1 -> {
-                    throw new StudentHasEnrolledException("Student with id: " + student.getId() + " has already enrolled in course with id: " + course.getId());
-                });
+        if (enrollmentStore.existsByStudentAndCourse(student.getId(), course.getId())) {
+            throw new StudentHasEnrolledException("Student with id: " + student.getId() + " has already enrolled in course with id: " + course.getId());
+        }
 
+        Long previousCourseId = existingEnrollment.getCourse().getId();
         existingEnrollment.setStudent(student);
         existingEnrollment.setCourse(course);
 
-        return enrollmentRepository.save(existingEnrollment);
+        Enrollment updatedEnrollment = enrollmentStore.save(existingEnrollment);
+        outboxService.record(ChangeAggregate.ENROLLMENT, updatedEnrollment.getId(), ChangeType.UPDATED, this.toChangePayload(updatedEnrollment));
+        if (!previousCourseId.equals(course.getId())) {
+            // la inscripción conserva su fecha y pasa al bucket del curso nuevo
+            enrollmentRollupService.record(idEnrollment, previousCourseId, updatedEnrollment.getEnrollmentDate(), -1);
+            enrollmentRollupService.record(idEnrollment, course.getId(), updatedEnrollment.getEnrollmentDate(), 1);
+        }
+        courseRecommendationService.markStale();
+        return updatedEnrollment;
     }
 
     /**
@@ -160,7 +182,10 @@ public class EnrollmentService implements IEnrollmentService {
         }
 
         Enrollment enrollmentToDelete = this.getEnrollmentEntityById(enrollmentId);
-        enrollmentRepository.delete(enrollmentToDelete);
+        outboxService.record(ChangeAggregate.ENROLLMENT, enrollmentId, ChangeType.DELETED, this.toChangePayload(enrollmentToDelete));
+        enrollmentRollupService.record(enrollmentId, enrollmentToDelete.getCourse().getId(), enrollmentToDelete.getEnrollmentDate(), -1);
+        courseRecommendationService.markStale();
+        enrollmentStore.delete(enrollmentToDelete);
     }
 
     /**
@@ -183,7 +208,7 @@ public class EnrollmentService implements IEnrollmentService {
             throw new IllegalArgumentException("User with id: " + idStudent + " is not a student");
         }
 
-        return enrollmentRepository.getEnrollmentsByStudent(studentToFind)
+        return enrollmentStore.getEnrollmentsByStudent(studentToFind)
                 .stream().map(enrollmentMapper::toResponseDTO)
                 .toList();
     }
@@ -200,7 +225,7 @@ public class EnrollmentService implements IEnrollmentService {
         Course courseToFind = courseRepository.findById(idCourse)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + idCourse));
 
-        return enrollmentRepository.getEnrollmentsByCourse(courseToFind).stream()
+        return enrollmentStore.getEnrollmentsByCourse(courseToFind).stream()
                 .map(enrollmentMapper::toResponseDTO)
                 .toList();
     }
@@ -225,7 +250,7 @@ public class EnrollmentService implements IEnrollmentService {
         Course courseToFind = courseRepository.findById(idCourse)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + idCourse));
 
-        Enrollment enrollment = enrollmentRepository.getEnrollmentByStudentAndCourse(studentToFind, courseToFind)
+        Enrollment enrollment = enrollmentStore.getEnrollmentByStudentAndCourse(studentToFind, courseToFind)
                 .orElseThrow(() -> new EnrollmentNotFoundException("Enrollment not found for student id: " + idStudent + " and course id: " + idCourse));
 
         return enrollmentMapper.toResponseDTO(enrollment);
@@ -233,10 +258,19 @@ public class EnrollmentService implements IEnrollmentService {
 
     // Metodo auxiliar para obtener una entidad de inscripción por su ID, lanzando una excepción si no se encuentra
     private Enrollment getEnrollmentEntityById(Long enrollmentId) {
-        return enrollmentRepository.findById(enrollmentId)
+        return enrollmentStore.findById(enrollmentId)
                 .orElseThrow(() -> new EnrollmentNotFoundException("Enrollment not found with id: " + enrollmentId));
     }
 
+    // Metodo auxiliar con los campos que se publican en el change feed
+    private Map<String, Object> toChangePayload(Enrollment enrollment) {
+        return Map.of(
+                "userId", enrollment.getStudent().getId(),
+                "courseId", enrollment.getCourse().getId(),
+                "enrollmentDate", String.valueOf(enrollment.getEnrollmentDate())
+        );
+    }
+
     // Metodo auxiliar para comprobar el rol de un usuario
     private boolean hasRole(User user, Role role) {
         return user.getRole() == role;
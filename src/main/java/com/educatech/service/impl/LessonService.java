@@ -1,29 +1,57 @@
 package com.educatech.service.impl;
 
 import com.educatech.dto.request.LessonRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.LessonImportResultDTO;
 import com.educatech.dto.response.LessonResponseDTO;
 import com.educatech.entity.Course;
 import com.educatech.entity.Lesson;
+import com.educatech.enums.ChangeAggregate;
+import com.educatech.enums.ChangeType;
+import com.educatech.enums.LessonImportStatus;
 import com.educatech.exception.CourseNotFoundException;
 import com.educatech.exception.LessonNotFoundException;
 import com.educatech.mapper.LessonMapper;
 import com.educatech.repository.ICourseRepository;
 import com.educatech.repository.ILessonRepository;
+import com.educatech.repository.MultiGetRepository;
+import com.educatech.repository.SparseFieldsRepository;
 import com.educatech.service.ILessonService;
+import com.educatech.service.IOutboxService;
+import com.educatech.util.EntityVersions;
+import com.educatech.util.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class LessonService implements ILessonService {
+    private static final int MAX_IMPORT_SIZE = 1000;
+    // campos que se pueden pedir con fields= y el atributo de la entidad de cada uno
+    private static final Map<String, String> SPARSE_FIELDS = Map.of(
+            "id", "id",
+            "title", "title",
+            "content", "content",
+            "courseId", "course.id"
+    );
+
     private final ILessonRepository lessonRepository;
     private final ICourseRepository courseRepository;
     private final LessonMapper lessonMapper;
+    private final MultiGetRepository multiGetRepository;
+    private final SparseFieldsRepository sparseFieldsRepository;
+    private final IOutboxService outboxService;
+    private final SingleFlight<Long, List<LessonResponseDTO>> lessonsByCourseSingleFlight;
 
     /**
      * Guarda una nueva lección.
@@ -48,7 +76,9 @@ public class LessonService implements ILessonService {
 
         Lesson lessonToSave = lessonMapper.toEntity(lesson);
         lessonToSave.setContent(lesson.getContent());
+        lessonToSave.setCourse(course);
         Lesson savedLesson = lessonRepository.save(lessonToSave);
+        outboxService.record(ChangeAggregate.LESSON, savedLesson.getId(), ChangeType.CREATED, this.toChangePayload(savedLesson));
 
         return lessonMapper.toResponseDTO(savedLesson);
     }
@@ -65,6 +95,19 @@ public class LessonService implements ILessonService {
         return lessonRepository.findAll(pageable).map(lessonMapper::toResponseDTO);
     }
 
+    /**
+     * Obtiene todas las lecciones con paginación, leyendo solo los campos pedidos.
+     *
+     * @param pageable Parámetros de paginación.
+     * @param fields   Campos de la respuesta (id, title, content, courseId).
+     * @return Página con un mapa campo -> valor por lección.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllLessons(Pageable pageable, Set<String> fields) {
+        return sparseFieldsRepository.findAll(Lesson.class, SPARSE_FIELDS, fields, null, pageable);
+    }
+
     /**
      * Obtiene una lección por su ID.
      *
@@ -80,6 +123,37 @@ public class LessonService implements ILessonService {
         return lessonMapper.toResponseDTO(this.getLessonEntityById(idLesson));
     }
 
+    /**
+     * Obtiene una lección por su ID, leyendo solo los campos pedidos.
+     *
+     * @param idLesson ID de la lección.
+     * @param fields   Campos de la respuesta (id, title, content, courseId).
+     * @return Mapa campo -> valor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getLessonById(Long idLesson, Set<String> fields) {
+        if (idLesson == null || idLesson <= 0) {
+            throw new IllegalArgumentException("Lesson ID must be provided and greater than zero.");
+        }
+        return sparseFieldsRepository.findAll(Lesson.class, SPARSE_FIELDS, fields,
+                        (root, query, cb) -> cb.equal(root.get("id"), idLesson))
+                .stream().findFirst()
+                .orElseThrow(() -> new LessonNotFoundException("Lesson not found with id: " + idLesson));
+    }
+
+    /**
+     * Obtiene varias lecciones por sus IDs en una sola operación.
+     *
+     * @param idLessons IDs de las lecciones (como mucho {@link MultiGetRepository#MAX_IDS}).
+     * @return Lecciones en el orden pedido (null si no existe) y la lista de IDs inexistentes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BatchLookupDTO<LessonResponseDTO> getLessonsByIds(List<Long> idLessons) {
+        return multiGetRepository.findAllById(Lesson.class, idLessons, lessonMapper::toResponseDTO, "content");
+    }
+
     /**
      * Actualiza una lección existente.
      *
@@ -109,6 +183,7 @@ public class LessonService implements ILessonService {
 
         // verifica si la lección existe
         Lesson existingLesson = this.getLessonEntityById(idLesson);
+        EntityVersions.requireCurrent("Lesson", idLesson, lessonWithUpdates.getVersion(), existingLesson.getVersion());
 
         // EL problema de este metodo es que si quiero actualizar el NOMBRE y el CONTENIDO de la lección
         // y NO el curso, me da error porque la lección ya está asociada a ese curso.
@@ -123,7 +198,9 @@ public class LessonService implements ILessonService {
         existingLesson.setContent(lessonWithUpdates.getContent());
         existingLesson.setCourse(course);
 
-        Lesson updatedLesson = lessonRepository.save(existingLesson);
+        // flush para que la respuesta lleve la versión nueva
+        Lesson updatedLesson = lessonRepository.saveAndFlush(existingLesson);
+        outboxService.record(ChangeAggregate.LESSON, updatedLesson.getId(), ChangeType.UPDATED, this.toChangePayload(updatedLesson));
         return lessonMapper.toResponseDTO(updatedLesson);
     }
 
@@ -140,28 +217,160 @@ public class LessonService implements ILessonService {
         }
         // Verifica si la lección existe
         Lesson lessonToDelete = this.getLessonEntityById(idLesson);
+        outboxService.record(ChangeAggregate.LESSON, idLesson, ChangeType.DELETED, this.toChangePayload(lessonToDelete));
         lessonRepository.delete(lessonToDelete);
     }
 
     /**
      * Obtiene las lecciones de un curso dado su ID.
+     * Las peticiones concurrentes del mismo curso comparten una única consulta (ver {@link SingleFlight}).
      *
      * @param idCourse ID del curso.
      * @return Lista de DTOs de respuesta de lecciones.
      */
     @Override
-    @Transactional(readOnly = true)
     public List<LessonResponseDTO> getLessonsByCourse(Long idCourse) {
         if (idCourse == null || idCourse <= 0) {
             throw new IllegalArgumentException("Course ID must be provided and greater than zero.");
         }
+        return lessonsByCourseSingleFlight.execute(idCourse, () -> {
+            Course course = courseRepository.findById(idCourse)
+                    .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + idCourse));
+
+            return lessonRepository.getLessonsByCourse(course)
+                    .stream()
+                    .map(lessonMapper::toResponseDTO)
+                    .toList();
+        });
+    }
+
+    /**
+     * Obtiene las lecciones de un curso dado su ID, leyendo solo los campos pedidos.
+     *
+     * @param idCourse ID del curso.
+     * @param fields   Campos de la respuesta (id, title, content, courseId).
+     * @return Lista con un mapa campo -> valor por lección.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getLessonsByCourse(Long idCourse, Set<String> fields) {
+        if (idCourse == null || idCourse <= 0) {
+            throw new IllegalArgumentException("Course ID must be provided and greater than zero.");
+        }
+        if (!courseRepository.existsById(idCourse)) {
+            throw new CourseNotFoundException("Course not found with id: " + idCourse);
+        }
+        return sparseFieldsRepository.findAll(Lesson.class, SPARSE_FIELDS, fields,
+                (root, query, cb) -> cb.equal(root.get("course").get("id"), idCourse));
+    }
+
+    /**
+     * Importa en bloque las lecciones de un curso.
+     * El curso se valida una sola vez, los títulos duplicados se detectan con una única consulta IN
+     * (y dentro del propio payload) y las lecciones válidas se insertan con batching JDBC.
+     *
+     * @param idCourse ID del curso al que pertenecen las lecciones.
+     * @param lessons  Lecciones a importar, en el orden del payload.
+     * @return Resultado de cada lección, en el mismo orden que el payload.
+     */
+    @Override
+    @Transactional
+    public List<LessonImportResultDTO> importLessons(Long idCourse, List<LessonRequestDTO> lessons) {
+        if (idCourse == null || idCourse <= 0) {
+            throw new IllegalArgumentException("Course ID must be provided and greater than zero.");
+        }
+        if (lessons == null || lessons.isEmpty()) {
+            throw new IllegalArgumentException("At least one lesson must be provided.");
+        }
+        if (lessons.size() > MAX_IMPORT_SIZE) {
+            throw new IllegalArgumentException("Cannot import more than " + MAX_IMPORT_SIZE + " lessons at once.");
+        }
+
         Course course = courseRepository.findById(idCourse)
                 .orElseThrow(() -> new CourseNotFoundException("Course not found with id: " + idCourse));
 
-        return lessonRepository.getLessonsByCourse(course)
-                .stream()
-                .map(lessonMapper::toResponseDTO)
-                .toList();
+        Set<String> candidateTitles = new HashSet<>();
+        for (LessonRequestDTO lesson : lessons) {
+            if (lesson != null && lesson.getTitle() != null) {
+                candidateTitles.add(lesson.getTitle());
+            }
+        }
+        Set<String> existingTitles = candidateTitles.isEmpty()
+                ? Set.of()
+                : new HashSet<>(lessonRepository.findTitlesByCourseAndTitleIn(course, candidateTitles));
+
+        LessonImportResultDTO[] results = new LessonImportResultDTO[lessons.size()];
+        List<Lesson> lessonsToSave = new ArrayList<>();
+        List<Integer> positionsToSave = new ArrayList<>();
+        Set<String> seenTitles = new HashSet<>();
+
+        for (int i = 0; i < lessons.size(); i++) {
+            LessonRequestDTO lesson = lessons.get(i);
+            String invalidReason = this.validateImportedLesson(lesson, idCourse);
+            if (invalidReason != null) {
+                String title = lesson == null ? null : lesson.getTitle();
+                results[i] = new LessonImportResultDTO(i, title, LessonImportStatus.INVALID, invalidReason, null);
+                continue;
+            }
+            if (existingTitles.contains(lesson.getTitle())) {
+                results[i] = new LessonImportResultDTO(i, lesson.getTitle(), LessonImportStatus.DUPLICATE,
+                        "A lesson with the same title already exists in this course.", null);
+                continue;
+            }
+            if (!seenTitles.add(lesson.getTitle())) {
+                results[i] = new LessonImportResultDTO(i, lesson.getTitle(), LessonImportStatus.DUPLICATE,
+                        "The title is repeated within the import payload.", null);
+                continue;
+            }
+
+            Lesson lessonToSave = lessonMapper.toEntity(lesson);
+            lessonToSave.setCourse(course);
+            lessonsToSave.add(lessonToSave);
+            positionsToSave.add(i);
+        }
+
+        // saveAll agrupa los INSERT según hibernate.jdbc.batch_size
+        List<Lesson> savedLessons = lessonRepository.saveAll(lessonsToSave);
+        for (int j = 0; j < savedLessons.size(); j++) {
+            Lesson savedLesson = savedLessons.get(j);
+            int position = positionsToSave.get(j);
+            outboxService.record(ChangeAggregate.LESSON, savedLesson.getId(), ChangeType.CREATED, this.toChangePayload(savedLesson));
+            results[position] = new LessonImportResultDTO(position, savedLesson.getTitle(), LessonImportStatus.CREATED,
+                    null, lessonMapper.toResponseDTO(savedLesson));
+        }
+
+        return Arrays.asList(results);
+    }
+
+    // Método privado con los campos que se publican en el change feed (sin el contenido)
+    private Map<String, Object> toChangePayload(Lesson lesson) {
+        return Map.of(
+                "title", lesson.getTitle(),
+                "courseId", lesson.getCourse().getId()
+        );
+    }
+
+    // Método privado que devuelve el motivo por el que una lección importada no es válida, o null si lo es
+    private String validateImportedLesson(LessonRequestDTO lesson, Long idCourse) {
+        if (lesson == null) {
+            return "Lesson cannot be null";
+        }
+        if (lesson.getTitle() == null || lesson.getTitle().isBlank()) {
+            return "Title cannot be blank";
+        }
+        if (lesson.getTitle().length() > 255) {
+            return "Title cannot exceed 255 characters";
+        }
+        if (lesson.getContent() == null || lesson.getContent().isBlank()) {
+            return "Content cannot be blank";
+        }
+        if (lesson.getContent().length() > 2000) {
+            return "Content cannot exceed 2000 characters";
+        }
+        if (lesson.getCourseId() != null && !lesson.getCourseId().equals(idCourse)) {
+            return "Lesson belongs to course with id: " + lesson.getCourseId() + ", expected: " + idCourse;
+        }
+        return null;
     }
 
     // Método privado para obtener una lección por su ID o lanzar una excepción si no existe
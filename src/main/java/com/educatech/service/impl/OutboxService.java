@@ -0,0 +1,203 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.ChangeEventDTO;
+import com.educatech.dto.response.ChangeFeedPageDTO;
+import com.educatech.entity.OutboxConsumer;
+import com.educatech.entity.OutboxEvent;
+import com.educatech.enums.ChangeAggregate;
+import com.educatech.enums.ChangeType;
+import com.educatech.exception.ChangeConsumerAccessDeniedException;
+import com.educatech.mapper.ChangeEventMapper;
+import com.educatech.repository.IOutboxConsumerRepository;
+import com.educatech.repository.IOutboxEventRepository;
+import com.educatech.repository.OutboxSequenceRepository;
+import com.educatech.service.IOutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService implements IOutboxService {
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final IOutboxEventRepository outboxEventRepository;
+    private final IOutboxConsumerRepository outboxConsumerRepository;
+    private final OutboxSequenceRepository outboxSequenceRepository;
+    private final ChangeEventMapper changeEventMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pollInterval;
+    private final Duration retention;
+
+    // los consumidores en long-poll esperan aquí hasta que se confirma una transacción con eventos
+    private final Object changeSignal = new Object();
+
+    public OutboxService(IOutboxEventRepository outboxEventRepository,
+                         IOutboxConsumerRepository outboxConsumerRepository,
+                         OutboxSequenceRepository outboxSequenceRepository,
+                         ChangeEventMapper changeEventMapper,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${educatech.outbox.poll-interval:PT1S}") Duration pollInterval,
+                         @Value("${educatech.outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxConsumerRepository = outboxConsumerRepository;
+        this.outboxSequenceRepository = outboxSequenceRepository;
+        this.changeEventMapper = changeEventMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollInterval = pollInterval;
+        this.retention = retention;
+    }
+
+    /**
+     * Registra un evento de cambio en la transacción en curso; si la escritura se revierte,
+     * el evento también.
+     *
+     * @param aggregateType Tipo de entidad modificada.
+     * @param aggregateId   ID de la entidad modificada.
+     * @param eventType     Tipo de cambio.
+     * @param payload       Campos clave de la entidad (sin LOBs).
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeAggregate aggregateType, Long aggregateId, ChangeType eventType, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(this.toJson(payload));
+        outboxEventRepository.save(event);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                synchronized (changeSignal) {
+                    changeSignal.notifyAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Obtiene un lote de eventos posteriores a un offset, esperando hasta {@code waitMillis} si no hay ninguno.
+     * Pedir a partir de un offset confirma todos los anteriores para ese consumidor: el offset confirmado
+     * solo avanza y nunca pasa del último asignado, y solo lo puede mover el usuario que creó el consumidor.
+     * El offset de cada evento se asigna en orden de confirmación ({@link OutboxSequenceRepository}), así
+     * que una transacción que se confirma tarde no deja eventos por detrás del offset de un consumidor.
+     *
+     * @param ownerId       Usuario que hace la petición.
+     * @param consumerId    Identificador del consumidor.
+     * @param afterSequence Último offset procesado por el consumidor.
+     * @param limit         Máximo de eventos del lote.
+     * @param waitMillis    Tiempo máximo de espera si no hay eventos.
+     * @return Lote de eventos y offset a usar en la siguiente petición.
+     * @throws ChangeConsumerAccessDeniedException Si el consumidor es de otro usuario.
+     */
+    @Override
+    public ChangeFeedPageDTO getChanges(String ownerId, String consumerId, Long afterSequence, int limit, long waitMillis) {
+        if (consumerId == null || consumerId.isBlank() || consumerId.length() > 100) {
+            throw new IllegalArgumentException("Consumer ID must be provided and at most 100 characters");
+        }
+        if (afterSequence == null || afterSequence < 0) {
+            throw new IllegalArgumentException("Offset cannot be null or negative");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        transactionTemplate.executeWithoutResult(status -> this.acknowledge(ownerId, consumerId, afterSequence));
+
+        long deadline = System.currentTimeMillis() + Math.max(0, waitMillis);
+        while (true) {
+            transactionTemplate.executeWithoutResult(status -> outboxSequenceRepository.assignPendingSequences());
+            List<OutboxEvent> events = outboxEventRepository.findByFeedSequenceGreaterThanOrderByFeedSequenceAsc(
+                    afterSequence, PageRequest.of(0, pageSize));
+            long remaining = deadline - System.currentTimeMillis();
+            if (!events.isEmpty() || remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                List<ChangeEventDTO> dtos = events.stream().map(changeEventMapper::toResponseDTO).toList();
+                long nextOffset = events.isEmpty() ? afterSequence : events.get(events.size() - 1).getFeedSequence();
+                return new ChangeFeedPageDTO(dtos, nextOffset);
+            }
+            // espera una señal local o, como mucho, el intervalo de sondeo (eventos de otras réplicas)
+            this.awaitChange(Math.min(remaining, pollInterval.toMillis()));
+        }
+    }
+
+    /**
+     * Borra los eventos que ya leyeron todos los consumidores y los que superan la retención.
+     *
+     * @return Número de eventos borrados.
+     */
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${educatech.outbox.compaction-interval:PT5M}")
+    public int compact() {
+        Long minConsumed = outboxConsumerRepository.findMinLastSequence();
+        int deleted = outboxEventRepository.deleteConsumedOrExpired(
+                minConsumed == null ? 0L : minConsumed, LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Outbox compaction removed {} events (consumed up to {})", deleted, minConsumed);
+        }
+        return deleted;
+    }
+
+    // Metodo auxiliar para guardar el offset confirmado de un consumidor (solo hacia delante y hasta el último asignado)
+    private void acknowledge(String ownerId, String consumerId, long afterSequence) {
+        Long head = outboxEventRepository.findMaxFeedSequence();
+        long sequence = Math.min(afterSequence, head == null ? 0L : head);
+        OutboxConsumer consumer = outboxConsumerRepository.findById(consumerId).orElse(null);
+        if (consumer == null) {
+            consumer = new OutboxConsumer();
+            consumer.setConsumerId(consumerId);
+            consumer.setOwnerId(ownerId);
+            consumer.setLastSequence(sequence);
+            consumer.setUpdatedAt(LocalDateTime.now());
+            outboxConsumerRepository.save(consumer);
+            return;
+        }
+        if (consumer.getOwnerId() == null) {
+            // consumidor anterior a V17: pasa a ser de quien lo usa
+            consumer.setOwnerId(ownerId);
+        } else if (!consumer.getOwnerId().equals(ownerId)) {
+            throw new ChangeConsumerAccessDeniedException("Change feed consumer " + consumerId + " belongs to another user");
+        }
+        outboxConsumerRepository.advanceLastSequence(consumerId, sequence, LocalDateTime.now());
+    }
+
+    private void awaitChange(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        synchronized (changeSignal) {
+            try {
+                changeSignal.wait(millis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize outbox payload", ex);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.educatech.service.impl;
+
+import com.educatech.dto.response.UserImportResultDTO;
+import com.educatech.dto.response.UserResponseDTO;
+import com.educatech.enums.Role;
+import com.educatech.enums.UserImportFormat;
+import com.educatech.enums.UserImportStatus;
+import com.educatech.repository.IUserRepository;
+import com.educatech.repository.UserImportRepository;
+import com.educatech.service.IEmailAvailabilityService;
+import com.educatech.service.IUserImportService;
+import com.educatech.util.CsvReader;
+import com.educatech.util.EmailAddresses;
+import com.educatech.util.PasswordHasher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Alta de usuarios en bloque (incorporación de un centro) leyendo el fichero en streaming: CSV con cabecera
+ * ({@code first_name,last_name,email,password[,role]}) o NDJSON con los campos de {@code UserRequestDTO}
+ * más {@code role}. Sin rol, el usuario es estudiante.
+ * <p>
+ * Las filas se procesan por bloques de {@code chunk-size}: se validan con las mismas reglas que la carga
+ * por COPY, se descartan los emails repetidos en el bloque y los ya registrados (una sola consulta), se
+ * cifran las contraseñas en paralelo con {@link PasswordHasher} (las ya cifradas se guardan tal cual) y
+ * se insertan con un batch JDBC en una transacción por bloque. El resultado de cada fila se entrega al confirmarse su bloque,
+ * así que la memoria depende del tamaño del bloque y no del fichero.
+ * <p>
+ * Una fila inválida no detiene la carga; un CSV mal formado o un error de la base de datos sí: los bloques
+ * ya confirmados se quedan y el resto del fichero no se lee.
+ */
+@Service
+public class UserImportService implements IUserImportService {
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+    private static final List<String> REQUIRED_COLUMNS = List.of("first_name", "last_name", "email", "password");
+    private static final int MAX_LINE_CHARS = 64 * 1024;
+    private static final String PASSWORD_RULE = "Password must be between 8 and 60 characters or a {bcrypt} hash";
+    // un alta simultánea puede ocupar un email entre la comprobación y el insert: se vuelve a comprobar
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final IUserRepository userRepository;
+    private final UserImportRepository userImportRepository;
+    private final IEmailAvailabilityService emailAvailabilityService;
+    private final PasswordHasher passwordHasher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Map<UserImportStatus, Counter> rowCounters = new EnumMap<>(UserImportStatus.class);
+    private final Timer hashingTimer;
+
+    public UserImportService(IUserRepository userRepository,
+                             UserImportRepository userImportRepository,
+                             IEmailAvailabilityService emailAvailabilityService,
+                             PasswordHasher passwordHasher,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${educatech.user-import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userImportRepository = userImportRepository;
+        this.emailAvailabilityService = emailAvailabilityService;
+        this.passwordHasher = passwordHasher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        for (UserImportStatus status : UserImportStatus.values()) {
+            rowCounters.put(status, Counter.builder("educatech.user-import.rows")
+                    .tag("outcome", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.hashingTimer = Timer.builder("educatech.user-import.hashing").register(meterRegistry);
+    }
+
+    /**
+     * Importa los usuarios de un fichero CSV o NDJSON.
+     *
+     * @param input   Contenido del fichero (UTF-8), leído en streaming.
+     * @param format  Formato del fichero.
+     * @param results Recibe los resultados de cada bloque, en el orden del fichero, al confirmarse el bloque.
+     *                El número de fila es el del registro de datos en el CSV (sin la cabecera) y el de la
+     *                línea en el NDJSON.
+     * @throws IllegalArgumentException si a la cabecera del CSV le falta alguna columna obligatoria.
+     */
+    @Override
+    public void importUsers(InputStream input, UserImportFormat format, Consumer<List<UserImportResultDTO>> results) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        RowSource source;
+        try {
+            source = format == UserImportFormat.CSV ? new CsvRows(new CsvReader(reader)) : new NdjsonRows(reader);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        Map<UserImportStatus, Long> totals = new EnumMap<>(UserImportStatus.class);
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            ParsedRow row;
+            try {
+                row = source.next();
+            } catch (IOException | RuntimeException ex) {
+                // un error de lectura deja el fichero sin una posición fiable para seguir
+                if (!this.emit(this.processChunk(chunk), results, totals)) {
+                    break;
+                }
+                chunk.clear();
+                String message = ex instanceof IOException ? "Could not read the file" : ex.getMessage();
+                this.emit(List.of(new UserImportResultDTO(source.position(), null, UserImportStatus.ABORTED,
+                        "Import aborted: " + message, null)), results, totals);
+                break;
+            }
+            if (row == null || chunk.size() == chunkSize) {
+                if (!this.emit(this.processChunk(chunk), results, totals)) {
+                    break;
+                }
+                chunk.clear();
+            }
+            if (row == null) {
+                break;
+            }
+            chunk.add(row);
+        }
+        log.info("User import ({}) finished: {}", format, totals);
+    }
+
+    // Metodo auxiliar que entrega los resultados de un bloque; false si el bloque abortó la carga
+    private boolean emit(List<UserImportResultDTO> chunkResults, Consumer<List<UserImportResultDTO>> results,
+                         Map<UserImportStatus, Long> totals) {
+        if (chunkResults.isEmpty()) {
+            return true;
+        }
+        boolean aborted = false;
+        for (UserImportResultDTO result : chunkResults) {
+            rowCounters.get(result.getStatus()).increment();
+            totals.merge(result.getStatus(), 1L, Long::sum);
+            aborted |= result.getStatus() == UserImportStatus.ABORTED;
+        }
+        results.accept(chunkResults);
+        return !aborted;
+    }
+
+    // Metodo auxiliar que valida, deduplica, cifra e inserta un bloque de filas en su propia transacción
+    private List<UserImportResultDTO> processChunk(List<ParsedRow> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        UserImportResultDTO[] results = new UserImportResultDTO[chunk.size()];
+        Map<String, Integer> pending = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow row = chunk.get(i);
+            String error = validate(row);
+            if (error != null) {
+                results[i] = new UserImportResultDTO(row.row(), row.email(), UserImportStatus.INVALID, error, null);
+            } else if (pending.putIfAbsent(EmailAddresses.normalize(row.email()), i) != null) {
+                results[i] = new UserImportResultDTO(row.row(), row.email(), UserImportStatus.DUPLICATE,
+                        "Email repeated in the file", null);
+            }
+        }
+
+        try {
+            Map<Integer, String> hashes = null;
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                for (String existing : userRepository.findEmailsNormalizedIn(pending.keySet())) {
+                    int i = pending.remove(existing);
+                    results[i] = new UserImportResultDTO(chunk.get(i).row(), chunk.get(i).email(),
+                            UserImportStatus.DUPLICATE, "Email already in use: " + chunk.get(i).email(), null);
+                }
+                // las contraseñas se cifran una vez, solo las de las filas que se van a insertar
+                if (hashes == null) {
+                    hashes = this.hashPasswords(chunk, pending.values());
+                }
+                try {
+                    this.insert(chunk, pending.values(), hashes, results);
+                    break;
+                } catch (DuplicateKeyException ex) {
+                    if (attempt == MAX_CHUNK_ATTEMPTS) {
+                        throw ex;
+                    }
+                }
+            }
+        } catch (DataAccessException ex) {
+            log.warn("User import chunk failed", ex);
+            for (int i = 0; i < chunk.size(); i++) {
+                results[i] = new UserImportResultDTO(chunk.get(i).row(), chunk.get(i).email(), UserImportStatus.ABORTED,
+                        "Import aborted: the rows of this block were not saved", null);
+            }
+        }
+        return List.of(results);
+    }
+
+    private Map<Integer, String> hashPasswords(List<ParsedRow> chunk, Iterable<Integer> indexes) {
+        long start = System.nanoTime();
+        List<Integer> rows = new ArrayList<>();
+        indexes.forEach(rows::add);
+        List<String> encoded = passwordHasher.encodeAll(rows.stream().map(i -> chunk.get(i).password()).toList());
+        Map<Integer, String> hashes = new HashMap<>();
+        for (int n = 0; n < rows.size(); n++) {
+            hashes.put(rows.get(n), encoded.get(n));
+        }
+        hashingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return hashes;
+    }
+
+    private void insert(List<ParsedRow> chunk, Iterable<Integer> indexes, Map<Integer, String> hashes,
+                        UserImportResultDTO[] results) {
+        List<Integer> rowsToInsert = new ArrayList<>();
+        indexes.forEach(rowsToInsert::add);
+        rowsToInsert.sort(null);
+        List<UserImportResultDTO> created = new ArrayList<>(rowsToInsert.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] ids = userImportRepository.allocateIds(rowsToInsert.size());
+            List<UserImportRepository.Row> batch = new ArrayList<>(rowsToInsert.size());
+            for (int n = 0; n < rowsToInsert.size(); n++) {
+                ParsedRow row = chunk.get(rowsToInsert.get(n));
+                Role role = row.role() == null ? Role.STUDENT : Role.valueOf(row.role().trim().toUpperCase(Locale.ROOT));
+                batch.add(new UserImportRepository.Row(ids[n], row.firstName(), row.lastName(), row.email(),
+                        hashes.get(rowsToInsert.get(n)), role));
+                created.add(new UserImportResultDTO(row.row(), row.email(), UserImportStatus.CREATED, null,
+                        new UserResponseDTO(ids[n], row.firstName(), row.lastName(), row.email(), role.name(), 0L)));
+                // se añade al filtro de disponibilidad solo si el bloque se confirma
+                emailAvailabilityService.recordEmail(row.email());
+            }
+            userImportRepository.insert(batch);
+        });
+        for (int n = 0; n < rowsToInsert.size(); n++) {
+            results[rowsToInsert.get(n)] = created.get(n);
+        }
+    }
+
+    // Mismas reglas que la carga por COPY (BulkImportRepository) y que UserRequestDTO
+    private static String validate(ParsedRow row) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        if (isBlank(row.firstName()) || isBlank(row.lastName()) || isBlank(row.email()) || row.password() == null) {
+            return "Missing required field";
+        }
+        if (row.firstName().length() > 100 || row.lastName().length() > 100 || row.email().length() > 255) {
+            return "Name or email too long";
+        }
+        if (!PasswordHasher.isEncoded(row.password()) && (row.password().length() < 8 || row.password().length() > 60)) {
+            return PASSWORD_RULE;
+        }
+        int at = row.email().indexOf('@');
+        if (at < 1 || at == row.email().length() - 1) {
+            return "Invalid email";
+        }
+        if (row.role() != null) {
+            try {
+                Role.valueOf(row.role().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                return "Invalid role";
+            }
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || !value.isValueNode() || value.isNull() ? null : value.asText();
+    }
+
+    private record ParsedRow(long row, String firstName, String lastName, String email, String password,
+                             String role, String error) {
+        static ParsedRow invalid(long row, String error) {
+            return new ParsedRow(row, null, null, null, null, null, error);
+        }
+    }
+
+    private interface RowSource {
+        // null al final del fichero
+        ParsedRow next() throws IOException;
+
+        // fila en la que se detuvo la lectura
+        long position();
+    }
+
+    private static final class CsvRows implements RowSource {
+        private final CsvReader reader;
+        private final int columns;
+        private final int firstName;
+        private final int lastName;
+        private final int email;
+        private final int password;
+        private final int role;
+        private long row;
+
+        CsvRows(CsvReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = reader.readRecord();
+            Map<String, Integer> positions = new HashMap<>();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i) != null) {
+                        positions.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                    }
+                }
+            }
+            if (!positions.keySet().containsAll(REQUIRED_COLUMNS)) {
+                throw new IllegalArgumentException("The CSV header must include the columns " + String.join(", ", REQUIRED_COLUMNS));
+            }
+            this.columns = header.size();
+            this.firstName = positions.get("first_name");
+            this.lastName = positions.get("last_name");
+            this.email = positions.get("email");
+            this.password = positions.get("password");
+            this.role = positions.getOrDefault("role", -1);
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            row++;
+            if (fields.size() != columns) {
+                return ParsedRow.invalid(row, "Expected " + columns + " fields but found " + fields.size());
+            }
+            return new ParsedRow(row, fields.get(firstName), fields.get(lastName), fields.get(email),
+                    fields.get(password), role < 0 ? null : fields.get(role), null);
+        }
+
+        @Override
+        public long position() {
+            return row + 1;
+        }
+    }
+
+    private final class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private final StringBuilder line = new StringBuilder();
+        private long lineNumber;
+
+        NdjsonRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            while (true) {
+                int read = this.readLine();
+                if (read == -1) {
+                    return null;
+                }
+                lineNumber++;
+                if (read > MAX_LINE_CHARS) {
+                    return ParsedRow.invalid(lineNumber, "Line longer than " + MAX_LINE_CHARS + " characters");
+                }
+                if (line.toString().isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line.toString());
+                } catch (JsonProcessingException ex) {
+                    return ParsedRow.invalid(lineNumber, "Malformed JSON");
+                }
+                if (!node.isObject()) {
+                    return ParsedRow.invalid(lineNumber, "Each line must be a JSON object");
+                }
+                String firstName = text(node, "firstname");
+                return new ParsedRow(lineNumber, firstName != null ? firstName : text(node, "firstName"),
+                        text(node, "lastName"), text(node, "email"), text(node, "password"), text(node, "role"), null);
+            }
+        }
+
+        @Override
+        public long position() {
+            return lineNumber + 1;
+        }
+
+        // Metodo auxiliar que lee una línea sin guardar más de MAX_LINE_CHARS; devuelve su longitud o -1 al final
+        private int readLine() throws IOException {
+            line.setLength(0);
+            int length = 0;
+            int c = reader.read();
+            if (c == -1) {
+                return -1;
+            }
+            while (c != -1 && c != '\n') {
+                if (c != '\r' && length++ < MAX_LINE_CHARS) {
+                    line.append((char) c);
+                }
+                c = reader.read();
+            }
+            return length;
+        }
+    }
+}
@@ -1,26 +1,57 @@
 package com.educatech.service.impl;
 
 import com.educatech.dto.request.UserRequestDTO;
+import com.educatech.dto.response.BatchLookupDTO;
+import com.educatech.dto.response.EmailAvailabilityDTO;
 import com.educatech.dto.response.UserResponseDTO;
+import com.educatech.entity.Course;
 import com.educatech.entity.User;
 import com.educatech.enums.Role;
 import com.educatech.exception.UserNotFoundException;
 import com.educatech.mapper.UserMapper;
+import com.educatech.repository.IEnrollmentStore;
 import com.educatech.repository.IUserRepository;
+import com.educatech.repository.MultiGetRepository;
+import com.educatech.repository.SparseFieldsRepository;
+import com.educatech.service.IEmailAvailabilityService;
 import com.educatech.service.IUserService;
+import com.educatech.util.EmailAddresses;
+import com.educatech.util.EntityVersions;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserService implements IUserService {
+    // índice único sobre lower(trim(email)) (V10__normalized_email_index)
+    private static final String EMAIL_UNIQUE_INDEX = "users_email_normalized_key";
+    // campos de UserResponseDTO que se pueden pedir con fields=; la contraseña nunca se expone
+    private static final Map<String, String> SPARSE_FIELDS = Map.of(
+            "id", "id",
+            "firstName", "firstName",
+            "lastName", "lastName",
+            "email", "email",
+            "role", "role"
+    );
+
     private final IUserRepository userRepository;
+    private final IEnrollmentStore enrollmentStore;
     private final UserMapper userMapper;
+    private final MultiGetRepository multiGetRepository;
+    private final SparseFieldsRepository sparseFieldsRepository;
+    private final IEmailAvailabilityService emailAvailabilityService;
+    private final PasswordEncoder passwordEncoder;
 
     /**
      * Guarda un nuevo usuario.
@@ -31,12 +62,13 @@ public class UserService implements IUserService {
     @Override
     @Transactional
     public UserResponseDTO saveUser(UserRequestDTO userRequestDTO) {
-        String email = userRequestDTO.getEmail();
-        if (userRepository.getUserByEmail(email).isPresent()) {
-            throw new IllegalArgumentException("Email already in use: " + email);
-        }
         User userToSave = userMapper.toEntity(userRequestDTO);
-        User savedUser = userRepository.save(userToSave);
+        // el registro público siempre crea estudiantes; los demás roles no llegan por la API
+        userToSave.setRole(Role.STUDENT);
+        userToSave.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
+        // sin consulta previa: el índice único de email_normalized detecta el email repetido, también entre altas simultáneas
+        User savedUser = this.saveCheckingEmail(userToSave);
+        emailAvailabilityService.recordEmail(savedUser.getEmail());
         return userMapper.toResponseDTO(savedUser);
     }
 
@@ -52,6 +84,19 @@ public class UserService implements IUserService {
         return userRepository.findAll(pageable).map(userMapper::toResponseDTO);
     }
 
+    /**
+     * Obtiene todos los usuarios con paginación, leyendo solo los campos pedidos.
+     *
+     * @param pageable Parámetros de paginación.
+     * @param fields   Campos de la respuesta (id, firstName, lastName, email, role).
+     * @return Página con un mapa campo -> valor por usuario.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getAllUsers(Pageable pageable, Set<String> fields) {
+        return sparseFieldsRepository.findAll(User.class, SPARSE_FIELDS, fields, null, pageable);
+    }
+
     /**
      * Obtiene un usuario por su ID.
      *
@@ -68,6 +113,37 @@ public class UserService implements IUserService {
         return userMapper.toResponseDTO(user);
     }
 
+    /**
+     * Obtiene un usuario por su ID, leyendo solo los campos pedidos.
+     *
+     * @param userId ID del usuario.
+     * @param fields Campos de la respuesta (id, firstName, lastName, email, role).
+     * @return Mapa campo -> valor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getUserById(Long userId, Set<String> fields) {
+        if (userId == null || userId <= 0) {
+            throw new IllegalArgumentException("Invalid user ID: " + userId);
+        }
+        return sparseFieldsRepository.findAll(User.class, SPARSE_FIELDS, fields,
+                        (root, query, cb) -> cb.equal(root.get("id"), userId))
+                .stream().findFirst()
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+    }
+
+    /**
+     * Obtiene varios usuarios por sus IDs en una sola operación.
+     *
+     * @param userIds IDs de los usuarios (como mucho {@link MultiGetRepository#MAX_IDS}).
+     * @return Usuarios en el orden pedido (null si no existe) y la lista de IDs inexistentes.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BatchLookupDTO<UserResponseDTO> getUsersByIds(List<Long> userIds) {
+        return multiGetRepository.findAllById(User.class, userIds, userMapper::toResponseDTO);
+    }
+
     /**
      * Actualiza un usuario existente.
      *
@@ -84,21 +160,21 @@ public class UserService implements IUserService {
 
         // comprueba que el usuario exista
         User existingUser = this.getUserEntityById(userId);
+        EntityVersions.requireCurrent("User", userId, userRequestDTO.getVersion(), existingUser.getVersion());
 
-        String email = userRequestDTO.getEmail();
-        String emailExisting = existingUser.getEmail();
-
-        // si el email es distinto al existente, comprueba que no esté en uso
-        if (!email.equals(emailExisting) && userRepository.getUserByEmail(email).isPresent()) {
-            throw new IllegalArgumentException("Email already in use: " + email);
-        }
+        boolean emailChanged = !EmailAddresses.normalize(userRequestDTO.getEmail())
+                .equals(EmailAddresses.normalize(existingUser.getEmail()));
 
         existingUser.setFirstName(userRequestDTO.getFirstname());
         existingUser.setLastName(userRequestDTO.getLastName());
         existingUser.setEmail(userRequestDTO.getEmail());
-        existingUser.setPassword(userRequestDTO.getPassword());
+        existingUser.setPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
 
-        User updatedUser = userRepository.save(existingUser);
+        // si el email cambia, el índice único comprueba que no esté en uso
+        User updatedUser = this.saveCheckingEmail(existingUser);
+        if (emailChanged) {
+            emailAvailabilityService.recordEmail(updatedUser.getEmail());
+        }
         return userMapper.toResponseDTO(updatedUser);
     }
 
@@ -111,6 +187,11 @@ public class UserService implements IUserService {
     @Transactional
     public void deleteUser(Long id) {
         User userToDelete = this.getUserEntityById(id);
+        // los cursos del profesor se borran en cascada, y con ellos sus inscripciones
+        for (Course course : userToDelete.getTaughtCourses()) {
+            enrollmentStore.removeCourseEnrollments(course.getId());
+        }
+        enrollmentStore.removeStudentEnrollments(id);
         userRepository.delete(userToDelete);
     }
 
@@ -130,7 +211,7 @@ public class UserService implements IUserService {
     }
 
     /**
-     * Obtiene un usuario por su email.
+     * Obtiene un usuario por su email, sin distinguir mayúsculas.
      *
      * @param email Email del usuario a buscar.
      * @return DTO de respuesta del usuario.
@@ -138,11 +219,39 @@ public class UserService implements IUserService {
     @Override
     @Transactional(readOnly = true)
     public UserResponseDTO getUserByEmail(String email) {
-        User user = userRepository.getUserByEmail(email)
+        User user = userRepository.getUserByEmailNormalized(EmailAddresses.normalize(email))
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
         return userMapper.toResponseDTO(user);
     }
 
+    /**
+     * Indica si un email está libre para registrarse (ver {@link IEmailAvailabilityService}).
+     *
+     * @param email Email a comprobar.
+     * @return DTO con el email y su disponibilidad.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public EmailAvailabilityDTO getEmailAvailability(String email) {
+        if (email == null || email.isBlank() || email.length() > 255) {
+            throw new IllegalArgumentException("Email must be provided and at most 255 characters long");
+        }
+        return new EmailAvailabilityDTO(email, emailAvailabilityService.isAvailable(email));
+    }
+
+    // Metodo auxiliar que inserta o actualiza al momento para convertir el email repetido en el error de siempre
+    private User saveCheckingEmail(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (ex.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_UNIQUE_INDEX)) {
+                throw new IllegalArgumentException("Email already in use: " + user.getEmail());
+            }
+            throw ex;
+        }
+    }
+
     // Método privado para obtener la entidad User por ID con manejo de excepción
     private User getUserEntityById(Long id) {
         return userRepository.findById(id)
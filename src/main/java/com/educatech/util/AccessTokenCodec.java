@@ -0,0 +1,242 @@
+package com.educatech.util;
+
+import com.educatech.enums.Role;
+import com.educatech.exception.InvalidTokenException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Tokens de acceso firmados (JWT compacto con HS256): {@code sub} es el ID del usuario y {@code role}
+ * su rol, así que autenticar y autorizar una petición no consulta la base de datos.
+ * <p>
+ * Los secretos se configuran con un identificador: el primero de la lista firma y los demás (los
+ * anteriores) solo verifican, así que para rotar un secreto se añade el nuevo al principio en todos los
+ * nodos y el antiguo se quita cuando ya no quedan tokens suyos vigentes (un TTL después). Un token firmado
+ * con un secreto que ya no está en la lista se rechaza.
+ * <p>
+ * De cada secreto se deriva además una clave por periodo ({@code key-scope}); el {@code kid} de la
+ * cabecera es {@code <id del secreto>.<número de periodo>}. Es un acotamiento de las claves, no una
+ * rotación: cada clave derivada firma solo durante su periodo y los {@code kid} antiguos se rechazan sin
+ * mirar la firma, pero quien tenga el secreto puede derivar todas las claves, pasadas y futuras. Si un
+ * secreto se filtra hay que sustituirlo.
+ */
+public class AccessTokenCodec {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final int MAX_CACHED_KEYS = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final Pattern SECRET_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final String currentSecretId;
+    private final Map<String, byte[]> secrets = new LinkedHashMap<>();
+    private final long scopeSeconds;
+    private final long ttlSeconds;
+    private final long leewaySeconds;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<KeyId, SecretKeySpec> keys = new ConcurrentHashMap<>();
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(AccessTokenCodec::newMac);
+
+    /**
+     * @param secrets  Secretos compartidos (al menos 32 bytes cada uno): el primero firma, el resto solo verifica.
+     * @param scope    Periodo durante el que firma cada clave derivada.
+     * @param ttl      Validez de los tokens emitidos.
+     * @param leeway   Desfase de reloj tolerado entre nodos.
+     */
+    public AccessTokenCodec(List<Secret> secrets, Duration scope, Duration ttl, Duration leeway) {
+        if (secrets.isEmpty()) {
+            throw new IllegalArgumentException("At least one access token secret is required");
+        }
+        for (Secret secret : secrets) {
+            if (!SECRET_ID.matcher(secret.id()).matches()) {
+                throw new IllegalArgumentException("Invalid access token secret id: " + secret.id());
+            }
+            if (secret.value().length < 32) {
+                throw new IllegalArgumentException("Access token secret " + secret.id() + " must be at least 32 bytes long");
+            }
+            if (this.secrets.putIfAbsent(secret.id(), secret.value().clone()) != null) {
+                throw new IllegalArgumentException("Duplicated access token secret id: " + secret.id());
+            }
+        }
+        if (scope.toSeconds() <= 0 || ttl.toSeconds() <= 0) {
+            throw new IllegalArgumentException("Access token key scope and TTL must be at least one second");
+        }
+        this.currentSecretId = secrets.get(0).id();
+        this.scopeSeconds = scope.toSeconds();
+        this.ttlSeconds = ttl.toSeconds();
+        this.leewaySeconds = leeway.toSeconds();
+    }
+
+    public Duration getTtl() {
+        return Duration.ofSeconds(ttlSeconds);
+    }
+
+    public String issue(long userId, Role role, Instant now) {
+        long issuedAt = now.getEpochSecond();
+        long epoch = issuedAt / scopeSeconds;
+
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", "HS256");
+        header.put("typ", "JWT");
+        header.put("kid", currentSecretId + "." + epoch);
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(userId));
+        claims.put("role", role.name());
+        claims.put("iat", issuedAt);
+        claims.put("exp", issuedAt + ttlSeconds);
+
+        String signingInput = this.encode(header) + "." + this.encode(claims);
+        return signingInput + "." + ENCODER.encodeToString(this.sign(new KeyId(currentSecretId, epoch), signingInput));
+    }
+
+    /**
+     * Comprueba la firma y la caducidad del token.
+     *
+     * @return Usuario, rol y caducidad del token.
+     * @throws InvalidTokenException Si el token está mal formado, la firma no es válida, la clave ya se retiró o ha caducado.
+     */
+    public AccessToken verify(String token, Instant now) {
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw new InvalidTokenException("Malformed token");
+        }
+
+        JsonNode header = this.decode(token.substring(0, headerEnd));
+        if (!"HS256".equals(header.path("alg").asText())) {
+            throw new InvalidTokenException("Unsupported token algorithm");
+        }
+        KeyId keyId = this.parseKeyId(header.path("kid").asText());
+        long epoch = keyId.epoch();
+        long nowSeconds = now.getEpochSecond();
+        // la clave del periodo epoch firma hasta (epoch + 1) * periodo y sus tokens caducan como tarde ttl después
+        if (!secrets.containsKey(keyId.secretId())
+                || epoch > (nowSeconds + leewaySeconds) / scopeSeconds
+                || (epoch + 1) * scopeSeconds + ttlSeconds + leewaySeconds <= nowSeconds) {
+            throw new InvalidTokenException("Unknown or retired signing key");
+        }
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(payloadEnd + 1));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(this.sign(keyId, token.substring(0, payloadEnd)), signature)) {
+            throw new InvalidTokenException("Invalid token signature");
+        }
+
+        JsonNode claims = this.decode(token.substring(headerEnd + 1, payloadEnd));
+        long expiresAt = claims.path("exp").asLong(0);
+        if (expiresAt + leewaySeconds <= nowSeconds) {
+            throw new InvalidTokenException("Token has expired");
+        }
+        Role role;
+        try {
+            role = Role.valueOf(claims.path("role").asText());
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidTokenException("Invalid role claim");
+        }
+        return new AccessToken(this.parseLong(claims.path("sub").asText()), role, Instant.ofEpochSecond(expiresAt));
+    }
+
+    private byte[] sign(KeyId keyId, String signingInput) {
+        Mac mac = macs.get();
+        try {
+            mac.init(this.key(keyId));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return mac.doFinal(signingInput.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Metodo auxiliar que deriva (y guarda) la clave de un periodo: HMAC del secreto sobre el número de periodo
+    private SecretKeySpec key(KeyId keyId) {
+        SecretKeySpec key = keys.get(keyId);
+        if (key != null) {
+            return key;
+        }
+        if (keys.size() >= MAX_CACHED_KEYS) {
+            keys.keySet().removeIf(cached -> cached.epoch() < keyId.epoch() - MAX_CACHED_KEYS / 2);
+        }
+        Mac mac = newMac();
+        try {
+            mac.init(new SecretKeySpec(secrets.get(keyId.secretId()), ALGORITHM));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+        byte[] derived = mac.doFinal(("educatech-access-token:" + keyId.epoch()).getBytes(StandardCharsets.US_ASCII));
+        return keys.computeIfAbsent(keyId, ignored -> new SecretKeySpec(derived, ALGORITHM));
+    }
+
+    // Metodo auxiliar que separa el kid en id del secreto y número de periodo
+    private KeyId parseKeyId(String kid) {
+        int separator = kid.lastIndexOf('.');
+        if (separator <= 0) {
+            throw new InvalidTokenException("Malformed token");
+        }
+        return new KeyId(kid.substring(0, separator), this.parseLong(kid.substring(separator + 1)));
+    }
+
+    private String encode(Map<String, Object> json) {
+        try {
+            return ENCODER.encodeToString(objectMapper.writeValueAsBytes(json));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private JsonNode decode(String part) {
+        try {
+            return objectMapper.readTree(DECODER.decode(part));
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidTokenException("Malformed token");
+        }
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public record AccessToken(long userId, Role role, Instant expiresAt) {
+    }
+
+    /**
+     * Secreto compartido con el identificador que viaja en el {@code kid} de los tokens firmados con él.
+     */
+    public record Secret(String id, byte[] value) {
+    }
+
+    private record KeyId(String secretId, long epoch) {
+    }
+}
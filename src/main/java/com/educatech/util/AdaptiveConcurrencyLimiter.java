@@ -0,0 +1,145 @@
+package com.educatech.util;
+
+import com.educatech.enums.RequestPriority;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de peticiones concurrentes que se ajusta con la latencia medida (algoritmo de gradiente).
+ * Compara una media corta de la latencia con una media larga: mientras la corta no supera a la larga
+ * por más de {@code tolerance}, el límite crece en {@code sqrt(límite)}; si la latencia sube, el límite
+ * se multiplica por {@code larga / corta} (como mucho se reduce a la mitad por muestra) y deja de
+ * acumularse cola delante de la base de datos.
+ * <p>
+ * Cada prioridad solo puede ocupar una fracción del límite, así que al acercarse a él se rechazan
+ * primero las escrituras, después los listados y por último las lecturas puntuales.
+ */
+public class AdaptiveConcurrencyLimiter {
+    // pesos de las medias exponenciales: ~10 muestras la corta y ~500 la larga
+    private static final double SHORT_ALPHA = 2.0 / 11;
+    private static final double LONG_ALPHA = 2.0 / 501;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // las muestras se descartan si otro hilo está actualizando el límite en vez de esperarlo
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double writeShare;
+    private final double listReadShare;
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    /**
+     * @param initialLimit  Límite inicial, antes de tener muestras.
+     * @param minLimit      Límite mínimo al que se puede reducir.
+     * @param maxLimit      Límite máximo (p. ej. un múltiplo del pool de conexiones).
+     * @param tolerance     Cuánto puede crecer la latencia sobre la de referencia sin reducir el límite.
+     * @param smoothing     Peso de cada nuevo cálculo del límite (0-1).
+     * @param writeShare    Fracción del límite que pueden ocupar las escrituras.
+     * @param listReadShare Fracción del límite que pueden ocupar los listados; las lecturas puntuales lo usan entero.
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                                      double writeShare, double listReadShare) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (tolerance < 1 || smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Tolerance must be >= 1 and smoothing in (0, 1]");
+        }
+        if (writeShare <= 0 || writeShare > listReadShare || listReadShare > 1) {
+            throw new IllegalArgumentException("Shares must satisfy 0 < write <= list read <= 1");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.writeShare = writeShare;
+        this.listReadShare = listReadShare;
+    }
+
+    /**
+     * Intenta ocupar un hueco sin esperar.
+     *
+     * @return Peticiones en curso contando esta, o -1 si se rechaza; hay que pasarlo a {@link #release(long, int)}
+     * o liberar con {@link #release()}.
+     */
+    public int tryAcquire(RequestPriority priority) {
+        int allowed = (int) Math.max(1, limit * this.share(priority));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Libera el hueco y usa la latencia de la petición como muestra para ajustar el límite.
+     *
+     * @param rttNanos        Duración de la petición.
+     * @param inFlightAtStart Valor devuelto por {@link #tryAcquire(RequestPriority)}.
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (!sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            if (longRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+                return;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) * SHORT_ALPHA;
+            longRttNanos += (rttNanos - longRttNanos) * LONG_ALPHA;
+            // tras una degradación larga la referencia se acerca a la latencia actual para poder volver a crecer
+            if (longRttNanos > shortRttNanos * 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double current = limit;
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+            double target = current * gradient + Math.sqrt(current);
+            // con menos de la mitad del límite ocupado la muestra no demuestra que quepan más peticiones
+            if (target > current && inFlightAtStart < current / 2) {
+                return;
+            }
+            double next = current * (1 - smoothing) + target * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    /**
+     * Libera el hueco sin usar la latencia como muestra, para peticiones cuya duración no refleja la carga.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private double share(RequestPriority priority) {
+        return switch (priority) {
+            case WRITE -> writeShare;
+            case LIST_READ -> listReadShare;
+            case POINT_READ -> 1.0;
+        };
+    }
+}
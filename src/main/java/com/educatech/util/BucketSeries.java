@@ -0,0 +1,95 @@
+package com.educatech.util;
+
+import java.util.Arrays;
+
+/**
+ * Serie de contadores por bucket (hora o día) en un {@code int[]} que cubre un rango contiguo
+ * a partir de {@code origin}. Con {@code maxLength} se comporta como una ventana: los buckets más
+ * recientes desplazan a los más antiguos y los que quedan por detrás de la ventana se ignoran.
+ */
+public class BucketSeries {
+    private static final int[] EMPTY = new int[0];
+
+    private final int maxLength;
+    private long origin;
+    private int length;
+    private int[] counts = EMPTY;
+
+    public BucketSeries(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public synchronized void add(long bucket, int delta) {
+        if (length == 0) {
+            origin = bucket;
+            length = 1;
+            counts = new int[Math.min(8, maxLength)];
+            counts[0] = Math.max(0, delta);
+            return;
+        }
+
+        long index = bucket - origin;
+        if (index < 0) {
+            long newLength = length - index;
+            if (newLength > maxLength) {
+                // fuera de la ventana
+                return;
+            }
+            int shift = (int) -index;
+            int[] grown = new int[(int) Math.min(maxLength, Math.max(newLength, (long) counts.length * 2))];
+            System.arraycopy(counts, 0, grown, shift, length);
+            counts = grown;
+            origin = bucket;
+            length = (int) newLength;
+            index = 0;
+        } else if (index >= length) {
+            long newLength = index + 1;
+            if (newLength > maxLength) {
+                long drop = newLength - maxLength;
+                if (drop >= length) {
+                    Arrays.fill(counts, 0);
+                    length = 0;
+                } else {
+                    System.arraycopy(counts, (int) drop, counts, 0, length - (int) drop);
+                    Arrays.fill(counts, length - (int) drop, length, 0);
+                    length -= (int) drop;
+                }
+                origin += drop;
+                index -= drop;
+                newLength = maxLength;
+            }
+            if (newLength > counts.length) {
+                counts = Arrays.copyOf(counts, (int) Math.min(maxLength, Math.max(newLength, (long) counts.length * 2)));
+            }
+            length = (int) newLength;
+        }
+        int i = (int) index;
+        counts[i] = Math.max(0, counts[i] + delta);
+    }
+
+    /**
+     * @return Un contador por bucket en {@code [fromBucket, toBucket)}; los buckets sin datos valen 0.
+     */
+    public synchronized int[] range(long fromBucket, long toBucket) {
+        int[] result = new int[(int) Math.max(0, toBucket - fromBucket)];
+        long start = Math.max(fromBucket, origin);
+        long end = Math.min(toBucket, origin + length);
+        for (long bucket = start; bucket < end; bucket++) {
+            result[(int) (bucket - fromBucket)] = counts[(int) (bucket - origin)];
+        }
+        return result;
+    }
+
+    public synchronized void forEachNonZero(BucketConsumer consumer) {
+        for (int i = 0; i < length; i++) {
+            if (counts[i] != 0) {
+                consumer.accept(origin + i, counts[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BucketConsumer {
+        void accept(long bucket, int count);
+    }
+}
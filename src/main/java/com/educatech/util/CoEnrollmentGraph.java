@@ -0,0 +1,263 @@
+package com.educatech.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Grafo bipartito estudiantes ↔ cursos en formato CSR (compressed sparse row), solo con arrays primitivos.
+ * Los cursos se identifican por un índice denso ({@code courseIds} ordenado) y los estudiantes solo por
+ * su posición, así que cada inscripción ocupa dos {@code int} (uno en cada sentido).
+ * Una vez construido es inmutable y se puede leer desde varios hilos.
+ */
+public class CoEnrollmentGraph {
+    private final long[] courseIds;
+    // cursos de cada estudiante: studentCourses[studentOffsets[s] .. studentOffsets[s + 1])
+    private final int[] studentOffsets;
+    private final int[] studentCourses;
+    // estudiantes de cada curso: courseStudents[courseOffsets[c] .. courseOffsets[c + 1])
+    private final int[] courseOffsets;
+    private final int[] courseStudents;
+
+    private CoEnrollmentGraph(long[] courseIds, int[] studentOffsets, int[] studentCourses) {
+        this.courseIds = courseIds;
+        this.studentOffsets = studentOffsets;
+        this.studentCourses = studentCourses;
+
+        // transpuesta por conteo: primero el grado de cada curso y después se rellenan los huecos
+        int courseCount = courseIds.length;
+        int[] offsets = new int[courseCount + 1];
+        for (int course : studentCourses) {
+            offsets[course + 1]++;
+        }
+        for (int c = 0; c < courseCount; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] students = new int[studentCourses.length];
+        int[] next = Arrays.copyOf(offsets, courseCount);
+        for (int s = 0; s < studentOffsets.length - 1; s++) {
+            for (int i = studentOffsets[s]; i < studentOffsets[s + 1]; i++) {
+                students[next[studentCourses[i]]++] = s;
+            }
+        }
+        this.courseOffsets = offsets;
+        this.courseStudents = students;
+    }
+
+    public int courseCount() {
+        return courseIds.length;
+    }
+
+    public int studentCount() {
+        return studentOffsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return studentCourses.length;
+    }
+
+    public long courseId(int courseIndex) {
+        return courseIds[courseIndex];
+    }
+
+    /**
+     * @return Índice denso del curso, o -1 si no estaba en la lista de cursos al construir el grafo.
+     */
+    public int courseIndex(long courseId) {
+        int index = Arrays.binarySearch(courseIds, courseId);
+        return index < 0 ? -1 : index;
+    }
+
+    public int degree(int courseIndex) {
+        return courseOffsets[courseIndex + 1] - courseOffsets[courseIndex];
+    }
+
+    /**
+     * Calcula para cada curso los {@code k} cursos con más similitud coseno
+     * ({@code compartidos / sqrt(gradoA * gradoB)}), repartiendo los cursos entre los hilos del pool.
+     *
+     * @param k                   Vecinos por curso.
+     * @param maxCoursesPerStudent Los estudiantes con más cursos se ignoran: aportan poca señal y su coste es cuadrático.
+     * @param pool                Pool fork/join en el que se ejecuta el cálculo.
+     */
+    public TopK computeTopK(int k, int maxCoursesPerStudent, ForkJoinPool pool) {
+        TopK topK = new TopK(courseIds, k);
+        // pocas hojas por hilo: cada hoja reserva contadores del tamaño del número de cursos
+        int leafSize = Math.max(64, courseIds.length / (pool.getParallelism() * 8));
+        pool.invoke(new TopKTask(topK, maxCoursesPerStudent, leafSize, 0, courseIds.length));
+        return topK;
+    }
+
+    /**
+     * Vecinos más similares de todos los cursos: {@code k} posiciones por curso en arrays planos,
+     * ordenadas por puntuación descendente; las que sobran tienen índice -1.
+     * No guarda referencias a las aristas, así que el grafo se puede descartar tras el cálculo.
+     */
+    public static final class TopK {
+        private final long[] courseIds;
+        private final int k;
+        private final int[] neighbours;
+        private final float[] scores;
+        private final int[] shared;
+
+        private TopK(long[] courseIds, int k) {
+            this.courseIds = courseIds;
+            this.k = k;
+            this.neighbours = new int[courseIds.length * k];
+            this.scores = new float[courseIds.length * k];
+            this.shared = new int[courseIds.length * k];
+            Arrays.fill(neighbours, -1);
+        }
+
+        public int courseIndex(long courseId) {
+            int index = Arrays.binarySearch(courseIds, courseId);
+            return index < 0 ? -1 : index;
+        }
+
+        public long courseId(int courseIndex) {
+            return courseIds[courseIndex];
+        }
+
+        public int k() {
+            return k;
+        }
+
+        public int neighbour(int courseIndex, int rank) {
+            return neighbours[courseIndex * k + rank];
+        }
+
+        public float score(int courseIndex, int rank) {
+            return scores[courseIndex * k + rank];
+        }
+
+        public int shared(int courseIndex, int rank) {
+            return shared[courseIndex * k + rank];
+        }
+    }
+
+    private final class TopKTask extends RecursiveAction {
+        private final TopK topK;
+        private final int maxCoursesPerStudent;
+        private final int leafSize;
+        private final int from;
+        private final int to;
+
+        private TopKTask(TopK topK, int maxCoursesPerStudent, int leafSize, int from, int to) {
+            this.topK = topK;
+            this.maxCoursesPerStudent = maxCoursesPerStudent;
+            this.leafSize = leafSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TopKTask(topK, maxCoursesPerStudent, leafSize, from, middle),
+                        new TopKTask(topK, maxCoursesPerStudent, leafSize, middle, to));
+                return;
+            }
+            // contadores por curso reutilizados entre los cursos de la hoja; touched permite limpiarlos sin recorrerlos enteros
+            int[] counts = new int[courseIds.length];
+            int[] touched = new int[courseIds.length];
+            for (int course = from; course < to; course++) {
+                int touchedCount = 0;
+                for (int i = courseOffsets[course]; i < courseOffsets[course + 1]; i++) {
+                    int student = courseStudents[i];
+                    int start = studentOffsets[student];
+                    int end = studentOffsets[student + 1];
+                    if (end - start > maxCoursesPerStudent) {
+                        continue;
+                    }
+                    for (int j = start; j < end; j++) {
+                        int other = studentCourses[j];
+                        if (other != course && counts[other]++ == 0) {
+                            touched[touchedCount++] = other;
+                        }
+                    }
+                }
+                this.selectTop(course, counts, touched, touchedCount);
+                for (int t = 0; t < touchedCount; t++) {
+                    counts[touched[t]] = 0;
+                }
+            }
+        }
+
+        // inserción ordenada en las k posiciones del curso; k es pequeño, así que no hace falta un heap
+        private void selectTop(int course, int[] counts, int[] touched, int touchedCount) {
+            int k = topK.k;
+            int base = course * k;
+            int filled = 0;
+            double courseDegree = degree(course);
+            for (int t = 0; t < touchedCount; t++) {
+                int other = touched[t];
+                float score = (float) (counts[other] / Math.sqrt(courseDegree * degree(other)));
+                if (filled == k && score <= topK.scores[base + k - 1]) {
+                    continue;
+                }
+                int position = filled < k ? filled++ : k - 1;
+                while (position > 0 && topK.scores[base + position - 1] < score) {
+                    topK.neighbours[base + position] = topK.neighbours[base + position - 1];
+                    topK.scores[base + position] = topK.scores[base + position - 1];
+                    topK.shared[base + position] = topK.shared[base + position - 1];
+                    position--;
+                }
+                topK.neighbours[base + position] = other;
+                topK.scores[base + position] = score;
+                topK.shared[base + position] = counts[other];
+            }
+        }
+    }
+
+    /**
+     * Construye el grafo a partir de pares (estudiante, curso) recibidos ordenados por estudiante,
+     * sin guardar los ids de estudiante.
+     */
+    public static final class Builder {
+        private final long[] courseIds;
+        private int[] studentOffsets = new int[1024];
+        private int[] studentCourses = new int[4096];
+        private int studentCount;
+        private int edgeCount;
+        private long currentStudent;
+        private boolean started;
+
+        /**
+         * @param courseIds Ids de todos los cursos que pueden aparecer (se ordenan y se les asigna un índice denso).
+         */
+        public Builder(long[] courseIds) {
+            this.courseIds = courseIds.clone();
+            Arrays.sort(this.courseIds);
+        }
+
+        public void add(long studentId, long courseId) {
+            int course = Arrays.binarySearch(courseIds, courseId);
+            if (course < 0) {
+                // curso creado después de leer la lista de cursos; entra en la siguiente reconstrucción
+                return;
+            }
+            if (!started || studentId != currentStudent) {
+                if (started && studentId < currentStudent) {
+                    throw new IllegalStateException("Enrollments must be ordered by student");
+                }
+                started = true;
+                currentStudent = studentId;
+                if (studentCount + 1 == studentOffsets.length) {
+                    studentOffsets = Arrays.copyOf(studentOffsets, studentOffsets.length * 2);
+                }
+                studentOffsets[studentCount++] = edgeCount;
+            }
+            if (edgeCount == studentCourses.length) {
+                studentCourses = Arrays.copyOf(studentCourses, studentCourses.length * 2);
+            }
+            studentCourses[edgeCount++] = course;
+        }
+
+        public CoEnrollmentGraph build() {
+            int[] offsets = Arrays.copyOf(studentOffsets, studentCount + 1);
+            offsets[studentCount] = edgeCount;
+            return new CoEnrollmentGraph(courseIds, offsets, Arrays.copyOf(studentCourses, edgeCount));
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.educatech.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice inmutable de títulos de curso para autocompletar: devuelve los k cursos con más inscripciones
+ * cuyo título normalizado (ver {@link #normalize}) empieza por un prefijo, o tiene una palabra que empieza
+ * por él ("java" encuentra "Introducción a Java").
+ * <p>
+ * Es un array ordenado de sufijos que empiezan en inicio de palabra (equivalente a las hojas de un trie,
+ * pero sin un objeto por nodo): las entradas de un prefijo son un rango contiguo que se localiza con dos
+ * búsquedas binarias. Un árbol de segmentos guarda la entrada con más inscripciones de cada tramo, así que
+ * los k mejores del rango salen en O(k log n) sin recorrerlo. Cada entrada ocupa un long (curso y posición
+ * en el título) y dos ints del árbol.
+ */
+public class CourseTitleIndex {
+    // palabras indexadas por título, para acotar las entradas de los títulos largos
+    private static final int MAX_WORDS_PER_TITLE = 8;
+
+    private final long[] ids;
+    private final String[] titles;
+    private final String[] normalized;
+    private final long[] enrollments;
+    // curso << 8 | posición del sufijo en el título normalizado (como mucho 255 caracteres)
+    private final long[] entries;
+    // árbol de segmentos de la entrada mejor clasificada; las hojas están en [entries.length, 2 * entries.length)
+    private final int[] best;
+
+    /**
+     * @param ids         IDs de los cursos, en orden ascendente.
+     * @param titles      Títulos, en el mismo orden.
+     * @param enrollments Inscripciones de cada curso, en el mismo orden.
+     */
+    public CourseTitleIndex(long[] ids, String[] titles, long[] enrollments) {
+        if (ids.length != titles.length || ids.length != enrollments.length) {
+            throw new IllegalArgumentException("ids, titles and enrollments must have the same length");
+        }
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] <= ids[i - 1]) {
+                throw new IllegalArgumentException("Course ids must be unique and in ascending order");
+            }
+        }
+        this.ids = ids;
+        this.titles = titles;
+        this.enrollments = enrollments;
+        this.normalized = new String[titles.length];
+        long[] collected = new long[Math.max(16, titles.length * 2)];
+        int count = 0;
+        for (int course = 0; course < titles.length; course++) {
+            String text = normalize(titles[course]);
+            if (text.length() > 255) {
+                text = text.substring(0, 255);
+            }
+            normalized[course] = text;
+            int words = 0;
+            for (int offset = 0; offset < text.length() && words < MAX_WORDS_PER_TITLE; offset++) {
+                if (offset == 0 || text.charAt(offset - 1) == ' ') {
+                    if (count == collected.length) {
+                        collected = Arrays.copyOf(collected, collected.length * 2);
+                    }
+                    collected[count++] = (long) course << 8 | offset;
+                    words++;
+                }
+            }
+        }
+        this.entries = Arrays.copyOf(collected, count);
+        this.sortEntries(new long[entries.length], 0, entries.length, 0);
+        this.best = new int[Math.max(2, entries.length * 2)];
+        for (int i = 0; i < entries.length; i++) {
+            best[entries.length + i] = i;
+        }
+        for (int node = entries.length - 1; node > 0; node--) {
+            best[node] = this.better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Forma en la que se comparan títulos y prefijos: minúsculas, sin acentos, solo letras y dígitos
+     * separados por un espacio.
+     */
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && !result.isEmpty()) {
+                    result.append(' ');
+                }
+                pendingSpace = false;
+                result.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Cursos cuyo título (o una de sus palabras) empieza por el prefijo, de más a menos inscripciones.
+     *
+     * @param prefix   Prefijo ya normalizado.
+     * @param limit    Máximo de resultados.
+     * @param excluded IDs de curso que no se devuelven (p. ej. los modificados después de construir el índice).
+     * @return Como mucho {@code limit} cursos distintos.
+     */
+    public List<Match> complete(String prefix, int limit, LongPredicate excluded) {
+        int from = this.lowerBound(prefix, false);
+        int to = this.lowerBound(prefix, true);
+        List<Match> matches = new ArrayList<>(Math.min(limit, 16));
+        if (from >= to || limit <= 0) {
+            return matches;
+        }
+        // rangos pendientes, el de la mejor entrada primero; cada entrada devuelta parte su rango en dos
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == b[2] ? 0 : this.better(a[2], b[2]) == a[2] ? -1 : 1);
+        ranges.add(new int[]{from, to, this.bestIn(from, to)});
+        int[] seen = new int[limit];
+        while (!ranges.isEmpty() && matches.size() < limit) {
+            int[] range = ranges.poll();
+            int entry = range[2];
+            int course = (int) (entries[entry] >>> 8);
+            if (!contains(seen, matches.size(), course) && !excluded.test(ids[course])) {
+                seen[matches.size()] = course;
+                matches.add(new Match(ids[course], titles[course], enrollments[course]));
+            }
+            if (range[0] < entry) {
+                ranges.add(new int[]{range[0], entry, this.bestIn(range[0], entry)});
+            }
+            if (entry + 1 < range[1]) {
+                ranges.add(new int[]{entry + 1, range[1], this.bestIn(entry + 1, range[1])});
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return Inscripciones del curso, o -1 si no está en el índice.
+     */
+    public long enrollments(long courseId) {
+        int course = Arrays.binarySearch(ids, courseId);
+        return course < 0 ? -1 : enrollments[course];
+    }
+
+    public int courseCount() {
+        return ids.length;
+    }
+
+    public int entryCount() {
+        return entries.length;
+    }
+
+    // Primera entrada cuyo sufijo es >= prefijo (o, con after, la primera que ya no empieza por él)
+    private int lowerBound(String prefix, boolean after) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = this.compareToPrefix(entries[middle], prefix);
+            if (comparison < 0 || after && comparison == 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // 0 si el sufijo empieza por el prefijo
+    private int compareToPrefix(long entry, String prefix) {
+        String text = normalized[(int) (entry >>> 8)];
+        int offset = (int) (entry & 0xFF);
+        int length = Math.min(text.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int difference = text.charAt(offset + i) - prefix.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return text.length() - offset >= prefix.length() ? 0 : -1;
+    }
+
+    // Entrada con más inscripciones de [from, to); a igualdad, la primera en orden alfabético
+    private int bestIn(int from, int to) {
+        int result = from;
+        for (int low = from + entries.length, high = to + entries.length; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                result = this.better(result, best[low++]);
+            }
+            if ((high & 1) == 1) {
+                result = this.better(result, best[--high]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int entryA, int entryB) {
+        long a = enrollments[(int) (entries[entryA] >>> 8)];
+        long b = enrollments[(int) (entries[entryB] >>> 8)];
+        return a > b || a == b && entryA <= entryB ? entryA : entryB;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ordena las entradas por su sufijo de 4 en 4 caracteres: cada pasada ordena claves numéricas contiguas
+    // en memoria y solo vuelve a los títulos para los grupos que siguen empatados (los títulos comparten
+    // prefijos largos, como "introduccion a ...", y compararlos enteros cada vez es mucho más lento)
+    private void sortEntries(long[] keys, int from, int to, int depth) {
+        if (to - from < 2) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            keys[i] = this.sortKey(entries[i], depth);
+        }
+        this.sortByKey(keys, from, to);
+        int start = from;
+        for (int i = from + 1; i <= to; i++) {
+            if (i == to || keys[i] != keys[start]) {
+                // si el último carácter de la clave es 0 el sufijo ya terminó: el grupo son sufijos iguales
+                if (i - start > 1 && (keys[start] & 0xFFFF) != 0) {
+                    this.sortEntries(keys, start, i, depth + 4);
+                }
+                start = i;
+            }
+        }
+    }
+
+    // Quicksort de tres vías por clave (sin signo), moviendo las entradas con sus claves
+    private void sortByKey(long[] keys, int from, int to) {
+        while (to - from > 16) {
+            long pivot = keys[(from + to) >>> 1];
+            int less = from;
+            int greater = to - 1;
+            int i = from;
+            while (i <= greater) {
+                int comparison = Long.compareUnsigned(keys[i], pivot);
+                if (comparison < 0) {
+                    this.swap(keys, less++, i++);
+                } else if (comparison > 0) {
+                    this.swap(keys, i, greater--);
+                } else {
+                    i++;
+                }
+            }
+            // recursión en la parte menor para acotar la pila
+            if (less - from < to - greater - 1) {
+                this.sortByKey(keys, from, less);
+                from = greater + 1;
+            } else {
+                this.sortByKey(keys, greater + 1, to);
+                to = less;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            for (int j = i; j > from && Long.compareUnsigned(keys[j - 1], keys[j]) > 0; j--) {
+                this.swap(keys, j - 1, j);
+            }
+        }
+    }
+
+    // 4 caracteres de 16 bits desde la posición dada; los que faltan valen 0 y ordenan antes que cualquier carácter
+    private long sortKey(long entry, int position) {
+        String text = normalized[(int) (entry >>> 8)];
+        int index = (int) (entry & 0xFF) + position;
+        long key = 0;
+        for (int i = 0; i < 4; i++) {
+            key = key << 16 | (index + i < text.length() ? text.charAt(index + i) : 0);
+        }
+        return key;
+    }
+
+    private void swap(long[] keys, int a, int b) {
+        long entry = entries[a];
+        entries[a] = entries[b];
+        entries[b] = entry;
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+    }
+
+    public record Match(long courseId, String title, long enrollments) {
+    }
+}
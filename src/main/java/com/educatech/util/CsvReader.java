@@ -0,0 +1,88 @@
+package com.educatech.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV (RFC 4180) en streaming: comillas dobles, comillas escapadas ({@code ""}) y saltos de
+ * línea dentro de un campo entre comillas. Igual que {@code COPY ... (FORMAT csv)} de PostgreSQL,
+ * un campo vacío sin comillas es {@code null} y uno vacío entre comillas es la cadena vacía.
+ */
+public class CsvReader {
+    private final Reader reader;
+    private int pending = -2;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return Campos del siguiente registro, o null al final del fichero.
+     * @throws IllegalArgumentException si hay comillas sin cerrar o texto tras unas comillas de cierre.
+     */
+    public List<String> readRecord() throws IOException {
+        int c = this.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (c == '"' && field.isEmpty() && !quoted) {
+                quoted = true;
+                c = this.readQuoted(field);
+                if (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    throw new IllegalArgumentException("Unexpected character after closing quote: " + (char) c);
+                }
+                continue;
+            }
+            if (c == ',' || c == '\n' || c == '\r' || c == -1) {
+                fields.add(field.isEmpty() && !quoted ? null : field.toString());
+                field.setLength(0);
+                quoted = false;
+                if (c == ',') {
+                    c = this.read();
+                    continue;
+                }
+                if (c == '\r') {
+                    int next = this.read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                }
+                return fields;
+            }
+            field.append((char) c);
+            c = this.read();
+        }
+    }
+
+    // Metodo auxiliar que lee un campo entre comillas y devuelve el carácter que lo sigue
+    private int readQuoted(StringBuilder field) throws IOException {
+        while (true) {
+            int c = this.read();
+            if (c == -1) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            if (c == '"') {
+                int next = this.read();
+                if (next != '"') {
+                    return next;
+                }
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,24 @@
+package com.educatech.util;
+
+import java.util.Locale;
+
+public final class EmailAddresses {
+    private EmailAddresses() {
+    }
+
+    /**
+     * Forma normalizada de un email, la misma que calcula la base de datos en {@code users.email_normalized}
+     * ({@code lower(trim(email))}: sin espacios al principio ni al final y en minúsculas).
+     */
+    public static String normalize(String email) {
+        int start = 0;
+        int end = email.length();
+        while (start < end && email.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && email.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return email.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+}
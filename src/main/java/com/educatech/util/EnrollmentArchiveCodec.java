@@ -0,0 +1,152 @@
+package com.educatech.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Formato de las particiones archivadas de inscripciones: las filas de un mes, ordenadas por ID, en binario
+ * y comprimidas con gzip. Los enteros van como varints y el ID como diferencia con el anterior, así que
+ * una fila ocupa unos pocos bytes antes incluso de comprimir.
+ * <p>
+ * Se escribe fila a fila con {@link Writer} y se lee de una vez con {@link #decode}.
+ */
+public final class EnrollmentArchiveCodec {
+    private static final int FORMAT_VERSION = 1;
+
+    private EnrollmentArchiveCodec() {
+    }
+
+    public static Writer writer() {
+        return new Writer();
+    }
+
+    /**
+     * Recorre las filas de un archivo en el orden en que se escribieron.
+     */
+    public static void decode(byte[] data, Consumer<Row> consumer) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data), 64 * 1024))) {
+            int format = in.readUnsignedByte();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported enrollment archive format: " + format);
+            }
+            long id = 0;
+            while (true) {
+                // solo se acepta el final entre filas; un gzip truncado lanza EOFException desde read()
+                int first = in.read();
+                if (first < 0) {
+                    return;
+                }
+                id += readVarLong(in, first);
+                long version = readVarLong(in);
+                long studentId = readVarLong(in);
+                long courseId = readVarLong(in);
+                long epochSecond = readVarLong(in);
+                int nanos = (int) readVarLong(in);
+                consumer.accept(new Row(id, version, studentId, courseId, LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC)));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Corrupt enrollment archive", ex);
+        }
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) {
+            throw new EOFException("Truncated enrollment archive row");
+        }
+        return readVarLong(in, first);
+    }
+
+    // Metodo auxiliar que termina de leer un varint del que ya se ha leído el primer byte
+    private static long readVarLong(InputStream in, int first) throws IOException {
+        long value = 0;
+        int b = first;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (b < 0) {
+                throw new IOException("Truncated varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            b = in.read();
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Escritura incremental de un archivo; las filas deben llegar en orden ascendente de ID.
+     */
+    public static final class Writer {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out;
+        private long lastId;
+        private long rowCount;
+
+        private Writer() {
+            try {
+                this.out = new DataOutputStream(new GZIPOutputStream(bytes, 64 * 1024));
+                out.writeByte(FORMAT_VERSION);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        public void write(Row row) {
+            if (row.id() <= lastId) {
+                throw new IllegalArgumentException("Archived enrollments must be written in ascending id order");
+            }
+            try {
+                writeVarLong(out, row.id() - lastId);
+                writeVarLong(out, row.version());
+                writeVarLong(out, row.studentId());
+                writeVarLong(out, row.courseId());
+                writeVarLong(out, row.enrollmentDate().toEpochSecond(ZoneOffset.UTC));
+                writeVarLong(out, row.enrollmentDate().getNano());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            lastId = row.id();
+            rowCount++;
+        }
+
+        public long rowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Cierra el flujo comprimido; después ya no se pueden escribir filas.
+         */
+        public byte[] finish() {
+            try {
+                out.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    public record Row(long id, long version, long studentId, long courseId, LocalDateTime enrollmentDate) {
+    }
+}
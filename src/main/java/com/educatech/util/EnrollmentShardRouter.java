@@ -0,0 +1,41 @@
+package com.educatech.util;
+
+/**
+ * Reparto de las inscripciones entre shards por ID de curso, con el hash consistente "jump" de Lamping y
+ * Veach: no necesita tabla de asignación y, al pasar de n a n + 1 shards, solo cambia de shard 1/(n + 1)
+ * de los cursos (todos hacia el shard nuevo).
+ * <p>
+ * Todas las inscripciones de un curso quedan en el mismo shard, así que las consultas por curso (y la
+ * unicidad estudiante-curso) se resuelven en uno solo.
+ */
+public class EnrollmentShardRouter {
+    private final int shardCount;
+
+    public EnrollmentShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * @param courseId ID del curso.
+     * @return Shard de las inscripciones del curso, entre 0 y {@code shardCount() - 1}.
+     */
+    public int shardFor(long courseId) {
+        // mezcla el ID para que IDs consecutivos no sigan la misma secuencia del generador
+        long key = courseId * 0x9E3779B97F4A7C15L;
+        long bucket = -1;
+        long next = 0;
+        while (next < shardCount) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+}
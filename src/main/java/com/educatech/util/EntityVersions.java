@@ -0,0 +1,22 @@
+package com.educatech.util;
+
+import com.educatech.exception.ConcurrentUpdateException;
+
+public final class EntityVersions {
+    private EntityVersions() {
+    }
+
+    /**
+     * Comprueba la versión que envía el cliente al actualizar: si la indica y la fila ya va por otra, el
+     * cliente partió de datos antiguos y se rechaza sin reintentar (solo se reintentan las carreras entre
+     * peticiones que el cliente no ha visto).
+     *
+     * @throws ConcurrentUpdateException (409) si {@code expected} no es nulo y no coincide con {@code current}.
+     */
+    public static void requireCurrent(String entity, Long id, Long expected, Long current) {
+        if (expected != null && !expected.equals(current)) {
+            throw new ConcurrentUpdateException(entity + " with id: " + id + " is at version " + current
+                    + " but the request was based on version " + expected);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.educatech.util;
+
+import com.educatech.exception.IdempotencyConflictException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas ya completadas por clave de idempotencia, con TTL y un máximo de entradas.
+ * Mientras la primera petición con una clave está en curso, los reintentos con la misma clave
+ * esperan su resultado en lugar de repetir el trabajo. Si la primera petición falla, la clave se
+ * libera para que el cliente pueda reintentar.
+ * <p>
+ * Las entradas viven en la memoria de este nodo: solo cubre los reintentos que llegan a la misma instancia y
+ * se pierden al reiniciarla. Con varias réplicas, un reintento que el balanceador envía a otra vuelve a
+ * ejecutar la acción. En ese caso el duplicado lo evitan las comprobaciones de unicidad (estudiante-curso en
+ * inscripciones, email en usuarios), y el reintento recibe su error en lugar de la respuesta original.
+ *
+ * @param <T> Tipo de la respuesta que se guarda.
+ */
+public class IdempotencyStore<T> {
+    private final long ttlNanos;
+    private final long waitMillis;
+    private final int maxEntries;
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public IdempotencyStore(Duration ttl, Duration wait, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.waitMillis = wait.toMillis();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Huella de un payload para {@link #execute}: SHA-256 de los campos en orden, cada uno precedido de su
+     * longitud (o -1 si es nulo), para que dos payloads distintos no puedan dar la misma serialización.
+     */
+    public static String fingerprint(Object... fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+        for (Object field : fields) {
+            if (field == null) {
+                digest.update("-1:".getBytes(StandardCharsets.UTF_8));
+            } else {
+                byte[] value = field.toString().getBytes(StandardCharsets.UTF_8);
+                digest.update((value.length + ":").getBytes(StandardCharsets.UTF_8));
+                digest.update(value);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Ejecuta la acción una sola vez por clave.
+     *
+     * @param key         Clave de idempotencia (ya acotada al endpoint y al usuario).
+     * @param fingerprint Huella del payload; una clave reutilizada con otro payload es un conflicto.
+     * @param action      Acción a ejecutar si la clave no se vio antes.
+     * @return El resultado y si se trata de una respuesta repetida.
+     */
+    public Result<T> execute(String key, String fingerprint, Supplier<T> action) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry<T> created = new Entry<>(fingerprint, now);
+            Entry<T> existing = entries.putIfAbsent(key, created);
+
+            if (existing == null) {
+                if (entries.size() > maxEntries) {
+                    this.evict(now);
+                }
+                return new Result<>(this.run(key, created, action), false);
+            }
+            if (now - existing.createdNanos > ttlNanos) {
+                // caducada: se reemplaza y se vuelve a intentar
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyConflictException("Idempotency-Key was already used with a different request payload");
+            }
+            return new Result<>(this.await(existing), true);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private T run(String key, Entry<T> entry, Supplier<T> action) {
+        try {
+            T value = action.get();
+            entry.response.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            entries.remove(key, entry);
+            entry.response.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private T await(Entry<T> entry) {
+        try {
+            return entry.response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new IdempotencyConflictException("A request with the same Idempotency-Key is still in progress");
+        } catch (ExecutionException ex) {
+            // los reintentos concurrentes reciben el mismo error que la petición original
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight request", ex);
+        }
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> now - entry.createdNanos > ttlNanos);
+            // si sigue lleno se descartan respuestas completadas; las que están en curso se conservan
+            Iterator<Entry<T>> iterator = entries.values().iterator();
+            while (entries.size() > maxEntries && iterator.hasNext()) {
+                if (iterator.next().response.isDone()) {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final String fingerprint;
+        private final long createdNanos;
+        private final CompletableFuture<T> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long createdNanos) {
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    public record Result<T>(T value, boolean replayed) {
+    }
+}
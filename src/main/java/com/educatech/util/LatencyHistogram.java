@@ -0,0 +1,69 @@
+package com.educatech.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con buckets en potencias de dos (microsegundos).
+ * Registrar un valor no bloquea ni reserva memoria; los percentiles son aproximados
+ * al límite superior del bucket.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(bucketOf(micros));
+        totalMicros.add(micros);
+        long currentMax;
+        while (micros > (currentMax = maxMicros.get())) {
+            if (maxMicros.compareAndSet(currentMax, micros)) {
+                break;
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        long total = totalMicros.sum();
+        return new Snapshot(count, total, maxMicros.get(),
+                percentile(copy, count, 0.50), percentile(copy, count, 0.95), percentile(copy, count, 0.99));
+    }
+
+    private static int bucketOf(long micros) {
+        // bucket i contiene [2^(i-1), 2^i) microsegundos; el 0 es para valores de 0µs
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : 1L << i;
+            }
+        }
+        return 1L << (counts.length - 1);
+    }
+
+    /** Vista inmutable del histograma; los tiempos están en microsegundos. */
+    public record Snapshot(long count, long totalMicros, long maxMicros, long p50Micros, long p95Micros, long p99Micros) {
+        public long meanMicros() {
+            return count == 0 ? 0 : totalMicros / count;
+        }
+    }
+}
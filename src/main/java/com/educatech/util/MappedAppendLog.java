@@ -0,0 +1,227 @@
+package com.educatech.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Log local de solo escritura al final, con registros de tamaño fijo en segmentos mapeados en memoria.
+ * Cada registro lleva un CRC delante del payload: al reabrir el log, el primer hueco o registro
+ * incompleto marca el final. La posición de un registro es su número de orden global; el checkpoint
+ * guarda hasta qué posición se procesó y permite borrar los segmentos ya consumidos.
+ * <p>
+ * Cada log tiene un identificador que se genera al crearlo y se conserva entre reinicios; las
+ * posiciones solo son únicas dentro de un mismo log.
+ */
+public class MappedAppendLog implements Closeable {
+    private static final int CRC_BYTES = Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final Path checkpointFile;
+    private final int payloadSize;
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final boolean forceOnAppend;
+    private final UUID logId;
+
+    private long currentSegment;
+    private int currentSlot;
+    private FileChannel currentChannel;
+    private MappedByteBuffer currentBuffer;
+
+    public MappedAppendLog(Path directory, int payloadSize, int recordsPerSegment, boolean forceOnAppend) {
+        this.directory = directory;
+        this.checkpointFile = directory.resolve("checkpoint");
+        this.payloadSize = payloadSize;
+        this.recordSize = CRC_BYTES + payloadSize;
+        this.recordsPerSegment = recordsPerSegment;
+        this.forceOnAppend = forceOnAppend;
+        try {
+            Files.createDirectories(directory);
+            this.logId = this.readOrCreateLogId();
+            List<Long> segments = this.listSegments();
+            long lastSegment = segments.isEmpty() ? this.readCheckpoint() / recordsPerSegment : segments.get(segments.size() - 1);
+            this.openSegment(lastSegment);
+            // avanza hasta el primer hueco del último segmento
+            while (currentSlot < recordsPerSegment && this.isValid(currentBuffer, currentSlot)) {
+                currentSlot++;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open append log at " + directory, ex);
+        }
+    }
+
+    /**
+     * Añade un registro al final del log.
+     *
+     * @param payload Exactamente {@code payloadSize} bytes.
+     * @return La posición siguiente al registro añadido (la que se pasa a {@link #checkpoint(long)} al procesarlo).
+     */
+    public synchronized long append(ByteBuffer payload) {
+        if (payload.remaining() != payloadSize) {
+            throw new IllegalArgumentException("Payload must be " + payloadSize + " bytes");
+        }
+        if (currentSlot == recordsPerSegment) {
+            this.roll();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+
+        int offset = currentSlot * recordSize;
+        // primero el payload y después el CRC: un registro a medio escribir nunca es válido
+        currentBuffer.put(offset + CRC_BYTES, payload, payload.position(), payloadSize);
+        currentBuffer.putInt(offset, (int) crc.getValue());
+        if (forceOnAppend) {
+            currentBuffer.force(offset, recordSize);
+        }
+        currentSlot++;
+        return currentSegment * recordsPerSegment + currentSlot;
+    }
+
+    /**
+     * Recorre los registros válidos desde una posición, en orden.
+     *
+     * @param from     Posición inicial (normalmente el último checkpoint).
+     * @param consumer Recibe la posición siguiente a cada registro y una vista de solo lectura de su payload.
+     */
+    public synchronized void replay(long from, BiConsumer<Long, ByteBuffer> consumer) {
+        try {
+            for (long segment : this.listSegments()) {
+                if ((segment + 1) * recordsPerSegment <= from) {
+                    continue;
+                }
+                MappedByteBuffer buffer = segment == currentSegment ? currentBuffer : this.map(segment, FileChannel.MapMode.READ_ONLY);
+                int firstSlot = (int) Math.max(0, from - segment * recordsPerSegment);
+                for (int slot = firstSlot; slot < recordsPerSegment; slot++) {
+                    if (!this.isValid(buffer, slot)) {
+                        return;
+                    }
+                    ByteBuffer payload = buffer.slice(slot * recordSize + CRC_BYTES, payloadSize).asReadOnlyBuffer();
+                    consumer.accept(segment * recordsPerSegment + slot + 1, payload);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot replay append log at " + directory, ex);
+        }
+    }
+
+    /**
+     * Guarda de forma atómica la posición procesada y borra los segmentos anteriores a ella.
+     */
+    public synchronized void checkpoint(long position) {
+        try {
+            Path tmp = directory.resolve("checkpoint.tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, position));
+                channel.force(true);
+            }
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long firstLiveSegment = position / recordsPerSegment;
+            for (long segment : this.listSegments()) {
+                if (segment < firstLiveSegment && segment != currentSegment) {
+                    Files.deleteIfExists(this.segmentPath(segment));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write checkpoint at " + directory, ex);
+        }
+    }
+
+    public UUID getLogId() {
+        return logId;
+    }
+
+    public synchronized long readCheckpoint() {
+        try {
+            if (!Files.exists(checkpointFile)) {
+                return 0;
+            }
+            return ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read checkpoint at " + directory, ex);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (currentBuffer != null) {
+            currentBuffer.force();
+        }
+        if (currentChannel != null) {
+            currentChannel.close();
+        }
+    }
+
+    // Metodo auxiliar que lee el identificador del log o lo genera la primera vez (escritura atómica, como el checkpoint)
+    private UUID readOrCreateLogId() throws IOException {
+        Path idFile = directory.resolve("log-id");
+        if (Files.exists(idFile)) {
+            return UUID.fromString(Files.readString(idFile).trim());
+        }
+        UUID id = UUID.randomUUID();
+        Path tmp = directory.resolve("log-id.tmp");
+        Files.writeString(tmp, id.toString());
+        Files.move(tmp, idFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    private void roll() {
+        try {
+            currentBuffer.force();
+            currentChannel.close();
+            this.openSegment(currentSegment + 1);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot roll append log at " + directory, ex);
+        }
+    }
+
+    private void openSegment(long segment) throws IOException {
+        currentChannel = FileChannel.open(this.segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        currentBuffer = currentChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordSize * recordsPerSegment);
+        currentSegment = segment;
+        currentSlot = 0;
+    }
+
+    private MappedByteBuffer map(long segment, FileChannel.MapMode mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.segmentPath(segment), StandardOpenOption.READ)) {
+            return channel.map(mode, 0, (long) recordSize * recordsPerSegment);
+        }
+    }
+
+    private boolean isValid(ByteBuffer buffer, int slot) {
+        int offset = slot * recordSize;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + CRC_BYTES, payloadSize));
+        return buffer.getInt(offset) == (int) crc.getValue();
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,90 @@
+package com.educatech.util;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Cifrado de contraseñas por lotes en un pool acotado, compartido por las altas en bloque (importación en
+ * streaming y carga por COPY): BCrypt es lento a propósito y un lote grande en un solo hilo tardaría minutos.
+ * <p>
+ * Las contraseñas que ya vienen cifradas ({@code {bcrypt}$2a$...}, por ejemplo al migrar desde otra
+ * instalación) se guardan tal cual: {@link #isEncoded(String)} las reconoce.
+ */
+public class PasswordHasher {
+    // el prefijo de DelegatingPasswordEncoder y un hash BCrypt completo (coste de dos cifras, sal y hash en 53 caracteres)
+    private static final Pattern BCRYPT = Pattern.compile("^\\{bcrypt\\}\\$2[aby]\\$[0-9]{2}\\$[./A-Za-z0-9]{53}$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ExecutorService pool;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder, int threads) {
+        this.passwordEncoder = passwordEncoder;
+        AtomicInteger created = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Expresión regular de {@link #isEncoded(String)}, para comprobarlo también en SQL.
+     */
+    public static String encodedPattern() {
+        return BCRYPT.pattern();
+    }
+
+    /**
+     * @return true si el valor ya es una contraseña cifrada con el formato que guarda la aplicación.
+     */
+    public static boolean isEncoded(String password) {
+        return password != null && BCRYPT.matcher(password).matches();
+    }
+
+    /**
+     * Cifra las contraseñas en paralelo; las que ya están cifradas se devuelven sin cambios.
+     *
+     * @return Las contraseñas cifradas, en el mismo orden.
+     */
+    public List<String> encodeAll(List<String> passwords) {
+        List<Future<String>> futures = new ArrayList<>(passwords.size());
+        for (String password : passwords) {
+            futures.add(isEncoded(password) ? null : pool.submit(() -> passwordEncoder.encode(password)));
+        }
+        List<String> encoded = new ArrayList<>(passwords.size());
+        try {
+            for (int i = 0; i < passwords.size(); i++) {
+                encoded.add(futures.get(i) == null ? passwords.get(i) : futures.get(i).get());
+            }
+        } catch (InterruptedException ex) {
+            this.cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", ex);
+        } catch (ExecutionException ex) {
+            this.cancel(futures);
+            throw new IllegalStateException("Could not hash a password", ex.getCause());
+        }
+        return encoded;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void cancel(List<Future<String>> futures) {
+        for (Future<String> future : futures) {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+}
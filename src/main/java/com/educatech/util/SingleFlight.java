@@ -0,0 +1,89 @@
+package com.educatech.util;
+
+import com.educatech.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa las llamadas concurrentes con la misma clave: la primera ejecuta la carga en su propio hilo
+ * y las demás esperan su {@link CompletableFuture}, recibiendo el mismo resultado o la misma excepción.
+ * No es una caché: la clave se libera en cuanto termina la carga, así que una llamada posterior vuelve a cargar.
+ * La carga se ejecuta dentro de {@code transaction} (normalmente de solo lectura) y solo en la llamada que
+ * carga, para que las que esperan no ocupen conexiones del pool.
+ */
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final String name;
+    private final Duration timeout;
+    private final TransactionOperations transaction;
+    private final Counter executed;
+    private final Counter collapsed;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, Duration timeout, TransactionOperations transaction, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeout = timeout;
+        this.transaction = transaction;
+        this.executed = Counter.builder("educatech.singleflight.calls").tag("name", name).tag("outcome", "executed").register(meterRegistry);
+        this.collapsed = Counter.builder("educatech.singleflight.calls").tag("name", name).tag("outcome", "collapsed").register(meterRegistry);
+        this.timedOut = Counter.builder("educatech.singleflight.calls").tag("name", name).tag("outcome", "timeout").register(meterRegistry);
+    }
+
+    /**
+     * @param key    Clave de la lectura (p. ej. el ID del curso).
+     * @param loader Carga real; solo se ejecuta si no hay otra en curso para la misma clave.
+     * @return El resultado de la carga, propia o compartida.
+     * @throws ServiceUnavailableException si la carga compartida no termina dentro del timeout.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing == null) {
+            executed.increment();
+            try {
+                V value = transaction.execute(status -> loader.get());
+                created.complete(value);
+                return value;
+            } catch (RuntimeException | Error ex) {
+                created.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, created);
+            }
+        }
+
+        collapsed.increment();
+        try {
+            return existing.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            timedOut.increment();
+            throw new ServiceUnavailableException("Timed out waiting for an in-flight " + name + " read", 1);
+        } catch (ExecutionException ex) {
+            // misma excepción que recibió la llamada que hizo la carga (p. ej. CourseNotFoundException)
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an in-flight " + name + " read", ex);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
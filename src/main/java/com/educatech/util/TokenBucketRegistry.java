@@ -0,0 +1,64 @@
+package com.educatech.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buckets por clave (id de usuario, IP...) con un número máximo de claves.
+ * Al llegar al límite se eliminan primero los buckets llenos, que no pierden información;
+ * si no basta, se eliminan buckets arbitrarios (esas claves vuelven a empezar con el bucket lleno).
+ */
+public class TokenBucketRegistry {
+    private final int capacity;
+    private final double refillPerSecond;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public TokenBucketRegistry(int capacity, double refillPerSecond, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @return 0 si se admite, o los nanosegundos de espera hasta el próximo token.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                this.evict(nowNanos);
+            }
+            TokenBucket created = new TokenBucket(capacity, refillPerSecond, nowNanos);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket.tryAcquire(nowNanos);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evict(long nowNanos) {
+        // solo un hilo limpia; el resto sigue sin esperar
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.values().removeIf(bucket -> bucket.isFull(nowNanos));
+            int target = maxKeys - Math.max(1, maxKeys / 10);
+            Iterator<TokenBucket> iterator = buckets.values().iterator();
+            while (buckets.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.educatech.util;
+
+import com.educatech.util.AccessTokenCodec.AccessToken;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Resultados de verificación de tokens de acceso, por hash SHA-256 del token (el token en sí no se
+ * guarda) y con un máximo de entradas. Un cliente repite el mismo token en todas sus peticiones hasta
+ * que caduca, así que casi todas se resuelven sin comprobar la firma ni parsear el JSON.
+ * Solo se guardan los tokens válidos, hasta su caducidad; al llegar al límite se eliminan primero los
+ * caducados y, si no basta, entradas arbitrarias (esos tokens se vuelven a verificar).
+ */
+public class VerifiedTokenCache {
+    private final int maxEntries;
+    private final ConcurrentHashMap<ByteBuffer, AccessToken> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(VerifiedTokenCache::newDigest);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param verifier Verificación completa, que se ejecuta si el token no está en la caché (o ha caducado).
+     * @return El resultado de la verificación; las excepciones del verificador se propagan sin guardar nada.
+     */
+    public AccessToken verify(String token, Instant now, Function<String, AccessToken> verifier) {
+        ByteBuffer key = ByteBuffer.wrap(digests.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        AccessToken cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                hits.increment();
+                return cached;
+            }
+            entries.remove(key, cached);
+        }
+        misses.increment();
+        AccessToken verified = verifier.apply(token);
+        if (entries.size() >= maxEntries) {
+            this.evict(now);
+        }
+        entries.put(key, verified);
+        return verified;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private void evict(Instant now) {
+        // solo un hilo limpia; el resto sigue sin esperar
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(token -> !token.expiresAt().isAfter(now));
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<AccessToken> iterator = entries.values().iterator();
+            while (entries.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
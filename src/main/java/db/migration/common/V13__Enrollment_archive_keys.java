@@ -0,0 +1,85 @@
+package db.migration.common;
+
+import com.educatech.util.EnrollmentArchiveCodec;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pares (estudiante, curso) de las inscripciones archivadas con el mes en que están, para que una
+ * inscripción archivada siga contando como tal al comprobar duplicados y para localizar los meses que hay
+ * que reescribir al borrar un curso o un estudiante sin descomprimir todo el archivo.
+ * Rellena la tabla descomprimiendo los meses ya archivados (solo los hay en PostgreSQL).
+ */
+public class V13__Enrollment_archive_keys extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table enrollment_archive_keys (student_id bigint not null, course_id bigint not null, "
+                    + "month_start date not null, primary key (student_id, course_id))");
+            statement.execute("create index idx_enrollment_archive_keys_course on enrollment_archive_keys (course_id)");
+        }
+
+        List<Date> months = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select month_start from enrollment_archives order by month_start")) {
+            while (resultSet.next()) {
+                months.add(resultSet.getDate(1));
+            }
+        }
+        for (Date month : months) {
+            this.indexMonth(connection, month);
+        }
+    }
+
+    // Metodo auxiliar que inserta los pares de un mes archivado (de uno en uno, para no tener más de uno en memoria)
+    private void indexMonth(Connection connection, Date month) throws SQLException {
+        byte[] data;
+        try (PreparedStatement query = connection.prepareStatement("select data from enrollment_archives where month_start = ?")) {
+            query.setDate(1, month);
+            try (ResultSet resultSet = query.executeQuery()) {
+                resultSet.next();
+                data = resultSet.getBytes(1);
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into enrollment_archive_keys (student_id, course_id, month_start) "
+                + "values (?, ?, ?) on conflict do nothing")) {
+            int[] pending = {0};
+            SQLException[] failure = {null};
+            EnrollmentArchiveCodec.decode(data, row -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    insert.setLong(1, row.studentId());
+                    insert.setLong(2, row.courseId());
+                    insert.setDate(3, month);
+                    insert.addBatch();
+                    if (++pending[0] == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending[0] = 0;
+                    }
+                } catch (SQLException ex) {
+                    failure[0] = ex;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            if (pending[0] > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+}
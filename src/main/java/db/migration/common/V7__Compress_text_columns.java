@@ -0,0 +1,64 @@
+package db.migration.common;
+
+import com.educatech.entity.converter.CompressedTextConverter;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Comprime las descripciones de curso y los contenidos de lección que V6 dejó sin comprimir
+ * (códec 0). Recorre cada tabla por id en lotes para no cargarla entera en memoria; las filas que
+ * no se reducen al comprimir se quedan como están. Es común a todas las bases de datos.
+ */
+public class V7__Compress_text_columns extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        this.compress(connection, "courses", "description");
+        this.compress(connection, "lesson", "content");
+    }
+
+    // Metodo auxiliar que recorre la tabla por lotes de ids y reescribe la columna comprimida
+    private void compress(Connection connection, String table, String column) throws SQLException {
+        String select = "select id, " + column + " from " + table + " where id > ? order by id";
+        String update = "update " + table + " set " + column + " = ? where id = ?";
+        try (PreparedStatement query = connection.prepareStatement(select);
+             PreparedStatement statement = connection.prepareStatement(update)) {
+            query.setMaxRows(BATCH_SIZE);
+            long lastId = Long.MIN_VALUE;
+            boolean more = true;
+            while (more) {
+                query.setLong(1, lastId);
+                int rows = 0;
+                int pending = 0;
+                try (ResultSet resultSet = query.executeQuery()) {
+                    while (resultSet.next()) {
+                        rows++;
+                        lastId = resultSet.getLong(1);
+                        byte[] stored = resultSet.getBytes(2);
+                        if (stored[0] != CompressedTextConverter.CODEC_RAW) {
+                            continue;
+                        }
+                        byte[] encoded = CompressedTextConverter.encode(CompressedTextConverter.decode(stored));
+                        if (encoded[0] != CompressedTextConverter.CODEC_RAW) {
+                            statement.setBytes(1, encoded);
+                            statement.setLong(2, lastId);
+                            statement.addBatch();
+                            pending++;
+                        }
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+                more = rows == BATCH_SIZE;
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+-- Unicidad de emails sin distinguir mayúsculas ni espacios: email_normalized = lower(trim(email)) la calcula
+-- la base de datos en cada INSERT/UPDATE (también en las cargas por JDBC) y su índice único sustituye a la
+-- restricción unique sobre el email tal cual. Los emails se siguen guardando como los escribió el usuario.
+-- Si ya hay emails repetidos con distinto formato la migración falla al crear el índice.
+
+-- la restricción unique de V1 no tiene nombre en H2: se quita recreando la columna
+alter table users add column email_copy varchar(255);
+update users set email_copy = email;
+alter table users drop column email;
+alter table users alter column email_copy rename to email;
+alter table users alter column email set not null;
+
+alter table users add column email_normalized varchar(255) generated always as (lower(trim(email)));
+create unique index users_email_normalized_key on users (email_normalized);
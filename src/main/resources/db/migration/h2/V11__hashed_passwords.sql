@@ -0,0 +1,3 @@
+-- Las contraseñas se guardan con BCrypt y el prefijo del algoritmo ({bcrypt} + 60 caracteres). Las filas
+-- existentes quedan en claro hasta el siguiente inicio de sesión del usuario, que las cifra.
+alter table users alter column password set data type varchar(100);
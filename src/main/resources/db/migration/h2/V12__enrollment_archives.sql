@@ -0,0 +1,10 @@
+-- H2 no tiene particionado declarativo: enrollments sigue siendo una sola tabla y el mantenimiento de
+-- particiones no hace nada. La tabla de archivo existe igualmente para que la consulta de inscripciones
+-- archivadas funcione (vacía) con el perfil "embedded".
+create table enrollment_archives (
+    month_start date         not null,
+    row_count   bigint       not null,
+    archived_at timestamp(6) not null,
+    data        varbinary    not null,
+    primary key (month_start)
+);
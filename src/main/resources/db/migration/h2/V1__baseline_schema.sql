@@ -0,0 +1,44 @@
+-- Esquema inicial para la base embebida (H2 en modo PostgreSQL, perfil "embedded").
+
+create sequence if not exists users_seq start with 1 increment by 50;
+create sequence if not exists courses_seq start with 1 increment by 50;
+create sequence if not exists lesson_seq start with 1 increment by 50;
+create sequence if not exists enrollments_seq start with 1 increment by 50;
+
+create table users (
+    id         bigint       not null,
+    first_name varchar(100) not null,
+    last_name  varchar(100) not null,
+    email      varchar(255) not null unique,
+    password   varchar(60)  not null,
+    role       varchar(255) not null check (role in ('STUDENT', 'TEACHER', 'ADMIN')),
+    primary key (id)
+);
+
+create table courses (
+    id          bigint       not null,
+    title       varchar(255) not null,
+    description clob         not null,
+    teacher_id  bigint       not null,
+    primary key (id),
+    constraint fk_courses_teacher foreign key (teacher_id) references users
+);
+
+create table lesson (
+    id        bigint       not null,
+    title     varchar(255) not null,
+    content   clob         not null,
+    course_id bigint       not null,
+    primary key (id),
+    constraint fk_lesson_course foreign key (course_id) references courses
+);
+
+create table enrollments (
+    id              bigint       not null,
+    student_id      bigint       not null,
+    course_id       bigint       not null,
+    enrollment_date timestamp(6) not null,
+    primary key (id),
+    constraint fk_enrollments_student foreign key (student_id) references users,
+    constraint fk_enrollments_course foreign key (course_id) references courses
+);
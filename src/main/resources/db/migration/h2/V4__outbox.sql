@@ -0,0 +1,23 @@
+-- Outbox transaccional: cada escritura de inscripciones, cursos y lecciones deja un evento
+-- en la misma transacción. El id (de una secuencia sin preasignación) es el offset del change feed.
+create sequence if not exists outbox_events_seq start with 1 increment by 1;
+
+create table outbox_events (
+    id             bigint       not null,
+    aggregate_type varchar(20)  not null,
+    aggregate_id   bigint       not null,
+    event_type     varchar(20)  not null,
+    payload        varchar(2000),
+    created_at     timestamp(6) not null,
+    primary key (id)
+);
+
+create index if not exists idx_outbox_events_created_at on outbox_events (created_at);
+
+-- Último offset confirmado por cada consumidor; la compactación borra hasta el mínimo
+create table outbox_consumers (
+    consumer_id   varchar(100) not null,
+    last_sequence bigint       not null,
+    updated_at    timestamp(6) not null,
+    primary key (consumer_id)
+);
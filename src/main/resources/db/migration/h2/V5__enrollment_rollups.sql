@@ -0,0 +1,9 @@
+-- Inscripciones agregadas por curso y hora/día (UTC). bucket = horas o días desde epoch.
+-- Se actualiza con incrementos desde la aplicación; las consultas de series temporales no leen enrollments.
+create table enrollment_rollups (
+    course_id   bigint     not null,
+    granularity varchar(4) not null,
+    bucket      bigint     not null,
+    enrollments bigint     not null,
+    primary key (course_id, granularity, bucket)
+);
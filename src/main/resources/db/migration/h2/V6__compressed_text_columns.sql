@@ -0,0 +1,13 @@
+-- description y content pasan de clob a varbinary con el formato de CompressedTextConverter:
+-- primer byte = códec (0 = UTF-8 sin comprimir). V7 comprime después las filas existentes.
+alter table courses add column description_z varbinary;
+update courses set description_z = X'00' || cast(description as varbinary);
+alter table courses drop column description;
+alter table courses alter column description_z rename to description;
+alter table courses alter column description set not null;
+
+alter table lesson add column content_z varbinary;
+update lesson set content_z = X'00' || cast(content as varbinary);
+alter table lesson drop column content;
+alter table lesson alter column content_z rename to content;
+alter table lesson alter column content set not null;
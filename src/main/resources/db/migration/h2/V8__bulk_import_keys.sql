@@ -0,0 +1,10 @@
+-- IDs de origen de las cargas masivas (POST /api/bulk-imports/{entity}?source=...): cada fila importada guarda
+-- su ID en el sistema de origen para resolver las referencias de los ficheros siguientes (p. ej. el profesor
+-- de un curso) y para que repetir una carga no duplique filas.
+create table bulk_import_keys (
+    source    varchar(100) not null,
+    entity    varchar(20)  not null,
+    source_id varchar(100) not null,
+    id        bigint       not null,
+    primary key (source, entity, source_id)
+);
@@ -0,0 +1,25 @@
+-- Unicidad de emails sin distinguir mayúsculas ni espacios: email_normalized = lower(trim(email)) la calcula
+-- la base de datos en cada INSERT/UPDATE (también en las cargas por JDBC) y su índice único sustituye a la
+-- restricción unique sobre el email tal cual. Los emails se siguen guardando como los escribió el usuario.
+-- Si ya hay emails repetidos con distinto formato la migración falla al crear el índice; se localizan con
+--   select lower(trim(email)), array_agg(id) from users group by 1 having count(*) > 1;
+alter table users add column email_normalized varchar(255) generated always as (lower(trim(email))) stored;
+create unique index users_email_normalized_key on users (email_normalized);
+
+-- la restricción unique sobre email se llama users_email_key si la creó V1, pero UK<hash> si la creó
+-- Hibernate con ddl-auto=update (bases anteriores a Flyway): se busca por tabla y columna
+do $$
+declare
+    constraint_name name;
+begin
+    for constraint_name in
+        select c.conname
+          from pg_constraint c
+         where c.conrelid = 'users'::regclass
+           and c.contype = 'u'
+           and c.conkey = array[(select a.attnum from pg_attribute a
+                                  where a.attrelid = 'users'::regclass and a.attname = 'email')]
+    loop
+        execute format('alter table users drop constraint %I', constraint_name);
+    end loop;
+end $$;
@@ -0,0 +1,67 @@
+-- Inscripciones particionadas por mes de enrollment_date (particionado declarativo por rango): las consultas
+-- de cohortes recientes solo tocan las particiones recientes y el histórico se puede archivar partición a
+-- partición (ver EnrollmentPartitionService, que crea las particiones siguientes y archiva las antiguas).
+--
+-- La clave primaria de una tabla particionada tiene que incluir la clave de partición: pasa a ser
+-- (id, enrollment_date). Los ids siguen saliendo de enrollments_seq, y Hibernate sigue buscando por id
+-- (consulta el índice de cada partición). enrollment_date no se actualiza nunca, así que una fila no
+-- cambia de partición. Las fechas sin partición propia caen en enrollments_default hasta que el
+-- mantenimiento crea la suya.
+--
+-- Reescribe la tabla entera: en una base grande conviene lanzarla en una ventana de mantenimiento.
+
+alter table enrollments rename to enrollments_unpartitioned;
+alter index enrollments_pkey rename to enrollments_unpartitioned_pkey;
+drop index idx_enrollments_student_course;
+drop index idx_enrollments_course_id;
+
+create table enrollments (
+    id              bigint       not null,
+    student_id      bigint       not null,
+    course_id       bigint       not null,
+    enrollment_date timestamp(6) not null,
+    version         bigint       default 0 not null,
+    primary key (id, enrollment_date),
+    constraint fk_enrollments_student foreign key (student_id) references users,
+    constraint fk_enrollments_course foreign key (course_id) references courses
+) partition by range (enrollment_date);
+
+create table enrollments_default partition of enrollments default;
+
+-- una partición por mes desde la inscripción más antigua hasta tres meses después del actual
+do $$
+declare
+    month date;
+    last_month date := (date_trunc('month', now()) + interval '3 months')::date;
+begin
+    select coalesce(date_trunc('month', min(enrollment_date)), date_trunc('month', now()))::date
+      into month
+      from enrollments_unpartitioned;
+    while month <= last_month loop
+        execute format('create table %I partition of enrollments for values from (%L) to (%L)',
+                       'enrollments_p' || to_char(month, 'YYYYMM'), month, (month + interval '1 month')::date);
+        month := (month + interval '1 month')::date;
+    end loop;
+end $$;
+
+insert into enrollments (id, student_id, course_id, enrollment_date, version)
+select id, student_id, course_id, enrollment_date, version from enrollments_unpartitioned;
+
+drop table enrollments_unpartitioned;
+
+-- índices particionados: cada partición, también las que se creen después, tiene el suyo
+-- IEnrollmentRepository.getEnrollmentByStudentAndCourse / getEnrollmentsByStudent
+create index idx_enrollments_student_course on enrollments (student_id, course_id);
+
+-- IEnrollmentRepository.getEnrollmentsByCourse
+create index idx_enrollments_course_id on enrollments (course_id);
+
+-- Particiones archivadas: las filas de cada mes comprimidas en un solo valor (ver EnrollmentArchiveCodec).
+-- Se consultan descomprimiendo los meses pedidos (GET /api/enrollments/archive).
+create table enrollment_archives (
+    month_start date         not null,
+    row_count   bigint       not null,
+    archived_at timestamp(6) not null,
+    data        bytea        not null,
+    primary key (month_start)
+);
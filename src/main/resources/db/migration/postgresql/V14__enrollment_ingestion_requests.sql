@@ -0,0 +1,12 @@
+-- Peticiones de la ingesta diferida (POST /api/enrollments/ingest) ya persistidas, con la inscripción que
+-- crearon. Se escriben en la misma transacción que la inscripción: si el proceso cae antes de avanzar el
+-- checkpoint del log, al reprocesar la petición se reconoce como ya persistida en lugar de como duplicada.
+-- Las filas con posición de log anterior al checkpoint ya no hacen falta y se van borrando.
+create table enrollment_ingestion_requests (
+    request_id    uuid   not null,
+    log_position  bigint not null,
+    enrollment_id bigint not null,
+    primary key (request_id)
+);
+
+create index idx_enrollment_ingestion_requests_position on enrollment_ingestion_requests (log_position);
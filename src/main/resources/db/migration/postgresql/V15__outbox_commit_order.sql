@@ -0,0 +1,21 @@
+-- Offset del change feed asignado después de confirmar la transacción del evento. Los ids se asignan al
+-- insertar y una transacción con un id menor puede confirmarse más tarde que otra con uno mayor; el
+-- consumidor que ya pasó de ese id se lo saltaría. Los eventos nuevos se insertan sin feed_sequence y
+-- OutboxSequenceRepository se lo asigna a los ya confirmados, de uno en uno (fila de outbox_sequencer).
+create sequence if not exists outbox_feed_seq start with 1 increment by 1;
+
+alter table outbox_events add column feed_sequence bigint;
+
+-- los eventos existentes conservan su id como offset, para no mover el de los consumidores
+update outbox_events set feed_sequence = id;
+select setval('outbox_feed_seq', coalesce((select max(id) from outbox_events), 0) + 1, false);
+
+create unique index if not exists idx_outbox_events_feed_sequence on outbox_events (feed_sequence);
+create index if not exists idx_outbox_events_unsequenced on outbox_events (id) where feed_sequence is null;
+
+create table outbox_sequencer (
+    id integer not null,
+    primary key (id)
+);
+
+insert into outbox_sequencer (id) values (1);
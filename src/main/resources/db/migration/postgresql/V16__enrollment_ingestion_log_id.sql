@@ -0,0 +1,10 @@
+-- Las posiciones de enrollment_ingestion_requests son las del log local de cada réplica, así que el
+-- borrado por checkpoint tiene que limitarse a las filas del mismo log (log_id, ver MappedAppendLog).
+-- Las filas anteriores no tienen log: tras una parada ordenada el flusher vacía la cola y todas quedan
+-- cubiertas por el checkpoint, así que se pueden borrar.
+delete from enrollment_ingestion_requests;
+
+alter table enrollment_ingestion_requests add column log_id uuid not null;
+
+drop index idx_enrollment_ingestion_requests_position;
+create index idx_enrollment_ingestion_requests_log_position on enrollment_ingestion_requests (log_id, log_position);
@@ -0,0 +1,3 @@
+-- Usuario dueño de cada consumidor del change feed: solo él puede confirmar su offset. Los consumidores
+-- anteriores no tienen dueño y pasan a ser del primero que los vuelva a usar.
+alter table outbox_consumers add column owner_id varchar(100);
@@ -0,0 +1,16 @@
+-- Índices secundarios que necesitan las consultas derivadas de los repositorios.
+
+-- ICourseRepository.findAllByTeacher
+create index if not exists idx_courses_teacher_id on courses (teacher_id);
+
+-- IEnrollmentRepository.getEnrollmentByStudentAndCourse / getEnrollmentsByStudent
+create index if not exists idx_enrollments_student_course on enrollments (student_id, course_id);
+
+-- IEnrollmentRepository.getEnrollmentsByCourse
+create index if not exists idx_enrollments_course_id on enrollments (course_id);
+
+-- ILessonRepository.getLessonByTitleAndCourse / getLessonsByCourse / findTitlesByCourseAndTitleIn
+create index if not exists idx_lesson_course_title on lesson (course_id, title);
+
+-- IUserRepository.getUsersByRole
+create index if not exists idx_users_role on users (role);
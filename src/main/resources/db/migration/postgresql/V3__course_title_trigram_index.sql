@@ -0,0 +1,4 @@
+-- Índice trigram para ICourseRepository.findAllByTitleLike ('%palabra%' no puede usar un B-tree).
+create extension if not exists pg_trgm;
+
+create index if not exists idx_courses_title_trgm on courses using gin (title gin_trgm_ops);
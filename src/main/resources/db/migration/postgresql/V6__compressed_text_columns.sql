@@ -0,0 +1,18 @@
+-- description y content pasan de large objects (oid) a bytea con el formato de CompressedTextConverter:
+-- primer byte = códec (0 = UTF-8 sin comprimir). V7 comprime después las filas existentes.
+-- STORAGE EXTERNAL: el valor ya viene comprimido, así que TOAST lo guarda fuera de línea sin volver a comprimirlo.
+alter table courses add column description_z bytea;
+update courses set description_z = '\x00'::bytea || lo_get(description);
+select lo_unlink(description) from courses;
+alter table courses drop column description;
+alter table courses rename column description_z to description;
+alter table courses alter column description set not null;
+alter table courses alter column description set storage external;
+
+alter table lesson add column content_z bytea;
+update lesson set content_z = '\x00'::bytea || lo_get(content);
+select lo_unlink(content) from lesson;
+alter table lesson drop column content;
+alter table lesson rename column content_z to content;
+alter table lesson alter column content set not null;
+alter table lesson alter column content set storage external;
@@ -0,0 +1,8 @@
+-- Columna de versión para el bloqueo optimista (@Version) de usuarios, cursos, lecciones e inscripciones:
+-- cada UPDATE comprueba y sube la versión, así que una escritura concurrente sobre la misma fila falla en
+-- lugar de pisar la otra. El valor por defecto cubre las filas existentes y los INSERT por JDBC
+-- (cargas masivas, ingesta de inscripciones, dataset sintético) que no la mencionan.
+alter table users add column version bigint default 0 not null;
+alter table courses add column version bigint default 0 not null;
+alter table lesson add column version bigint default 0 not null;
+alter table enrollments add column version bigint default 0 not null;
@@ -0,0 +1,14 @@
+-- Tabla de inscripciones de cada shard (ver ShardedEnrollmentRepository). Vale para H2 y PostgreSQL.
+-- Sin claves ajenas: los usuarios y los cursos están en la base de datos principal.
+create table enrollments (
+    id              bigint primary key,
+    version         bigint       not null,
+    student_id      bigint       not null,
+    course_id       bigint       not null,
+    enrollment_date timestamp(6) not null,
+    -- todas las inscripciones de un curso están en el mismo shard: la unicidad se comprueba aquí
+    constraint uk_enrollments_student_course unique (student_id, course_id)
+);
+
+-- getEnrollmentsByCourse / borrado de un curso
+create index idx_enrollments_course_id on enrollments (course_id);
@@ -0,0 +1,107 @@
+package com.educatech.autocomplete;
+
+import com.educatech.util.CourseTitleIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Latencia del autocompletado de títulos ({@link CourseTitleIndex}) con un catálogo sintético: simula
+ * las pulsaciones de un buscador (cada prefijo de 1 a 12 caracteres de un título o de una de sus palabras)
+ * y mide cada consulta por separado para dar percentiles exactos. Las inscripciones siguen una ley de
+ * potencias, como en el dataset de carga. No necesita base de datos ni Spring.
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp "target/test-classes:target/classes" com.educatech.autocomplete.CourseAutocompleteBenchmark [titles] [queries]
+ * </pre>
+ * Termina con código 1 si el p99 llega a un milisegundo.
+ */
+public class CourseAutocompleteBenchmark {
+    private static final String[] TOPICS = {
+            "Java", "Python", "Kotlin", "Go", "Rust", "JavaScript", "TypeScript", "SQL", "PostgreSQL", "Spring Boot",
+            "Machine Learning", "Estadística", "Álgebra Lineal", "Cálculo", "Física", "Química", "Biología", "Historia",
+            "Economía", "Marketing", "Diseño", "Fotografía", "Guitarra", "Piano", "Inglés", "Alemán", "Francés",
+            "Redes", "Seguridad", "Docker", "Kubernetes", "React", "Angular", "Data Science", "Finanzas", "Contabilidad"
+    };
+    private static final String[] LEVELS = {
+            "Introducción a", "Fundamentos de", "Curso avanzado de", "Taller de", "Máster en", "Iniciación a",
+            "Práctica de", "Proyecto de", "Certificación en", ""
+    };
+    private static final String[] SUFFIXES = {
+            "para principiantes", "desde cero", "en la práctica", "para profesionales", "con ejercicios", "edición 2025",
+            "nivel I", "nivel II", "intensivo", ""
+    };
+    private static final int LIMIT = 10;
+
+    public static void main(String[] args) {
+        int titleCount = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int queryCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        SplittableRandom random = new SplittableRandom(42);
+
+        long[] ids = new long[titleCount];
+        String[] titles = new String[titleCount];
+        long[] enrollments = new long[titleCount];
+        for (int i = 0; i < titleCount; i++) {
+            ids[i] = i + 1;
+            titles[i] = (LEVELS[random.nextInt(LEVELS.length)] + " " + TOPICS[random.nextInt(TOPICS.length)] + " "
+                    + SUFFIXES[random.nextInt(SUFFIXES.length)] + " " + Long.toString(random.nextLong(1L << 30), 36)).trim();
+            enrollments[i] = (long) (10_000 * Math.pow(random.nextDouble(), 4));
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        long buildStart = System.nanoTime();
+        CourseTitleIndex index = new CourseTitleIndex(ids, titles, enrollments);
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        System.gc();
+        long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("index: %d titles, %d entries, built in %d ms, ~%d MB%n",
+                index.courseCount(), index.entryCount(), buildMillis, Math.max(0, usedAfter - usedBefore) / (1024 * 1024));
+
+        String[] prefixes = new String[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            String title = CourseTitleIndex.normalize(titles[random.nextInt(titleCount)]);
+            String[] words = title.split(" ");
+            // la mitad de las búsquedas empiezan por una palabra intermedia del título
+            String source = random.nextBoolean() ? title : String.join(" ", Arrays.copyOfRange(words, random.nextInt(words.length), words.length));
+            prefixes[i] = source.substring(0, Math.min(source.length(), 1 + random.nextInt(12)));
+        }
+
+        // calentamiento para que el JIT compile la búsqueda
+        long checksum = 0;
+        for (int round = 0; round < 3; round++) {
+            for (String prefix : prefixes) {
+                checksum += index.complete(prefix, LIMIT, id -> false).size();
+            }
+        }
+
+        long[] nanos = new long[queryCount];
+        long matches = 0;
+        for (int i = 0; i < queryCount; i++) {
+            long start = System.nanoTime();
+            // el mismo camino que el servicio: normalizar lo escrito y consultar
+            List<CourseTitleIndex.Match> result = index.complete(CourseTitleIndex.normalize(prefixes[i]), LIMIT, id -> false);
+            nanos[i] = System.nanoTime() - start;
+            matches += result.size();
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%d queries, %.1f results per query (checksum %d)%n", queryCount, (double) matches / queryCount, checksum);
+        System.out.printf("%-8s %10s%n", "", "us/query");
+        System.out.printf("%-8s %10.1f%n", "p50", percentile(nanos, 0.50));
+        System.out.printf("%-8s %10.1f%n", "p99", percentile(nanos, 0.99));
+        System.out.printf("%-8s %10.1f%n", "p99.9", percentile(nanos, 0.999));
+        System.out.printf("%-8s %10.1f%n", "max", nanos[nanos.length - 1] / 1000.0);
+        if (percentile(nanos, 0.99) >= 1000) {
+            System.out.println("p99 is not below 1 ms");
+            System.exit(1);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        int rank = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, rank)] / 1000.0;
+    }
+}
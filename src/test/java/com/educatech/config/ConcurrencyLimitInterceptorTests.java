@@ -0,0 +1,48 @@
+package com.educatech.config;
+
+import com.educatech.dto.request.EnrollmentRequestDTO;
+import com.educatech.dto.request.UserRequestDTO;
+import com.educatech.enums.RequestPriority;
+import com.educatech.service.ICourseService;
+import com.educatech.service.IEnrollmentService;
+import com.educatech.service.IUserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitInterceptorTests {
+
+    @Test
+    void singleResultLookupsArePointReads() throws Exception {
+        assertThat(priorityOf(ICourseService.class, "getCourseById", Long.class)).isEqualTo(RequestPriority.POINT_READ);
+        // un Map de campos sigue siendo un solo elemento
+        assertThat(priorityOf(ICourseService.class, "getCourseById", Long.class, Set.class)).isEqualTo(RequestPriority.POINT_READ);
+        assertThat(priorityOf(IUserService.class, "getUserByEmail", String.class)).isEqualTo(RequestPriority.POINT_READ);
+        assertThat(priorityOf(IEnrollmentService.class, "getEnrollmentByStudentAndCourse", Long.class, Long.class))
+                .isEqualTo(RequestPriority.POINT_READ);
+    }
+
+    @Test
+    void collectionsPagesAndBatchesAreListReads() throws Exception {
+        assertThat(priorityOf(ICourseService.class, "getAllCourses", Pageable.class)).isEqualTo(RequestPriority.LIST_READ);
+        assertThat(priorityOf(ICourseService.class, "searchCoursesByTitle", String.class)).isEqualTo(RequestPriority.LIST_READ);
+        assertThat(priorityOf(IEnrollmentService.class, "getEnrollmentsByStudent", Long.class)).isEqualTo(RequestPriority.LIST_READ);
+        assertThat(priorityOf(IUserService.class, "getUsersByIds", List.class)).isEqualTo(RequestPriority.LIST_READ);
+    }
+
+    @Test
+    void everythingElseIsAWrite() throws Exception {
+        assertThat(priorityOf(ICourseService.class, "deleteCourse", Long.class)).isEqualTo(RequestPriority.WRITE);
+        assertThat(priorityOf(IUserService.class, "saveUser", UserRequestDTO.class)).isEqualTo(RequestPriority.WRITE);
+        assertThat(priorityOf(IEnrollmentService.class, "updateEnrollment", Long.class, EnrollmentRequestDTO.class))
+                .isEqualTo(RequestPriority.WRITE);
+    }
+
+    private static RequestPriority priorityOf(Class<?> service, String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return ConcurrencyLimitInterceptor.priorityOf(service.getMethod(name, parameterTypes));
+    }
+}
@@ -0,0 +1,90 @@
+package com.educatech.entity.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedTextConverterTests {
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void nullIsStoredAsNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void emptyTextRoundTripsAsRaw() {
+        byte[] data = CompressedTextConverter.encode("");
+
+        assertThat(data).containsExactly(CompressedTextConverter.CODEC_RAW);
+        assertThat(CompressedTextConverter.decode(data)).isEmpty();
+    }
+
+    @Test
+    void shortTextIsStoredRaw() {
+        String text = "Introducción a Java";
+        byte[] data = CompressedTextConverter.encode(text);
+
+        assertThat(data[0]).isEqualTo(CompressedTextConverter.CODEC_RAW);
+        assertThat(Arrays.copyOfRange(data, 1, data.length)).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+        assertThat(CompressedTextConverter.decode(data)).isEqualTo(text);
+    }
+
+    @Test
+    void longRepetitiveTextIsDeflated() {
+        String text = "Contenido de la lección con acentos y eñes. ".repeat(200);
+        byte[] data = CompressedTextConverter.encode(text);
+
+        assertThat(data[0]).isEqualTo(CompressedTextConverter.CODEC_DEFLATE);
+        assertThat(data.length).isLessThan(text.getBytes(StandardCharsets.UTF_8).length / 10);
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(text))).isEqualTo(text);
+    }
+
+    @Test
+    void encodingIsNeverLargerThanRawPlusCodecByte() {
+        Random random = new Random(42);
+        for (int length : new int[]{127, 128, 200, 1000}) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < length) {
+                text.appendCodePoint(0x4E00 + random.nextInt(0x5000));
+            }
+            byte[] data = CompressedTextConverter.encode(text.toString());
+
+            assertThat(data.length).isLessThanOrEqualTo(text.toString().getBytes(StandardCharsets.UTF_8).length + 1);
+            assertThat(CompressedTextConverter.decode(data)).isEqualTo(text.toString());
+        }
+    }
+
+    @Test
+    void emptyColumnIsRejected() {
+        assertThatThrownBy(() -> CompressedTextConverter.decode(new byte[0])).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void unknownCodecIsRejected() {
+        assertThatThrownBy(() -> CompressedTextConverter.decode(new byte[]{7, 'a'}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Unknown text codec");
+    }
+
+    @Test
+    void corruptedDeflateDataIsRejected() {
+        byte[] data = CompressedTextConverter.encode("texto comprimible ".repeat(50));
+        byte[] truncated = Arrays.copyOf(data, data.length / 2);
+        byte[] garbage = data.clone();
+        Arrays.fill(garbage, 5, garbage.length, (byte) 0x5A);
+
+        assertThatThrownBy(() -> CompressedTextConverter.decode(truncated)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CompressedTextConverter.decode(garbage)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CompressedTextConverter.decode(new byte[]{CompressedTextConverter.CODEC_DEFLATE, 0, 0}))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CompressedTextConverter.decode(new byte[]{CompressedTextConverter.CODEC_DEFLATE, -1, -1, -1, -1}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
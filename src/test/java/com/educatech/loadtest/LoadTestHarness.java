@@ -0,0 +1,364 @@
+package com.educatech.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pruebas de carga reproducibles en local. Arranca el jar con los perfiles {@code embedded,loadtest}
+ * (H2 en memoria y dataset sintético de {@link SyntheticDatasetGenerator}) o usa un servidor ya
+ * arrancado, y ejecuta los escenarios con usuarios virtuales en bucle cerrado:
+ * <ul>
+ *     <li>{@code registration}: pico de altas; todos los usuarios empiezan a la vez y cada iteración
+ *     registra un estudiante y lo inscribe en un curso.</li>
+ *     <li>{@code catalog}: navegación del catálogo (página de cursos, detalle, lecciones y recomendaciones).</li>
+ *     <li>{@code roster}: exportación de la lista de inscritos de un curso, con más peso en los cursos grandes.</li>
+ * </ul>
+ * Informa del throughput y de los percentiles p50/p99/p999 por tipo de petición (exactos, sin histograma).
+ *
+ * <pre>
+ * mvn package -DskipTests &amp;&amp; mvn test-compile
+ * java -cp target/test-classes com.educatech.loadtest.LoadTestHarness target/educatech-0.0.1-SNAPSHOT.jar \
+ *     [scenarios=registration,catalog,roster] [concurrency=32] [duration=PT30S] [warmup=PT5S] [students=20000] [courses=2000] ...
+ * java -cp target/test-classes com.educatech.loadtest.LoadTestHarness http://localhost:8080 ...
+ * </pre>
+ * Contra un servidor externo, las opciones del dataset ({@code admins}, {@code teachers}, {@code students},
+ * {@code courses}, {@code enrollment-skew}) tienen que coincidir con las {@code educatech.load-test.*} con que se generó.
+ * Las peticiones llevan el token de {@code email}/{@code password} (por defecto el primer administrador del dataset).
+ */
+public class LoadTestHarness {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(10);
+    private static final List<String> DATASET_OPTIONS = List.of(
+            "admins", "teachers", "students", "courses", "lessons-per-course", "enrollments-per-student", "enrollment-skew", "seed");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    // token de un administrador del dataset, que se pide al empezar
+    private String authorization;
+    private final String baseUrl;
+    private final int courses;
+    private final double enrollmentSkew;
+    private final long firstStudentId;
+    private final int students;
+    // correos únicos entre ejecuciones contra el mismo servidor
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong registrations = new AtomicLong();
+
+    private LoadTestHarness(String baseUrl, Map<String, String> options) {
+        this.baseUrl = baseUrl;
+        this.courses = Integer.parseInt(options.getOrDefault("courses", "2000"));
+        this.enrollmentSkew = Double.parseDouble(options.getOrDefault("enrollment-skew", "2.0"));
+        this.students = Integer.parseInt(options.getOrDefault("students", "20000"));
+        this.firstStudentId = Long.parseLong(options.getOrDefault("admins", "5")) + Long.parseLong(options.getOrDefault("teachers", "200")) + 1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadTestHarness <jar|base-url> [scenarios=registration,catalog,roster] [concurrency=32] "
+                    + "[duration=PT30S] [warmup=PT5S] [dataset options...]");
+            System.exit(2);
+        }
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (option.length != 2) {
+                throw new IllegalArgumentException("Options must be key=value: " + args[i]);
+            }
+            options.put(option[0], option[1]);
+        }
+        List<String> scenarios = List.of(options.getOrDefault("scenarios", "registration,catalog,roster").split(","));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT30S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT5S"));
+
+        Process process = null;
+        String baseUrl = args[0];
+        if (!baseUrl.startsWith("http")) {
+            int port = freePort();
+            process = start(Path.of(args[0]), port, options);
+            baseUrl = "http://localhost:" + port;
+        }
+        try {
+            LoadTestHarness harness = new LoadTestHarness(baseUrl, options);
+            long readyMillis = harness.awaitReady(process);
+            System.out.printf("Server ready at %s after %d ms (concurrency=%d, warmup=%s, duration=%s)%n",
+                    baseUrl, readyMillis, concurrency, warmup, duration);
+            for (String scenario : scenarios) {
+                // un token nuevo por escenario para que no caduque a mitad de la prueba
+                harness.login(options.getOrDefault("email", "admin1@loadtest.educatech"), options.getOrDefault("password", "loadtest-password"));
+                harness.run(scenario.trim(), concurrency, warmup, duration);
+            }
+        } finally {
+            if (process != null) {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+    }
+
+    private static Process start(Path jar, int port, Map<String, String> options) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of("-jar", jar.toString(), "--spring.profiles.active=embedded,loadtest", "--server.port=" + port));
+        for (String option : DATASET_OPTIONS) {
+            if (options.containsKey(option)) {
+                command.add("--educatech.load-test." + option + "=" + options.get(option));
+            }
+        }
+        Path log = jar.toAbsolutePath().resolveSibling("loadtest-app.log");
+        System.out.println("Starting " + jar + " (log: " + log + ")");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    // Metodo auxiliar que espera a que el dataset esté generado (readiness en el perfil loadtest, health en otro caso)
+    private long awaitReady(Process process) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (process != null && !process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue());
+            }
+            for (String path : List.of("/actuator/health/readiness", "/actuator/health")) {
+                try {
+                    if (this.send(this.get(path)).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException ignored) {
+                    // el servidor todavía no acepta conexiones
+                }
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Server at " + baseUrl + " not ready within " + STARTUP_TIMEOUT);
+    }
+
+    private void login(String email, String password) throws IOException, InterruptedException {
+        String credentials = "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+        HttpResponse<String> response = this.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/token"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                .build());
+        Matcher token = ACCESS_TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !token.find()) {
+            throw new IllegalStateException("Login as " + email + " failed with status " + response.statusCode());
+        }
+        this.authorization = "Bearer " + token.group(1);
+    }
+
+    private void run(String scenario, int concurrency, Duration warmup, Duration duration) throws Exception {
+        Step step = switch (scenario) {
+            case "registration" -> this::registration;
+            case "catalog" -> this::catalog;
+            case "roster" -> this::roster;
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        };
+        if (!warmup.isZero()) {
+            this.drive(step, concurrency, warmup, new Recorder());
+        }
+        Recorder recorder = new Recorder();
+        long elapsedNanos = this.drive(step, concurrency, duration, recorder);
+        recorder.report(scenario, elapsedNanos);
+    }
+
+    // Metodo auxiliar que ejecuta el paso con todos los usuarios virtuales a la vez durante el tiempo indicado
+    private long drive(Step step, int concurrency, Duration duration, Recorder recorder) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        long[] window = new long[2];
+        for (int user = 0; user < concurrency; user++) {
+            long seed = user * 7919L + System.nanoTime();
+            executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                startSignal.await();
+                long end = window[0] + duration.toNanos();
+                while (System.nanoTime() < end) {
+                    try {
+                        step.run(random, recorder);
+                    } catch (IOException ex) {
+                        recorder.failure(ex);
+                    }
+                }
+                return null;
+            });
+        }
+        window[0] = System.nanoTime();
+        startSignal.countDown();
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        return System.nanoTime() - window[0];
+    }
+
+    private void registration(SplittableRandom random, Recorder recorder) throws IOException, InterruptedException {
+        long n = registrations.incrementAndGet();
+        String user = "{\"firstname\":\"Spike\",\"lastName\":\"User " + n + "\",\"email\":\"spike-" + runId + "-" + n
+                + "@loadtest.educatech\",\"password\":\"loadtest-password\"}";
+        HttpResponse<String> created = recorder.send(this, "POST /api/users", this.post("/api/users", user));
+        Matcher id = ID.matcher(created.body());
+        if (created.statusCode() == 201 && id.find()) {
+            String enrollment = "{\"userId\":" + id.group(1) + ",\"courseId\":" + this.popularCourse(random) + "}";
+            recorder.send(this, "POST /api/enrollments", this.post("/api/enrollments", enrollment));
+        }
+    }
+
+    private void catalog(SplittableRandom random, Recorder recorder) throws IOException, InterruptedException {
+        int pages = Math.max(1, courses / 20);
+        recorder.send(this, "GET /api/courses?page", this.get("/api/courses?size=20&page=" + random.nextInt(pages)));
+        long courseId = this.popularCourse(random);
+        recorder.send(this, "GET /api/courses/{id}", this.get("/api/courses/" + courseId));
+        recorder.send(this, "GET /api/lessons/course/{id}", this.get("/api/lessons/course/" + courseId));
+        if (random.nextInt(4) == 0) {
+            recorder.send(this, "GET /api/courses/{id}/recommendations", this.get("/api/courses/" + courseId + "/recommendations"));
+        }
+        if (random.nextInt(4) == 0 && students > 0) {
+            recorder.send(this, "GET /api/users/{id}", this.get("/api/users/" + (firstStudentId + random.nextInt(students))));
+        }
+    }
+
+    private void roster(SplittableRandom random, Recorder recorder) throws IOException, InterruptedException {
+        recorder.send(this, "GET /api/enrollments/course/{id}", this.get("/api/enrollments/course/" + this.popularCourse(random)));
+    }
+
+    // Mismo sesgo que el generador: los IDs bajos son los cursos con más inscritos
+    private long popularCourse(SplittableRandom random) {
+        return 1 + (long) (courses * Math.pow(random.nextDouble(), enrollmentSkew));
+    }
+
+    private HttpRequest get(String path) {
+        return this.request(path)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return this.request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        return authorization == null ? builder : builder.header("Authorization", authorization);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(SplittableRandom random, Recorder recorder) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Latencias y códigos de estado por tipo de petición. Guarda todas las latencias para calcular
+     * percentiles exactos; con las duraciones de una prueba local son pocos megas.
+     */
+    private static final class Recorder {
+        private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        HttpResponse<String> send(LoadTestHarness harness, String label, HttpRequest request) throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            HttpResponse<String> response = harness.send(request);
+            samples.computeIfAbsent(label, key -> new Samples()).add(System.nanoTime() - start, response.statusCode());
+            return response;
+        }
+
+        void failure(IOException ex) {
+            failures.computeIfAbsent(ex.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        }
+
+        void report(String scenario, long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            long total = samples.values().stream().mapToLong(Samples::count).sum();
+            System.out.printf("%n== %s: %d requests in %.1f s, %.1f req/s%n", scenario, total, seconds, total / seconds);
+            System.out.printf("%-40s %8s %9s %9s %9s %9s %9s  %s%n", "request", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "status");
+            for (Map.Entry<String, Samples> entry : new TreeMap<>(samples).entrySet()) {
+                Samples requestSamples = entry.getValue();
+                long[] sorted = requestSamples.sorted();
+                System.out.printf("%-40s %8d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n", entry.getKey(), sorted.length, sorted.length / seconds,
+                        percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                        sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6, requestSamples.statuses());
+            }
+            if (!failures.isEmpty()) {
+                System.out.println("I/O failures: " + new TreeMap<>(failures));
+            }
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int count;
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        synchronized void add(long latencyNanos, int status) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(nanos, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        Map<Integer, Long> statuses() {
+            Map<Integer, Long> copy = new TreeMap<>();
+            statuses.forEach((status, counter) -> copy.put(status, counter.sum()));
+            return copy;
+        }
+    }
+}
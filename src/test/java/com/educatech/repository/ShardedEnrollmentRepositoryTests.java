@@ -0,0 +1,223 @@
+package com.educatech.repository;
+
+import com.educatech.entity.Course;
+import com.educatech.entity.Enrollment;
+import com.educatech.entity.User;
+import com.educatech.util.EnrollmentShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integración del sharding de inscripciones con el perfil {@code sharded}: base principal y tres shards H2 en
+ * memoria. Las comprobaciones leen cada shard directamente para ver dónde queda cada fila.
+ */
+@SpringBootTest
+@ActiveProfiles({"embedded", "sharded"})
+class ShardedEnrollmentRepositoryTests {
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Autowired
+    private IEnrollmentStore enrollmentStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${educatech.enrollment-sharding.urls}")
+    private List<String> urls;
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private EnrollmentShardRouter router;
+
+    @BeforeEach
+    void clearShards() {
+        for (String url : urls) {
+            JdbcTemplate shard = new JdbcTemplate(new DriverManagerDataSource(url.trim(), "sa", ""));
+            shard.update("delete from enrollments");
+            shards.add(shard);
+        }
+        router = new EnrollmentShardRouter(shards.size());
+    }
+
+    @Test
+    void shardingProfileUsesTheShardedStore() {
+        assertThat(enrollmentStore).isInstanceOf(ShardedEnrollmentRepository.class);
+        assertThat(shards).hasSize(3);
+    }
+
+    @Test
+    void enrollmentIsStoredOnTheShardOfItsCourse() {
+        long course = this.courseOnShard(1, 0);
+
+        Enrollment saved = enrollmentStore.save(enrollment(10, course));
+
+        assertThat(saved.getId()).isNotNull();
+        assertThat(saved.getVersion()).isZero();
+        assertThat(this.countOnShards()).containsExactly(0L, 1L, 0L);
+        assertThat(enrollmentStore.getEnrollmentsByCourse(course(course)))
+                .extracting(Enrollment::getId).containsExactly(saved.getId());
+        assertThat(enrollmentStore.existsByStudentAndCourse(10L, course)).isTrue();
+        assertThat(enrollmentStore.existsByStudentAndCourse(11L, course)).isFalse();
+    }
+
+    @Test
+    void studentEnrollmentsAreGatheredFromAllShardsInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int shard = 2; shard >= 0; shard--) {
+            ids.add(enrollmentStore.save(enrollment(20, this.courseOnShard(shard, 0))).getId());
+        }
+        enrollmentStore.save(enrollment(21, this.courseOnShard(0, 0)));
+
+        List<Enrollment> found = enrollmentStore.getEnrollmentsByStudent(student(20));
+
+        assertThat(this.countOnShards()).containsExactly(2L, 1L, 1L);
+        assertThat(found).extracting(Enrollment::getId).containsExactlyElementsOf(ids);
+        assertThat(found).extracting(enrollment -> enrollment.getStudent().getId()).containsOnly(20L);
+    }
+
+    @Test
+    void findAllMergesTheShardsIntoPagesOrderedById() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(enrollmentStore.save(enrollment(30 + i, this.courseOnShard(i % 3, i / 3))).getId());
+        }
+
+        Page<Enrollment> first = enrollmentStore.findAll(PageRequest.of(0, 2, Sort.by("id")));
+        Page<Enrollment> second = enrollmentStore.findAll(PageRequest.of(1, 2, Sort.by("id")));
+        Page<Enrollment> last = enrollmentStore.findAll(PageRequest.of(2, 2, Sort.by("id")));
+        Page<Enrollment> descending = enrollmentStore.findAll(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getContent()).extracting(Enrollment::getId).containsExactly(ids.get(0), ids.get(1));
+        assertThat(second.getContent()).extracting(Enrollment::getId).containsExactly(ids.get(2), ids.get(3));
+        assertThat(last.getContent()).extracting(Enrollment::getId).containsExactly(ids.get(4));
+        assertThat(descending.getContent()).extracting(Enrollment::getId).containsExactly(ids.get(4), ids.get(3), ids.get(2));
+        assertThatThrownBy(() -> enrollmentStore.findAll(PageRequest.of(0, 2, Sort.by("enrollmentDate"))))
+                .isInstanceOf(InvalidDataAccessApiUsageException.class)
+                .hasMessageContaining("only be sorted by id");
+    }
+
+    @Test
+    void changingTheCourseMovesTheEnrollmentToTheNewShard() {
+        Enrollment enrollment = enrollmentStore.save(enrollment(40, this.courseOnShard(0, 0)));
+        long newCourse = this.courseOnShard(2, 0);
+
+        enrollment.setCourse(course(newCourse));
+        enrollmentStore.save(enrollment);
+
+        assertThat(enrollment.getVersion()).isEqualTo(1);
+        assertThat(this.countOnShards()).containsExactly(0L, 0L, 1L);
+        Enrollment moved = enrollmentStore.findById(enrollment.getId()).orElseThrow();
+        assertThat(moved.getCourse().getId()).isEqualTo(newCourse);
+        assertThat(moved.getVersion()).isEqualTo(1);
+        assertThat(moved.getEnrollmentDate()).isEqualTo(DATE);
+    }
+
+    @Test
+    void staleMoveIsRejectedAndLeavesTheSourceRow() {
+        Enrollment enrollment = enrollmentStore.save(enrollment(41, this.courseOnShard(0, 0)));
+        enrollment.setVersion(5L);
+        enrollment.setCourse(course(this.courseOnShard(1, 0)));
+
+        assertThatThrownBy(() -> enrollmentStore.save(enrollment)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(this.countOnShards()).containsExactly(1L, 0L, 0L);
+    }
+
+    @Test
+    void moveThatClashesOnTheTargetShardLeavesTheSourceRow() {
+        long newCourse = this.courseOnShard(1, 0);
+        Enrollment enrollment = enrollmentStore.save(enrollment(42, this.courseOnShard(0, 0)));
+        enrollmentStore.save(enrollment(42, newCourse));
+
+        enrollment.setCourse(course(newCourse));
+
+        assertThatThrownBy(() -> enrollmentStore.save(enrollment)).isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(this.countOnShards()).containsExactly(1L, 1L, 0L);
+        assertThat(enrollmentStore.findById(enrollment.getId()).orElseThrow().getVersion()).isZero();
+    }
+
+    @Test
+    void writesWaitForTheCommitOfThePrimaryTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long course = this.courseOnShard(0, 0);
+
+        transaction.executeWithoutResult(status -> {
+            enrollmentStore.save(enrollment(50, course));
+            assertThat(this.countOnShards()).containsExactly(0L, 0L, 0L);
+        });
+        assertThat(this.countOnShards()).containsExactly(1L, 0L, 0L);
+
+        transaction.executeWithoutResult(status -> {
+            enrollmentStore.save(enrollment(51, course));
+            status.setRollbackOnly();
+        });
+        assertThat(this.countOnShards()).containsExactly(1L, 0L, 0L);
+    }
+
+    @Test
+    void failedShardWriteAbortsTheCommitButEarlierShardsKeepTheirRows() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long clashingCourse = this.courseOnShard(2, 0);
+        enrollmentStore.save(enrollment(60, clashingCourse));
+
+        // los shards se escriben en orden: el 0 confirma antes de que falle el 2
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status ->
+                enrollmentStore.saveAll(List.of(enrollment(61, this.courseOnShard(0, 0)), enrollment(60, clashingCourse)))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(this.countOnShards()).containsExactly(1L, 0L, 1L);
+    }
+
+    // Metodo auxiliar que busca el curso número skip (empezando en 0) que cae en un shard
+    private long courseOnShard(int shard, int skip) {
+        int found = 0;
+        for (long courseId = 1; ; courseId++) {
+            if (router.shardFor(courseId) == shard && found++ == skip) {
+                return courseId;
+            }
+        }
+    }
+
+    private List<Long> countOnShards() {
+        return shards.stream().map(shard -> shard.queryForObject("select count(*) from enrollments", Long.class)).toList();
+    }
+
+    private static Enrollment enrollment(long studentId, long courseId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student(studentId));
+        enrollment.setCourse(course(courseId));
+        enrollment.setEnrollmentDate(DATE);
+        return enrollment;
+    }
+
+    private static User student(long id) {
+        User student = new User();
+        student.setId(id);
+        return student;
+    }
+
+    private static Course course(long id) {
+        Course course = new Course();
+        course.setId(id);
+        return course;
+    }
+}
@@ -0,0 +1,135 @@
+package com.educatech.security;
+
+import com.educatech.config.SecurityConfig;
+import com.educatech.enums.Role;
+import com.educatech.util.AccessTokenCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.Filter;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Coste por petición de la cadena de filtros de seguridad real ({@link SecurityConfig}) con un token
+ * de acceso: con la verificación en caché, sin caché (firma y JSON en cada petición) y, como
+ * referencia, sin token en un endpoint público y con la comprobación BCrypt que hacía Basic auth.
+ * No necesita base de datos ni servidor.
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.educatech.security.AccessTokenFilterBenchmark [iterations]
+ * </pre>
+ */
+public class AccessTokenFilterBenchmark {
+    private static final MockServletContext SERVLET_CONTEXT = new MockServletContext();
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        try (AnnotationConfigWebApplicationContext cached = context(100_000);
+             AnnotationConfigWebApplicationContext uncached = context(1)) {
+            AccessTokenCodec codec = cached.getBean(AccessTokenCodec.class);
+            String token = codec.issue(42, Role.STUDENT, Instant.now());
+            // dos tokens alternos con una caché de una entrada: todas las peticiones verifican la firma
+            AccessTokenCodec uncachedCodec = uncached.getBean(AccessTokenCodec.class);
+            String[] alternating = {uncachedCodec.issue(42, Role.STUDENT, Instant.now()), uncachedCodec.issue(43, Role.STUDENT, Instant.now())};
+
+            Filter cachedChain = cached.getBean("springSecurityFilterChain", Filter.class);
+            Filter uncachedChain = uncached.getBean("springSecurityFilterChain", Filter.class);
+
+            System.out.printf("%-36s %12s%n", "case", "us/request");
+            // sin filtros: lo que cuesta crear la petición y la respuesta simuladas
+            Filter noSecurity = (request, response, next) -> next.doFilter(request, response);
+            report("baseline, no security filters", iterations, i -> run(noSecurity, "GET", "/api/courses", token, 200));
+            report("anonymous, public endpoint", iterations, i -> run(cachedChain, "POST", "/api/users", null, 200));
+            report("bearer token, cached", iterations, i -> run(cachedChain, "GET", "/api/courses", token, 200));
+            report("bearer token, verified every time", iterations, i -> run(uncachedChain, "GET", "/api/courses", alternating[i & 1], 200));
+            report("bearer token, forbidden (role)", iterations, i -> run(cachedChain, "GET", "/api/bulk-imports", token, 403));
+
+            BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+            String hash = bcrypt.encode("educatech");
+            report("basic auth bcrypt check (reference)", Math.max(1, iterations / 10_000), i -> bcrypt.matches("educatech", hash));
+        }
+    }
+
+    private static AnnotationConfigWebApplicationContext context(int tokenCacheEntries) {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(SERVLET_CONTEXT);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "educatech.auth.secrets", "benchmark:YmVuY2htYXJrLXNlY3JldC1iZW5jaG1hcmstc2VjcmV0LTMyYg==",
+                "educatech.auth.token-cache.max-entries", String.valueOf(tokenCacheEntries))));
+        context.register(BenchmarkSecurity.class, SecurityConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    private static boolean run(Filter chain, String method, String path, String token, int expectedStatus) {
+        // siempre el mismo ServletContext, como en un servidor real: Spring Security guarda datos por contexto
+        MockHttpServletRequest request = new MockHttpServletRequest(SERVLET_CONTEXT, method, path);
+        request.setServletPath(path);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            chain.doFilter(request, response, new MockFilterChain());
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (response.getStatus() != expectedStatus) {
+            throw new IllegalStateException(method + " " + path + " returned " + response.getStatus() + ", expected " + expectedStatus);
+        }
+        return true;
+    }
+
+    private static void report(String label, int iterations, Case benchmarkCase) {
+        // calentamiento para que el JIT compile la cadena
+        for (int i = 0; i < iterations; i++) {
+            benchmarkCase.run(i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (!benchmarkCase.run(i)) {
+                throw new IllegalStateException();
+            }
+        }
+        System.out.printf("%-36s %12.2f%n", label, (System.nanoTime() - start) / 1000.0 / iterations);
+    }
+
+    @FunctionalInterface
+    private interface Case {
+        boolean run(int iteration);
+    }
+
+    // MVC hace falta para los requestMatchers por ruta, como en la aplicación
+    @Configuration
+    @EnableWebMvc
+    @EnableWebSecurity
+    static class BenchmarkSecurity {
+        // como en Spring Boot: convierte las propiedades Duration (PT15M, P1D...)
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.educatech.serialization;
+
+import com.educatech.config.BinaryFormatsConfig;
+import com.educatech.dto.response.CourseResponseDTO;
+import com.educatech.dto.response.EnrollmentResponseDTO;
+import com.educatech.dto.response.LessonResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compara JSON, CBOR y Smile con respuestas típicas (página de cursos, lecciones de un curso y
+ * listado de inscripciones): tamaño del payload, tamaño tras gzip y coste medio de serialización.
+ * Usa los mismos mappers que {@link BinaryFormatsConfig}; no necesita base de datos.
+ *
+ * <pre>
+ * mvn test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *     com.educatech.serialization.ResponseFormatBenchmark [iterations]
+ * </pre>
+ */
+public class ResponseFormatBenchmark {
+    private static final SplittableRandom RANDOM = new SplittableRandom(42);
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+        mappers.put("json", builder().build());
+        mappers.put("cbor", BinaryFormatsConfig.cborMapper(builder()));
+        mappers.put("smile", BinaryFormatsConfig.smileMapper(builder()));
+
+        Map<String, Object> payloads = new LinkedHashMap<>();
+        payloads.put("courses x20", courses(20));
+        payloads.put("lessons x50", lessons(50));
+        payloads.put("enrollments x1000", enrollments(1000));
+
+        System.out.printf("%-18s %-6s %10s %10s %12s%n", "payload", "format", "bytes", "gzip", "us/request");
+        for (Map.Entry<String, Object> payload : payloads.entrySet()) {
+            for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+                byte[] bytes = mapper.getValue().writeValueAsBytes(payload.getValue());
+                double micros = measure(mapper.getValue(), payload.getValue(), iterations);
+                System.out.printf("%-18s %-6s %10d %10d %12.1f%n",
+                        payload.getKey(), mapper.getKey(), bytes.length, gzip(bytes).length, micros);
+            }
+        }
+    }
+
+    // como el builder de Spring Boot: fechas ISO-8601 en texto
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static double measure(ObjectMapper mapper, Object value, int iterations) throws IOException {
+        // calentamiento para que el JIT compile los serializadores
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.writeValueAsBytes(value).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 0) {
+            throw new IllegalStateException();
+        }
+        return elapsed / 1000.0 / iterations;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<CourseResponseDTO> courses(int count) {
+        List<CourseResponseDTO> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(new CourseResponseDTO(1000L + i, "Course " + i + " " + words(4), words(120), 50L + i % 5, 0L));
+        }
+        return courses;
+    }
+
+    private static List<LessonResponseDTO> lessons(int count) {
+        List<LessonResponseDTO> lessons = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lessons.add(new LessonResponseDTO((long) i, "Lesson " + i + " " + words(3), words(250), 1000L, 0L));
+        }
+        return lessons;
+    }
+
+    private static List<EnrollmentResponseDTO> enrollments(int count) {
+        List<EnrollmentResponseDTO> enrollments = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2025, 9, 1, 8, 0);
+        for (int i = 0; i < count; i++) {
+            enrollments.add(new EnrollmentResponseDTO(100_000L + i, 20_000L + RANDOM.nextInt(50_000),
+                    1000L + RANDOM.nextInt(200), start.plusSeconds(RANDOM.nextInt(30_000_000)), 0L));
+        }
+        return enrollments;
+    }
+
+    private static String words(int count) {
+        String[] vocabulary = {"java", "spring", "data", "course", "module", "lesson", "student", "practice",
+                "exercise", "project", "database", "query", "index", "design", "testing", "cloud"};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(vocabulary[RANDOM.nextInt(vocabulary.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.educatech.startup;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mide el tiempo hasta la primera petición correcta de la aplicación empaquetada.
+ * Arranca el jar en un proceso aparte con el perfil embedded (H2, sin PostgreSQL), hace polling
+ * de un endpoint público (sin token) hasta recibir un 200 y compara el arranque normal con AOT + AppCDS.
+ *
+ * <pre>
+ * mvn -Pfast-startup package
+ * java -cp target/test-classes com.educatech.startup.StartupTimeHarness target/extracted/educatech-0.0.1-SNAPSHOT.jar [runs] [path]
+ * </pre>
+ */
+public class StartupTimeHarness {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: StartupTimeHarness <jar> [runs] [path]");
+            System.exit(2);
+        }
+        Path jar = Path.of(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String path = args.length > 2 ? args[2] : "/actuator/health";
+        Path archive = jar.resolveSibling("application.jsa");
+
+        report("plain", measure(jar, List.of(), runs, path));
+        if (Files.exists(archive)) {
+            report("aot+cds", measure(jar, List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true"), runs, path));
+        } else {
+            System.out.println("No CDS archive at " + archive + ", run 'mvn -Pfast-startup package' first");
+        }
+    }
+
+    private static long[] measure(Path jar, List<String> jvmArgs, int runs, String path) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstSuccessfulRequest(jar, jvmArgs, path);
+        }
+        return millis;
+    }
+
+    private static long timeToFirstSuccessfulRequest(Path jar, List<String> jvmArgs, String path) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", jar.toString(), "--spring.profiles.active=embedded", "--server.port=" + port));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException ignored) {
+                    // el servidor todavía no acepta conexiones
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful response from " + path + " within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void report(String mode, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-8s runs=%d min=%dms median=%dms max=%dms%n",
+                mode, sorted.length, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1]);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
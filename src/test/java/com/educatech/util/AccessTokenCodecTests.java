@@ -0,0 +1,163 @@
+package com.educatech.util;
+
+import com.educatech.enums.Role;
+import com.educatech.exception.InvalidTokenException;
+import com.educatech.util.AccessTokenCodec.AccessToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccessTokenCodecTests {
+    private static final Duration SCOPE = Duration.ofHours(1);
+    private static final Duration TTL = Duration.ofMinutes(15);
+    private static final Duration LEEWAY = Duration.ofSeconds(30);
+    private static final Instant NOW = Instant.parse("2024-03-01T10:20:00Z");
+
+    private final AccessTokenCodec.Secret current = secret("current", 1);
+    private final AccessTokenCodec.Secret previous = secret("previous", 2);
+    private final AccessTokenCodec codec = new AccessTokenCodec(List.of(current, previous), SCOPE, TTL, LEEWAY);
+
+    @Test
+    void issuedTokenVerifies() {
+        String token = codec.issue(42, Role.TEACHER, NOW);
+
+        AccessToken verified = codec.verify(token, NOW.plusSeconds(60));
+
+        assertThat(verified.userId()).isEqualTo(42);
+        assertThat(verified.role()).isEqualTo(Role.TEACHER);
+        assertThat(verified.expiresAt()).isEqualTo(NOW.plus(TTL));
+        assertThat(header(token)).contains("\"kid\":\"current.");
+    }
+
+    @Test
+    void expiredTokenIsRejectedAfterLeeway() {
+        String token = codec.issue(42, Role.STUDENT, NOW);
+
+        assertThat(codec.verify(token, NOW.plus(TTL).plus(LEEWAY).minusSeconds(1)).userId()).isEqualTo(42);
+        assertThatThrownBy(() -> codec.verify(token, NOW.plus(TTL).plus(LEEWAY)))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void tokenSignedWithPreviousSecretStillVerifies() {
+        AccessTokenCodec before = new AccessTokenCodec(List.of(previous), SCOPE, TTL, LEEWAY);
+        String token = before.issue(7, Role.STUDENT, NOW);
+
+        assertThat(codec.verify(token, NOW).userId()).isEqualTo(7);
+    }
+
+    @Test
+    void tokenSignedWithRetiredSecretIsRejected() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+        AccessTokenCodec after = new AccessTokenCodec(List.of(secret("next", 3), previous), SCOPE, TTL, LEEWAY);
+
+        assertThatThrownBy(() -> after.verify(token, NOW))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("retired");
+    }
+
+    @Test
+    void sameSecretIdWithAnotherValueDoesNotVerify() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+        AccessTokenCodec other = new AccessTokenCodec(List.of(secret("current", 9)), SCOPE, TTL, LEEWAY);
+
+        assertThatThrownBy(() -> other.verify(token, NOW))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void keyOfAnOldPeriodIsRetiredOnceItsTokensHaveExpired() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+        Instant periodEnd = Instant.ofEpochSecond((NOW.getEpochSecond() / SCOPE.toSeconds() + 1) * SCOPE.toSeconds());
+
+        assertThatThrownBy(() -> codec.verify(token, periodEnd.plus(TTL).plus(LEEWAY)))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("retired");
+    }
+
+    @Test
+    void keyOfAFuturePeriodIsRejected() {
+        String token = codec.issue(7, Role.STUDENT, NOW.plus(SCOPE));
+
+        assertThatThrownBy(() -> codec.verify(token, NOW))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("retired");
+    }
+
+    @Test
+    void tamperedClaimsAreRejected() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+        String[] parts = token.split("\\.");
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("STUDENT", "ADMIN");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(claims.getBytes(StandardCharsets.UTF_8))
+                + "." + parts[2];
+
+        assertThatThrownBy(() -> codec.verify(tampered, NOW))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void tamperedSignatureIsRejected() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+        // el primer carácter de la firma codifica 6 bits completos (el último puede ser solo relleno)
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signatureStart);
+        String tampered = token.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A') + token.substring(signatureStart + 1);
+
+        assertThatThrownBy(() -> codec.verify(tampered, NOW)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void unsignedAlgorithmIsRejected() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+        String header = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(header(token).replace("HS256", "none").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> codec.verify(header + token.substring(token.indexOf('.')), NOW))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("algorithm");
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String token = codec.issue(7, Role.STUDENT, NOW);
+
+        for (String malformed : List.of("", "abc", "a.b", token + ".extra", "!!!.???.***", "x".repeat(5000))) {
+            assertThatThrownBy(() -> codec.verify(malformed, NOW)).isInstanceOf(InvalidTokenException.class);
+        }
+    }
+
+    @Test
+    void invalidSecretsAreRejected() {
+        assertThatThrownBy(() -> new AccessTokenCodec(List.of(), SCOPE, TTL, LEEWAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AccessTokenCodec(List.of(new AccessTokenCodec.Secret("short", new byte[16])), SCOPE, TTL, LEEWAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AccessTokenCodec(List.of(secret("bad.id", 1)), SCOPE, TTL, LEEWAY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AccessTokenCodec(List.of(current, secret("current", 2)), SCOPE, TTL, LEEWAY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AccessTokenCodec.Secret secret(String id, int seed) {
+        byte[] value = new byte[32];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) (seed * 31 + i);
+        }
+        return new AccessTokenCodec.Secret(id, value);
+    }
+
+    private static String header(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+}
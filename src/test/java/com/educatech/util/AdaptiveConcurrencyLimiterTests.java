@@ -0,0 +1,111 @@
+package com.educatech.util;
+
+import com.educatech.enums.RequestPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTests {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(80);
+
+    @Test
+    void limitGrowsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 200);
+
+        this.sample(limiter, FAST, 100, true);
+
+        assertThat(limiter.getLimit()).isGreaterThan(40);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limitDoesNotGrowWhenMostSlotsAreIdle() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 200);
+
+        this.sample(limiter, FAST, 100, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRisesAndRecoversWhenItFalls() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20, 4, 200);
+        this.sample(limiter, FAST, 100, true);
+        int healthy = limiter.getLimit();
+
+        this.sample(limiter, SLOW, 30, true);
+        int degraded = limiter.getLimit();
+
+        assertThat(degraded).isLessThan(healthy / 2).isGreaterThanOrEqualTo(4);
+
+        this.sample(limiter, FAST, 100, true);
+
+        assertThat(limiter.getLimit()).isGreaterThan(degraded * 2);
+    }
+
+    @Test
+    void limitStaysWithinItsBounds() {
+        // sin suavizado el límite se reduce a la mitad en cada muestra lenta
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 10, 30, 1.5, 1.0, 0.7, 0.9);
+
+        this.sample(limiter, FAST, 50, true);
+        assertThat(limiter.getLimit()).isEqualTo(30);
+
+        this.sample(limiter, SLOW, 10, true);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void writesAreShedBeforeListReadsAndListReadsBeforePointReads() {
+        // límite 10: las escrituras caben hasta 5 en curso y los listados hasta 8
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, 1.5, 0.2, 0.5, 0.8);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(RequestPriority.WRITE)).isEqualTo(i + 1);
+        }
+        assertThat(limiter.tryAcquire(RequestPriority.WRITE)).isEqualTo(-1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(RequestPriority.LIST_READ)).isPositive();
+        }
+        assertThat(limiter.tryAcquire(RequestPriority.LIST_READ)).isEqualTo(-1);
+        assertThat(limiter.tryAcquire(RequestPriority.WRITE)).isEqualTo(-1);
+
+        assertThat(limiter.tryAcquire(RequestPriority.POINT_READ)).isEqualTo(9);
+        assertThat(limiter.tryAcquire(RequestPriority.POINT_READ)).isEqualTo(10);
+        assertThat(limiter.tryAcquire(RequestPriority.POINT_READ)).isEqualTo(-1);
+
+        limiter.release();
+        limiter.release();
+        limiter.release();
+        assertThat(limiter.getInFlight()).isEqualTo(7);
+        assertThat(limiter.tryAcquire(RequestPriority.WRITE)).isEqualTo(-1);
+        assertThat(limiter.tryAcquire(RequestPriority.LIST_READ)).isEqualTo(8);
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(2, 4, 200, 1.5, 0.2, 0.7, 0.9))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(20, 4, 200, 0.5, 0.2, 0.7, 0.9))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter(20, 4, 200, 1.5, 0.2, 0.95, 0.9))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimiter(initial, min, max, 1.5, 0.2, 0.7, 0.9);
+    }
+
+    // Metodo auxiliar que completa lecturas puntuales con la latencia dada, con el límite lleno o casi vacío
+    private void sample(AdaptiveConcurrencyLimiter limiter, long rttNanos, int samples, boolean saturated) {
+        for (int i = 0; i < samples; i++) {
+            assertThat(limiter.tryAcquire(RequestPriority.POINT_READ)).isPositive();
+            limiter.release(rttNanos, saturated ? limiter.getLimit() : 1);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.educatech.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTests {
+    private static final int INSERTIONS = 100_000;
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put(email(i));
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertThat(filter.mightContain(email(i))).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        for (double target : new double[]{0.01, 0.001}) {
+            BloomFilter filter = new BloomFilter(INSERTIONS, target);
+            for (int i = 0; i < INSERTIONS; i++) {
+                filter.put(email(i));
+            }
+
+            // correos parecidos a los añadidos, que es el caso real del alta de usuarios
+            double rate = falsePositiveRate(filter, INSERTIONS, 200_000);
+            assertThat(rate).isLessThan(target * 1.5);
+        }
+    }
+
+    @Test
+    void falsePositiveRateGrowsWhenOverfilled() {
+        BloomFilter filter = new BloomFilter(INSERTIONS / 10, 0.01);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put(email(i));
+        }
+
+        assertThat(falsePositiveRate(filter, INSERTIONS, 20_000)).isGreaterThan(0.1);
+    }
+
+    @Test
+    void sizeFollowsTheStandardFormulas() {
+        BloomFilter filter = new BloomFilter(INSERTIONS, 0.01);
+
+        // m = -n ln p / (ln 2)^2 ≈ 9.59 bits por elemento y k ≈ 7
+        assertThat(filter.getBitSize()).isBetween(958_505L, 958_505L + 64);
+        assertThat(filter.getHashFunctions()).isEqualTo(7);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain(email(1))).isFalse();
+    }
+
+    @Test
+    void invalidFalsePositiveRateIsRejected() {
+        assertThatThrownBy(() -> new BloomFilter(10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(10, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double falsePositiveRate(BloomFilter filter, int from, int probes) {
+        int positives = 0;
+        for (int i = from; i < from + probes; i++) {
+            if (filter.mightContain(email(i))) {
+                positives++;
+            }
+        }
+        return (double) positives / probes;
+    }
+
+    private static String email(int i) {
+        return "student" + i + "@educatech.com";
+    }
+}
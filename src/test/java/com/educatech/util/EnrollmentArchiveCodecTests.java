@@ -0,0 +1,90 @@
+package com.educatech.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EnrollmentArchiveCodecTests {
+
+    @Test
+    void emptyArchiveHasNoRows() {
+        EnrollmentArchiveCodec.Writer writer = EnrollmentArchiveCodec.writer();
+        byte[] data = writer.finish();
+
+        assertThat(writer.rowCount()).isZero();
+        assertThat(decode(data)).isEmpty();
+    }
+
+    @Test
+    void rowsRoundTripInOrder() {
+        List<EnrollmentArchiveCodec.Row> rows = List.of(
+                new EnrollmentArchiveCodec.Row(1, 0, 10, 100, LocalDateTime.of(2024, 1, 1, 0, 0)),
+                new EnrollmentArchiveCodec.Row(2, 3, 11, 100, LocalDateTime.of(2024, 1, 15, 12, 30, 45, 123_456_789)),
+                new EnrollmentArchiveCodec.Row(1_000_000, 1, Long.MAX_VALUE, 7, LocalDateTime.of(2024, 1, 31, 23, 59, 59)),
+                new EnrollmentArchiveCodec.Row(Long.MAX_VALUE, Long.MAX_VALUE, 1, Long.MAX_VALUE, LocalDateTime.of(1969, 12, 31, 23, 59, 59)));
+        EnrollmentArchiveCodec.Writer writer = EnrollmentArchiveCodec.writer();
+        rows.forEach(writer::write);
+
+        assertThat(writer.rowCount()).isEqualTo(rows.size());
+        assertThat(decode(writer.finish())).containsExactlyElementsOf(rows);
+    }
+
+    @Test
+    void rowsMustBeWrittenInAscendingIdOrder() {
+        EnrollmentArchiveCodec.Writer writer = EnrollmentArchiveCodec.writer();
+        writer.write(new EnrollmentArchiveCodec.Row(5, 0, 1, 1, LocalDateTime.of(2024, 1, 1, 0, 0)));
+
+        assertThatThrownBy(() -> writer.write(new EnrollmentArchiveCodec.Row(5, 0, 2, 1, LocalDateTime.of(2024, 1, 1, 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> writer.write(new EnrollmentArchiveCodec.Row(4, 0, 2, 1, LocalDateTime.of(2024, 1, 1, 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dataThatIsNotAnArchiveIsRejected() {
+        assertThatThrownBy(() -> decode(new byte[0])).isInstanceOf(UncheckedIOException.class);
+        assertThatThrownBy(() -> decode("not gzip".getBytes(StandardCharsets.US_ASCII))).isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    void unknownFormatVersionIsRejected() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(2);
+        }
+
+        assertThatThrownBy(() -> decode(bytes.toByteArray()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("format");
+    }
+
+    @Test
+    void truncatedArchiveIsRejectedInsteadOfReturningPartialRows() {
+        EnrollmentArchiveCodec.Writer writer = EnrollmentArchiveCodec.writer();
+        for (long id = 1; id <= 1000; id++) {
+            writer.write(new EnrollmentArchiveCodec.Row(id, 0, id * 31, id % 17, LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(id * 97)));
+        }
+        byte[] data = writer.finish();
+
+        for (int length = 11; length < data.length; length += 7) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThatThrownBy(() -> decode(truncated)).isInstanceOf(UncheckedIOException.class);
+        }
+    }
+
+    private static List<EnrollmentArchiveCodec.Row> decode(byte[] data) {
+        List<EnrollmentArchiveCodec.Row> rows = new ArrayList<>();
+        EnrollmentArchiveCodec.decode(data, rows::add);
+        return rows;
+    }
+}
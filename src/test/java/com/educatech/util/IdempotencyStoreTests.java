@@ -0,0 +1,129 @@
+package com.educatech.util;
+
+import com.educatech.exception.IdempotencyConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyStoreTests {
+    private static final String PAYLOAD = IdempotencyStore.fingerprint(7L, 42L);
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sameKeyAndPayloadReplaysTheFirstResponse() {
+        IdempotencyStore<String> store = this.store(Duration.ofSeconds(5));
+
+        IdempotencyStore.Result<String> first = store.execute("key", PAYLOAD, () -> "created-" + executions.incrementAndGet());
+        IdempotencyStore.Result<String> second = store.execute("key", PAYLOAD, () -> "created-" + executions.incrementAndGet());
+
+        assertThat(first).isEqualTo(new IdempotencyStore.Result<>("created-1", false));
+        assertThat(second).isEqualTo(new IdempotencyStore.Result<>("created-1", true));
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void sameKeyWithAnotherPayloadIsAConflict() {
+        IdempotencyStore<String> store = this.store(Duration.ofSeconds(5));
+        store.execute("key", PAYLOAD, () -> "created-" + executions.incrementAndGet());
+
+        assertThatThrownBy(() -> store.execute("key", IdempotencyStore.fingerprint(7L, 43L), () -> "created-" + executions.incrementAndGet()))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("different request payload");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void fingerprintSeparatesFieldsAndNulls() {
+        assertThat(IdempotencyStore.fingerprint("ab", "c")).isNotEqualTo(IdempotencyStore.fingerprint("a", "bc"));
+        assertThat(IdempotencyStore.fingerprint(null, "x")).isNotEqualTo(IdempotencyStore.fingerprint("null", "x"));
+        assertThat(IdempotencyStore.fingerprint(7L, 42L)).isEqualTo(PAYLOAD);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheInFlightRequest() throws Exception {
+        IdempotencyStore<String> store = this.store(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<IdempotencyStore.Result<String>> first = executor.submit(() -> store.execute("key", PAYLOAD, () -> {
+            started.countDown();
+            this.await(release);
+            return "created-" + executions.incrementAndGet();
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<IdempotencyStore.Result<String>> duplicate = executor.submit(() ->
+                store.execute("key", PAYLOAD, () -> "created-" + executions.incrementAndGet()));
+
+        Thread.sleep(100);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyStore.Result<>("created-1", false));
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyStore.Result<>("created-1", true));
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void duplicateGivesUpWhenTheInFlightRequestTakesTooLong() throws Exception {
+        IdempotencyStore<String> store = this.store(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<IdempotencyStore.Result<String>> first = executor.submit(() -> store.execute("key", PAYLOAD, () -> {
+            started.countDown();
+            this.await(release);
+            return "created";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> store.execute("key", PAYLOAD, () -> "duplicate"))
+                .isInstanceOf(IdempotencyConflictException.class)
+                .hasMessageContaining("still in progress");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).value()).isEqualTo("created");
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() {
+        IdempotencyStore<String> store = this.store(Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> store.execute("key", PAYLOAD, () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(store.size()).isZero();
+
+        IdempotencyStore.Result<String> retry = store.execute("key", PAYLOAD, () -> "created-" + executions.incrementAndGet());
+
+        assertThat(retry).isEqualTo(new IdempotencyStore.Result<>("created-2", false));
+    }
+
+    private IdempotencyStore<String> store(Duration wait) {
+        return new IdempotencyStore<>(Duration.ofMinutes(10), wait, 100);
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.educatech.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTests {
+    private static final long SECOND = 1_000_000_000L;
+    private static final long START = 5 * SECOND;
+
+    @Test
+    void newBucketAdmitsAFullBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, START);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(START)).isZero();
+        }
+        assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND / 2);
+        assertThat(bucket.isFull(START)).isFalse();
+    }
+
+    @Test
+    void rejectionDoesNotConsumeTokens() {
+        TokenBucket bucket = new TokenBucket(1, 1, START);
+        bucket.tryAcquire(START);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryAcquire(START)).isEqualTo(SECOND);
+        }
+        assertThat(bucket.tryAcquire(START + SECOND)).isZero();
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(10, 2, START);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(START);
+        }
+
+        assertThat(bucket.tryAcquire(START + SECOND / 2 - 1)).isEqualTo(1);
+        assertThat(bucket.tryAcquire(START + SECOND / 2)).isZero();
+        assertThat(bucket.tryAcquire(START + SECOND / 2)).isEqualTo(SECOND / 2);
+        // tres segundos después hay seis tokens más, no una ráfaga completa
+        long later = START + SECOND / 2 + 3 * SECOND;
+        for (int i = 0; i < 6; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isPositive();
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToItsCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1, START);
+        bucket.tryAcquire(START);
+
+        long later = START + 3600 * SECOND;
+        assertThat(bucket.isFull(later)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryAcquire(later)).isZero();
+        }
+        assertThat(bucket.tryAcquire(later)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 1, START);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                executor.execute(() -> {
+                    try {
+                        ready.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 1000; i++) {
+                        if (bucket.tryAcquire(START) == 0) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            ready.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(admitted).hasValue(100);
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(1, 0, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,81 @@
+package com.educatech.util;
+
+import com.educatech.enums.Role;
+import com.educatech.exception.InvalidTokenException;
+import com.educatech.util.AccessTokenCodec.AccessToken;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTests {
+    private static final Instant NOW = Instant.parse("2024-03-01T10:20:00Z");
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void validTokenIsVerifiedOnce() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        Function<String, AccessToken> verifier = this.verifier(NOW.plusSeconds(900));
+
+        AccessToken first = cache.verify("token", NOW, verifier);
+        AccessToken second = cache.verify("token", NOW.plusSeconds(60), verifier);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(verifications).hasValue(1);
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntryIsVerifiedAgain() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        Instant expiresAt = NOW.plusSeconds(900);
+        cache.verify("token", NOW, this.verifier(expiresAt));
+
+        assertThatThrownBy(() -> cache.verify("token", expiresAt, token -> {
+            verifications.incrementAndGet();
+            throw new InvalidTokenException("Token has expired");
+        })).isInstanceOf(InvalidTokenException.class);
+        assertThat(verifications).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void rejectedTokenIsNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        Function<String, AccessToken> rejecting = token -> {
+            verifications.incrementAndGet();
+            throw new InvalidTokenException("Invalid token signature");
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> cache.verify("tampered", NOW, rejecting)).isInstanceOf(InvalidTokenException.class);
+        }
+        assertThat(verifications).hasValue(3);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void sizeStaysWithinTheLimit() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        Function<String, AccessToken> verifier = this.verifier(NOW.plusSeconds(900));
+
+        for (int i = 0; i < 100; i++) {
+            cache.verify("token-" + i, NOW, verifier);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(10);
+    }
+
+    private Function<String, AccessToken> verifier(Instant expiresAt) {
+        return token -> {
+            verifications.incrementAndGet();
+            return new AccessToken(42, Role.STUDENT, expiresAt);
+        };
+    }
+}